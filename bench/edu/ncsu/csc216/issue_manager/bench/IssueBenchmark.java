@@ -0,0 +1,309 @@
+package edu.ncsu.csc216.issue_manager.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import edu.ncsu.csc216.issue_manager.model.command.Command;
+import edu.ncsu.csc216.issue_manager.model.command.Command.CommandValue;
+import edu.ncsu.csc216.issue_manager.model.command.Command.Resolution;
+import edu.ncsu.csc216.issue_manager.model.io.IssueReader;
+import edu.ncsu.csc216.issue_manager.model.io.IssueWriter;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+import edu.ncsu.csc216.issue_manager.model.manager.IssueList;
+import edu.ncsu.csc216.issue_manager.model.manager.IssueManager;
+
+/**
+ * Benchmarks loading, saving, lookup and command execution of issue lists built
+ * from generated issue files. For each list size the benchmark generates a file
+ * with IssueFileGenerator and then times each operation: a warm-up phase runs
+ * the operation until WARMUP_NANOS have passed, and a measured phase runs it
+ * until MEASURE_NANOS have passed. Each result reports the average time and the
+ * average bytes allocated by the benchmark thread per operation.
+ *
+ * Commands executed through IssueManager are also measured with each number of
+ * threads in THREAD_COUNTS. Each thread runs the Working cycle on its own share
+ * of the Working bugs, and the result reports the wall time per command over
+ * all threads, so it falls as commands scale with the threads. The threads can
+ * only scale up to the number of processors.
+ *
+ * Usage: IssueBenchmark [size...] where the default sizes are 1000, 10000,
+ * 100000 and 1000000. Sizes of 10000000 need a heap of several gigabytes.
+ *
+ * @author Michael Warstler
+ */
+public class IssueBenchmark {
+
+	/** Default numbers of issues to benchmark */
+	private static final int[] DEFAULT_SIZES = { 1000, 10000, 100000, 1000000 };
+	/** Time spent running an operation before it is measured */
+	private static final long WARMUP_NANOS = 1000000000L;
+	/** Time spent measuring an operation */
+	private static final long MEASURE_NANOS = 2000000000L;
+	/** Seed of generated files and random lookups */
+	private static final long SEED = 216;
+	/** Numbers of threads the concurrent command benchmark runs with */
+	private static final int[] THREAD_COUNTS = { 1, 2, 4, 8 };
+
+	/** Commands that move a confirmed, owned bug from Working back to Working */
+	private static final Command[] WORKING_CYCLE = {
+			new Command(CommandValue.RESOLVE, null, Resolution.FIXED, "Resolving."),
+			new Command(CommandValue.VERIFY, null, null, "Verifying."),
+			new Command(CommandValue.REOPEN, null, null, "Reopening.") };
+
+	/** Thread bean used to read the bytes allocated by the benchmark thread */
+	private static final com.sun.management.ThreadMXBean THREADS =
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	/** Results of the operations are kept here so they cannot be optimized away */
+	private static volatile Object sink;
+
+	/**
+	 * An operation to benchmark.
+	 */
+	private interface Operation {
+
+		/**
+		 * Runs the operation once.
+		 *
+		 * @param i is the number of times the operation has already run.
+		 * @return is the result of the operation.
+		 * @throws Exception if the operation fails.
+		 */
+		Object run(long i) throws Exception;
+	}
+
+	/**
+	 * Runs every benchmark for each size given on the command line.
+	 *
+	 * @param args are the numbers of issues to benchmark.
+	 * @throws IOException if a generated file cannot be written.
+	 */
+	public static void main(String[] args) throws IOException {
+		int[] sizes = DEFAULT_SIZES;
+		if (args.length > 0) {
+			sizes = new int[args.length];
+			for (int i = 0; i < args.length; i++) {
+				sizes[i] = Integer.parseInt(args[i]);
+			}
+		}
+		THREADS.setThreadAllocatedMemoryEnabled(true);
+
+		System.out.printf("%-22s %10s %10s %16s %16s%n", "Benchmark", "Issues", "Ops", "ns/op", "bytes/op");
+		for (int size : sizes) {
+			benchmarkSize(size);
+		}
+	}
+
+	/**
+	 * Runs every benchmark against a generated file of the given number of issues.
+	 *
+	 * @param size is the number of issues.
+	 * @throws IOException if the generated file cannot be written.
+	 */
+	private static void benchmarkSize(int size) throws IOException {
+		File input = File.createTempFile("issues-" + size + "-", ".txt");
+		File output = File.createTempFile("issues-" + size + "-out-", ".txt");
+		try {
+			IssueFileGenerator.generate(input.getPath(), size, SEED);
+			ArrayList<Issue> issues = IssueReader.readIssuesFromFile(input.getPath());
+			IssueList issueList = new IssueList();
+			issueList.addIssues(issues);
+			Random random = new Random(SEED);
+
+			measure("readIssuesFromFile", size, i -> IssueReader.readIssuesFromFile(input.getPath()));
+			measure("writeIssuesToFile", size, i -> {
+				IssueWriter.writeIssuesToFile(output.getPath(), issues);
+				return output;
+			});
+			measure("addIssues", size, i -> {
+				IssueList list = new IssueList();
+				list.addIssues(issues);
+				return list;
+			});
+			measure("getIssueById", size, i -> issueList.getIssueById(1 + random.nextInt(size)));
+			measure("getIssuesByType", size, i -> issueList.getIssuesByType(i % 2 == 0 ? "Bug" : "Enhancement"));
+
+			// Only confirmed bugs with an owner can repeat the Working cycle.
+			int[] working = workingBugIds(issueList);
+
+			IssueManager manager = IssueManager.getInstance();
+			manager.loadIssuesFromFile(input.getPath());
+			measure("getIssueListAsArray", size, i -> manager.getIssueListAsArray());
+			for (int threads : THREAD_COUNTS) {
+				if (working.length >= threads) {
+					measureConcurrent("executeCommand/" + threads + "t", size, threads, manager, working);
+				}
+			}
+			manager.createNewIssueList();
+
+			if (working.length > 0) {
+				measure("executeCommand", size, i -> {
+					int id = working[(int) (i % working.length)];
+					issueList.executeCommand(id, WORKING_CYCLE[(int) (i / working.length % WORKING_CYCLE.length)]);
+					return issueList;
+				});
+
+				// Bring every bug back to Working, where the cycle starts.
+				for (int id : working) {
+					String state = issueList.getIssueById(id).getStateName();
+					if (Issue.VERIFYING_NAME.equals(state)) {
+						issueList.executeCommand(id, WORKING_CYCLE[1]);
+						state = issueList.getIssueById(id).getStateName();
+					}
+					if (Issue.CLOSED_NAME.equals(state)) {
+						issueList.executeCommand(id, WORKING_CYCLE[2]);
+					}
+				}
+
+				// One batch moves every Working bug one step around the cycle.
+				Command[][] steps = new Command[WORKING_CYCLE.length][working.length];
+				for (int step = 0; step < steps.length; step++) {
+					Arrays.fill(steps[step], WORKING_CYCLE[step]);
+				}
+				measure("executeCommands/" + working.length, size,
+						i -> issueList.executeCommands(working, steps[(int) (i % steps.length)]));
+			}
+		} finally {
+			input.delete();
+			output.delete();
+		}
+	}
+
+	/**
+	 * Gets the ids of the Working bugs in a list.
+	 *
+	 * @param issueList to search.
+	 * @return is the ids of the Working bugs.
+	 */
+	private static int[] workingBugIds(IssueList issueList) {
+		ArrayList<Issue> working = issueList.getIssuesByState("Working");
+		int count = 0;
+		int[] ids = new int[working.size()];
+		for (int i = 0; i < working.size(); i++) {
+			if (Issue.I_BUG.equals(working.get(i).getIssueType())) {
+				ids[count++] = working.get(i).getIssueId();
+			}
+		}
+		int[] bugs = new int[count];
+		System.arraycopy(ids, 0, bugs, 0, count);
+		return bugs;
+	}
+
+	/**
+	 * Warms up and measures commands executed through an IssueManager by several
+	 * threads at once, and prints the result. Thread t runs the Working cycle on
+	 * every ids[i] with i % threads == t, one whole cycle at a time, so every bug
+	 * is back in Working when the threads stop. The time per command is the wall
+	 * time of the measured phase divided by the commands of every thread, and the
+	 * bytes per command are those allocated by all the threads.
+	 *
+	 * @param name    is the name of the benchmark.
+	 * @param size    is the number of issues.
+	 * @param threads is the number of threads.
+	 * @param manager holds the issues, every one of ids in Working.
+	 * @param ids     are the ids of the Working bugs.
+	 */
+	private static void measureConcurrent(String name, int size, int threads, IssueManager manager, int[] ids) {
+		long measureStart = System.nanoTime() + WARMUP_NANOS;
+		long measureEnd = measureStart + MEASURE_NANOS;
+		long[] ops = new long[threads];
+		long[] bytes = new long[threads];
+		long[] ends = new long[threads];
+		Throwable[] failures = new Throwable[threads];
+		Thread[] workers = new Thread[threads];
+		for (int t = 0; t < threads; t++) {
+			int thread = t;
+			workers[t] = new Thread(() -> {
+				int[] mine = new int[(ids.length - thread + threads - 1) / threads];
+				for (int i = 0; i < mine.length; i++) {
+					mine[i] = ids[thread + i * threads];
+				}
+				try {
+					boolean measuring = false;
+					long now = System.nanoTime();
+					while (now < measureEnd) {
+						if (!measuring && now >= measureStart) {
+							measuring = true;
+							bytes[thread] = THREADS.getCurrentThreadAllocatedBytes();
+						}
+						for (Command command : WORKING_CYCLE) {
+							for (int id : mine) {
+								manager.executeCommand(id, command);
+							}
+						}
+						if (measuring) {
+							ops[thread] += (long) WORKING_CYCLE.length * mine.length;
+						}
+						now = System.nanoTime();
+					}
+					ends[thread] = now;
+					bytes[thread] = THREADS.getCurrentThreadAllocatedBytes() - bytes[thread];
+				} catch (RuntimeException e) {
+					failures[thread] = e;
+				}
+			});
+			workers[t].start();
+		}
+
+		long totalOps = 0;
+		long totalBytes = 0;
+		long lastEnd = measureStart;
+		try {
+			for (int t = 0; t < threads; t++) {
+				workers[t].join();
+				if (failures[t] != null) {
+					System.out.printf("%-22s %10d failed: %s%n", name, size, failures[t]);
+					return;
+				}
+				totalOps += ops[t];
+				totalBytes += bytes[t];
+				lastEnd = Math.max(lastEnd, ends[t]);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+		if (totalOps == 0) {
+			System.out.printf("%-22s %10d failed: %s%n", name, size, "no whole cycle in the measured time");
+			return;
+		}
+		System.out.printf("%-22s %10d %10d %16.1f %16d%n", name, size, totalOps,
+				(double) (lastEnd - measureStart) / totalOps, totalBytes / totalOps);
+	}
+
+	/**
+	 * Warms up and measures one operation and prints the result.
+	 *
+	 * @param name      is the name of the benchmark.
+	 * @param size      is the number of issues.
+	 * @param operation is the operation to measure.
+	 */
+	private static void measure(String name, int size, Operation operation) {
+		try {
+			long i = 0;
+			long end = System.nanoTime() + WARMUP_NANOS;
+			while (System.nanoTime() < end) {
+				sink = operation.run(i++);
+			}
+
+			long ops = 0;
+			long bytes = THREADS.getCurrentThreadAllocatedBytes();
+			long start = System.nanoTime();
+			long elapsed = 0;
+			while (elapsed < MEASURE_NANOS) {
+				sink = operation.run(i++);
+				ops++;
+				elapsed = System.nanoTime() - start;
+			}
+			bytes = THREADS.getCurrentThreadAllocatedBytes() - bytes;
+
+			System.out.printf("%-22s %10d %10d %16.1f %16d%n", name, size, ops, (double) elapsed / ops, bytes / ops);
+		} catch (Exception e) {
+			System.out.printf("%-22s %10d failed: %s%n", name, size, e);
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package edu.ncsu.csc216.issue_manager.bench;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * Generates synthetic issue files in the format read by IssueReader. Each issue
+ * is given one of a fixed set of valid field combinations, an owner from a small
+ * pool and one to three notes, so that generated files exercise every state,
+ * issue type and resolution. The same seed always produces the same file.
+ *
+ * @author Michael Warstler
+ */
+public class IssueFileGenerator {
+
+	/** Valid combinations of state, type, owner, confirmed and resolution */
+	private static final String[][] TEMPLATES = {
+			{ "New", "Bug", null, "false", "" },
+			{ "New", "Enhancement", null, "false", "" },
+			{ "Working", "Bug", "owner", "true", "" },
+			{ "Working", "Enhancement", "owner", "false", "" },
+			{ "Confirmed", "Bug", null, "true", "" },
+			{ "Verifying", "Bug", "owner", "true", "Fixed" },
+			{ "Closed", "Enhancement", "owner", "false", "WontFix" },
+			{ "Closed", "Bug", "owner", "true", "WorksForMe" } };
+	/** Number of distinct owners assigned to generated issues */
+	private static final int OWNERS = 64;
+
+	/**
+	 * Writes a file of generated issues with ids 1 to count.
+	 *
+	 * @param fileName is the file to write.
+	 * @param count    is the number of issues to generate.
+	 * @param seed     is the seed of the random choices.
+	 * @throws IOException if the file cannot be written.
+	 */
+	public static void generate(String fileName, int count, long seed) throws IOException {
+		Random random = new Random(seed);
+		try (Writer writer = Files.newBufferedWriter(Paths.get(fileName), StandardCharsets.UTF_8)) {
+			for (int id = 1; id <= count; id++) {
+				String[] template = TEMPLATES[random.nextInt(TEMPLATES.length)];
+				String owner = template[2] == null ? "" : template[2] + random.nextInt(OWNERS);
+				writer.write("*" + id + "," + template[0] + "," + template[1] + ",Summary of issue " + id + ","
+						+ owner + "," + template[3] + "," + template[4] + "\n");
+
+				int notes = 1 + random.nextInt(3);
+				for (int i = 0; i < notes; i++) {
+					writer.write("-[" + template[0] + "] Note " + i + " for issue " + id + "\n");
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes a generated issue file from the command line.
+	 *
+	 * @param args are the file name, the number of issues and an optional seed.
+	 * @throws IOException if the file cannot be written.
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Usage: IssueFileGenerator <file> <count> [seed]");
+			System.exit(1);
+		}
+		long seed = args.length > 2 ? Long.parseLong(args[2]) : 216;
+		generate(args[0], Integer.parseInt(args[1]), seed);
+	}
+}
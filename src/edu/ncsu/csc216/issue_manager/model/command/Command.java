@@ -6,6 +6,10 @@ package edu.ncsu.csc216.issue_manager.model.command;
  * cause transitions due to a small number of predefined constant values. Class
  * fields include Command ownerId, note, command value, and resolution. 
  * 
+ * The command value and resolution can also be packed into one int code, so
+ * that hot paths such as log replay can pass a command to an Issue as a code,
+ * an owner and a note without creating a Command for each one.
+ * 
  * @author Michael Warstler
  */
 public class Command {
@@ -19,6 +23,11 @@ public class Command {
 	/** String representation of resolution WORKSFORME */
 	public static final String R_WORKSFORME = "WorksForMe";
 
+	/** Number of resolution slots in a code: none, then one for each resolution */
+	private static final int RESOLUTION_SLOTS = Resolution.values().length + 1;
+	/** Number of distinct command codes, which run from 0 to CODE_COUNT - 1 */
+	public static final int CODE_COUNT = CommandValue.values().length * RESOLUTION_SLOTS;
+
 	/** Owner's Id */
 	private String ownerId;
 	/** Issue notes */
@@ -27,6 +36,8 @@ public class Command {
 	private CommandValue c;
 	/** Command resolution */
 	private Resolution r;
+	/** Command value and resolution packed by encode() */
+	private int code;
 
 	/**
 	 * Enumeration type for possible commands to designate to an issue. Possible
@@ -64,6 +75,11 @@ public class Command {
 		WORKSFORME
 	}
 
+	/** Every command value, indexed by ordinal */
+	private static final CommandValue[] COMMAND_VALUES = CommandValue.values();
+	/** Every resolution, indexed by ordinal */
+	private static final Resolution[] RESOLUTIONS = Resolution.values();
+
 	/**
 	 * Constructs a Command object with a given command value, ownerId, resolution,
 	 * and note. Not all parameters are required (some can be null or ignored).
@@ -103,6 +119,71 @@ public class Command {
 		this.note = note;
 		this.c = c;
 		this.r = r;
+		this.code = encode(c, r);
+	}
+
+	/**
+	 * Packs a command value and resolution into one code. The code is the command
+	 * value ordinal times the number of resolution slots, plus 0 for no resolution
+	 * or the resolution ordinal plus one.
+	 * 
+	 * @param c is the command value.
+	 * @param r is the resolution, or null for none.
+	 * @return is the code, from 0 to CODE_COUNT - 1.
+	 * @throws IllegalArgumentException if c is null, or c is RESOLVE and r is
+	 *                                  null.
+	 */
+	public static int encode(CommandValue c, Resolution r) {
+		if (c == null || c == CommandValue.RESOLVE && r == null) {
+			throw new IllegalArgumentException("Invalid information.");
+		}
+		return c.ordinal() * RESOLUTION_SLOTS + (r == null ? 0 : r.ordinal() + 1);
+	}
+
+	/**
+	 * Gets the command value packed in a code.
+	 * 
+	 * @param code is a code made by encode().
+	 * @return is the command value.
+	 * @throws IllegalArgumentException if the code is out of range.
+	 */
+	public static CommandValue commandValueOf(int code) {
+		checkCode(code);
+		return COMMAND_VALUES[code / RESOLUTION_SLOTS];
+	}
+
+	/**
+	 * Gets the resolution packed in a code.
+	 * 
+	 * @param code is a code made by encode().
+	 * @return is the resolution, or null if the code has none.
+	 * @throws IllegalArgumentException if the code is out of range.
+	 */
+	public static Resolution resolutionOf(int code) {
+		checkCode(code);
+		int slot = code % RESOLUTION_SLOTS;
+		return slot == 0 ? null : RESOLUTIONS[slot - 1];
+	}
+
+	/**
+	 * Checks that a code could have been made by encode().
+	 * 
+	 * @param code to check.
+	 * @throws IllegalArgumentException if the code is out of range.
+	 */
+	private static void checkCode(int code) {
+		if (code < 0 || code >= CODE_COUNT) {
+			throw new IllegalArgumentException("Invalid information.");
+		}
+	}
+
+	/**
+	 * Returns the command value and resolution of this command packed into a code.
+	 * 
+	 * @return is the code made by encode().
+	 */
+	public int getCode() {
+		return code;
 	}
 
 	/**
@@ -0,0 +1,566 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import edu.ncsu.csc216.issue_manager.model.command.Command.Resolution;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueState;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueType;
+import edu.ncsu.csc216.issue_manager.model.issue.NoteArena;
+
+/**
+ * Encodes and decodes the binary issue file format. A binary file is laid out
+ * as follows, with every number big-endian unless it is a varint:
+ *
+ * header: the four MAGIC bytes and an int VERSION.
+ * records: one per issue, each a varint length followed by that many bytes
+ * holding the varint id, the state, type and resolution ordinals as single
+ * bytes (resolution is stored as ordinal + 1, with 0 for none), a flags byte,
+ * the summary, the owner and the notes. Strings are a varint length followed by
+ * UTF-8 bytes. The owner length is stored plus one, with 0 for no owner. Notes
+ * are a varint count followed by each note.
+ * index: for each issue in id order, an int id and the long file offset of its
+ * record.
+ * footer: the long offset of the index, the int number of index entries and
+ * the MAGIC bytes again.
+ *
+ * Since the index is sorted and fixed width, a single issue can be found with a
+ * binary search of the index and read without decoding any other record.
+ *
+ * @author Michael Warstler
+ */
+class IssueBinaryFormat {
+
+	/** First bytes of a binary issue file (0x89 cannot start a text file) */
+	static final byte[] MAGIC = { (byte) 0x89, 'I', 'S', 'B' };
+	/** Version of the binary format */
+	static final int VERSION = 1;
+	/** Size of the header: magic and version */
+	private static final int HEADER_SIZE = 4 + 4;
+	/** Size of one index entry: id and offset */
+	private static final int INDEX_ENTRY_SIZE = 4 + 8;
+	/** Size of the footer: index offset, entry count and magic */
+	private static final int FOOTER_SIZE = 8 + 4 + 4;
+	/** Largest number of bytes in an encoded varint */
+	private static final int MAX_VARINT_SIZE = 5;
+	/** Size of the buffer used when streaming records */
+	private static final int BUFFER_SIZE = 64 * 1024;
+	/** Flag bit set for a confirmed issue */
+	private static final int CONFIRMED_FLAG = 0x01;
+
+	/** States by ordinal */
+	private static final IssueState[] STATES = IssueState.values();
+	/** Issue types by ordinal */
+	private static final IssueType[] ISSUE_TYPES = IssueType.values();
+	/** Resolutions by ordinal */
+	private static final Resolution[] RESOLUTIONS = Resolution.values();
+
+	/**
+	 * Tells whether an open file starts with the binary MAGIC bytes.
+	 *
+	 * @param channel of the file.
+	 * @return is true if the file is a binary issue file.
+	 * @throws IOException if the file cannot be read.
+	 */
+	static boolean isBinary(FileChannel channel) throws IOException {
+		ByteBuffer start = ByteBuffer.allocate(MAGIC.length);
+		while (start.hasRemaining() && channel.read(start, start.position()) > 0) {
+			// Keep reading until the magic bytes are in or the file ends.
+		}
+		return !start.hasRemaining() && Arrays.equals(start.array(), MAGIC);
+	}
+
+	/**
+	 * Writes issues in the binary format.
+	 *
+	 * @param out    is the stream to write to.
+	 * @param issues are the issues to write.
+	 * @throws IOException if the issues cannot be written.
+	 */
+	static void write(OutputStream out, List<Issue> issues) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).put(MAGIC).putInt(VERSION);
+		out.write(header.array());
+
+		// Each index key packs the id above the position in issues, so sorting the
+		// keys sorts the positions by id.
+		long[] keys = new long[issues.size()];
+		long[] offsets = new long[issues.size()];
+		long offset = HEADER_SIZE;
+		ByteArrayOutputStream record = new ByteArrayOutputStream();
+		byte[] length = new byte[MAX_VARINT_SIZE];
+		for (int i = 0; i < issues.size(); i++) {
+			Issue issue = issues.get(i);
+			record.reset();
+			encode(record, issue);
+			int lengthSize = putVarint(length, record.size());
+			out.write(length, 0, lengthSize);
+			record.writeTo(out);
+
+			keys[i] = ((long) issue.getIssueId() << 32) | i;
+			offsets[i] = offset;
+			offset += lengthSize + record.size();
+		}
+
+		Arrays.sort(keys);
+		ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY_SIZE);
+		for (long key : keys) {
+			entry.clear();
+			entry.putInt((int) (key >>> 32)).putLong(offsets[(int) key]);
+			out.write(entry.array());
+		}
+
+		ByteBuffer footer = ByteBuffer.allocate(FOOTER_SIZE).putLong(offset).putInt(keys.length).put(MAGIC);
+		out.write(footer.array());
+	}
+
+	/**
+	 * Reads every issue of a binary file in file order.
+	 *
+	 * @param channel      of the binary file.
+	 * @param issueHandler receives each issue.
+	 * @param pool         shares repeated owners and summaries.
+	 * @param arena        receives the notes of the issues.
+	 * @throws IOException if the file is not a valid binary issue file.
+	 */
+	static void read(FileChannel channel, Consumer<Issue> issueHandler, IssueStringPool pool, NoteArena arena)
+			throws IOException {
+		long indexOffset = readFooter(channel).getLong();
+		channel.position(HEADER_SIZE);
+		// The stream is not closed here because that would close the channel.
+		InputStream in = new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE);
+		DataInputStream data = new DataInputStream(in);
+		byte[] record = new byte[256];
+		long position = HEADER_SIZE;
+		while (position < indexOffset) {
+			int length = readVarint(data);
+			if (length < 0 || length > indexOffset - position) {
+				throw new IOException("Invalid record length");
+			}
+			if (length > record.length) {
+				record = new byte[Math.max(length, record.length * 2)];
+			}
+			data.readFully(record, 0, length);
+			issueHandler.accept(decode(ByteBuffer.wrap(record, 0, length), pool, arena, null, 0));
+			position += varintSize(length) + length;
+		}
+		if (position != indexOffset) {
+			throw new IOException("Records overrun the index");
+		}
+	}
+
+	/**
+	 * Reads every issue of a binary file in file order, leaving the notes in the
+	 * mapped file. Each issue gets its notes from the loader, which is shared by
+	 * the whole file.
+	 *
+	 * @param channel      of the binary file.
+	 * @param issueHandler receives each issue.
+	 * @param pool         shares repeated owners and summaries.
+	 * @param loader       is the note loader mapping the same file.
+	 * @throws IOException if the file is not a valid binary issue file.
+	 */
+	static void readLazily(FileChannel channel, Consumer<Issue> issueHandler, IssueStringPool pool,
+			IssueNoteLoader loader) throws IOException {
+		long indexOffset = readFooter(channel).getLong();
+		long position = HEADER_SIZE;
+		while (position < indexOffset) {
+			ByteBuffer record = loader.at(position);
+			int length = getVarint(record);
+			if (length < 0 || record.position() + (long) length > record.limit()
+					|| position + length > indexOffset) {
+				throw new IOException("Invalid record length");
+			}
+			record.limit(record.position() + length);
+			issueHandler.accept(decode(record, pool, null, loader, IssueNoteLoader.regionBase(position)));
+			position += varintSize(length) + length;
+		}
+	}
+
+	/**
+	 * Reads one issue from a binary file by searching its index.
+	 *
+	 * @param channel of the binary file.
+	 * @param id      of the issue to read.
+	 * @param pool    shares repeated owners and summaries.
+	 * @param arena   receives the notes of the issue.
+	 * @return is the issue, or null if the file has no issue with the id.
+	 * @throws IOException if the file is not a valid binary issue file.
+	 */
+	static Issue readIssue(FileChannel channel, int id, IssueStringPool pool, NoteArena arena) throws IOException {
+		ByteBuffer footer = readFooter(channel);
+		long indexOffset = footer.getLong();
+		int count = footer.getInt();
+
+		ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY_SIZE);
+		int low = 0;
+		int high = count - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			readFully(channel, entry, indexOffset + (long) middle * INDEX_ENTRY_SIZE);
+			int middleId = entry.getInt();
+			if (middleId < id) {
+				low = middle + 1;
+			} else if (middleId > id) {
+				high = middle - 1;
+			} else {
+				return readRecord(channel, entry.getLong(), pool, arena);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Reads and decodes the record at an offset.
+	 *
+	 * @param channel of the binary file.
+	 * @param offset  of the record's length.
+	 * @param pool    shares repeated owners and summaries.
+	 * @param arena   receives the notes of the issue.
+	 * @return is the issue of the record.
+	 * @throws IOException if the record cannot be read.
+	 */
+	private static Issue readRecord(FileChannel channel, long offset, IssueStringPool pool, NoteArena arena)
+			throws IOException {
+		ByteBuffer lengthBytes = ByteBuffer.allocate(MAX_VARINT_SIZE);
+		channel.read(lengthBytes, offset);
+		lengthBytes.flip();
+		int length = getVarint(lengthBytes);
+		ByteBuffer record = ByteBuffer.allocate(length);
+		readFully(channel, record, offset + lengthBytes.position());
+		return decode(record, pool, arena, null, 0);
+	}
+
+	/**
+	 * Reads and checks the footer of a binary file.
+	 *
+	 * @param channel of the binary file.
+	 * @return is the footer, positioned at the index offset.
+	 * @throws IOException if the footer is missing or invalid.
+	 */
+	private static ByteBuffer readFooter(FileChannel channel) throws IOException {
+		long size = channel.size();
+		if (size < HEADER_SIZE + FOOTER_SIZE) {
+			throw new IOException("File too short");
+		}
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		readFully(channel, header, 0);
+		header.position(MAGIC.length);
+		if (header.getInt() != VERSION) {
+			throw new IOException("Unsupported version");
+		}
+
+		ByteBuffer footer = ByteBuffer.allocate(FOOTER_SIZE);
+		readFully(channel, footer, size - FOOTER_SIZE);
+		long indexOffset = footer.getLong();
+		int count = footer.getInt();
+		byte[] magic = new byte[MAGIC.length];
+		footer.get(magic);
+		if (!Arrays.equals(magic, MAGIC) || count < 0 || indexOffset < HEADER_SIZE
+				|| indexOffset + (long) count * INDEX_ENTRY_SIZE != size - FOOTER_SIZE) {
+			throw new IOException("Invalid footer");
+		}
+		footer.position(0);
+		return footer;
+	}
+
+	/**
+	 * Encodes the fields of an issue as a record body.
+	 *
+	 * @param out   is the stream to write to.
+	 * @param issue to encode.
+	 */
+	private static void encode(ByteArrayOutputStream out, Issue issue) {
+		writeVarint(out, issue.getIssueId());
+		out.write(issue.getState().ordinal());
+		out.write(issue.getIssueTypeValue().ordinal());
+		Resolution resolution = issue.getResolutionValue();
+		out.write(resolution == null ? 0 : resolution.ordinal() + 1);
+		out.write(issue.isConfirmed() ? CONFIRMED_FLAG : 0);
+		writeString(out, issue.getSummary());
+
+		String owner = issue.getOwner();
+		if (owner == null) {
+			writeVarint(out, 0);
+		} else {
+			byte[] bytes = owner.getBytes(StandardCharsets.UTF_8);
+			writeVarint(out, bytes.length + 1);
+			out.write(bytes, 0, bytes.length);
+		}
+
+		ArrayList<String> notes = issue.getNotes();
+		writeVarint(out, notes.size());
+		for (int i = 0; i < notes.size(); i++) {
+			writeString(out, notes.get(i));
+		}
+	}
+
+	/**
+	 * Decodes a record body into an issue.
+	 *
+	 * @param record is the record body.
+	 * @param pool   shares repeated owners and summaries.
+	 * @param arena  receives the decoded notes, or is null when a loader is given.
+	 * @param loader holds the notes of the issue, or null to decode the notes.
+	 * @param base   is the file offset of index 0 of record.
+	 * @return is the decoded issue.
+	 * @throws IllegalArgumentException if the record does not hold a valid issue.
+	 */
+	private static Issue decode(ByteBuffer record, IssueStringPool pool, NoteArena arena, IssueNoteLoader loader,
+			long base) {
+		try {
+			return decodeFields(record, pool, arena, loader, base);
+		} catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+			throw new IllegalArgumentException("Issue cannot be created.");
+		}
+	}
+
+	/**
+	 * Decodes the fields of a record body, in the order encode() writes them.
+	 * When a loader is given the notes are only checked, and the issue is given
+	 * their file offset as its note handle instead.
+	 *
+	 * @param record is the record body.
+	 * @param pool   shares repeated owners and summaries.
+	 * @param arena  receives the decoded notes, or is null when a loader is given.
+	 * @param loader holds the notes of the issue, or null to decode the notes.
+	 * @param base   is the file offset of index 0 of record.
+	 * @return is the decoded issue.
+	 * @throws IllegalArgumentException if the record does not hold a valid issue.
+	 */
+	private static Issue decodeFields(ByteBuffer record, IssueStringPool pool, NoteArena arena, IssueNoteLoader loader,
+			long base) {
+		int id = getVarint(record);
+		IssueState state = STATES[record.get()];
+		IssueType issueType = ISSUE_TYPES[record.get()];
+		int resolutionCode = record.get();
+		Resolution resolution = resolutionCode == 0 ? null : RESOLUTIONS[resolutionCode - 1];
+		boolean confirmed = (record.get() & CONFIRMED_FLAG) != 0;
+		String summary = pool.intern(getString(record, getVarint(record)));
+
+		int ownerLength = getVarint(record);
+		String owner = ownerLength == 0 ? null : pool.intern(getString(record, ownerLength - 1));
+
+		if (loader != null) {
+			long noteHandle = base + record.position();
+			skipNotes(record);
+			return new Issue(id, state, issueType, summary, owner, confirmed, resolution, loader, noteHandle);
+		}
+
+		int noteCount = getVarint(record);
+		if (noteCount < 0 || noteCount > record.remaining()) {
+			throw new IllegalArgumentException("Issue cannot be created.");
+		}
+		ArrayList<String> notes = new ArrayList<String>(noteCount);
+		for (int i = 0; i < noteCount; i++) {
+			notes.add(getString(record, getVarint(record)));
+		}
+		if (record.hasRemaining()) {
+			throw new IllegalArgumentException("Issue cannot be created.");
+		}
+		return new Issue(id, state, issueType, summary, owner, confirmed, resolution, notes, arena);
+	}
+
+	/**
+	 * Decodes the notes of a record.
+	 *
+	 * @param buffer is positioned at the note count of a record.
+	 * @return is the notes.
+	 * @throws IllegalArgumentException if the notes cannot be decoded.
+	 */
+	static String[] decodeNotes(ByteBuffer buffer) {
+		try {
+			int noteCount = getVarint(buffer);
+			if (noteCount < 0 || noteCount > buffer.remaining()) {
+				throw new IllegalArgumentException("Issue cannot be created.");
+			}
+			String[] notes = new String[noteCount];
+			for (int i = 0; i < notes.length; i++) {
+				notes[i] = getString(buffer, getVarint(buffer));
+			}
+			return notes;
+		} catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+			throw new IllegalArgumentException("Issue cannot be created.");
+		}
+	}
+
+	/**
+	 * Moves past the notes of a record without decoding them, checking that there
+	 * is at least one note, that no note is empty and that the notes end the
+	 * record.
+	 *
+	 * @param record is positioned at the note count of the record.
+	 * @throws IllegalArgumentException if the notes are invalid.
+	 */
+	private static void skipNotes(ByteBuffer record) {
+		int noteCount = getVarint(record);
+		if (noteCount < 1) {
+			throw new IllegalArgumentException("Issue cannot be created.");
+		}
+		for (int i = 0; i < noteCount; i++) {
+			int length = getVarint(record);
+			if (length < 1 || length > record.remaining()) {
+				throw new IllegalArgumentException("Issue cannot be created.");
+			}
+			record.position(record.position() + length);
+		}
+		if (record.hasRemaining()) {
+			throw new IllegalArgumentException("Issue cannot be created.");
+		}
+	}
+
+	/**
+	 * Writes a string as a varint length and UTF-8 bytes.
+	 *
+	 * @param out    is the stream to write to.
+	 * @param string to write.
+	 */
+	private static void writeString(ByteArrayOutputStream out, String string) {
+		byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		writeVarint(out, bytes.length);
+		out.write(bytes, 0, bytes.length);
+	}
+
+	/**
+	 * Reads UTF-8 bytes as a string. The length comes from the file, so it is
+	 * checked before any array is made for it.
+	 *
+	 * @param record is the record being decoded.
+	 * @param length is the number of bytes in the string.
+	 * @return is the string.
+	 * @throws IllegalArgumentException if the length is negative or runs past the
+	 *                                  record.
+	 */
+	private static String getString(ByteBuffer record, int length) {
+		if (length < 0 || length > record.remaining()) {
+			throw new IllegalArgumentException("Issue cannot be created.");
+		}
+		if (!record.hasArray()) {
+			// Mapped buffers are copied out first.
+			byte[] bytes = new byte[length];
+			record.get(bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+		String string = new String(record.array(), record.arrayOffset() + record.position(), length,
+				StandardCharsets.UTF_8);
+		record.position(record.position() + length);
+		return string;
+	}
+
+	/**
+	 * Writes a non-negative int as a varint: seven bits per byte, lowest first,
+	 * with the high bit set on every byte but the last.
+	 *
+	 * @param out   is the stream to write to.
+	 * @param value to write.
+	 */
+	private static void writeVarint(ByteArrayOutputStream out, int value) {
+		while ((value & ~0x7F) != 0) {
+			out.write((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.write(value);
+	}
+
+	/**
+	 * Puts a non-negative int as a varint into an array.
+	 *
+	 * @param bytes is an array of at least MAX_VARINT_SIZE bytes.
+	 * @param value to put.
+	 * @return is the number of bytes used.
+	 */
+	private static int putVarint(byte[] bytes, int value) {
+		int size = 0;
+		while ((value & ~0x7F) != 0) {
+			bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		bytes[size++] = (byte) value;
+		return size;
+	}
+
+	/**
+	 * Gets the number of bytes in the varint of a value.
+	 *
+	 * @param value is a non-negative int.
+	 * @return is the size of its varint.
+	 */
+	private static int varintSize(int value) {
+		int size = 1;
+		while ((value & ~0x7F) != 0) {
+			value >>>= 7;
+			size++;
+		}
+		return size;
+	}
+
+	/**
+	 * Gets a varint from a buffer.
+	 *
+	 * @param buffer to read from.
+	 * @return is the value.
+	 * @throws IllegalArgumentException if the varint is too long or incomplete.
+	 */
+	private static int getVarint(ByteBuffer buffer) {
+		int value = 0;
+		for (int shift = 0; shift < 7 * MAX_VARINT_SIZE && buffer.hasRemaining(); shift += 7) {
+			byte b = buffer.get();
+			value |= (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+		throw new IllegalArgumentException("Issue cannot be created.");
+	}
+
+	/**
+	 * Reads a varint from a stream.
+	 *
+	 * @param in is the stream to read from.
+	 * @return is the value.
+	 * @throws IOException if the varint is too long or the stream ends.
+	 */
+	private static int readVarint(DataInputStream in) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 7 * MAX_VARINT_SIZE; shift += 7) {
+			byte b = in.readByte();
+			value |= (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+		throw new IOException("Varint too long");
+	}
+
+	/**
+	 * Fills a buffer from a position of a file, then flips it for reading.
+	 *
+	 * @param channel  of the file.
+	 * @param buffer   to fill.
+	 * @param position in the file to read from.
+	 * @throws IOException if the file ends first.
+	 */
+	private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		buffer.clear();
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw new EOFException();
+			}
+		}
+		buffer.flip();
+	}
+}
@@ -0,0 +1,755 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+import edu.ncsu.csc216.issue_manager.model.command.Command;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueType;
+
+/**
+ * Append-only log of the changes made to an issue list since it was last saved
+ * to an issue file (the snapshot). Every added issue, deleted issue, executed
+ * command and cleared list is appended as a small binary record and forced to
+ * disk before the change is reported as done. Threads that log at the same time
+ * share one force of the file (group commit).
+ *
+ * The log starts with a header naming the size, modification time and CRC32
+ * of the snapshot it follows. The checksum is the one IssueWriter computed
+ * while saving the snapshot, and a snapshot directory is named by the checksum
+ * of its manifest, so neither a checkpoint nor opening the log reads the
+ * snapshot back. A snapshot is taken to be unchanged when its size and
+ * modification time still match; only one that was touched or copied is read
+ * again to compare its checksum. A log started against an existing snapshot
+ * file that it has no checksum for reads it once. Before a snapshot is saved a CHECKPOINT record is logged, and once it is
+ * saved the log is started again against it. When the log is opened its
+ * records are replayed if the snapshot still matches the header. If it does
+ * not, the log is started again only when its last record is a CHECKPOINT,
+ * which means a crash came between saving the snapshot and starting the log
+ * again, so the snapshot already holds every record. Any other mismatch means
+ * the snapshot was replaced behind the log's back, and opening the log fails
+ * rather than dropping its records. A record
+ * is its payload length, its type, its payload and a CRC32 of type and
+ * payload. Replay stops at the first incomplete or damaged record, which is
+ * where a crash interrupted an append, and the log is cut back to that point.
+ *
+ * An executed command is logged as its code from Command.encode(), its note,
+ * and the number of its owner in a dictionary kept by the log. The first time
+ * an owner is logged after the header, a record adding it to the dictionary is
+ * written ahead of the command. Replay passes the same String for every record
+ * of an owner and creates no Command objects.
+ *
+ * @author Michael Warstler
+ */
+public class IssueCommandLog {
+
+	/** Marks the start of a command log file ("ISLG") */
+	private static final int MAGIC = 0x49534C47;
+	/** Version of the log file format */
+	private static final int VERSION = 3;
+	/**
+	 * Size of the header: magic, version, snapshot size, snapshot modification
+	 * time, snapshot checksum
+	 */
+	private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 8;
+	/** Checksum written for a missing snapshot, which no CRC32 can equal */
+	private static final long NO_SNAPSHOT = -1;
+	/** Size of a record apart from its payload: length, type and CRC32 */
+	private static final int RECORD_OVERHEAD = 4 + 1 + 4;
+	/** Record of an added issue */
+	private static final byte ADD = 1;
+	/** Record of a deleted issue */
+	private static final byte DELETE = 2;
+	/** Record of the issue list being cleared */
+	private static final byte CLEAR = 4;
+	/** Record adding an owner to the owner dictionary */
+	private static final byte OWNER = 5;
+	/** Record of an executed command with its code and owner number */
+	private static final byte EXECUTE_CODE = 6;
+	/** Record of a snapshot about to be saved with every earlier record */
+	private static final byte CHECKPOINT = 7;
+	/** Owner number written for a missing owner */
+	private static final int NO_OWNER = -1;
+	/** Initial size of the buffer that holds one payload during replay */
+	private static final int PAYLOAD_BUFFER_SIZE = 256;
+	/** Length written for a null string */
+	private static final int NULL_LENGTH = -1;
+
+	/**
+	 * Receives the changes read back from a log, in the order they were logged.
+	 */
+	public interface Replayer {
+
+		/**
+		 * Adds a new issue.
+		 *
+		 * @param id        is the id the issue was given when it was logged.
+		 * @param issueType is the type of the issue.
+		 * @param summary   is the summary of the issue.
+		 * @param note      is the first note of the issue.
+		 */
+		void add(int id, IssueType issueType, String summary, String note);
+
+		/**
+		 * Deletes an issue.
+		 *
+		 * @param id of the issue to delete.
+		 */
+		void delete(int id);
+
+		/**
+		 * Executes a command on an issue.
+		 *
+		 * @param id      of the issue.
+		 * @param command is the code of the command made by Command.encode().
+		 * @param ownerId is the owner of the command, or null if it has none.
+		 * @param note    is the note of the command.
+		 */
+		void execute(int id, int command, String ownerId, String note);
+
+		/**
+		 * Removes every issue.
+		 */
+		void clear();
+	}
+
+	/** Channel of the log file */
+	private final FileChannel channel;
+	/** Records appended but not yet written to the channel */
+	private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+	/** Stream used to build one record */
+	private final ByteArrayOutputStream record = new ByteArrayOutputStream();
+	/** Data view of record */
+	private final DataOutputStream recordOut = new DataOutputStream(record);
+	/** Checksum of records */
+	private final CRC32 crc = new CRC32();
+	/** Held while writing pending records and forcing the channel */
+	private final Object syncLock = new Object();
+	/** Number of each owner in the dictionary of the log (guarded by this) */
+	private final HashMap<String, Integer> ownerIds;
+	/** Sequence number of the last record appended (guarded by this) */
+	private long appended;
+	/** Sequence number of the last record forced to disk */
+	private volatile long durable;
+
+	/**
+	 * Creates a log that appends to an open channel.
+	 *
+	 * @param channel of the log file, positioned at the end of its valid records.
+	 * @param owners  are the owners already in the dictionary of the log, in
+	 *                number order.
+	 */
+	private IssueCommandLog(FileChannel channel, ArrayList<String> owners) {
+		this.channel = channel;
+		ownerIds = new HashMap<String, Integer>();
+		for (int i = 0; i < owners.size(); i++) {
+			ownerIds.put(owners.get(i), i);
+		}
+	}
+
+	/**
+	 * Opens the log that follows a snapshot. If the log exists and was started
+	 * against the snapshot as it is now, its records are passed to the replayer.
+	 * If the log is new or empty, or the snapshot was saved after the log's last
+	 * record, the log is started again, empty, against the current snapshot.
+	 *
+	 * @param logFileName      is the log file.
+	 * @param snapshotFileName is the issue file the log follows.
+	 * @param replayer         receives the records of the log.
+	 * @return is the log, open for appending.
+	 * @throws IllegalArgumentException if the log cannot be read or replayed, or
+	 *                                  it has records the snapshot does not
+	 *                                  match.
+	 */
+	public static IssueCommandLog open(String logFileName, String snapshotFileName, Replayer replayer) {
+		FileChannel channel = null;
+		try {
+			channel = FileChannel.open(Paths.get(logFileName), StandardOpenOption.CREATE, StandardOpenOption.READ,
+					StandardOpenOption.WRITE);
+			Path snapshot = Paths.get(snapshotFileName);
+			ArrayList<String> owners = new ArrayList<String>();
+			long end = replay(channel, snapshot, owners, replayer);
+			if (end < 0) {
+				writeHeader(channel, describe(snapshot, null));
+				end = HEADER_SIZE;
+				owners.clear();
+			}
+			channel.truncate(end);
+			channel.position(end);
+			channel.force(true);
+			return new IssueCommandLog(channel, owners);
+		} catch (IOException | RuntimeException e) {
+			closeQuietly(channel);
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+
+	/**
+	 * Logs an added issue.
+	 *
+	 * @param id        is the id given to the issue.
+	 * @param issueType is the type of the issue.
+	 * @param summary   is the summary of the issue.
+	 * @param note      is the first note of the issue.
+	 * @throws IllegalArgumentException if the record cannot be written.
+	 */
+	public void logAdd(int id, IssueType issueType, String summary, String note) {
+		long sequence;
+		synchronized (this) {
+			try {
+				recordOut.writeInt(id);
+				recordOut.writeByte(issueType.ordinal());
+				writeString(recordOut, summary);
+				writeString(recordOut, note);
+			} catch (IOException e) {
+				throw new IllegalArgumentException("Unable to save file.");
+			}
+			sequence = append(ADD);
+		}
+		sync(sequence);
+	}
+
+	/**
+	 * Logs a deleted issue.
+	 *
+	 * @param id of the deleted issue.
+	 * @throws IllegalArgumentException if the record cannot be written.
+	 */
+	public void logDelete(int id) {
+		long sequence;
+		synchronized (this) {
+			try {
+				recordOut.writeInt(id);
+			} catch (IOException e) {
+				throw new IllegalArgumentException("Unable to save file.");
+			}
+			sequence = append(DELETE);
+		}
+		sync(sequence);
+	}
+
+	/**
+	 * Logs a command executed on an issue.
+	 *
+	 * @param id of the issue.
+	 * @param c  is the executed command.
+	 * @throws IllegalArgumentException if the record cannot be written.
+	 */
+	public void logExecute(int id, Command c) {
+		logExecute(id, c.getCode(), c.getOwnerId(), c.getNote());
+	}
+
+	/**
+	 * Logs a command, given as a code made by Command.encode(), an owner and a
+	 * note, executed on an issue.
+	 *
+	 * @param id      of the issue.
+	 * @param command is the code of the executed command.
+	 * @param ownerId is the owner of the command, or null if it has none.
+	 * @param note    is the note of the command.
+	 * @throws IllegalArgumentException if the record cannot be written.
+	 */
+	public void logExecute(int id, int command, String ownerId, String note) {
+		long sequence;
+		synchronized (this) {
+			try {
+				writeExecute(id, command, ownerId, note);
+			} catch (IOException e) {
+				throw new IllegalArgumentException("Unable to save file.");
+			}
+			sequence = appended;
+		}
+		sync(sequence);
+	}
+
+	/**
+	 * Logs a batch of commands executed on issues, waiting for the disk only once
+	 * for the whole batch.
+	 *
+	 * @param ids      of the issues, in the order the commands were executed.
+	 * @param commands are the executed commands, one for each id.
+	 * @param count    is the number of commands to log.
+	 * @throws IllegalArgumentException if the records cannot be written.
+	 */
+	public void logExecute(int[] ids, Command[] commands, int count) {
+		if (count == 0) {
+			return;
+		}
+		long sequence;
+		synchronized (this) {
+			try {
+				for (int i = 0; i < count; i++) {
+					Command c = commands[i];
+					writeExecute(ids[i], c.getCode(), c.getOwnerId(), c.getNote());
+				}
+			} catch (IOException e) {
+				throw new IllegalArgumentException("Unable to save file.");
+			}
+			sequence = appended;
+		}
+		sync(sequence);
+	}
+
+	/**
+	 * Logs that every issue was removed.
+	 *
+	 * @throws IllegalArgumentException if the record cannot be written.
+	 */
+	public void logClear() {
+		long sequence;
+		synchronized (this) {
+			sequence = append(CLEAR);
+		}
+		sync(sequence);
+	}
+
+	/**
+	 * Logs that the snapshot is about to be saved with every change logged so far.
+	 * If a crash comes after the save but before checkpoint(), the log is then
+	 * known to be part of the snapshot and is started again when it is opened.
+	 *
+	 * @throws IllegalArgumentException if the record cannot be written.
+	 */
+	public void beginCheckpoint() {
+		long sequence;
+		synchronized (this) {
+			sequence = append(CHECKPOINT);
+		}
+		sync(sequence);
+	}
+
+	/**
+	 * Starts the log again, empty, after every logged change has been saved to the
+	 * snapshot.
+	 *
+	 * @param snapshotFileName is the issue file that was just saved.
+	 * @param checksum         is the CRC32 IssueWriter returned when it saved the
+	 *                         snapshot.
+	 * @throws IllegalArgumentException if the log cannot be reset.
+	 */
+	public void checkpoint(String snapshotFileName, long checksum) {
+		synchronized (syncLock) {
+			synchronized (this) {
+				try {
+					// Records not yet written are already part of the snapshot.
+					pending.reset();
+					ownerIds.clear();
+					writeHeader(channel, describe(Paths.get(snapshotFileName), checksum));
+					channel.truncate(HEADER_SIZE);
+					channel.position(HEADER_SIZE);
+					channel.force(true);
+					durable = appended;
+				} catch (IOException e) {
+					throw new IllegalArgumentException("Unable to save file.");
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the size of the log file, including records not yet written.
+	 *
+	 * @return is the size in bytes.
+	 * @throws IllegalArgumentException if the size cannot be read.
+	 */
+	public synchronized long size() {
+		try {
+			return channel.size() + pending.size();
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+
+	/**
+	 * Closes the log file. Every record logged so far is already on disk.
+	 */
+	public void close() {
+		synchronized (syncLock) {
+			closeQuietly(channel);
+		}
+	}
+
+	/**
+	 * Appends the record of an executed command, preceded by a record adding its
+	 * owner to the dictionary if the owner has not been logged since the header.
+	 * Must be called while holding the lock on this log.
+	 *
+	 * @param id      of the issue.
+	 * @param command is the code of the executed command.
+	 * @param ownerId is the owner of the command, or null if it has none.
+	 * @param note    is the note of the command.
+	 * @throws IOException if the records cannot be built.
+	 */
+	private void writeExecute(int id, int command, String ownerId, String note) throws IOException {
+		int owner = NO_OWNER;
+		if (ownerId != null) {
+			Integer known = ownerIds.get(ownerId);
+			if (known == null) {
+				owner = ownerIds.size();
+				writeString(recordOut, ownerId);
+				append(OWNER);
+				ownerIds.put(ownerId, owner);
+			} else {
+				owner = known;
+			}
+		}
+		recordOut.writeInt(id);
+		recordOut.writeByte(command);
+		recordOut.writeInt(owner);
+		writeString(recordOut, note);
+		append(EXECUTE_CODE);
+	}
+
+	/**
+	 * Frames the record built in recordOut and adds it to the pending records.
+	 * Must be called while holding the lock on this log.
+	 *
+	 * @param type is the record type.
+	 * @return is the sequence number of the record.
+	 */
+	private long append(byte type) {
+		byte[] payload = record.toByteArray();
+		record.reset();
+		crc.reset();
+		crc.update(type);
+		crc.update(payload, 0, payload.length);
+
+		ByteBuffer frame = ByteBuffer.allocate(RECORD_OVERHEAD + payload.length);
+		frame.putInt(payload.length).put(type).put(payload).putInt((int) crc.getValue());
+		pending.write(frame.array(), 0, frame.capacity());
+		return ++appended;
+	}
+
+	/**
+	 * Waits until a record is on disk. The first thread to get the sync lock
+	 * writes and forces every pending record, so threads that appended while an
+	 * earlier force was running are made durable together by the next one.
+	 *
+	 * @param sequence is the sequence number of the record.
+	 * @throws IllegalArgumentException if the records cannot be written.
+	 */
+	private void sync(long sequence) {
+		if (durable >= sequence) {
+			return;
+		}
+		synchronized (syncLock) {
+			if (durable >= sequence) {
+				return;
+			}
+			byte[] records;
+			long last;
+			synchronized (this) {
+				records = pending.toByteArray();
+				pending.reset();
+				last = appended;
+			}
+			try {
+				ByteBuffer buffer = ByteBuffer.wrap(records);
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+				channel.force(false);
+			} catch (IOException e) {
+				throw new IllegalArgumentException("Unable to save file.");
+			}
+			durable = last;
+		}
+	}
+
+	/**
+	 * Replays the records of a log file if its header matches the snapshot.
+	 *
+	 * @param channel  of the log file.
+	 * @param snapshot is the issue file or directory the log follows.
+	 * @param owners   receives the owner dictionary of the log.
+	 * @param replayer receives the records.
+	 * @return is the position after the last valid record, or -1 if the log has
+	 *         no header or its records are already in the snapshot, and it must
+	 *         be started again.
+	 * @throws IOException if the log cannot be read, is not a log, or has records
+	 *                     that are not in the snapshot it does not match.
+	 */
+	private static long replay(FileChannel channel, Path snapshot, ArrayList<String> owners, Replayer replayer)
+			throws IOException {
+		if (channel.size() < HEADER_SIZE) {
+			return -1;
+		}
+		DataInputStream data = openAt(channel, 0);
+		if (data.readInt() != MAGIC) {
+			throw new IOException("Not a command log");
+		}
+		int version = data.readInt();
+		long[] expected = { data.readLong(), data.readLong(), data.readLong() };
+		if (version != VERSION) {
+			throw new IOException("Unknown command log version " + version);
+		} else if (!matches(snapshot, expected)) {
+			byte[] last = { 0 };
+			readRecords(data, channel.size(), new ArrayList<String>(), null, last);
+			if (last[0] != CHECKPOINT) {
+				throw new IOException("Command log does not follow the snapshot");
+			}
+			return -1;
+		}
+		return readRecords(data, channel.size(), owners, replayer, new byte[1]);
+	}
+
+	/**
+	 * Reads the records of a log file that follow its header, up to the first
+	 * incomplete or damaged one. The payload of each record is read into one
+	 * buffer that is reused.
+	 *
+	 * @param data     is the log file, positioned after the header.
+	 * @param size     is the size of the log file.
+	 * @param owners   receives the owner dictionary of the log.
+	 * @param replayer receives the records, or is null to only check them.
+	 * @param last     receives the type of the last valid record in index 0, which
+	 *                 is left as it is if there is none.
+	 * @return is the position after the last valid record.
+	 * @throws IOException if the log cannot be read.
+	 */
+	private static long readRecords(DataInputStream data, long size, ArrayList<String> owners, Replayer replayer,
+			byte[] last) throws IOException {
+		long position = HEADER_SIZE;
+		CRC32 check = new CRC32();
+		byte[] payload = new byte[PAYLOAD_BUFFER_SIZE];
+		ByteBuffer view = ByteBuffer.wrap(payload);
+		while (true) {
+			int length;
+			byte type;
+			try {
+				length = data.readInt();
+				if (length < 0 || length > size - position) {
+					break;
+				}
+				type = data.readByte();
+				if (length > payload.length) {
+					payload = new byte[Math.max(length, 2 * payload.length)];
+					view = ByteBuffer.wrap(payload);
+				}
+				data.readFully(payload, 0, length);
+				check.reset();
+				check.update(type);
+				check.update(payload, 0, length);
+				if (data.readInt() != (int) check.getValue()) {
+					break;
+				}
+			} catch (EOFException e) {
+				// Incomplete last record.
+				break;
+			}
+			if (replayer != null) {
+				view.clear();
+				view.limit(length);
+				apply(type, view, owners, replayer);
+			}
+			last[0] = type;
+			position += RECORD_OVERHEAD + length;
+		}
+		return position;
+	}
+
+	/**
+	 * Passes one record to the replayer.
+	 *
+	 * @param type     is the record type.
+	 * @param payload  is the payload of the record.
+	 * @param owners   is the owner dictionary read so far, which an OWNER record
+	 *                 adds to.
+	 * @param replayer receives the record.
+	 * @throws IOException if the payload is invalid.
+	 */
+	private static void apply(byte type, ByteBuffer payload, ArrayList<String> owners, Replayer replayer)
+			throws IOException {
+		switch (type) {
+		case ADD:
+			int id = payload.getInt();
+			IssueType issueType = IssueType.values()[payload.get()];
+			replayer.add(id, issueType, readString(payload), readString(payload));
+			break;
+		case DELETE:
+			replayer.delete(payload.getInt());
+			break;
+		case OWNER:
+			owners.add(readString(payload));
+			break;
+		case EXECUTE_CODE:
+			int codedId = payload.getInt();
+			int command = payload.get();
+			int owner = payload.getInt();
+			replayer.execute(codedId, command, owner == NO_OWNER ? null : owners.get(owner), readString(payload));
+			break;
+		case CLEAR:
+			replayer.clear();
+			break;
+		case CHECKPOINT:
+			// The snapshot was not saved, or the header would not match.
+			break;
+		default:
+			throw new IOException("Unknown record type " + type);
+		}
+	}
+
+	/**
+	 * Writes a new header at the start of the log.
+	 *
+	 * @param channel  of the log file.
+	 * @param snapshot is the size, modification time and checksum of the
+	 *                 snapshot.
+	 * @throws IOException if the header cannot be written.
+	 */
+	private static void writeHeader(FileChannel channel, long[] snapshot) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.putInt(MAGIC).putInt(VERSION).putLong(snapshot[0]).putLong(snapshot[1]).putLong(snapshot[2]).flip();
+		long position = 0;
+		while (header.hasRemaining()) {
+			position += channel.write(header, position);
+		}
+	}
+
+	/**
+	 * Opens a buffered stream over a log file from a position.
+	 *
+	 * @param channel  of the log file.
+	 * @param position to read from.
+	 * @return is the stream, which must not be closed because that would close the
+	 *         channel.
+	 * @throws IOException if the channel cannot be positioned.
+	 */
+	private static DataInputStream openAt(FileChannel channel, long position) throws IOException {
+		channel.position(position);
+		InputStream in = Channels.newInputStream(channel);
+		return new DataInputStream(new BufferedInputStream(in, 64 * 1024));
+	}
+
+	/**
+	 * Describes a snapshot for the header of the log. A file is described by its
+	 * size, modification time and checksum. A directory is described by the
+	 * checksum of its manifest alone, as the manifest describes each segment.
+	 *
+	 * @param snapshot is the issue file or directory.
+	 * @param checksum is the CRC32 IssueWriter returned when it saved the
+	 *                 snapshot, or null to compute it, which reads a file whole.
+	 * @return is the size, modification time and checksum, or -1 for each if the
+	 *         snapshot does not exist.
+	 * @throws IOException if the snapshot cannot be read, or is a directory with
+	 *                     no manifest.
+	 */
+	private static long[] describe(Path snapshot, Long checksum) throws IOException {
+		if (!Files.exists(snapshot)) {
+			return new long[] { -1, -1, NO_SNAPSHOT };
+		} else if (!Files.isDirectory(snapshot)) {
+			return IssueWriter.getEntry(snapshot, checksum == null ? IssueWriter.checksum(snapshot) : checksum);
+		} else if (checksum != null) {
+			return new long[] { -1, -1, checksum };
+		}
+		CRC32 manifestChecksum = new CRC32();
+		if (IssueWriter.readManifest(snapshot, manifestChecksum) == null) {
+			throw new IOException("Snapshot directory has no manifest");
+		}
+		return new long[] { -1, -1, manifestChecksum.getValue() };
+	}
+
+	/**
+	 * Checks that a snapshot still holds what the header of the log describes.
+	 * A directory matches when its manifest has the recorded checksum and every
+	 * segment file, and no other, matches its entry in the manifest.
+	 *
+	 * @param snapshot is the issue file or directory.
+	 * @param header   is the size, modification time and checksum from the
+	 *                 header.
+	 * @return is true if the snapshot matches.
+	 * @throws IOException if the snapshot cannot be read.
+	 */
+	private static boolean matches(Path snapshot, long[] header) throws IOException {
+		if (!Files.exists(snapshot)) {
+			return header[2] == NO_SNAPSHOT;
+		} else if (!Files.isDirectory(snapshot)) {
+			return IssueWriter.matches(snapshot, header);
+		}
+		CRC32 checksum = new CRC32();
+		TreeMap<Integer, long[]> manifest = IssueWriter.readManifest(snapshot, checksum);
+		if (manifest == null || checksum.getValue() != header[2]) {
+			return false;
+		}
+		int[] segments = IssueWriter.listSegments(snapshot);
+		if (segments.length != manifest.size()) {
+			return false;
+		}
+		for (int segment : segments) {
+			long[] entry = manifest.get(segment);
+			if (entry == null || !IssueWriter.matches(IssueWriter.getSegmentFile(snapshot, segment), entry)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Writes a string as its UTF-8 length and bytes.
+	 *
+	 * @param out    is the stream to write to.
+	 * @param string to write, which may be null.
+	 * @throws IOException if the string cannot be written.
+	 */
+	private static void writeString(DataOutputStream out, String string) throws IOException {
+		if (string == null) {
+			out.writeInt(NULL_LENGTH);
+		} else {
+			byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	/**
+	 * Reads a string written by writeString(), decoding it straight from the
+	 * payload buffer.
+	 *
+	 * @param in is the payload to read from.
+	 * @return is the string, which may be null.
+	 * @throws IOException if the string runs past the end of the payload.
+	 */
+	private static String readString(ByteBuffer in) throws IOException {
+		int length = in.getInt();
+		if (length == NULL_LENGTH) {
+			return null;
+		}
+		if (length < 0 || length > in.remaining()) {
+			throw new IOException("Invalid string length " + length);
+		}
+		String string = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+		in.position(in.position() + length);
+		return string;
+	}
+
+	/**
+	 * Closes a channel, ignoring any error.
+	 *
+	 * @param channel to close, or null.
+	 */
+	private static void closeQuietly(FileChannel channel) {
+		if (channel != null) {
+			try {
+				channel.close();
+			} catch (IOException e) {
+				// Nothing more can be done with the log.
+			}
+		}
+	}
+}
@@ -0,0 +1,119 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+
+/**
+ * Loads the notes of issues read from a binary issue file without their notes.
+ * The file is memory mapped when the loader is created, and each note handle is
+ * the file offset of an issue's notes. Notes are decoded the first time they
+ * are asked for and kept in a least recently used cache of at most capacity
+ * issues, so only the notes in use stay on the heap.
+ *
+ * Files larger than a single mapping are mapped as overlapping regions that
+ * start every REGION_STEP bytes, so the notes of any record fit in the region
+ * where they start.
+ *
+ * @author Michael Warstler
+ */
+public class IssueNoteLoader implements Issue.NoteLoader {
+
+	/** Default number of issues whose notes are kept decoded */
+	public static final int DEFAULT_CAPACITY = 1024;
+	/** Distance between the starts of mapped regions */
+	private static final long REGION_STEP = 1L << 30;
+
+	/** Mapped regions of the file */
+	private final MappedByteBuffer[] regions;
+	/** Decoded notes by handle, least recently used first */
+	private final LinkedHashMap<Long, String[]> resident;
+
+	/**
+	 * Maps a binary issue file for loading notes.
+	 *
+	 * @param channel  of the binary file. The channel can be closed once the
+	 *                 loader is created.
+	 * @param capacity is the largest number of issues whose notes are kept
+	 *                 decoded.
+	 * @throws IOException if the file cannot be mapped.
+	 */
+	IssueNoteLoader(FileChannel channel, int capacity) throws IOException {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Invalid capacity.");
+		}
+		long size = channel.size();
+		regions = new MappedByteBuffer[(int) Math.max(1, (size + REGION_STEP - 1) / REGION_STEP)];
+		for (int i = 0; i < regions.length; i++) {
+			long start = i * REGION_STEP;
+			long length = Math.min(Integer.MAX_VALUE, size - start);
+			regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+		}
+		resident = new LinkedHashMap<Long, String[]>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, String[]> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * Gets the notes at a handle, decoding them from the mapped file if they are
+	 * not in the cache.
+	 *
+	 * @param handle is the file offset of the notes.
+	 * @return is a new list of the notes.
+	 * @throws IllegalArgumentException if the notes cannot be decoded.
+	 */
+	@Override
+	public synchronized ArrayList<String> loadNotes(long handle) {
+		String[] notes = resident.get(handle);
+		if (notes == null) {
+			notes = IssueBinaryFormat.decodeNotes(at(handle));
+			resident.put(handle, notes);
+		}
+		return new ArrayList<String>(Arrays.asList(notes));
+	}
+
+	/**
+	 * Gets the number of issues whose notes are currently decoded.
+	 *
+	 * @return is the number of cached note lists.
+	 */
+	public synchronized int getResidentCount() {
+		return resident.size();
+	}
+
+	/**
+	 * Gets a view of the mapped file positioned at an offset. The view is part of
+	 * the region that starts at regionBase(offset).
+	 *
+	 * @param offset in the file.
+	 * @return is a buffer positioned at the offset.
+	 */
+	ByteBuffer at(long offset) {
+		int region = (int) (offset / REGION_STEP);
+		ByteBuffer buffer = regions[region].duplicate();
+		buffer.position((int) (offset - region * REGION_STEP));
+		return buffer;
+	}
+
+	/**
+	 * Gets the file offset of the first byte of the view returned by at().
+	 *
+	 * @param offset in the file.
+	 * @return is the file offset where the region holding the offset starts.
+	 */
+	static long regionBase(long offset) {
+		return offset / REGION_STEP * REGION_STEP;
+	}
+}
@@ -1,126 +1,618 @@
 package edu.ncsu.csc216.issue_manager.model.io;
 
 import java.util.ArrayList;
-import java.util.Scanner;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
+import edu.ncsu.csc216.issue_manager.model.command.Command;
+import edu.ncsu.csc216.issue_manager.model.command.Command.Resolution;
 import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueState;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueType;
+import edu.ncsu.csc216.issue_manager.model.issue.NoteArena;
 
 /**
  * Reads contents from given fileName and attempts to create a list of issue
- * objects. Uses helper method processIssue(String) to acquire specific issue
- * state's from the text in the file.
- * 
+ * objects. The file is read in a single forward pass, one line at a time. Lines
+ * starting with '*' begin a new issue record and lines starting with '-' begin
+ * a new note. Uses helper method processIssue(String, ArrayList,
+ * IssueStringPool, NoteArena) to create an issue from each record as soon as
+ * the record ends. Large files can instead be memory mapped and parsed in parallel chunks
+ * split on record boundaries. Owners and summaries are shared through an
+ * IssueStringPool for the load, and state, issue type, and resolution are
+ * looked up as enumeration values. The notes of the issues are appended to a
+ * NoteArena given for the load. A snapshot directory written by IssueWriter
+ * is read one segment file at a time, in segment order. Files that start with
+ * the magic bytes of the binary format are decoded by IssueBinaryFormat instead
+ * of being parsed as text.
+ *
  * @author Michael Warstler
  */
 public class IssueReader {
 
+	/** Size of the character buffer used when reading an issue file */
+	private static final int BUFFER_SIZE = 64 * 1024;
+	/** Smallest byte range parsed by a single task when loading in parallel */
+	private static final long MIN_CHUNK_SIZE = 1024 * 1024;
+	/** Largest byte range parsed by a single task (each range is mapped separately) */
+	private static final long MAX_CHUNK_SIZE = 256L * 1024 * 1024;
+	/** Number of issues read between reports to a progress listener */
+	private static final int PROGRESS_INTERVAL = 4096;
+	/** Owner field written for an issue without an owner */
+	private static final String NO_OWNER = "null";
+	/** States by name */
+	private static final HashMap<String, IssueState> STATES = new HashMap<String, IssueState>();
+	/** Issue types by name */
+	private static final HashMap<String, IssueType> ISSUE_TYPES = new HashMap<String, IssueType>();
+	/** Resolutions by name */
+	private static final HashMap<String, Resolution> RESOLUTIONS = new HashMap<String, Resolution>();
+
+	static {
+		for (IssueState state : IssueState.values()) {
+			STATES.put(state.getStateName(), state);
+		}
+		ISSUE_TYPES.put(Issue.I_ENHANCEMENT, IssueType.ENHANCEMENT);
+		ISSUE_TYPES.put(Issue.I_BUG, IssueType.BUG);
+		RESOLUTIONS.put(Command.R_FIXED, Resolution.FIXED);
+		RESOLUTIONS.put(Command.R_DUPLICATE, Resolution.DUPLICATE);
+		RESOLUTIONS.put(Command.R_WONTFIX, Resolution.WONTFIX);
+		RESOLUTIONS.put(Command.R_WORKSFORME, Resolution.WORKSFORME);
+	}
+
 	/**
 	 * Reads in file text from parameter fileName and attempts to create a list of
-	 * issues. Contents of fileName are initially kept as one string. Helper method
-	 * processIssue() is called to specifically process each issue detected the the
-	 * file.
-	 * 
+	 * issues. Delegates to readIssuesFromFile(String, Consumer) and collects each
+	 * issue into the returned list.
+	 *
 	 * @param fileName to read issues from.
 	 * @return is an array list of issue objects created from the file.
 	 * @throws IllegalArgumentException if there is an error in processing the file
 	 *                                  or the file cannot be found.
 	 */
 	public static ArrayList<Issue> readIssuesFromFile(String fileName) {
-		try {
-			Scanner fileReader = new Scanner(new FileInputStream(fileName)); // create scanner to read file.
-			ArrayList<Issue> issues = new ArrayList<Issue>(); // create empty array list.
-			String fileContents = "";
-			// Read entire contents of a file and organize into one string based on expected
-			// input.
-			while (fileReader.hasNextLine()) {
-				fileContents += fileReader.nextLine() + "\n";
+		ArrayList<Issue> issues = new ArrayList<Issue>(); // create empty array list.
+		readIssuesFromFile(fileName, issues::add);
+		return issues;
+	}
+
+	/**
+	 * Streams the issues in fileName to issueHandler. The file is read once through
+	 * a buffered reader and each issue is handed off as soon as its record ends, so
+	 * only the record currently being parsed is held in memory.
+	 *
+	 * @param fileName     to read issues from.
+	 * @param issueHandler receives each issue in the order it appears in the file.
+	 * @throws IllegalArgumentException if there is an error in processing the file
+	 *                                  or the file cannot be found.
+	 */
+	public static void readIssuesFromFile(String fileName, Consumer<Issue> issueHandler) {
+		readIssuesFromFile(fileName, issueHandler, new IssueStringPool(), new NoteArena());
+	}
+
+	/**
+	 * Streams the issues in fileName to issueHandler, sharing repeated owners and
+	 * summaries through the given pool.
+	 *
+	 * @param fileName     to read issues from.
+	 * @param issueHandler receives each issue in the order it appears in the file.
+	 * @param pool         is the string pool for this load.
+	 * @param arena        receives the notes of the issues.
+	 * @throws IllegalArgumentException if there is an error in processing the file
+	 *                                  or the file cannot be found.
+	 */
+	public static void readIssuesFromFile(String fileName, Consumer<Issue> issueHandler, IssueStringPool pool,
+			NoteArena arena) {
+		readIssuesFromFile(fileName, issueHandler, pool, arena, null);
+	}
+
+	/**
+	 * Streams the issues in fileName to issueHandler, sharing repeated owners and
+	 * summaries through the given pool, and reports the number of bytes read
+	 * after every PROGRESS_INTERVAL issues and at the end of the file.
+	 *
+	 * @param fileName     to read issues from.
+	 * @param issueHandler receives each issue in the order it appears in the file.
+	 * @param pool         is the string pool for this load.
+	 * @param arena        receives the notes of the issues.
+	 * @param listener     receives the bytes read and the file size, or is null.
+	 * @throws IllegalArgumentException if there is an error in processing the file
+	 *                                  or the file cannot be found.
+	 * @throws java.util.concurrent.CancellationException if the listener cancels
+	 *                                                    the read.
+	 */
+	public static void readIssuesFromFile(String fileName, Consumer<Issue> issueHandler, IssueStringPool pool,
+			NoteArena arena, ProgressListener listener) {
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (listener != null) {
+				issueHandler = new ProgressReporter(issueHandler, channel, listener);
+			}
+			if (IssueBinaryFormat.isBinary(channel)) {
+				IssueBinaryFormat.read(channel, issueHandler, pool, arena);
+			} else {
+				// Closing the channel closes the reader's stream.
+				BufferedReader fileReader = new BufferedReader(
+						new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8), BUFFER_SIZE);
+				IssueRecordParser parser = new IssueRecordParser(issueHandler, pool, arena);
+				String line = fileReader.readLine();
+				while (line != null) {
+					parser.acceptLine(line);
+					line = fileReader.readLine();
+				}
+				parser.finish();
 			}
-			// Create a new scanner that will read the fileContents string and separate
-			// contents into issues by a delimiter.
-			Scanner fileFormatReader = new Scanner(fileContents);
-			fileFormatReader.useDelimiter("\\r?\\n?[*]");
-			// For each "issue" read in via the scanner with delimiter, use processIssue to
-			// get an Issue object.
-			while (fileFormatReader.hasNext()) {
-				Issue processedIssue = processIssue(fileFormatReader.next());
-				issues.add(processedIssue);
+			if (listener != null) {
+				listener.progress(size, size);
 			}
+		} catch (IOException | IllegalArgumentException e) {
+			// If any issues were found trying to read the file or process contents.
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
 
-			// Close Scanners
-			fileFormatReader.close();
-			fileReader.close();
-			// Return the ArrayList with all the issues
-			return issues;
+	/**
+	 * Reads the issues in fileName without their notes, which usually take up most
+	 * of the file. Each issue keeps the file offset of its notes and gets them from
+	 * a memory mapped IssueNoteLoader when they are used, with at most capacity
+	 * issues' notes decoded at once. Only binary files record where the notes of
+	 * each issue start, so text files are read with their notes as usual.
+	 *
+	 * @param fileName to read issues from.
+	 * @param pool     is the string pool for this load.
+	 * @param arena    receives the notes of the issues of a text file.
+	 * @param capacity is the largest number of issues whose notes are kept
+	 *                 decoded.
+	 * @return is an array list of issue objects created from the file, in file
+	 *         order.
+	 * @throws IllegalArgumentException if there is an error in processing the file
+	 *                                  or the file cannot be found.
+	 */
+	public static ArrayList<Issue> readIssuesFromFileLazily(String fileName, IssueStringPool pool, NoteArena arena,
+			int capacity) {
+		ArrayList<Issue> issues = new ArrayList<Issue>();
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			if (IssueBinaryFormat.isBinary(channel)) {
+				// The mapping stays valid after the channel is closed.
+				IssueBinaryFormat.readLazily(channel, issues::add, pool, new IssueNoteLoader(channel, capacity));
+				return issues;
+			}
+		} catch (IOException | IllegalArgumentException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		readIssuesFromFile(fileName, issues::add, pool, arena);
+		return issues;
+	}
+
+	/**
+	 * Reads one issue from a binary issue file written by
+	 * IssueWriter.writeIssuesToBinaryFile(). The issue is found through the
+	 * file's id index, so no other record is read.
+	 *
+	 * @param fileName to read the issue from.
+	 * @param id       of the issue to read.
+	 * @return is the issue, or null if the file has no issue with the id.
+	 * @throws IllegalArgumentException if the file is not a valid binary issue
+	 *                                  file or cannot be found.
+	 */
+	public static Issue readIssueFromBinaryFile(String fileName, int id) {
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			if (!IssueBinaryFormat.isBinary(channel)) {
+				throw new IllegalArgumentException("Unable to load file.");
+			}
+			return IssueBinaryFormat.readIssue(channel, id, new IssueStringPool(), new NoteArena());
+		} catch (IOException | IllegalArgumentException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+
+	/**
+	 * Reads the issues of every segment file in a snapshot directory written by
+	 * IssueWriter.writeIssuesToDirectory(). Segments are read in order, so the
+	 * issues come back in id order.
+	 *
+	 * @param directoryName is the snapshot directory.
+	 * @param pool          is the string pool for this load.
+	 * @param arena         receives the notes of the issues.
+	 * @return is an array list of issue objects created from the segment files.
+	 * @throws IllegalArgumentException if there is an error in processing a
+	 *                                  segment file or the directory cannot be
+	 *                                  read.
+	 */
+	public static ArrayList<Issue> readIssuesFromDirectory(String directoryName, IssueStringPool pool,
+			NoteArena arena) {
+		Path directory = Paths.get(directoryName);
+		int[] segments;
+		try {
+			segments = IssueWriter.listSegments(directory);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		ArrayList<Issue> issues = new ArrayList<Issue>();
+		for (int segment : segments) {
+			readIssuesFromFile(IssueWriter.getSegmentFile(directory, segment).toString(), issues::add, pool, arena);
+		}
+		return issues;
+	}
+
+	/**
+	 * Reads the issues in fileName using every core of the common fork-join pool.
+	 * The file is split into byte ranges that each start at a "\n*" record
+	 * boundary, every range is memory mapped and parsed by its own task, and the
+	 * per-range lists are joined back together in file order. Keeping file order
+	 * means IssueList still keeps the first issue of any duplicate id when it
+	 * sorts the result.
+	 *
+	 * @param fileName to read issues from.
+	 * @return is an array list of issue objects created from the file, in file
+	 *         order.
+	 * @throws IllegalArgumentException if there is an error in processing the file
+	 *                                  or the file cannot be found.
+	 */
+	public static ArrayList<Issue> readIssuesFromFileInParallel(String fileName) {
+		return readIssuesFromFileInParallel(fileName, new IssueStringPool(), new NoteArena());
+	}
+
+	/**
+	 * Reads the issues in fileName in parallel chunks, sharing repeated owners and
+	 * summaries across every chunk through the given pool.
+	 *
+	 * @param fileName to read issues from.
+	 * @param pool     is the string pool for this load.
+	 * @param arena    receives the notes of the issues, from every chunk.
+	 * @return is an array list of issue objects created from the file, in file
+	 *         order.
+	 * @throws IllegalArgumentException if there is an error in processing the file
+	 *                                  or the file cannot be found.
+	 */
+	public static ArrayList<Issue> readIssuesFromFileInParallel(String fileName, IssueStringPool pool,
+			NoteArena arena) {
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			if (IssueBinaryFormat.isBinary(channel)) {
+				// Binary records need no parsing, so they are simply read in order.
+				ArrayList<Issue> issues = new ArrayList<Issue>();
+				IssueBinaryFormat.read(channel, issues::add, pool, arena);
+				return issues;
+			}
+			long[] bounds = findChunkBounds(channel);
+			// Parse each chunk as its own fork-join task. The list keeps chunk order.
+			List<ArrayList<Issue>> chunks = IntStream.range(0, bounds.length - 1).parallel()
+					.mapToObj(i -> readChunk(channel, bounds[i], bounds[i + 1], pool, arena)).collect(Collectors.toList());
 
-		} catch (FileNotFoundException | IllegalArgumentException e) {
+			int total = 0;
+			for (ArrayList<Issue> chunk : chunks) {
+				total += chunk.size();
+			}
+			ArrayList<Issue> issues = new ArrayList<Issue>(total);
+			for (ArrayList<Issue> chunk : chunks) {
+				issues.addAll(chunk);
+			}
+			return issues;
+		} catch (IOException | UncheckedIOException | IllegalArgumentException e) {
 			// If any issues were found trying to read the file or process contents.
 			throw new IllegalArgumentException("Unable to load file.");
 		}
 	}
 
 	/**
-	 * Processes contents from a designated string representing an issue. After
-	 * reading in Issue parameters, creates an Issue object. If any invalid data
-	 * formats are required, an exception is allowed to propagate to the caller in
-	 * the IssueReader method readIssuesFromFile.
-	 * 
-	 * @param issue is line of text for processing
-	 * @return is an issue object created from processing the line(s) of text.
-	 */
-	private static Issue processIssue(String issue) {
-		// Initialize local variables to create an Issue object with.
-		int id = 0;
-		String state = "";
-		String issueType = "";
-		String summary = "";
-		String owner = "";
-		boolean confirmed = false;
-		String resolution = "";
-		ArrayList<String> notes = new ArrayList<String>();
-
-		// Create scanner to view entire Issue string (parameters/fields line and notes
-		// lines)
-		Scanner issueScanner = new Scanner(issue);
-		// Separate the parameters line into its own String
-		String issueFields = issueScanner.nextLine();
-		// Assign a new scanner to look at exclusively the parameters/fields line.
-		Scanner issueFieldsScanner = new Scanner(issueFields);
-		issueFieldsScanner.useDelimiter(","); // Delimiter for this line is ','.
-
-		// Go through Issue text and assign values between delimiter to specific Issue
-		// parameters.
-		id = issueFieldsScanner.nextInt();
-		// Read in simple strings for state, issue type, summary, and owner
-		state = issueFieldsScanner.next();
-		issueType = issueFieldsScanner.next();
-		summary = issueFieldsScanner.next();
-		owner = issueFieldsScanner.next();
-		// Read in boolean for confirmed.
-		confirmed = issueFieldsScanner.nextBoolean();
-		// Read in string resolution.
-		if (issueFieldsScanner.hasNext()) {
-			resolution = issueFieldsScanner.next(); // Last token either has resolution or "".
-		} else {
-			resolution = "";
-		}
-
-		// Get Issue notes using the main issueScanner with a unique delimiter. Each
-		// token processed via delimiter/scanner is added to the notes array list.
-		// Citing assistance from Arsalaan Khan: .trim() String method to remove
-		// unnecessary whitespace from a read in note.
-		issueScanner.useDelimiter("\r?\n?[-]");
-		while (issueScanner.hasNext()) {
-			notes.add(issueScanner.next().trim());
-		}
-
-		// Close Scanners.
-		issueScanner.close();
-		issueFieldsScanner.close();
+	 * Splits the file into byte ranges for parallel parsing. Each range is roughly
+	 * a quarter of the file's share per core (within MIN_CHUNK_SIZE and
+	 * MAX_CHUNK_SIZE) and is extended forward so that it ends where a line starting
+	 * with '*' begins.
+	 *
+	 * @param channel is the open issue file.
+	 * @return is the ascending range boundaries, starting at 0 and ending at the
+	 *         file size.
+	 * @throws IOException if the file cannot be read.
+	 */
+	private static long[] findChunkBounds(FileChannel channel) throws IOException {
+		long size = channel.size();
+		long tasks = ForkJoinPool.getCommonPoolParallelism() * 4L;
+		long chunkSize = Math.min(MAX_CHUNK_SIZE, Math.max(MIN_CHUNK_SIZE, size / tasks));
+
+		long[] bounds = new long[(int) (size / chunkSize) + 2];
+		int count = 1; // bounds[0] is the start of the file.
+		while (bounds[count - 1] < size) {
+			bounds[count] = findRecordStart(channel, bounds[count - 1] + chunkSize, size);
+			count++;
+		}
+		long[] trimmed = new long[count];
+		System.arraycopy(bounds, 0, trimmed, 0, count);
+		return trimmed;
+	}
+
+	/**
+	 * Finds the first record header at or after position from. A record header is
+	 * a '*' directly after a '\n'.
+	 *
+	 * @param channel is the open issue file.
+	 * @param from    is the position to start searching at.
+	 * @param size    is the size of the file.
+	 * @return is the position of the header's '*', or size if there is none.
+	 * @throws IOException if the file cannot be read.
+	 */
+	private static long findRecordStart(FileChannel channel, long from, long size) throws IOException {
+		if (from >= size) {
+			return size;
+		}
+		ByteBuffer block = ByteBuffer.allocate(BUFFER_SIZE);
+		long position = from - 1; // include the byte before from to see its '\n'.
+		byte previous = 0;
+		while (position < size) {
+			block.clear();
+			int read = channel.read(block, position);
+			if (read <= 0) {
+				break;
+			}
+			for (int i = 0; i < read; i++) {
+				byte current = block.get(i);
+				if (previous == '\n' && current == '*') {
+					return position + i;
+				}
+				previous = current;
+			}
+			position += read;
+		}
+		return size;
+	}
+
+	/**
+	 * Memory maps and parses one byte range of an issue file.
+	 *
+	 * @param channel is the open issue file.
+	 * @param start   is the first byte of the range (a record header or the start
+	 *                of the file).
+	 * @param end     is one past the last byte of the range.
+	 * @param pool    is the string pool for this load.
+	 * @param arena   receives the notes of the issues.
+	 * @return is the issues in the range, in file order.
+	 * @throws UncheckedIOException     if the range cannot be mapped.
+	 * @throws IllegalArgumentException if a record in the range is invalid.
+	 */
+	private static ArrayList<Issue> readChunk(FileChannel channel, long start, long end, IssueStringPool pool,
+			NoteArena arena) {
+		ArrayList<Issue> issues = new ArrayList<Issue>();
+		CharBuffer text;
+		try {
+			text = StandardCharsets.UTF_8.decode(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		IssueRecordParser parser = new IssueRecordParser(issues::add, pool, arena);
+		int lineStart = 0;
+		int length = text.length();
+		for (int i = 0; i <= length; i++) {
+			if (i == length || text.charAt(i) == '\n') {
+				int lineEnd = i > lineStart && text.charAt(i - 1) == '\r' ? i - 1 : i;
+				if (i < length || lineEnd > lineStart) {
+					parser.acceptLine(text.subSequence(lineStart, lineEnd).toString());
+				}
+				lineStart = i + 1;
+			}
+		}
+		parser.finish();
+		return issues;
+	}
+
+	/**
+	 * Processes the fields line and notes of a single issue record. After reading
+	 * in Issue parameters, creates an Issue object. If any invalid data formats are
+	 * found, an IllegalArgumentException is thrown to the caller in the
+	 * IssueReader method readIssuesFromFile.
+	 *
+	 * @param issueFields is the comma separated fields line of the record without
+	 *                    its leading '*'.
+	 * @param notes       are the trimmed notes of the record.
+	 * @param pool        shares repeated owners and summaries.
+	 * @param arena       receives the notes.
+	 * @return is an issue object created from processing the record.
+	 * @throws IllegalArgumentException if the record cannot be made into an issue.
+	 */
+	private static Issue processIssue(String issueFields, ArrayList<String> notes, IssueStringPool pool,
+			NoteArena arena) {
+		// Fields are id,state,type,summary,owner,confirmed[,resolution]. Any
+		// tokens past the resolution are ignored.
+		String[] fields = issueFields.split(",", -1);
+		if (fields.length < 6) {
+			throw new IllegalArgumentException("Issue cannot be created.");
+		}
+
+		int id = Integer.parseInt(fields[0]); // NumberFormatException is an IllegalArgumentException.
+		IssueState state = lookUp(STATES, fields[1]);
+		IssueType issueType = lookUp(ISSUE_TYPES, fields[2]);
+		String summary = pool.intern(fields[3]);
+		String owner = pool.intern(fields[4]);
+		// IssueWriter writes a missing owner as "null". New and Confirmed issues
+		// cannot have an owner, so there it can only mean that.
+		if ((state == IssueState.NEW || state == IssueState.CONFIRMED) && NO_OWNER.equals(owner)) {
+			owner = null;
+		}
+		boolean confirmed = parseConfirmed(fields[5]);
+		Resolution resolution = null;
+		if (fields.length > 6 && !"".equals(fields[6])) {
+			resolution = lookUp(RESOLUTIONS, fields[6]);
+		}
 
 		// Create an Issue with read in contents.
-		Issue processedIssue = new Issue(id, state, issueType, summary, owner, confirmed, resolution, notes);
-		return processedIssue;
+		return new Issue(id, state, issueType, summary, owner, confirmed, resolution, notes, arena);
+	}
+
+	/**
+	 * Looks up the enumeration value of a field by its name.
+	 *
+	 * @param <T>    is the enumeration type.
+	 * @param values are the values by name.
+	 * @param name   is the text of the field.
+	 * @return is the value with the name.
+	 * @throws IllegalArgumentException if no value has the name.
+	 */
+	private static <T> T lookUp(HashMap<String, T> values, String name) {
+		T value = values.get(name);
+		if (value == null) {
+			throw new IllegalArgumentException("Issue cannot be created.");
+		}
+		return value;
+	}
+
+	/**
+	 * Parses the confirmed field of an issue record. Only "true" and "false"
+	 * (ignoring case) are accepted.
+	 *
+	 * @param confirmed is the text of the confirmed field.
+	 * @return is the boolean value of the field.
+	 * @throws IllegalArgumentException if the field is not a boolean.
+	 */
+	private static boolean parseConfirmed(String confirmed) {
+		if ("true".equalsIgnoreCase(confirmed)) {
+			return true;
+		} else if ("false".equalsIgnoreCase(confirmed)) {
+			return false;
+		}
+		throw new IllegalArgumentException("Issue cannot be created.");
+	}
+
+	/**
+	 * Passes issues on to another handler and reports the position of the file
+	 * channel to a progress listener after every PROGRESS_INTERVAL issues. The
+	 * position runs ahead of the issues by at most one read buffer.
+	 *
+	 * @author Michael Warstler
+	 */
+	private static class ProgressReporter implements Consumer<Issue> {
+
+		/** Receives each issue */
+		private final Consumer<Issue> issueHandler;
+		/** Channel being read */
+		private final FileChannel channel;
+		/** Receives the progress */
+		private final ProgressListener listener;
+		/** Number of issues passed on */
+		private long count;
+
+		/**
+		 * Constructs a reporter.
+		 *
+		 * @param issueHandler receives each issue.
+		 * @param channel      is the channel being read.
+		 * @param listener     receives the progress.
+		 */
+		ProgressReporter(Consumer<Issue> issueHandler, FileChannel channel, ProgressListener listener) {
+			this.issueHandler = issueHandler;
+			this.channel = channel;
+			this.listener = listener;
+		}
+
+		@Override
+		public void accept(Issue issue) {
+			issueHandler.accept(issue);
+			if (++count % PROGRESS_INTERVAL == 0) {
+				try {
+					listener.progress(channel.position(), channel.size());
+				} catch (IOException e) {
+					throw new IllegalArgumentException("Unable to load file.");
+				}
+			}
+		}
+	}
+
+	/**
+	 * Splits a sequence of lines into issue records. A record begins at a line
+	 * starting with '*' (or at the first line of the input) and a note begins at a
+	 * line starting with '-'. Any other line continues the current note. Each
+	 * finished record is processed and passed to the issue handler.
+	 *
+	 * @author Michael Warstler
+	 */
+	private static class IssueRecordParser {
+
+		/** Receives each issue as soon as its record ends */
+		private final Consumer<Issue> issueHandler;
+		/** Shares repeated strings of the records */
+		private final IssueStringPool pool;
+		/** Receives the notes of the records */
+		private final NoteArena arena;
+		/** Fields line of the record being parsed, or null before the first record */
+		private String issueFields;
+		/** Completed notes of the record being parsed */
+		private ArrayList<String> notes = new ArrayList<String>();
+		/** Text of the note being parsed, or null if no note has started */
+		private StringBuilder note;
+
+		/**
+		 * Constructs a parser that hands finished issues to issueHandler.
+		 *
+		 * @param issueHandler receives each parsed issue.
+		 * @param pool         shares repeated strings of the records.
+		 * @param arena        receives the notes of the records.
+		 */
+		IssueRecordParser(Consumer<Issue> issueHandler, IssueStringPool pool, NoteArena arena) {
+			this.issueHandler = issueHandler;
+			this.pool = pool;
+			this.arena = arena;
+		}
+
+		/**
+		 * Accepts the next line of input, without its line terminator.
+		 *
+		 * @param line is the next line of the file.
+		 * @throws IllegalArgumentException if a finished record is invalid.
+		 */
+		void acceptLine(String line) {
+			if (issueFields == null || line.startsWith("*")) {
+				finish();
+				issueFields = line.startsWith("*") ? line.substring(1) : line;
+			} else if (line.startsWith("-")) {
+				endNote();
+				note = new StringBuilder(line.length()).append(line, 1, line.length());
+			} else if (note != null) {
+				note.append('\n').append(line);
+			} else if (!line.trim().isEmpty()) {
+				// Text before the first '-' of a record is still kept as a note.
+				note = new StringBuilder(line);
+			}
+		}
+
+		/**
+		 * Ends the record currently being parsed, if any, and hands its issue to the
+		 * issue handler.
+		 *
+		 * @throws IllegalArgumentException if the record is invalid.
+		 */
+		void finish() {
+			if (issueFields != null) {
+				endNote();
+				issueHandler.accept(processIssue(issueFields, notes, pool, arena));
+				issueFields = null;
+				notes = new ArrayList<String>();
+			}
+		}
+
+		/**
+		 * Adds the note currently being parsed, if any, to the record's notes.
+		 */
+		private void endNote() {
+			if (note != null) {
+				// Citing assistance from Arsalaan Khan: .trim() String method to remove
+				// unnecessary whitespace from a read in note.
+				notes.add(note.toString().trim());
+				note = null;
+			}
+		}
 	}
 }
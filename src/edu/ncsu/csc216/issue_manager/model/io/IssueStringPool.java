@@ -0,0 +1,67 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Dictionary of strings read during one load of an issue file. Repeated values
+ * such as owners and summaries are replaced by the first instance read, so the
+ * loaded issues share one String per distinct value. Keeps a running estimate
+ * of the heap saved by the strings that were dropped. Safe to share between the
+ * tasks of a parallel load.
+ *
+ * @author Michael Warstler
+ */
+public class IssueStringPool {
+
+	/**
+	 * Approximate heap size of a String apart from its characters: the String
+	 * object plus the header of its byte array.
+	 */
+	private static final int STRING_OVERHEAD = 40;
+
+	/** Distinct strings seen so far, each mapped to itself */
+	private final ConcurrentHashMap<String, String> strings = new ConcurrentHashMap<String, String>();
+	/** Estimated bytes of the duplicate strings that were dropped */
+	private final LongAdder bytesSaved = new LongAdder();
+
+	/**
+	 * Gets the pooled instance of a string. The first time a value is seen it is
+	 * added to the pool and returned as is.
+	 *
+	 * @param string to look up.
+	 * @return is the pooled string equal to the parameter, or null if the
+	 *         parameter is null.
+	 */
+	public String intern(String string) {
+		if (string == null) {
+			return null;
+		}
+		String pooled = strings.putIfAbsent(string, string);
+		if (pooled == null) {
+			return string;
+		}
+		// Strings of Latin-1 text take one byte per character.
+		bytesSaved.add(STRING_OVERHEAD + string.length());
+		return pooled;
+	}
+
+	/**
+	 * Gets the number of distinct strings in the pool.
+	 *
+	 * @return is the number of distinct strings.
+	 */
+	public int size() {
+		return strings.size();
+	}
+
+	/**
+	 * Gets the estimated number of heap bytes saved by sharing pooled strings
+	 * instead of keeping every duplicate that was read.
+	 *
+	 * @return is the estimated bytes saved.
+	 */
+	public long getBytesSaved() {
+		return bytesSaved.sum();
+	}
+}
@@ -1,39 +1,528 @@
 package edu.ncsu.csc216.issue_manager.model.io;
 
-import java.io.File;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.PrintStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
 
 import edu.ncsu.csc216.issue_manager.model.issue.Issue;
 
 /**
  * Writes contents of an issue list to a designated output location. The printed
- * issue's are written in a format designated by the issue's toString() method.
- * 
+ * issue's are written in the format of the issue's toString() method. Issues
+ * are written field by field through one buffered writer into a temporary file
+ * (the target's name plus ".tmp") next to the target. The temporary file is forced to disk and then renamed over
+ * the target, so a failed save never leaves a partly written issue file behind.
+ *
+ * Issues can also be saved in the binary format of IssueBinaryFormat, which
+ * IssueReader detects and reads back without any loss. Issues can also be saved
+ * to a snapshot directory of segment files. Segment n
+ * holds the issues with ids from n * SEGMENT_SIZE + 1 to (n + 1) * SEGMENT_SIZE
+ * in the same format, so a save only needs to rewrite the segments of the
+ * issues that changed. The directory also holds a manifest listing the size,
+ * modification time and CRC32 of each segment, which is replaced after the
+ * segments are written.
+ *
+ * Every save returns a CRC32 of what it wrote, computed while writing: of the
+ * file's contents, or of the manifest for a directory. IssueCommandLog records
+ * it so it never has to read a snapshot back to know what it holds.
+ *
  * @author Michael Warstler
  */
 public class IssueWriter {
 
+	/** Size of the character buffer used when writing an issue file */
+	private static final int BUFFER_SIZE = 64 * 1024;
+	/** Number of issues written between reports to a progress listener */
+	private static final int PROGRESS_INTERVAL = 4096;
+	/** Number of consecutive ids stored in one segment file */
+	public static final int SEGMENT_SIZE = 4096;
+	/** Start of the name of a segment file */
+	static final String SEGMENT_PREFIX = "segment-";
+	/** End of the name of a segment file */
+	static final String SEGMENT_SUFFIX = ".txt";
+	/** Name of the manifest file of a snapshot directory */
+	static final String MANIFEST_NAME = "manifest.txt";
+	/** Size of the buffer a file is read through to checksum it */
+	private static final int CHECKSUM_BUFFER_SIZE = 64 * 1024;
+
 	/**
 	 * Method receives a string with a file name to write to and a list of issue
-	 * objects to write. Utilizes an issue object's toString() method to create the
-	 * proper format.
-	 * 
+	 * objects to write. Each issue is written in the format of its toString()
+	 * method.
+	 *
 	 * @param fileName to write to.
 	 * @param issues   are the list of issues to write out. Format given through
 	 *                 issue toString() method.
+	 * @return is the CRC32 of the contents of the file.
+	 * @throws IllegalArgumentException if there are issues trying to save to file.
+	 */
+	public static long writeIssuesToFile(String fileName, List<Issue> issues) {
+		return writeIssuesToFile(fileName, issues, null);
+	}
+
+	/**
+	 * Writes issues to a file as writeIssuesToFile(String, List) does, and reports
+	 * the number of issues written after every PROGRESS_INTERVAL issues and once
+	 * the file has replaced the target. If the listener cancels the save, the
+	 * target is left as it was.
+	 *
+	 * @param fileName to write to.
+	 * @param issues   are the list of issues to write out.
+	 * @param listener receives the issues written and the number of issues, or is
+	 *                 null.
+	 * @return is the CRC32 of the contents of the file.
 	 * @throws IllegalArgumentException if there are issues trying to save to file.
+	 * @throws java.util.concurrent.CancellationException if the listener cancels
+	 *                                                    the save.
+	 */
+	public static long writeIssuesToFile(String fileName, List<Issue> issues, ProgressListener listener) {
+		Path target = Paths.get(fileName).toAbsolutePath();
+		Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+		CRC32 checksum = new CRC32();
+		try {
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING);
+					Writer fileWriter = new BufferedWriter(new OutputStreamWriter(
+							new CheckedOutputStream(Channels.newOutputStream(channel), checksum), StandardCharsets.UTF_8),
+							BUFFER_SIZE)) {
+				// For each issue, write out the toString() format.
+				StringBuilder notes = new StringBuilder();
+				char[] chars = new char[BUFFER_SIZE];
+				for (int i = 0; i < issues.size(); i++) {
+					writeIssue(fileWriter, issues.get(i), notes, chars);
+					if (listener != null && (i + 1) % PROGRESS_INTERVAL == 0) {
+						listener.progress(i + 1, issues.size());
+					}
+				}
+				fileWriter.flush();
+				channel.force(true);
+			}
+			replace(temp, target);
+			if (listener != null) {
+				listener.progress(issues.size(), issues.size());
+			}
+			return checksum.getValue();
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to save file.");
+		} finally {
+			// Once renamed the temporary file no longer exists.
+			deleteQuietly(temp);
+		}
+	}
+
+	/**
+	 * Writes issues to a file in the binary format, with a trailing id index that
+	 * lets IssueReader.readIssueFromBinaryFile() fetch one issue without reading
+	 * the others. The file is replaced in the same way as by writeIssuesToFile().
+	 *
+	 * @param fileName to write to.
+	 * @param issues   are the list of issues to write out.
+	 * @return is the CRC32 of the contents of the file.
+	 * @throws IllegalArgumentException if there are issues trying to save to file.
+	 */
+	public static long writeIssuesToBinaryFile(String fileName, List<Issue> issues) {
+		Path target = Paths.get(fileName).toAbsolutePath();
+		Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+		CRC32 checksum = new CRC32();
+		try {
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING);
+					OutputStream out = new BufferedOutputStream(
+							new CheckedOutputStream(Channels.newOutputStream(channel), checksum), BUFFER_SIZE)) {
+				IssueBinaryFormat.write(out, issues);
+				out.flush();
+				channel.force(true);
+			}
+			replace(temp, target);
+			return checksum.getValue();
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to save file.");
+		} finally {
+			deleteQuietly(temp);
+		}
+	}
+
+	/**
+	 * Saves issues to a snapshot directory of segment files, creating the directory
+	 * if needed. When dirtyIds is given, only the segments holding those ids are
+	 * rewritten and every other segment file is left as it is. Otherwise every
+	 * segment is written and segment files with no issues left are removed. A
+	 * segment whose issues have all been deleted is removed too. The manifest is
+	 * replaced last, keeping the entries of the segments that were not rewritten.
+	 * A segment file the old manifest does not list is read once to checksum it.
+	 *
+	 * @param directoryName is the snapshot directory.
+	 * @param issues        are the issues to save, in id order.
+	 * @param dirtyIds      are the ids added, changed or deleted since the
+	 *                      directory was last saved, or null to write every
+	 *                      segment.
+	 * @return is the CRC32 of the new manifest.
+	 * @throws IllegalArgumentException if there are issues trying to save to the
+	 *                                  directory.
 	 */
-	public static void writeIssuesToFile(String fileName, List<Issue> issues) {
+	public static long writeIssuesToDirectory(String directoryName, List<Issue> issues, BitSet dirtyIds) {
+		Path directory = Paths.get(directoryName);
 		try {
-			PrintStream fileWriter = new PrintStream(new File(fileName));
-			// For each issue, print out the toString() output.
-			for (int i = 0; i < issues.size(); i++) {
-				fileWriter.print(issues.get(i).toString());
+			Files.createDirectories(directory);
+			TreeMap<Integer, long[]> manifest = null;
+			if (dirtyIds == null) {
+				manifest = new TreeMap<Integer, long[]>();
+				int start = 0;
+				while (start < issues.size()) {
+					int segment = getSegment(issues.get(start).getIssueId());
+					start = writeSegment(directory, segment, issues, manifest);
+				}
+				for (int segment : listSegments(directory)) {
+					if (!manifest.containsKey(segment)) {
+						Files.delete(getSegmentFile(directory, segment));
+					}
+				}
+			} else {
+				manifest = readManifest(directory, null);
+				if (manifest == null) {
+					manifest = new TreeMap<Integer, long[]>();
+				}
+				int id = dirtyIds.nextSetBit(1);
+				while (id >= 0) {
+					int segment = getSegment(id);
+					writeSegment(directory, segment, issues, manifest);
+					id = dirtyIds.nextSetBit((segment + 1) * SEGMENT_SIZE + 1);
+				}
+				int[] segments = listSegments(directory);
+				TreeMap<Integer, long[]> listed = new TreeMap<Integer, long[]>();
+				for (int segment : segments) {
+					long[] entry = manifest.get(segment);
+					if (entry == null) {
+						Path file = getSegmentFile(directory, segment);
+						entry = getEntry(file, checksum(file));
+					}
+					listed.put(segment, entry);
+				}
+				manifest = listed;
 			}
+			return writeManifest(directory, manifest);
 		} catch (IOException e) {
 			throw new IllegalArgumentException("Unable to save file.");
 		}
 	}
+
+	/**
+	 * Gets the segment that holds an id.
+	 *
+	 * @param id of an issue.
+	 * @return is the segment number.
+	 */
+	public static int getSegment(int id) {
+		return (id - 1) / SEGMENT_SIZE;
+	}
+
+	/**
+	 * Gets the file of a segment in a snapshot directory.
+	 *
+	 * @param directory is the snapshot directory.
+	 * @param segment   is the segment number.
+	 * @return is the segment file.
+	 */
+	static Path getSegmentFile(Path directory, int segment) {
+		return directory.resolve(SEGMENT_PREFIX + segment + SEGMENT_SUFFIX);
+	}
+
+	/**
+	 * Gets the numbers of the segment files in a snapshot directory.
+	 *
+	 * @param directory is the snapshot directory.
+	 * @return is the segment numbers in increasing order.
+	 * @throws IOException if the directory cannot be listed.
+	 */
+	static int[] listSegments(Path directory) throws IOException {
+		BitSet segments = new BitSet();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+				SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+			for (Path file : files) {
+				String name = file.getFileName().toString();
+				String number = name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length());
+				try {
+					segments.set(Integer.parseInt(number));
+				} catch (NumberFormatException e) {
+					// Not a segment file.
+				}
+			}
+		}
+		return segments.stream().toArray();
+	}
+
+	/**
+	 * Reads the manifest of a snapshot directory.
+	 *
+	 * @param directory is the snapshot directory.
+	 * @param checksum  is updated with the bytes of the manifest, or is null.
+	 * @return is the size, modification time and CRC32 of each segment by segment
+	 *         number, or null if the directory has no valid manifest.
+	 * @throws IOException if the manifest cannot be read.
+	 */
+	static TreeMap<Integer, long[]> readManifest(Path directory, CRC32 checksum) throws IOException {
+		Path file = directory.resolve(MANIFEST_NAME);
+		if (!Files.isRegularFile(file)) {
+			return null;
+		}
+		byte[] bytes = Files.readAllBytes(file);
+		if (checksum != null) {
+			checksum.update(bytes, 0, bytes.length);
+		}
+		TreeMap<Integer, long[]> manifest = new TreeMap<Integer, long[]>();
+		for (String line : new String(bytes, StandardCharsets.UTF_8).split("\n")) {
+			if (line.isEmpty()) {
+				continue;
+			}
+			String[] fields = line.split(" ");
+			if (fields.length != 4) {
+				return null;
+			}
+			try {
+				manifest.put(Integer.parseInt(fields[0]),
+						new long[] { Long.parseLong(fields[1]), Long.parseLong(fields[2]), Long.parseLong(fields[3]) });
+			} catch (NumberFormatException e) {
+				return null;
+			}
+		}
+		return manifest;
+	}
+
+	/**
+	 * Replaces the manifest of a snapshot directory in the same way as
+	 * writeIssuesToFile() replaces a file.
+	 *
+	 * @param directory is the snapshot directory.
+	 * @param manifest  is the entry of each segment by segment number.
+	 * @return is the CRC32 of the manifest.
+	 * @throws IOException if the manifest cannot be written.
+	 */
+	private static long writeManifest(Path directory, TreeMap<Integer, long[]> manifest) throws IOException {
+		StringBuilder text = new StringBuilder();
+		for (Map.Entry<Integer, long[]> entry : manifest.entrySet()) {
+			long[] segment = entry.getValue();
+			text.append(entry.getKey()).append(' ').append(segment[0]).append(' ').append(segment[1]).append(' ')
+					.append(segment[2]).append('\n');
+		}
+		byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+		Path target = directory.toAbsolutePath().resolve(MANIFEST_NAME);
+		Path temp = target.resolveSibling(MANIFEST_NAME + ".tmp");
+		try {
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING)) {
+				ByteBuffer buffer = ByteBuffer.wrap(bytes);
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+				channel.force(true);
+			}
+			replace(temp, target);
+		} finally {
+			deleteQuietly(temp);
+		}
+		CRC32 checksum = new CRC32();
+		checksum.update(bytes, 0, bytes.length);
+		return checksum.getValue();
+	}
+
+	/**
+	 * Gets the manifest entry of a file: its size, its modification time and its
+	 * CRC32.
+	 *
+	 * @param file     to describe.
+	 * @param checksum is the CRC32 of the contents of the file.
+	 * @return is the size in bytes, the modification time in nanoseconds and the
+	 *         checksum.
+	 * @throws IOException if the file cannot be read.
+	 */
+	static long[] getEntry(Path file, long checksum) throws IOException {
+		return new long[] { Files.size(file), Files.getLastModifiedTime(file).to(TimeUnit.NANOSECONDS), checksum };
+	}
+
+	/**
+	 * Checks that a file still holds what an entry from getEntry() describes. A
+	 * file of the same size and modification time is taken to be unchanged. One
+	 * of the same size with a new modification time, such as a touched or copied
+	 * file, is read to compare its checksum. A rewrite of the same size that
+	 * lands within the file system's timestamp resolution of the save keeps the
+	 * modification time, so it is not detected.
+	 *
+	 * @param file  to check.
+	 * @param entry is the size, modification time and checksum of the file.
+	 * @return is true if the file holds the contents the entry describes.
+	 * @throws IOException if the file cannot be read.
+	 */
+	static boolean matches(Path file, long[] entry) throws IOException {
+		if (!Files.isRegularFile(file) || Files.size(file) != entry[0]) {
+			return false;
+		}
+		return Files.getLastModifiedTime(file).to(TimeUnit.NANOSECONDS) == entry[1] || checksum(file) == entry[2];
+	}
+
+	/**
+	 * Reads a whole file to compute the CRC32 of its contents.
+	 *
+	 * @param file to read.
+	 * @return is the checksum.
+	 * @throws IOException if the file cannot be read.
+	 */
+	static long checksum(Path file) throws IOException {
+		CRC32 checksum = new CRC32();
+		ByteBuffer buffer = ByteBuffer.allocate(CHECKSUM_BUFFER_SIZE);
+		try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+			while (in.read(buffer) >= 0) {
+				buffer.flip();
+				checksum.update(buffer);
+				buffer.clear();
+			}
+		}
+		return checksum.getValue();
+	}
+
+	/**
+	 * Writes the file of one segment, or removes it if the segment has no issues,
+	 * and updates the segment's entry in the manifest.
+	 *
+	 * @param directory is the snapshot directory.
+	 * @param segment   is the segment number.
+	 * @param issues    are all issues being saved, in id order.
+	 * @param manifest  is the entry of each segment by segment number.
+	 * @return is the index in issues of the first issue after the segment.
+	 * @throws IOException if an empty segment file cannot be removed.
+	 */
+	private static int writeSegment(Path directory, int segment, List<Issue> issues, TreeMap<Integer, long[]> manifest)
+			throws IOException {
+		int start = firstIndexFrom(issues, segment * SEGMENT_SIZE + 1);
+		int end = firstIndexFrom(issues, (segment + 1) * SEGMENT_SIZE + 1);
+		Path file = getSegmentFile(directory, segment);
+		if (start == end) {
+			Files.deleteIfExists(file);
+			manifest.remove(segment);
+		} else {
+			long checksum = writeIssuesToFile(file.toString(), issues.subList(start, end));
+			manifest.put(segment, getEntry(file, checksum));
+		}
+		return end;
+	}
+
+	/**
+	 * Finds the first issue with an id of at least the given id by binary search.
+	 *
+	 * @param issues are issues in id order.
+	 * @param id     to search for.
+	 * @return is the index of the first issue with an id of at least id, or the
+	 *         size of the list if there is none.
+	 */
+	private static int firstIndexFrom(List<Issue> issues, int id) {
+		int low = 0;
+		int high = issues.size();
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (issues.get(middle).getIssueId() < id) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Writes one issue in the format of its toString() method without building the
+	 * record as a String first.
+	 *
+	 * The notes are rendered into a builder and copied out through a char array,
+	 * both reused from issue to issue.
+	 *
+	 * @param fileWriter to write to.
+	 * @param issue      to write.
+	 * @param notes      is a builder to render the notes into.
+	 * @param chars      is a buffer to copy the notes through.
+	 * @throws IOException if the issue cannot be written.
+	 */
+	static void writeIssue(Writer fileWriter, Issue issue, StringBuilder notes, char[] chars) throws IOException {
+		String resolution = issue.getResolution();
+		fileWriter.write('*');
+		fileWriter.write(Integer.toString(issue.getIssueId()));
+		fileWriter.write(',');
+		fileWriter.write(issue.getStateName());
+		fileWriter.write(',');
+		fileWriter.write(issue.getIssueType());
+		fileWriter.write(',');
+		fileWriter.write(issue.getSummary());
+		fileWriter.write(',');
+		fileWriter.write(String.valueOf(issue.getOwner())); // toString() writes a missing owner as "null".
+		fileWriter.write(',');
+		fileWriter.write(issue.isConfirmed() ? "true" : "false");
+		fileWriter.write(',');
+		if (resolution != null) {
+			fileWriter.write(resolution);
+		}
+		fileWriter.write('\n');
+
+		notes.setLength(0);
+		issue.appendNotesTo(notes);
+		for (int start = 0; start < notes.length(); start += chars.length) {
+			int end = Math.min(notes.length(), start + chars.length);
+			notes.getChars(start, end, chars, 0);
+			fileWriter.write(chars, 0, end - start);
+		}
+	}
+
+	/**
+	 * Renames a fully written temporary file over the target file. The rename is
+	 * atomic where the file system supports it.
+	 *
+	 * @param temp   is the temporary file.
+	 * @param target is the file to replace.
+	 * @throws IOException if the file cannot be renamed.
+	 */
+	public static void replace(Path temp, Path target) throws IOException {
+		try {
+			Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+		// Force the directory entry of the rename to disk. Not every platform allows a
+		// directory to be opened, in which case the rename is left to the file system.
+		try (FileChannel directory = FileChannel.open(target.toAbsolutePath().getParent(), StandardOpenOption.READ)) {
+			directory.force(true);
+		} catch (IOException e) {
+			// Directory could not be forced on this platform.
+		}
+	}
+
+	/**
+	 * Deletes a temporary file left by a failed save, if there is one.
+	 *
+	 * @param temp is the temporary file.
+	 */
+	static void deleteQuietly(Path temp) {
+		try {
+			Files.deleteIfExists(temp);
+		} catch (IOException e) {
+			// The save has already failed. A leftover temporary file is not an error.
+		}
+	}
 }
@@ -0,0 +1,20 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+/**
+ * Receives the progress of a long running read or save. The listener is called
+ * on the thread doing the work, every so many issues and once at the end. It
+ * can stop the work by throwing a java.util.concurrent.CancellationException,
+ * which is passed on to the caller.
+ *
+ * @author Michael Warstler
+ */
+public interface ProgressListener {
+
+	/**
+	 * Reports how much of the work is done.
+	 *
+	 * @param done  is the amount of work done so far.
+	 * @param total is the total amount of work.
+	 */
+	void progress(long done, long total);
+}
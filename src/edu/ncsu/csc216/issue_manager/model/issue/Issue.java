@@ -3,17 +3,28 @@ package edu.ncsu.csc216.issue_manager.model.issue;
 import java.util.ArrayList;
 
 import edu.ncsu.csc216.issue_manager.model.command.Command;
+import edu.ncsu.csc216.issue_manager.model.command.Command.CommandValue;
 import edu.ncsu.csc216.issue_manager.model.command.Command.Resolution;
 
 /**
  * Class gets/sets values for issue id, summary, owner, confirmed status, notes,
- * issue type, state, and resolution. Creates an Issue object along with 5 types
- * of inner objects which includes NewState, WorkingState, ConfirmedState, and
- * ClosedState. Contains IssueState interface to implement behavior in
- * previously mentioned inner classes. Inner state classes demonstrate finite
- * state machine structure of allowing Issue object to transition between
- * different states, each with its own characteristics. Class is utilized by
- * IssueList class.
+ * issue type, state, and resolution. Contains the IssueState enumeration whose
+ * constants (NEW, WORKING, CONFIRMED, VERIFYING, CLOSED) implement the behavior
+ * of each state. The state constants are shared by every Issue and demonstrate
+ * finite state machine structure of allowing Issue object to transition between
+ * different states, each with its own characteristics. The rules of the states
+ * are compiled into a transition table when the class is loaded, so checking a
+ * command is a single array lookup. Class is utilized by
+ * IssueList class. An issue read without its notes gets them from a NoteLoader
+ * each time they are used, until a command adds a note and the issue takes its
+ * own copy. An issue's own notes are kept in a NoteArena, and the issue holds
+ * only the address of each note and the state it was added in. The "[State] "
+ * prefix is rendered when a note is read. An issue made without an arena keeps
+ * its notes in the shared staging arena of NoteArena, and the IssueList it is
+ * added to moves its notes into the arena of the list. The arena, the note
+ * addresses and any NoteLoader are published together as one immutable Notes
+ * value, so a reader that takes no lock never pairs addresses with the wrong
+ * arena.
  * 
  * @author Michael Warstler
  */
@@ -34,16 +45,24 @@ public class Issue {
 	/** Constant string for the closed state's name */
 	public static final String CLOSED_NAME = "Closed";
 
-	/** Final instance of the NewState inner class */
-	private final IssueState newState = new NewState();
-	/** Final instance of the WorkingState inner class */
-	private final IssueState workingState = new WorkingState();
-	/** Final instance of the ConfirmedState inner class */
-	private final IssueState confirmedState = new ConfirmedState();
-	/** Final instance of the VerifyingState inner class */
-	private final IssueState verifyingState = new VerifyingState();
-	/** Final instance of the ClosedState inner class */
-	private final IssueState closedState = new ClosedState();
+	/** Every state, indexed by ordinal */
+	private static final IssueState[] STATES = IssueState.values();
+	/** Every issue type, indexed by ordinal */
+	private static final IssueType[] ISSUE_TYPES = IssueType.values();
+	/** Slot value in the transition table of a command that is not valid */
+	private static final byte REJECTED = -1;
+	/**
+	 * Target state ordinal for each state, issue type, command code (see
+	 * Command.encode()), confirmed status, and whether the issue has an owner
+	 */
+	private static final byte[] TRANSITIONS = buildTransitions();
+	/**
+	 * Number of low bits of a note entry that hold the state of the note. Arena
+	 * addresses never exceed NoteArena.MAX_ADDRESS, so they fit above these bits.
+	 */
+	private static final int NOTE_STATE_BITS = Long.SIZE - 1 - NoteArena.ADDRESS_BITS;
+	/** State bits of a note entry whose text already holds its own prefix */
+	private static final int RAW_NOTE = (1 << NOTE_STATE_BITS) - 1;
 
 	/** Issue's unique id */
 	private int issueId;
@@ -59,8 +78,8 @@ public class Issue {
 	private boolean confirmed;
 	/** Issue's resolution type */
 	private Resolution resolution;
-	/** Issue's note list */
-	private ArrayList<String> notes = new ArrayList<String>();
+	/** Issue's notes, replaced as a whole whenever they change */
+	private volatile Notes notes;
 
 	/**
 	 * Enumeration object related to the possible values an Issue can be
@@ -75,6 +94,115 @@ public class Issue {
 		BUG
 	}
 
+	/**
+	 * Source of the notes of issues that were read without them. Notes are found
+	 * by a handle given to the issue when it is created. A loader that can also
+	 * store notes takes each new note itself, so the issue keeps reading its notes
+	 * from the loader.
+	 * 
+	 * @author Michael Warstler
+	 */
+	public interface NoteLoader {
+
+		/**
+		 * Gets the notes stored at a handle.
+		 * 
+		 * @param handle of the notes.
+		 * @return is a new list of the notes.
+		 */
+		ArrayList<String> loadNotes(long handle);
+
+		/**
+		 * Adds a note to the notes stored at a handle, if the loader can store notes.
+		 * The note is stored as "[" + stateName + "] " + note.
+		 * 
+		 * @param handle    of the notes.
+		 * @param stateName is the name of the state the note is added in.
+		 * @param note      is the text of the note.
+		 * @return is true if the note was stored, or false if the loader only reads
+		 *         notes and the issue must keep its own copy.
+		 */
+		default boolean appendNote(long handle, String stateName, String note) {
+			return false;
+		}
+	}
+
+	/**
+	 * Notes of an issue as one immutable value: the arena holding their text, the
+	 * entry of each note, and the NoteLoader they are still in, if any. Adding a
+	 * note makes a new value that may share the entries array, writing only past
+	 * the count of the old value, so readers of the old value are not affected.
+	 * 
+	 * @author Michael Warstler
+	 */
+	private static final class Notes {
+
+		/** Entries array of notes that have none */
+		private static final long[] NO_ENTRIES = new long[0];
+
+		/** Arena holding the text of the notes */
+		private final NoteArena arena;
+		/**
+		 * Entry of each note, the arena address shifted past NOTE_STATE_BITS and
+		 * joined with the ordinal of the state it was added in, or RAW_NOTE
+		 */
+		private final long[] entries;
+		/** Number of entries in use */
+		private final int count;
+		/** Source of the notes, or null once the notes are held by the issue */
+		private final NoteLoader loader;
+		/** Handle of the notes in loader */
+		private final long handle;
+
+		/**
+		 * Constructs notes.
+		 * 
+		 * @param arena   holds the text of the notes.
+		 * @param entries are the entries of the notes.
+		 * @param count   is the number of entries in use.
+		 * @param loader  holds the notes instead, or is null.
+		 * @param handle  of the notes in loader.
+		 */
+		private Notes(NoteArena arena, long[] entries, int count, NoteLoader loader, long handle) {
+			this.arena = arena;
+			this.entries = entries;
+			this.count = count;
+			this.loader = loader;
+			this.handle = handle;
+		}
+
+		/**
+		 * Makes empty notes kept in an arena.
+		 * 
+		 * @param arena to keep the notes in, or null for the staging arena.
+		 * @param capacity is the number of notes to make room for.
+		 * @return is the empty notes.
+		 */
+		private static Notes empty(NoteArena arena, int capacity) {
+			return new Notes(arena == null ? NoteArena.staging() : arena,
+					capacity == 0 ? NO_ENTRIES : new long[capacity], 0, null, 0);
+		}
+
+		/**
+		 * Appends a note's text to the arena and makes notes with its entry added.
+		 * 
+		 * @param stateBits is the state ordinal to render before the text, or
+		 *                  RAW_NOTE for none.
+		 * @param text      holds the text of the note.
+		 * @param start     is the index in text where the note starts.
+		 * @return is the notes with the new note.
+		 */
+		private Notes with(int stateBits, String text, int start) {
+			long[] grown = entries;
+			if (count == grown.length) {
+				grown = new long[Math.max(2, 2 * count)];
+				System.arraycopy(entries, 0, grown, 0, count);
+			}
+			grown[count] = arena.append(text, start) << NOTE_STATE_BITS | stateBits;
+			return new Notes(arena, grown, count + 1, null, 0);
+		}
+	}
+
 	/**
 	 * Constructor for Issue object based on id, issue type, summary, and note.
 	 * Missing fields are initialized to null or false. State is set to new.
@@ -86,14 +214,31 @@ public class Issue {
 	 * @throws IllegalArgumentException if issueType is null.
 	 */
 	public Issue(int id, IssueType issueType, String summary, String note) {
+		this(id, issueType, summary, note, null);
+	}
+
+	/**
+	 * Constructor for Issue object based on id, issue type, summary, and note,
+	 * whose notes are kept in a given arena.
+	 * 
+	 * @param id        of issue.
+	 * @param issueType of issue (bug/enhancement).
+	 * @param summary   of issue.
+	 * @param note      of issue.
+	 * @param noteArena holds the text of the issue's notes, or is null for the
+	 *                  staging arena.
+	 * @throws IllegalArgumentException if issueType is null.
+	 */
+	public Issue(int id, IssueType issueType, String summary, String note, NoteArena noteArena) {
 		// Check for valid issueType (not null).
 		if (issueType == null) {
 			throw new IllegalArgumentException("Issue cannot be created.");
 		}
 
 		// Initialize fields to parameter values.
+		notes = Notes.empty(noteArena, 1);
 		setIssueId(id);
-		state = newState;
+		state = IssueState.NEW;
 		this.issueType = issueType;
 		setSummary(summary);
 		owner = null;
@@ -124,7 +269,89 @@ public class Issue {
 		setOwner(owner);
 		setConfirmed(confirmed);
 		setResolution(resolution);
-		setNotes(notes);
+		setNotes(notes, null);
+	}
+
+	/**
+	 * Constructor for Issue object based on id, state, issue type, summary, owner,
+	 * confirmed status, resolution, and notes, where the state, issue type, and
+	 * resolution are already enumeration values. Applies the same checks as the
+	 * constructor that takes their string representations.
+	 * 
+	 * @param id         of issue.
+	 * @param state      of issue.
+	 * @param issueType  of issue.
+	 * @param summary    of issue.
+	 * @param owner      of issue.
+	 * @param confirmed  status for issue (true/false)
+	 * @param resolution of issue, or null if the issue has no resolution.
+	 * @param notes      of issue.
+	 * @throws IllegalArgumentException if any field is invalid.
+	 */
+	public Issue(int id, IssueState state, IssueType issueType, String summary, String owner, boolean confirmed,
+			Resolution resolution, ArrayList<String> notes) {
+		this(id, state, issueType, summary, owner, confirmed, resolution, notes, null);
+	}
+
+	/**
+	 * Constructor for Issue object based on id, state, issue type, summary, owner,
+	 * confirmed status, resolution, and notes, whose notes are kept in a given
+	 * arena. Readers pass one arena for every issue of a load.
+	 * 
+	 * @param id         of issue.
+	 * @param state      of issue.
+	 * @param issueType  of issue.
+	 * @param summary    of issue.
+	 * @param owner      of issue.
+	 * @param confirmed  status for issue (true/false)
+	 * @param resolution of issue, or null if the issue has no resolution.
+	 * @param notes      of issue.
+	 * @param noteArena  holds the text of the issue's notes, or is null for the
+	 *                   staging arena.
+	 * @throws IllegalArgumentException if any field is invalid.
+	 */
+	public Issue(int id, IssueState state, IssueType issueType, String summary, String owner, boolean confirmed,
+			Resolution resolution, ArrayList<String> notes, NoteArena noteArena) {
+		setIssueId(id);
+		setState(state);
+		setIssueType(issueType);
+		setSummary(summary);
+		setOwner(owner);
+		setConfirmed(confirmed);
+		setResolution(resolution);
+		setNotes(notes, noteArena);
+	}
+
+	/**
+	 * Constructor for Issue object whose notes are left in a NoteLoader until they
+	 * are used. The other fields get the same checks as in the constructor that
+	 * takes the notes.
+	 * 
+	 * @param id         of issue.
+	 * @param state      of issue.
+	 * @param issueType  of issue.
+	 * @param summary    of issue.
+	 * @param owner      of issue.
+	 * @param confirmed  status for issue (true/false)
+	 * @param resolution of issue, or null if the issue has no resolution.
+	 * @param noteLoader holds the notes of the issue.
+	 * @param noteHandle is the handle of the notes in noteLoader.
+	 * @throws IllegalArgumentException if any field is invalid or noteLoader is
+	 *                                  null.
+	 */
+	public Issue(int id, IssueState state, IssueType issueType, String summary, String owner, boolean confirmed,
+			Resolution resolution, NoteLoader noteLoader, long noteHandle) {
+		if (noteLoader == null) {
+			throw new IllegalArgumentException("Issue cannot be created.");
+		}
+		setIssueId(id);
+		setState(state);
+		setIssueType(issueType);
+		setSummary(summary);
+		setOwner(owner);
+		setConfirmed(confirmed);
+		setResolution(resolution);
+		this.notes = new Notes(null, Notes.NO_ENTRIES, 0, noteLoader, noteHandle);
 	}
 
 	/**
@@ -171,18 +398,31 @@ public class Issue {
 
 		// Assign IssueState field a correct state based on read in parameter
 		if (state.equals(NEW_NAME)) {
-			this.state = newState; // assigns IssueState field to NewState().
+			this.state = IssueState.NEW; // assigns IssueState field to the shared NEW state.
 		} else if (state.equals(WORKING_NAME)) {
-			this.state = workingState;
+			this.state = IssueState.WORKING;
 		} else if (state.equals(CONFIRMED_NAME)) {
-			this.state = confirmedState;
+			this.state = IssueState.CONFIRMED;
 		} else if (state.equals(VERIFYING_NAME)) {
-			this.state = verifyingState;
+			this.state = IssueState.VERIFYING;
 		} else {
-			this.state = closedState;
+			this.state = IssueState.CLOSED;
 		}
 	}
 
+	/**
+	 * Sets the issue's state from an IssueState value.
+	 * 
+	 * @param state is the state to set.
+	 * @throws IllegalArgumentException when parameter is null.
+	 */
+	private void setState(IssueState state) {
+		if (state == null) {
+			throw new IllegalArgumentException("Issue cannot be created.");
+		}
+		this.state = state;
+	}
+
 	/**
 	 * Gets an issue's current state name as a string.
 	 * 
@@ -195,6 +435,15 @@ public class Issue {
 			return null;
 	}
 
+	/**
+	 * Gets an issue's current state.
+	 * 
+	 * @return is the IssueState constant of the current state.
+	 */
+	public IssueState getState() {
+		return state;
+	}
+
 	/**
 	 * Sets the issue's type (enhancement/bug).
 	 * 
@@ -220,6 +469,19 @@ public class Issue {
 		}
 	}
 
+	/**
+	 * Sets the issue's type from an IssueType value.
+	 * 
+	 * @param issueType is the issue type to set.
+	 * @throws IllegalArgumentException when parameter is null.
+	 */
+	private void setIssueType(IssueType issueType) {
+		if (issueType == null) {
+			throw new IllegalArgumentException("Issue cannot be created.");
+		}
+		this.issueType = issueType;
+	}
+
 	/**
 	 * Gets an issue's type (enhancement/bug). Returns the Issue's type object as a
 	 * string representation.
@@ -234,6 +496,15 @@ public class Issue {
 		}
 	}
 
+	/**
+	 * Gets an issue's type as its IssueType value.
+	 * 
+	 * @return is the issue type (ENHANCEMENT/BUG).
+	 */
+	public IssueType getIssueTypeValue() {
+		return issueType;
+	}
+
 	/**
 	 * Sets the issue's summary field.
 	 * 
@@ -270,11 +541,11 @@ public class Issue {
 
 		// Check for correct owner information depending on state field.
 		// Owner must be assigned when state is Working or Verifying
-		if ((state == workingState || state == verifyingState) && (owner == null || "".equals(owner))) {
+		if ((state == IssueState.WORKING || state == IssueState.VERIFYING) && (owner == null || "".equals(owner))) {
 			throw new IllegalArgumentException("Issue cannot be created.");
 		}
 		// Owner must be empty for New and Confirmed state
-		if ((state == newState || state == confirmedState) && owner != null && !"".equals(owner)) {
+		if ((state == IssueState.NEW || state == IssueState.CONFIRMED) && owner != null && !"".equals(owner)) {
 			throw new IllegalArgumentException("Issue cannot be created.");
 		}
 
@@ -309,7 +580,7 @@ public class Issue {
 		}
 
 		// Issue of bug type must be confirmed when in working state.
-		if (issueType == IssueType.BUG && state == workingState && !confirmed) {
+		if (issueType == IssueType.BUG && state == IssueState.WORKING && !confirmed) {
 			throw new IllegalArgumentException("Issue cannot be created.");
 		}
 		this.confirmed = confirmed;
@@ -334,44 +605,56 @@ public class Issue {
 	 * @throws IllegalArgumentException if resolution parameter is invalid.
 	 */
 	private void setResolution(String resolution) {
-
-		// Check for null/empty conditions.
+		// Convert the string to a Resolution and let setResolution(Resolution) check
+		// it against the state and issue type.
 		if (resolution == null || "".equals(resolution)) {
+			setResolution((Resolution) null);
+		} else if (resolution.equals(Command.R_FIXED)) {
+			setResolution(Resolution.FIXED);
+		} else if (resolution.equals(Command.R_DUPLICATE)) {
+			setResolution(Resolution.DUPLICATE);
+		} else if (resolution.equals(Command.R_WONTFIX)) {
+			setResolution(Resolution.WONTFIX);
+		} else if (resolution.equals(Command.R_WORKSFORME)) {
+			setResolution(Resolution.WORKSFORME);
+		}
+		// Resolution string is something it cannot be.
+		else {
+			throw new IllegalArgumentException("Issue cannot be created.");
+		}
+	}
+
+	/**
+	 * Sets the issue's resolution from a Resolution value. Invalid resolutions
+	 * include anything other than FIXED for verifying state, null for closed or
+	 * verifying state, anything but null for new, confirmed, or working state, and
+	 * WORKSFORME for an enhancement.
+	 * 
+	 * @param resolution is the resolution to set, or null for no resolution.
+	 * @throws IllegalArgumentException if resolution parameter is invalid.
+	 */
+	private void setResolution(Resolution resolution) {
+		// Check for null conditions.
+		if (resolution == null) {
 			// Resolution can't be null/empty in closed or verifying state
-			if (state == closedState || state == verifyingState) {
-				throw new IllegalArgumentException("Issue cannot be created.");
-			} else {
-				this.resolution = null;
-			}
-		} else {
-			// A resolution cannot exists in new, confirmed, or working unless it is
-			// null/empty.
-			if (state == newState || state == confirmedState || state == workingState) {
-				throw new IllegalArgumentException("Issue cannot be created.");
-			}
-			// Verifying state can only have "Fixed" resolution.
-			else if (state == verifyingState && !resolution.equals(Command.R_FIXED)) {
-				throw new IllegalArgumentException("Issue cannot be created.");
-			}
-			// Set valid Resolution based on string parameter. State should be closed.
-			else if (resolution.equals(Command.R_FIXED)) {
-				this.resolution = Resolution.FIXED;
-			} else if (resolution.equals(Command.R_DUPLICATE)) {
-				this.resolution = Resolution.DUPLICATE;
-			} else if (resolution.equals(Command.R_WONTFIX)) {
-				this.resolution = Resolution.WONTFIX;
-			} else if (resolution.equals(Command.R_WORKSFORME)) {
-				if (issueType == IssueType.ENHANCEMENT) { // Enhancement cannot have WorksForMe
-					throw new IllegalArgumentException("Issue cannot be created.");
-				} else {
-					this.resolution = Resolution.WORKSFORME;
-				}
-			}
-			// Resolution string is something it cannot be.
-			else {
+			if (state == IssueState.CLOSED || state == IssueState.VERIFYING) {
 				throw new IllegalArgumentException("Issue cannot be created.");
 			}
 		}
+		// A resolution cannot exists in new, confirmed, or working unless it is
+		// null/empty.
+		else if (state == IssueState.NEW || state == IssueState.CONFIRMED || state == IssueState.WORKING) {
+			throw new IllegalArgumentException("Issue cannot be created.");
+		}
+		// Verifying state can only have Fixed resolution.
+		else if (state == IssueState.VERIFYING && resolution != Resolution.FIXED) {
+			throw new IllegalArgumentException("Issue cannot be created.");
+		}
+		// Enhancement cannot have WorksForMe
+		else if (resolution == Resolution.WORKSFORME && issueType == IssueType.ENHANCEMENT) {
+			throw new IllegalArgumentException("Issue cannot be created.");
+		}
+		this.resolution = resolution;
 	}
 
 	/**
@@ -395,9 +678,18 @@ public class Issue {
 	}
 
 	/**
-	 * Adds the parameter note to the notes list. The state name is put in square
-	 * brackets and prepended to the parameter note. This is then added to the notes
-	 * field. (Format is [State name] note...)
+	 * Gets the issue's resolution as its Resolution value.
+	 * 
+	 * @return is the issue's resolution, or null if no resolution was set.
+	 */
+	public Resolution getResolutionValue() {
+		return resolution;
+	}
+
+	/**
+	 * Adds the parameter note to the notes list. The note is stored with the
+	 * current state, whose name is put in square brackets before the note when it
+	 * is read. (Format is [State name] note...)
 	 * 
 	 * @param note is individual string note to add to list.
 	 * @throws IllegalArgumentException if the note is null/empty.
@@ -408,17 +700,117 @@ public class Issue {
 			throw new IllegalArgumentException("Issue cannot be created.");
 		}
 
-		// Add note to notes array list.
-		notes.add("[" + getStateName() + "] " + note);
+		// The issue keeps its own notes from its first change on, unless the loader
+		// stores notes too.
+		Notes current = notes;
+		if (current.loader != null && current.loader.appendNote(current.handle, getStateName(), note)) {
+			return;
+		}
+		if (current.loader != null) {
+			// The loaded notes are stored before the new notes are published.
+			ArrayList<String> loaded = current.loader.loadNotes(current.handle);
+			Notes own = Notes.empty(current.arena, loaded.size() + 1);
+			for (int i = 0; i < loaded.size(); i++) {
+				own = storeNote(own, loaded.get(i));
+			}
+			current = own;
+		}
+
+		// Add note to the notes.
+		notes = current.with(state.ordinal(), note, 0);
+	}
+
+	/**
+	 * Stores a note that already starts with its state in square brackets. A
+	 * prefix naming a known state is kept as the state of the note, so only the
+	 * rest of the note is stored.
+	 * 
+	 * @param to   are the notes to add the note to.
+	 * @param note is the full note.
+	 * @return is the notes with the note added.
+	 */
+	private static Notes storeNote(Notes to, String note) {
+		if (note.startsWith("[")) {
+			for (IssueState noteState : STATES) {
+				String name = noteState.getStateName();
+				if (note.startsWith(name, 1) && note.startsWith("] ", 1 + name.length())) {
+					return to.with(noteState.ordinal(), note, name.length() + 3);
+				}
+			}
+		}
+		return to.with(RAW_NOTE, note, 0);
+	}
+
+	/**
+	 * Gets the arena holding the text of the issue's notes.
+	 * 
+	 * @return is the arena, or null if the notes are in a NoteLoader that was
+	 *         never given an arena.
+	 */
+	public NoteArena getNoteArena() {
+		return notes.arena;
+	}
+
+	/**
+	 * Moves the issue's own notes to another arena, so that the arena they were
+	 * in can be freed. Notes still in a NoteLoader stay there, and any note added
+	 * later goes to the new arena. The notes are copied first and then published
+	 * with the new arena in one write, so a reader running at the same time sees
+	 * either the old notes or the new ones. Called only while no other thread
+	 * changes the issue.
+	 * 
+	 * @param arena to move the notes to.
+	 */
+	public void moveNotesTo(NoteArena arena) {
+		Notes current = notes;
+		if (arena == current.arena) {
+			return;
+		}
+		long[] moved = current.count == 0 ? Notes.NO_ENTRIES : new long[current.entries.length];
+		for (int i = 0; i < current.count; i++) {
+			long entry = current.entries[i];
+			long address = arena.appendCopy(current.arena, entry >>> NOTE_STATE_BITS);
+			moved[i] = address << NOTE_STATE_BITS | entry & RAW_NOTE;
+		}
+		notes = new Notes(arena, moved, current.count, current.loader, current.handle);
+	}
+
+	/**
+	 * Releases the issue's own notes in their arena, once the issue is no longer
+	 * kept by its list. The notes stay readable until the arena is dropped.
+	 */
+	public void releaseNotes() {
+		Notes current = notes;
+		for (int i = 0; i < current.count; i++) {
+			current.arena.release(current.entries[i] >>> NOTE_STATE_BITS);
+		}
+	}
+
+	/**
+	 * Appends one of the issue's own notes to a builder, with its state prefix.
+	 * 
+	 * @param builder to append to.
+	 * @param from    are the notes of the issue.
+	 * @param index   of the note.
+	 */
+	private static void appendNote(StringBuilder builder, Notes from, int index) {
+		long entry = from.entries[index];
+		int stateBits = (int) (entry & RAW_NOTE);
+		if (stateBits != RAW_NOTE) {
+			builder.append('[').append(STATES[stateBits].getStateName()).append("] ");
+		}
+		from.arena.appendTo(builder, entry >>> NOTE_STATE_BITS);
 	}
 
 	/**
 	 * Sets the issue's notes field. Notes list cannot be empty.
 	 * 
-	 * @param notes to be added to notes string array list.
+	 * @param notes     to be added to notes string array list.
+	 * @param noteArena holds the text of the notes, or is null for the staging
+	 *                  arena.
 	 * @throws IllegalArgumentException when notes is null/empty.
 	 */
-	private void setNotes(ArrayList<String> notes) {
+	private void setNotes(ArrayList<String> notes, NoteArena noteArena) {
 		// Throws exception when notes ArrayList is empty.
 		if (notes == null || notes.size() == 0) {
 			throw new IllegalArgumentException("Issue cannot be created");
@@ -426,23 +818,50 @@ public class Issue {
 
 		// Adds individual notes from the ArrayList to the field notes. If a note is
 		// detected as null/empty, method throws exception.
+		Notes stored = Notes.empty(noteArena, notes.size());
 		for (int i = 0; i < notes.size(); i++) {
 			// Notes cannot be added if an individual note is null/empty
 			if (notes.get(i) == null || "".equals(notes.get(i))) {
 				throw new IllegalArgumentException("Issue cannot be created.");
 			}
 			// Add the valid note to the field notes.
-			this.notes.add(notes.get(i));
+			stored = storeNote(stored, notes.get(i));
 		}
+		this.notes = stored;
 	}
 
 	/**
-	 * Gets the issue's notes.
+	 * Gets the issue's notes. The notes are rendered from the note arena, or loaded
+	 * from the NoteLoader, again on every call.
 	 * 
-	 * @return is string array list of notes.
+	 * @return is a new string array list of notes.
 	 */
 	public ArrayList<String> getNotes() {
-		return notes;
+		Notes current = notes;
+		if (current.loader != null) {
+			return current.loader.loadNotes(current.handle);
+		}
+		ArrayList<String> issueNotes = new ArrayList<String>(current.count);
+		StringBuilder note = new StringBuilder();
+		for (int i = 0; i < current.count; i++) {
+			note.setLength(0);
+			appendNote(note, current, i);
+			issueNotes.add(note.toString());
+		}
+		return issueNotes;
+	}
+
+	/**
+	 * Gets the number of notes on the issue.
+	 * 
+	 * @return is the number of notes.
+	 */
+	public int getNoteCount() {
+		Notes current = notes;
+		if (current.loader != null) {
+			return current.loader.loadNotes(current.handle).size();
+		}
+		return current.count;
 	}
 
 	/**
@@ -452,11 +871,31 @@ public class Issue {
 	 * @return is single string representation of the notes for an issue.
 	 */
 	public String getNotesString() {
-		String notesString = "";
-		for (int i = 0; i < notes.size(); i++) {
-			notesString += "-" + notes.get(i) + "\n";
+		StringBuilder notesString = new StringBuilder();
+		appendNotesTo(notesString);
+		return notesString.toString();
+	}
+
+	/**
+	 * Appends the notes in the format of getNotesString() to a builder, rendering
+	 * them straight from the note arena.
+	 * 
+	 * @param builder to append to.
+	 */
+	public void appendNotesTo(StringBuilder builder) {
+		Notes current = notes;
+		if (current.loader != null) {
+			ArrayList<String> issueNotes = current.loader.loadNotes(current.handle);
+			for (int i = 0; i < issueNotes.size(); i++) {
+				builder.append('-').append(issueNotes.get(i)).append('\n');
+			}
+		} else {
+			for (int i = 0; i < current.count; i++) {
+				builder.append('-');
+				appendNote(builder, current, i);
+				builder.append('\n');
+			}
 		}
-		return notesString;
 	}
 
 	/**
@@ -482,357 +921,352 @@ public class Issue {
 	}
 
 	/**
-	 * Drives the finite state machine by delegating to the current state's
-	 * updateState(Command) method. Will catch an UnsupportedOperationException if
-	 * attempting to update the state with the command parameter fails.
+	 * Drives the finite state machine. The target state is looked up in the
+	 * transition table, and the command is then applied: ASSIGN sets the owner,
+	 * CONFIRM confirms the issue, RESOLVE sets the resolution, and REOPEN clears
+	 * it. The command note is added under the target state.
 	 * 
 	 * @param c is command type.
 	 * @throws UnsupportedOperationException if an invalid command is given during a
 	 *                                       specific state.
 	 */
-	public void update(Command c) throws UnsupportedOperationException {	
-		state.updateState(c);
+	public void update(Command c) throws UnsupportedOperationException {
+		apply(c.getCode(), c.getOwnerId(), c.getNote());
 	}
 
-	/*
-	 ********************************************************************************************
-	 * INNER INTERFACE (IssueState) AND INNER CLASSES (NewState, WorkingState,
-	 * ConfirmedState, VerifyingState, ClosedState)
-	 ********************************************************************************************
+	/**
+	 * Drives the finite state machine with a command given as a code made by
+	 * Command.encode(), an owner, and a note. Applies the same checks as creating
+	 * a Command and calling update(Command), without creating the Command.
+	 * 
+	 * @param command is the code of the command value and resolution.
+	 * @param ownerId is the owner to assign, which is only used by ASSIGN.
+	 * @param note    is the note to add.
+	 * @throws IllegalArgumentException      if the code is out of range, the
+	 *                                       command is ASSIGN without an owner,
+	 *                                       or the note is null/empty.
+	 * @throws UnsupportedOperationException if an invalid command is given during a
+	 *                                       specific state.
 	 */
+	public void update(int command, String ownerId, String note) throws UnsupportedOperationException {
+		if (Command.commandValueOf(command) == CommandValue.ASSIGN && (ownerId == null || "".equals(ownerId))
+				|| note == null || "".equals(note)) {
+			throw new IllegalArgumentException("Invalid information.");
+		}
+		apply(command, ownerId, note);
+	}
 
 	/**
-	 * Interface for states in the Issue State Pattern. All concrete issue states
-	 * must implement the IssueState interface. The IssueState interface should be a
-	 * private interface of the Issue class.
+	 * Moves the issue to the target state of a command and applies the command.
 	 * 
-	 * @author Dr. Sarah Heckman (sarah_heckman@ncsu.edu)
+	 * @param command is the code of a valid command.
+	 * @param ownerId is the owner to assign.
+	 * @param note    is the note to add.
+	 * @throws UnsupportedOperationException if the command is invalid in the
+	 *                                       current state.
 	 */
-	private interface IssueState {
+	private void apply(int command, String ownerId, String note) {
+		int target = TRANSITIONS[transitionIndex(command)];
+		if (target == REJECTED) {
+			throw new UnsupportedOperationException("Invalid information.");
+		}
+		state = STATES[target];
+		switch (Command.commandValueOf(command)) {
+		case ASSIGN:
+			setOwner(ownerId);
+			break;
+		case CONFIRM:
+			confirmed = true;
+			break;
+		case RESOLVE:
+			resolution = Command.resolutionOf(command);
+			break;
+		case REOPEN:
+			resolution = null;
+			break;
+		default:
+			// VERIFY only moves the issue to its target state.
+			break;
+		}
+		addNote(note);
+	}
 
-		/**
-		 * Update the Issue based on the given Command. An UnsupportedOperationException
-		 * is throw if the Command is not a valid action for the given state.
-		 * 
-		 * @param command Command describing the action that will update the Issue's
-		 *                state.
-		 * @throws UnsupportedOperationException if the Command is not a valid action
-		 *                                       for the given state.
-		 */
-		void updateState(Command command);
+	/**
+	 * Tells whether a command is a valid action for the issue as it is now. Takes
+	 * a single lookup in the transition table and never throws, so callers that
+	 * check many commands do not pay for an exception on each invalid one.
+	 * 
+	 * @param c is the command to check.
+	 * @return is true if update(c) would change the issue, false if it would throw
+	 *         an UnsupportedOperationException or c is null.
+	 */
+	public boolean canUpdate(Command c) {
+		return c != null && canUpdate(c.getCode());
+	}
 
-		/**
-		 * Returns the name of the current state as a String.
-		 * 
-		 * @return the name of the current state as a String.
-		 */
-		String getStateName();
+	/**
+	 * Tells whether a command given as a code made by Command.encode() is a valid
+	 * action for the issue as it is now.
+	 * 
+	 * @param command is the code of the command value and resolution.
+	 * @return is true if the command is valid in the current state, false if it is
+	 *         not or the code is out of range.
+	 */
+	public boolean canUpdate(int command) {
+		return command >= 0 && command < Command.CODE_COUNT && TRANSITIONS[transitionIndex(command)] != REJECTED;
 	}
 
 	/**
-	 * Class defining behavior for New State on an issue. Overrides IssueState
-	 * methods to update state and get state name.
+	 * Gets the state a command would move the issue to.
 	 * 
-	 * @author Michael Warstler
+	 * @param c is the command to check.
+	 * @return is the target state, or null if the command is not a valid action
+	 *         for the issue as it is now.
 	 */
-	private class NewState implements IssueState {
+	public IssueState getTargetState(Command c) {
+		int target = TRANSITIONS[transitionIndex(c.getCode())];
+		return target == REJECTED ? null : STATES[target];
+	}
 
-		/**
-		 * Handles updating state when given a command. Additional Issue fields may be
-		 * modified based on the command and transition. Enhancements/bugs can be
-		 * resolved. Enhancements can be assigned. Bugs can be confirmed.
-		 * 
-		 * @param command is the command given to update the state.
-		 * @throws UnsupportedOperationException if the command is not appropriate for
-		 *                                       the current state.
-		 */
-		@Override
-		public void updateState(Command command) {
-			// Any invalid commands throw exception
-			switch (command.getCommand()) {
-			case ASSIGN: 
-				// Enhancement issues can be ASSIGNED an owner to move to workingState.
-				if (issueType == IssueType.ENHANCEMENT) {
-					state = workingState;
-					setOwner(command.getOwnerId());
-					addNote(command.getNote());
-					// Command resolution field is ignored.
-					break;
-				} else {
-					throw new UnsupportedOperationException("Invalid information.");
-				}
+	/**
+	 * Finds the slot of the transition table for this issue and a command.
+	 * 
+	 * @param command is the code of the command value and resolution.
+	 * @return is the index into TRANSITIONS.
+	 */
+	private int transitionIndex(int command) {
+		return transitionIndex(state, issueType, command, confirmed, owner != null);
+	}
 
-			case CONFIRM: 
-				// Bug issues can be CONFIRMED to move to confirmedState.
-				if (issueType == IssueType.BUG) {
-					state = confirmedState;
-					setConfirmed(true);
-					addNote(command.getNote());
-					// Command resolution and owner are ignored.
-					break;
-				} else {
-					throw new UnsupportedOperationException("Invalid information.");
-				}
+	/**
+	 * Finds the slot of the transition table for one combination of everything a
+	 * transition depends on.
+	 * 
+	 * @param state     is the current state.
+	 * @param issueType is the type of the issue.
+	 * @param command   is the code of the command value and resolution.
+	 * @param confirmed is the confirmed status of the issue.
+	 * @param hasOwner  is true if the issue has an owner.
+	 * @return is the index into TRANSITIONS.
+	 */
+	private static int transitionIndex(IssueState state, IssueType issueType, int command, boolean confirmed,
+			boolean hasOwner) {
+		int index = (state.ordinal() * ISSUE_TYPES.length + issueType.ordinal()) * Command.CODE_COUNT + command;
+		index = index * 2 + (confirmed ? 1 : 0);
+		return index * 2 + (hasOwner ? 1 : 0);
+	}
 
-			case RESOLVE: // move to closed.
-				// Issues can't be Fixed from new state.
-				if (command.getResolution() == Resolution.FIXED) {
-					throw new UnsupportedOperationException("Invalid information.");
-				}
-				// Cannot resolve an Enhancement from new with WorksForMe
-				if (command.getResolution() == Resolution.WORKSFORME && issueType == IssueType.ENHANCEMENT) {
-					throw new UnsupportedOperationException("Invalid information.");
+	/**
+	 * Builds the transition table by asking each state for its target under every
+	 * combination of issue type, command code, confirmed status, and owner.
+	 * 
+	 * @return is the ordinal of the target state in each slot, or REJECTED.
+	 */
+	private static byte[] buildTransitions() {
+		byte[] table = new byte[STATES.length * ISSUE_TYPES.length * Command.CODE_COUNT * 4];
+		for (IssueState state : STATES) {
+			for (IssueType issueType : ISSUE_TYPES) {
+				for (int command = 0; command < Command.CODE_COUNT; command++) {
+					for (int flags = 0; flags < 4; flags++) {
+						boolean confirmed = (flags & 2) != 0;
+						boolean hasOwner = (flags & 1) != 0;
+						IssueState target = state.next(issueType, Command.commandValueOf(command),
+								Command.resolutionOf(command), confirmed, hasOwner);
+						table[transitionIndex(state, issueType, command, confirmed, hasOwner)] = target == null
+								? REJECTED
+								: (byte) target.ordinal();
+					}
 				}
-				// Issue gets resolved and moves to closed state.
-				state = closedState;
-				addNote(command.getNote());
-				resolution = command.getResolution();
-				// Command owner is ignored.
-				break;
-
-			default:
-				throw new UnsupportedOperationException("Invalid information.");
 			}
 		}
-
-		/**
-		 * Method returns name of state ("New")
-		 * 
-		 * @return is NEW_NAME constant
-		 */
-		@Override
-		public String getStateName() {
-			return NEW_NAME;
-		}
+		return table;
 	}
 
+	/*
+	 ********************************************************************************************
+	 * INNER ENUMERATION (IssueState) WITH CONSTANTS NEW, WORKING, CONFIRMED,
+	 * VERIFYING, CLOSED
+	 ********************************************************************************************
+	 */
+
 	/**
-	 * Class defining behavior for Working State on an issue. Overrides IssueState
-	 * methods to update state and get state name.
+	 * States in the Issue State Pattern. Each state is a single shared constant
+	 * that holds no per-issue data, so every Issue refers to the same five state
+	 * objects. Each state gives its rules through next(), which is only used to
+	 * build the transition table when the Issue class is loaded.
 	 * 
 	 * @author Michael Warstler
 	 */
-	private class WorkingState implements IssueState {
+	public enum IssueState {
 
 		/**
-		 * Handles updating state when given a command. Additional Issue fields may be
-		 * modified based on the command and transition. Only the RESOLVE resolution may
-		 * transfer an issue from WorkingState. If the resolution is fixed, then the
-		 * issue moves to ClosedState. If resolution is duplicate or wontfix, the issue
-		 * will move to ClosedState. If the issue is a bug and has resolution
-		 * worksforme, then it will also move to the ClosedState.
-		 * 
-		 * @param command is the command given to update the state.
-		 * @throws UnsupportedOperationException if the command is not appropriate for
-		 *                                       the current state.
+		 * Behavior for New State on an issue. Enhancements/bugs can be resolved.
+		 * Enhancements can be assigned. Bugs can be confirmed.
+		 */
+		NEW(NEW_NAME) {
+			@Override
+			IssueState next(IssueType issueType, CommandValue command, Resolution resolution, boolean confirmed,
+					boolean hasOwner) {
+				switch (command) {
+				case ASSIGN:
+					// Enhancement issues can be ASSIGNED an owner to move to WORKING.
+					return issueType == IssueType.ENHANCEMENT ? WORKING : null;
+
+				case CONFIRM:
+					// Bug issues can be CONFIRMED to move to CONFIRMED.
+					return issueType == IssueType.BUG ? CONFIRMED : null;
+
+				case RESOLVE: // move to closed.
+					// Issues can't be Fixed from new state, and an Enhancement cannot be resolved
+					// with WorksForMe.
+					if (resolution == null || resolution == Resolution.FIXED
+							|| resolution == Resolution.WORKSFORME && issueType == IssueType.ENHANCEMENT) {
+						return null;
+					}
+					return CLOSED;
+
+				default:
+					return null;
+				}
+			}
+		},
+
+		/**
+		 * Behavior for Working State on an issue. Only the RESOLVE command may
+		 * transfer an issue from WORKING. If the resolution is fixed, then the issue
+		 * moves to VERIFYING. If resolution is duplicate or wontfix, the issue will
+		 * move to CLOSED. If the issue is a bug and has resolution worksforme, then it
+		 * will also move to CLOSED.
 		 */
-		@Override
-		public void updateState(Command command) {
-			// Command owner is ignored.
-			switch (command.getCommand()) {
-			case RESOLVE: // move to verifying or closed.
+		WORKING(WORKING_NAME) {
+			@Override
+			IssueState next(IssueType issueType, CommandValue command, Resolution resolution, boolean confirmed,
+					boolean hasOwner) {
+				if (command != CommandValue.RESOLVE) {
+					return null;
+				}
 				// Fixed resolution sends issue to verifying state.
-				if (command.getResolution() == Resolution.FIXED) {
-					state = verifyingState;
-					resolution = command.getResolution();
-					addNote(command.getNote());
-					break;
+				if (resolution == Resolution.FIXED) {
+					return VERIFYING;
 				}
 				// Duplicate and wontfix resolutions send state to closed. Worksforme sends to
 				// closed only if issue type is bug.
-				else if (command.getResolution() == Resolution.DUPLICATE
-						|| command.getResolution() == Resolution.WONTFIX
-						|| command.getResolution() == Resolution.WORKSFORME && issueType == IssueType.BUG) {
-					state = closedState;
-					resolution = command.getResolution();
-					addNote(command.getNote());
-					break;
-				} else {
-					throw new UnsupportedOperationException("Invalid information");
+				if (resolution == Resolution.DUPLICATE || resolution == Resolution.WONTFIX
+						|| resolution == Resolution.WORKSFORME && issueType == IssueType.BUG) {
+					return CLOSED;
 				}
-
-			default:
-				throw new UnsupportedOperationException("Invalid information.");
+				return null;
 			}
-		}
-
-		/**
-		 * Method returns name of state ("Working")
-		 * 
-		 * @return is WORKING_NAME constant
-		 */
-		@Override
-		public String getStateName() {
-			return WORKING_NAME;
-		}
-	}
-
-	/**
-	 * Class defining behavior for Confirmed State on an issue. Overrides IssueState
-	 * methods to update state and get state name.
-	 * 
-	 * @author Michael Warstler
-	 */
-	private class ConfirmedState implements IssueState {
+		},
 
 		/**
-		 * Handles updating state when given a command. Additional Issue fields may be
-		 * modified based on the command and transition. If command is assign, then
-		 * issue's owner and notes are updated and issue is moved to WorkingState. If
-		 * the command is Resolve, the resolution must be wontfix. The issue then moves
-		 * to ClosedState.
-		 * 
-		 * @param command is the command given to update the state.
-		 * @throws UnsupportedOperationException if the command is not appropriate for
-		 *                                       the current state.
+		 * Behavior for Confirmed State on an issue. If command is assign, then the
+		 * issue's owner and notes are updated and the issue is moved to WORKING. If the
+		 * command is Resolve, the resolution must be wontfix. The issue then moves to
+		 * CLOSED.
 		 */
-		@Override
-		public void updateState(Command command) {
-			switch (command.getCommand()) {
-			case ASSIGN: // move to working
-				state = workingState;
-				setOwner(command.getOwnerId());
-				addNote(command.getNote());
-				// Command resolution field is ignored.
-				break;
-
-			case RESOLVE: // move to closed.
-				if (command.getResolution() == Resolution.WONTFIX) {
-					state = closedState;
-					addNote(command.getNote());
-					resolution = command.getResolution();
-					// Command owner is ignored.
-					break;
-				} else {
-					throw new UnsupportedOperationException("Invalid information.");
+		CONFIRMED(CONFIRMED_NAME) {
+			@Override
+			IssueState next(IssueType issueType, CommandValue command, Resolution resolution, boolean confirmed,
+					boolean hasOwner) {
+				switch (command) {
+				case ASSIGN: // move to working
+					return WORKING;
+
+				case RESOLVE: // move to closed.
+					return resolution == Resolution.WONTFIX ? CLOSED : null;
+
+				default:
+					return null;
 				}
-
-			default:
-				throw new UnsupportedOperationException("Invalid information.");
 			}
-		}
+		},
 
 		/**
-		 * Method returns name of state ("Confirmed")
-		 * 
-		 * @return is CONFIRMED_NAME constant
+		 * Behavior for Verifying State on an issue. Verify command sends issue to
+		 * CLOSED. Reopen command sends issue to WORKING. Command note is added to the
+		 * notes field.
 		 */
-		@Override
-		public String getStateName() {
-			return CONFIRMED_NAME;
-		}
-	}
-
-	/**
-	 * Class defining behavior for Verifying State on an issue. Overrides IssueState
-	 * methods to update state and get state name.
-	 * 
-	 * @author Michael Warstler
-	 */
-	private class VerifyingState implements IssueState {
+		VERIFYING(VERIFYING_NAME) {
+			@Override
+			IssueState next(IssueType issueType, CommandValue command, Resolution resolution, boolean confirmed,
+					boolean hasOwner) {
+				switch (command) {
+				case VERIFY:
+					return CLOSED;
+
+				case REOPEN:
+					return WORKING;
+
+				default:
+					return null;
+				}
+			}
+		},
 
 		/**
-		 * Handles updating state when given a command. Additional Issue fields may be
-		 * modified based on the command and transition. Verify command sends issue to
-		 * closed state. Reopen command sends issue to working state. Command note is
-		 * added to the notes field.
-		 * 
-		 * @param command is the command given to update the state.
-		 * @throws UnsupportedOperationException if the command is not appropriate for
-		 *                                       the current state.
+		 * Behavior for Closed State on an issue. Issues can only be reopened from
+		 * CLOSED. If the issue is an enhancement with an owner, then state moves to
+		 * WORKING. If issue is a bug, then it moves to WORKING if it has an owner and
+		 * CONFIRMED if it does not have an owner. If none of the above, the issue
+		 * moves to NEW. When moved to a new state, issue resolution is removed and the
+		 * command note is added to the notes field.
 		 */
-		@Override
-		public void updateState(Command command) {
-			switch (command.getCommand()) {
-			case VERIFY:
-				state = closedState;
-				addNote(command.getNote());
-				// Command resolution and owner fields are ignored.
-				break;
-
-			case REOPEN:
-				state = workingState;
-				resolution = null;
-				addNote(command.getNote());
-				// Command resolution and owner fields are ignored.
-				break;
-
-			default:
-				throw new UnsupportedOperationException("Invalid information.");
+		CLOSED(CLOSED_NAME) {
+			@Override
+			IssueState next(IssueType issueType, CommandValue command, Resolution resolution, boolean confirmed,
+					boolean hasOwner) {
+				if (command != CommandValue.REOPEN) {
+					return null;
+				}
+				// Enhancement with owner moves to WORKING.
+				if (issueType == IssueType.ENHANCEMENT && hasOwner) {
+					return WORKING;
+				}
+				// Confirmed bug with an owner moves to WORKING. Without an owner moves to
+				// CONFIRMED.
+				if (issueType == IssueType.BUG && confirmed) {
+					return hasOwner ? WORKING : CONFIRMED;
+				}
+				return NEW;
 			}
+		};
 
-		}
+		/** Name of the state */
+		private final String stateName;
 
 		/**
-		 * Method returns name of state ("Verifying")
+		 * Constructs a state with the given name.
 		 * 
-		 * @return is VERIFYING_NAME constant
+		 * @param stateName is the name of the state.
 		 */
-		@Override
-		public String getStateName() {
-			return VERIFYING_NAME;
+		IssueState(String stateName) {
+			this.stateName = stateName;
 		}
-	}
-
-	/**
-	 * Class defining behavior for Closed State on an issue. Overrides IssueState
-	 * methods to update state and get state name.
-	 * 
-	 * @author Michael Warstler
-	 */
-	private class ClosedState implements IssueState {
 
 		/**
-		 * Handles updating state when given a command. Additional Issue fields may be
-		 * modified based on the command and transition. Issues can only be reopened
-		 * from closed state. If the issue is an enhancement with an owner, then state
-		 * moves to working. If issue is a bug, then it moves to workingState if it has
-		 * an owner and confirmed state if it does not have an owner. If none of the
-		 * above, the issue moves to new state. When moved to a new state, issue
-		 * resolution is removed and the command note is added to the notes field.
+		 * Gives the state an issue moves to from this state. Only the command value
+		 * and resolution of a Command matter, along with the type, confirmed status,
+		 * and owner of the Issue.
 		 * 
-		 * @param command is the command given to update the state.
-		 * @throws UnsupportedOperationException if the command is not appropriate for
-		 *                                       the current state.
+		 * @param issueType  is the type of the issue.
+		 * @param command    is the command value.
+		 * @param resolution is the command resolution, or null if it has none.
+		 * @param confirmed  is the confirmed status of the issue.
+		 * @param hasOwner   is true if the issue has an owner.
+		 * @return is the target state, or null if the command is not a valid action
+		 *         for this state.
 		 */
-		@Override
-		public void updateState(Command command) {
-			switch (command.getCommand()) {
-			case REOPEN:
-				resolution = null;
-				// Enhancement with owner moves to WorkingState.
-				if (issueType == IssueType.ENHANCEMENT && owner != null && !"".equals(owner)) {
-					state = workingState;
-				}
-
-				// Confirmed bug with an owner moves to WorkingState. Without an owner moves to
-				// ConfirmedState.
-				else if (issueType == IssueType.BUG && confirmed) {
-					if (owner != null && !"".equals(owner)) {
-						state = workingState;
-					} else {
-						state = confirmedState;
-					}
-				} else {
-					state = newState;
-				}
-
-				addNote(command.getNote());
-				break;
-
-			default:
-				throw new UnsupportedOperationException("Invalid information.");
-			}
-		}
+		abstract IssueState next(IssueType issueType, CommandValue command, Resolution resolution, boolean confirmed,
+				boolean hasOwner);
 
 		/**
-		 * Method returns name of state ("Closed")
+		 * Returns the name of the current state as a String.
 		 * 
-		 * @return is CLOSED_NAME constant
+		 * @return the name of the current state as a String.
 		 */
-		@Override
 		public String getStateName() {
-			return CLOSED_NAME;
+			return stateName;
 		}
 	}
 }
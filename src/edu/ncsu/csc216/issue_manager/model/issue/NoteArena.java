@@ -0,0 +1,388 @@
+package edu.ncsu.csc216.issue_manager.model.issue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Append-only store for the text of issue notes. Notes are written as their
+ * UTF-8 length and bytes into byte[] chunks, and each note is found again by
+ * the address returned when it was appended. An IssueList keeps one arena for
+ * the notes of its issues. Issues made outside a list share one staging arena,
+ * which is replaced by a new one once it holds STAGING_LIMIT bytes, and a list
+ * moves the notes of the issues added to it out of the staging arena.
+ *
+ * Appends go to one of LANE_COUNT lanes picked by the id of the calling
+ * thread. Each lane fills its own chunk under its own lock, so threads adding
+ * notes to different issues rarely wait for each other. The arena itself is
+ * only locked to add a chunk. A lane's chunks start small and double up to
+ * CHUNK_SIZE, and a note longer than that gets a chunk of its own.
+ *
+ * Notes are never overwritten. When an issue leaves its list its notes are
+ * released, which only counts their bytes. The list copies its remaining notes
+ * to a new arena once most of the arena is released, and the old arena is
+ * freed when no issue uses it any more. Reads take no lock: a chunk's end is
+ * raised only after the note before it is fully written, and readers check the
+ * end first.
+ *
+ * @author Michael Warstler
+ */
+public class NoteArena {
+
+	/** Number of bits of the position of a note within its chunk */
+	static final int CHUNK_SHIFT = 20;
+	/** Largest size of a shared chunk. A note longer than this gets a chunk of its own. */
+	static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+	/** Size of the first chunk of a lane */
+	static final int FIRST_CHUNK_SIZE = 256;
+	/** Number of lanes appends are spread over */
+	static final int LANE_COUNT = 16;
+	/** Number of bits an address may use, leaving the rest of a long to callers */
+	public static final int ADDRESS_BITS = 60;
+	/** Largest address append() returns */
+	public static final long MAX_ADDRESS = (1L << ADDRESS_BITS) - 1;
+	/** Size of the length written before each note */
+	private static final int LENGTH_SIZE = 4;
+	/** Number of bytes after which a new staging arena is started */
+	static final int STAGING_LIMIT = CHUNK_SIZE;
+
+	/** Arena shared by issues made outside a list (guarded by NoteArena.class) */
+	private static NoteArena staging;
+
+	/** Whether the arena is a staging arena */
+	private final boolean isStaging;
+
+	/** Chunks added so far, indexed by the high bits of an address, followed by nulls */
+	private volatile Chunk[] chunks = new Chunk[4];
+	/** Number of chunks added (guarded by this) */
+	private int chunkCount;
+	/** Lanes appends are made in, each created on first use */
+	private final AtomicReferenceArray<Lane> lanes = new AtomicReferenceArray<Lane>(LANE_COUNT);
+	/** Number of bytes appended, including lengths and unused chunk tails */
+	private final LongAdder size = new LongAdder();
+	/** Number of bytes of released notes, including their lengths */
+	private final LongAdder released = new LongAdder();
+
+	/**
+	 * Chunk of notes. Bytes below end hold complete notes.
+	 *
+	 * @author Michael Warstler
+	 */
+	private static final class Chunk {
+
+		/** Bytes of the notes */
+		private final byte[] bytes;
+		/** Position after the last complete note */
+		private volatile int end;
+
+		/**
+		 * Constructs an empty chunk.
+		 *
+		 * @param capacity is the number of bytes of the chunk.
+		 */
+		private Chunk(int capacity) {
+			bytes = new byte[capacity];
+		}
+	}
+
+	/**
+	 * Lane of appends, holding the chunk it is filling. Guarded by itself.
+	 *
+	 * @author Michael Warstler
+	 */
+	private static final class Lane {
+
+		/** Chunk being filled, or null before the first append */
+		private Chunk chunk;
+		/** Index of the chunk in the arena */
+		private int index;
+	}
+
+	/**
+	 * Constructs an empty arena for the notes of a list.
+	 */
+	public NoteArena() {
+		this(false);
+	}
+
+	/**
+	 * Constructs an empty arena.
+	 *
+	 * @param isStaging is whether the arena is shared by issues outside a list.
+	 */
+	private NoteArena(boolean isStaging) {
+		this.isStaging = isStaging;
+	}
+
+	/**
+	 * Gets the staging arena shared by issues made outside a list. A new staging
+	 * arena is started once the current one holds STAGING_LIMIT bytes, so the old
+	 * one is freed when the issues using it are gone or moved to a list.
+	 *
+	 * @return is the staging arena.
+	 */
+	public static synchronized NoteArena staging() {
+		if (staging == null || staging.size() >= STAGING_LIMIT) {
+			staging = new NoteArena(true);
+		}
+		return staging;
+	}
+
+	/**
+	 * Tells whether the arena is a staging arena, which a list never keeps as its
+	 * own.
+	 *
+	 * @return is true for a staging arena.
+	 */
+	public boolean isStaging() {
+		return isStaging;
+	}
+
+	/**
+	 * Appends the text of a note.
+	 *
+	 * @param text of the note.
+	 * @return is the address of the note.
+	 */
+	public long append(String text) {
+		return append(text, 0);
+	}
+
+	/**
+	 * Appends the end of a string as the text of a note. Text that is all ASCII is
+	 * copied straight into the chunk without an intermediate string or byte array.
+	 *
+	 * @param text  holding the note.
+	 * @param start is the index in text where the note starts.
+	 * @return is the address of the note, which is at most MAX_ADDRESS.
+	 * @throws IllegalStateException if the arena has no address left for the
+	 *                               note.
+	 */
+	public long append(String text, int start) {
+		int length = text.length() - start;
+		byte[] encoded = null;
+		for (int i = start; i < text.length(); i++) {
+			if (text.charAt(i) >= 0x80) {
+				encoded = text.substring(start).getBytes(StandardCharsets.UTF_8);
+				length = encoded.length;
+				break;
+			}
+		}
+
+		Lane lane = lane();
+		synchronized (lane) {
+			Chunk chunk = reserve(lane, LENGTH_SIZE + length);
+			byte[] bytes = chunk.bytes;
+			int at = chunk.end;
+			writeLength(bytes, at, length);
+			if (encoded == null) {
+				for (int i = 0; i < length; i++) {
+					bytes[at + LENGTH_SIZE + i] = (byte) text.charAt(start + i);
+				}
+			} else {
+				System.arraycopy(encoded, 0, bytes, at + LENGTH_SIZE, length);
+			}
+			chunk.end = at + LENGTH_SIZE + length;
+			size.add(LENGTH_SIZE + length);
+			return (long) lane.index << CHUNK_SHIFT | at;
+		}
+	}
+
+	/**
+	 * Appends a copy of a note held by another arena, without decoding its text.
+	 *
+	 * @param source  is the arena holding the note.
+	 * @param address of the note in source.
+	 * @return is the address of the copy in this arena.
+	 * @throws IllegalArgumentException if the address is not in source.
+	 * @throws IllegalStateException    if the arena has no address left for the
+	 *                                  note.
+	 */
+	public long appendCopy(NoteArena source, long address) {
+		Chunk from = source.chunkOf(address);
+		int start = (int) (address & (CHUNK_SIZE - 1));
+		int needed = LENGTH_SIZE + lengthAt(from.bytes, start);
+
+		Lane lane = lane();
+		synchronized (lane) {
+			Chunk chunk = reserve(lane, needed);
+			int at = chunk.end;
+			System.arraycopy(from.bytes, start, chunk.bytes, at, needed);
+			chunk.end = at + needed;
+			size.add(needed);
+			return (long) lane.index << CHUNK_SHIFT | at;
+		}
+	}
+
+	/**
+	 * Records that a note is no longer used. The note stays readable, and its bytes
+	 * are counted in getReleasedSize().
+	 *
+	 * @param address of the note.
+	 * @throws IllegalArgumentException if the address is not in the arena.
+	 */
+	public void release(long address) {
+		Chunk chunk = chunkOf(address);
+		released.add(LENGTH_SIZE + lengthAt(chunk.bytes, (int) (address & (CHUNK_SIZE - 1))));
+	}
+
+	/**
+	 * Gets the text of a note.
+	 *
+	 * @param address of the note, as returned by append().
+	 * @return is the text of the note.
+	 */
+	public String getString(long address) {
+		byte[] chunk = chunkOf(address).bytes;
+		int start = (int) (address & (CHUNK_SIZE - 1));
+		return new String(chunk, start + LENGTH_SIZE, lengthAt(chunk, start), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Appends the text of a note to a builder. Text that is all ASCII is copied
+	 * without creating a String.
+	 *
+	 * @param builder to append to.
+	 * @param address of the note, as returned by append().
+	 */
+	public void appendTo(StringBuilder builder, long address) {
+		byte[] chunk = chunkOf(address).bytes;
+		int start = (int) (address & (CHUNK_SIZE - 1));
+		int length = lengthAt(chunk, start);
+		int from = start + LENGTH_SIZE;
+		for (int i = from; i < from + length; i++) {
+			if (chunk[i] < 0) {
+				builder.append(new String(chunk, i, from + length - i, StandardCharsets.UTF_8));
+				return;
+			}
+			builder.append((char) chunk[i]);
+		}
+	}
+
+	/**
+	 * Gets the number of bytes of the notes appended to the arena, including the
+	 * length of each note.
+	 *
+	 * @return is the size of the arena in bytes.
+	 */
+	public long size() {
+		return size.sum();
+	}
+
+	/**
+	 * Gets the number of bytes of the notes that were released.
+	 *
+	 * @return is the size of the released notes in bytes.
+	 */
+	public long getReleasedSize() {
+		return released.sum();
+	}
+
+	/**
+	 * Gets the lane of the calling thread, creating it on first use.
+	 *
+	 * @return is the lane.
+	 */
+	private Lane lane() {
+		int index = (int) Thread.currentThread().getId() & (LANE_COUNT - 1);
+		Lane lane = lanes.get(index);
+		if (lane == null) {
+			lanes.compareAndSet(index, null, new Lane());
+			lane = lanes.get(index);
+		}
+		return lane;
+	}
+
+	/**
+	 * Makes room in a lane for a note, moving the lane to a new chunk if its chunk
+	 * is full. Must be called while holding the lock on the lane.
+	 *
+	 * @param lane   to append to.
+	 * @param needed is the number of bytes of the note and its length.
+	 * @return is the chunk to write the note at the end of.
+	 * @throws IllegalStateException if the arena has no address left for the
+	 *                               note.
+	 */
+	private Chunk reserve(Lane lane, int needed) {
+		Chunk chunk = lane.chunk;
+		if (chunk != null && chunk.end + needed <= chunk.bytes.length) {
+			return chunk;
+		}
+		int capacity = chunk == null ? FIRST_CHUNK_SIZE : Math.min(CHUNK_SIZE, 2 * chunk.bytes.length);
+		chunk = new Chunk(Math.max(capacity, needed));
+		lane.index = addChunk(chunk);
+		lane.chunk = chunk;
+		return chunk;
+	}
+
+	/**
+	 * Adds a chunk to the end of the arena.
+	 *
+	 * @param chunk to add.
+	 * @return is the index of the chunk.
+	 * @throws IllegalStateException if the address of the chunk would pass
+	 *                               MAX_ADDRESS.
+	 */
+	private synchronized int addChunk(Chunk chunk) {
+		// Callers pack other bits above MAX_ADDRESS, so it must never be passed.
+		if ((long) chunkCount << CHUNK_SHIFT > MAX_ADDRESS - (CHUNK_SIZE - 1)) {
+			throw new IllegalStateException("Note arena is full.");
+		}
+		Chunk[] all = chunks;
+		if (chunkCount == all.length) {
+			Chunk[] grown = new Chunk[2 * all.length];
+			System.arraycopy(all, 0, grown, 0, chunkCount);
+			all = grown;
+		}
+		all[chunkCount] = chunk;
+		chunks = all;
+		return chunkCount++;
+	}
+
+	/**
+	 * Gets the chunk holding a note. Reading the end of the chunk first makes the
+	 * notes written before it visible to this thread.
+	 *
+	 * @param address of the note.
+	 * @return is the chunk the note starts in.
+	 * @throws IllegalArgumentException if the address is not in the arena.
+	 */
+	private Chunk chunkOf(long address) {
+		Chunk[] all = chunks;
+		long index = address >>> CHUNK_SHIFT;
+		if (address < 0 || index >= all.length || all[(int) index] == null) {
+			throw new IllegalArgumentException("Invalid note.");
+		}
+		Chunk chunk = all[(int) index];
+		if ((address & (CHUNK_SIZE - 1)) + LENGTH_SIZE > chunk.end) {
+			throw new IllegalArgumentException("Invalid note.");
+		}
+		return chunk;
+	}
+
+	/**
+	 * Writes the length of a note before it.
+	 *
+	 * @param chunk  holding the note.
+	 * @param start  is the position of the length in the chunk.
+	 * @param length is the number of bytes of the note.
+	 */
+	private static void writeLength(byte[] chunk, int start, int length) {
+		chunk[start] = (byte) (length >>> 24);
+		chunk[start + 1] = (byte) (length >>> 16);
+		chunk[start + 2] = (byte) (length >>> 8);
+		chunk[start + 3] = (byte) length;
+	}
+
+	/**
+	 * Reads the length written before a note.
+	 *
+	 * @param chunk holding the note.
+	 * @param start is the position of the length in the chunk.
+	 * @return is the number of bytes of the note.
+	 */
+	private static int lengthAt(byte[] chunk, int start) {
+		return (chunk[start] & 0xFF) << 24 | (chunk[start + 1] & 0xFF) << 16 | (chunk[start + 2] & 0xFF) << 8
+				| chunk[start + 3] & 0xFF;
+	}
+}
@@ -0,0 +1,167 @@
+package edu.ncsu.csc216.issue_manager.model.manager;
+
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+
+/**
+ * Outcome of a batch of commands run by IssueList.executeCommands(). Items are
+ * numbered in the order they were given to the batch. An item that failed keeps
+ * a code saying why, so one invalid transition does not stop the rest of the
+ * batch. Recording a failure costs one byte. The exception of a failure is only
+ * made, with its stack trace, when getFailure() asks for it.
+ *
+ * @author Michael Warstler
+ */
+public class BatchResult {
+
+	/** Failure code of an item that succeeded */
+	public static final int SUCCESS = 0;
+	/** Failure code of an item whose id is not in the list */
+	public static final int INVALID_ID = 1;
+	/** Failure code of an item whose command is null */
+	public static final int INVALID_COMMAND = 2;
+	/** Failure code of an item whose command is invalid for the issue's state */
+	public static final int INVALID_TRANSITION = 3;
+
+	/** Failure code of each item */
+	private final byte[] failures;
+	/** Exceptions made by getFailure(), or null until the first is made */
+	private RuntimeException[] exceptions;
+	/** Number of failed items */
+	private int failureCount;
+	/** Distinct issues changed by at least one command of the batch, in id order */
+	private final Issue[] changedIssues;
+	/** Number of changed issues */
+	private int changedCount;
+
+	/**
+	 * Constructs the result of a batch in which every item has succeeded.
+	 *
+	 * @param size is the number of items in the batch.
+	 */
+	BatchResult(int size) {
+		failures = new byte[size];
+		changedIssues = new Issue[size];
+	}
+
+	/**
+	 * Records that an item failed.
+	 *
+	 * @param index of the item.
+	 * @param code  is why it failed: INVALID_ID, INVALID_COMMAND, or
+	 *              INVALID_TRANSITION.
+	 */
+	void fail(int index, int code) {
+		if (failures[index] == SUCCESS) {
+			failureCount++;
+		}
+		failures[index] = (byte) code;
+	}
+
+	/**
+	 * Records an issue the batch changed, the first time one of its commands is
+	 * applied.
+	 *
+	 * @param issue that changed.
+	 */
+	void addChangedIssue(Issue issue) {
+		changedIssues[changedCount++] = issue;
+	}
+
+	/**
+	 * Gets the distinct issues the batch changed. Issues whose commands all failed
+	 * are not included.
+	 *
+	 * @return is an array holding the issues in id order, followed by nulls.
+	 */
+	Issue[] getChangedIssues() {
+		return changedIssues;
+	}
+
+	/**
+	 * Gets the number of distinct issues the batch changed.
+	 *
+	 * @return is the number of changed issues.
+	 */
+	int getChangedCount() {
+		return changedCount;
+	}
+
+	/**
+	 * Gets the number of items in the batch.
+	 *
+	 * @return is the number of items.
+	 */
+	public int size() {
+		return failures.length;
+	}
+
+	/**
+	 * Tells whether an item succeeded.
+	 *
+	 * @param index of the item.
+	 * @return is true if the command of the item was executed.
+	 */
+	public boolean isSuccess(int index) {
+		return failures[index] == SUCCESS;
+	}
+
+	/**
+	 * Gets the code of why an item failed, without making an exception.
+	 *
+	 * @param index of the item.
+	 * @return is SUCCESS, INVALID_ID, INVALID_COMMAND, or INVALID_TRANSITION.
+	 */
+	public int getFailureCode(int index) {
+		return failures[index];
+	}
+
+	/**
+	 * Gets why an item failed. The exception is made the first time it is asked
+	 * for, and the same one is returned after that.
+	 *
+	 * @param index of the item.
+	 * @return is the exception that stopped the item, or null if it succeeded.
+	 *         An invalid transition is an UnsupportedOperationException and an
+	 *         unknown id or missing command is an IllegalArgumentException.
+	 */
+	public RuntimeException getFailure(int index) {
+		if (failures[index] == SUCCESS) {
+			return null;
+		}
+		if (exceptions == null) {
+			exceptions = new RuntimeException[failures.length];
+		}
+		if (exceptions[index] == null) {
+			switch (failures[index]) {
+			case INVALID_ID:
+				exceptions[index] = new IllegalArgumentException("Invalid issue id.");
+				break;
+			case INVALID_COMMAND:
+				exceptions[index] = new IllegalArgumentException("Invalid command.");
+				break;
+			default:
+				exceptions[index] = new UnsupportedOperationException("Invalid information.");
+				break;
+			}
+		}
+		return exceptions[index];
+	}
+
+	/**
+	 * Gets the number of items that failed.
+	 *
+	 * @return is the number of failures.
+	 */
+	public int getFailureCount() {
+		return failureCount;
+	}
+
+	/**
+	 * Gets the number of items that succeeded.
+	 *
+	 * @return is the number of successes.
+	 */
+	public int getSuccessCount() {
+		return failures.length - failureCount;
+	}
+}
@@ -0,0 +1,812 @@
+package edu.ncsu.csc216.issue_manager.model.manager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import edu.ncsu.csc216.issue_manager.model.command.Command;
+import edu.ncsu.csc216.issue_manager.model.command.Command.Resolution;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueState;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueType;
+import edu.ncsu.csc216.issue_manager.model.issue.NoteArena;
+
+/**
+ * Alternative to IssueList for keeping very large numbers of issues in memory.
+ * Issues are stored column by column in parallel primitive arrays instead of as
+ * Issue objects: ids in an int[], state, type, confirmed status, and resolution
+ * packed into one byte per issue, and summaries and owners as int references
+ * into string dictionaries. Issue objects are created only when one is asked
+ * for, and the table views are built straight from the columns.
+ *
+ * Notes are kept in a NoteArena and linked into one list per issue through two
+ * more columns, the arena address of each note and the note before it, so an
+ * issue's notes cost no objects at all. A command links its note in front of
+ * the issue's other notes. Deleting an issue releases its summary, owner, and
+ * notes, and the notes of the list move to a new arena once most of the arena
+ * is released.
+ *
+ * Issues returned by this list are copies that read their notes from the list.
+ * Changes must be made through executeCommand() so that they are written back
+ * to the columns. IssueManager uses a compact list in place of its issue list
+ * when asked to (see IssueManager.setCompactIssueList()).
+ *
+ * The list may be used by several threads, locked the same way as
+ * MappedIssueList: a command holds the list's lock for reading and the lock of
+ * its issue's stripe, so commands on issues in different stripes run at the
+ * same time, and they share only the dictionaries and the note columns.
+ *
+ * @author Michael Warstler
+ */
+public class CompactIssueList implements IssueStore {
+
+	/** Number of rows in a newly created list */
+	private static final int INITIAL_CAPACITY = 16;
+	/** Index of a missing note */
+	private static final int NONE = -1;
+	/** Bits of the flags byte holding the state ordinal */
+	private static final int STATE_MASK = 0x07;
+	/** Bit of the flags byte set for BUG issues */
+	private static final int BUG_FLAG = 0x08;
+	/** Bit of the flags byte set for confirmed issues */
+	private static final int CONFIRMED_FLAG = 0x10;
+	/** Shift of the resolution (ordinal + 1, or 0 for none) in the flags byte */
+	private static final int RESOLUTION_SHIFT = 5;
+	/** Bits of the resolution once shifted down */
+	private static final int RESOLUTION_MASK = 0x07;
+	/** States by ordinal */
+	private static final IssueState[] STATES = IssueState.values();
+	/** Resolutions by ordinal */
+	private static final Resolution[] RESOLUTIONS = Resolution.values();
+
+	/** Issue ids in ascending order */
+	private int[] ids;
+	/** Packed state, type, confirmed status, and resolution of each issue */
+	private byte[] flags;
+	/** Summary reference of each issue */
+	private int[] summaries;
+	/** Owner reference of each issue, or StringDictionary.NONE */
+	private int[] owners;
+	/** Index of the latest note of each issue, or NONE */
+	private int[] latestNotes;
+	/** Number of issues in the list */
+	private int size;
+	/** Counter to keep track of latest issue id */
+	private int counter;
+	/** Dictionary of summary strings (guarded by columnLock while commands run) */
+	private StringDictionary summaryDictionary;
+	/** Dictionary of owner strings (guarded by columnLock) */
+	private StringDictionary ownerDictionary;
+	/** Arena holding the text of the notes (guarded by columnLock) */
+	private NoteArena noteArena;
+	/** Arena address of each note (guarded by columnLock) */
+	private long[] noteAddresses;
+	/**
+	 * Index of the note before each note, or NONE, and for a free index the next
+	 * free index (guarded by columnLock)
+	 */
+	private int[] previousNotes;
+	/** Number of note indexes handed out so far, in use or free (guarded by columnLock) */
+	private int noteCount;
+	/** First free note index, or NONE (guarded by columnLock) */
+	private int freeNotes;
+	/** Held for reading by commands and single-issue reads, and for writing by everything else */
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	/** Locks that keep each row to one command at a time, striped by id */
+	private final ReentrantLock[] rowLocks = new ReentrantLock[IssueList.STRIPES];
+	/** Guards the dictionaries and the note columns */
+	private final Object columnLock = new Object();
+	/** Notes of issues returned to callers, which only read from the list */
+	private final ColumnNotes readOnlyNotes = new ColumnNotes(false);
+	/** Notes of issues being updated by executeCommand(), which add to the list */
+	private final ColumnNotes writableNotes = new ColumnNotes(true);
+
+	/**
+	 * Notes of the issues in the list, read from and linked into the note
+	 * columns. The handle of an issue's notes is its id, so it stays valid as
+	 * other issues are added and deleted.
+	 *
+	 * @author Michael Warstler
+	 */
+	private class ColumnNotes implements Issue.NoteLoader {
+
+		/** Whether new notes are added to the list */
+		private final boolean writable;
+
+		/**
+		 * Creates notes that may or may not take new notes.
+		 *
+		 * @param writable is true to add new notes to the list.
+		 */
+		ColumnNotes(boolean writable) {
+			this.writable = writable;
+		}
+
+		@Override
+		public ArrayList<String> loadNotes(long handle) {
+			lock.readLock().lock();
+			ReentrantLock rowLock = rowLocks[IssueList.stripeOf((int) handle)];
+			rowLock.lock();
+			try {
+				int row = rowOf((int) handle);
+				return row < 0 ? new ArrayList<String>() : readNotes(latestNotes[row]);
+			} finally {
+				rowLock.unlock();
+				lock.readLock().unlock();
+			}
+		}
+
+		@Override
+		public boolean appendNote(long handle, String stateName, String note) {
+			lock.readLock().lock();
+			ReentrantLock rowLock = rowLocks[IssueList.stripeOf((int) handle)];
+			rowLock.lock();
+			try {
+				int row = writable ? rowOf((int) handle) : -1;
+				if (row < 0) {
+					return false;
+				}
+				synchronized (columnLock) {
+					latestNotes[row] = linkNote(latestNotes[row], "[" + stateName + "] " + note);
+				}
+				return true;
+			} finally {
+				rowLock.unlock();
+				lock.readLock().unlock();
+			}
+		}
+	}
+
+	/**
+	 * Constructs an empty compact issue list with the counter at 0.
+	 */
+	public CompactIssueList() {
+		for (int i = 0; i < rowLocks.length; i++) {
+			rowLocks[i] = new ReentrantLock();
+		}
+		counter = 0;
+		reset(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Creates a NEW Issue based on the given parameters and the counter, then
+	 * stores it as the last row of the list.
+	 *
+	 * @param issueType is the type of issue object (bug/enhancement)
+	 * @param summary   is the summary of the issue object
+	 * @param note      is the note for the issue
+	 * @return is the ID of the issue added.
+	 * @throws IllegalArgumentException if the issue cannot be created.
+	 */
+	@Override
+	public int addIssue(IssueType issueType, String summary, String note) {
+		lock.writeLock().lock();
+		try {
+			Issue issueToAdd = new Issue(counter + 1, issueType, summary, note);
+			counter++;
+			ensureCapacity(size + 1);
+			store(size++, issueToAdd);
+			return counter;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Replaces the contents of the list with the provided issues. Duplicate ids are
+	 * ignored (the first issue with an id is kept) and the issues are stored in id
+	 * order. The issues are stored in new columns that then replace the old ones,
+	 * so issues read from this list may be passed back in. After adding all
+	 * Issues, the counter is set to the id of the last issue in the list.
+	 *
+	 * @param issues is a list of issue objects to add.
+	 */
+	@Override
+	public void addIssues(ArrayList<Issue> issues) {
+		ArrayList<Issue> sorted = new ArrayList<Issue>(issues);
+		sorted.sort(Comparator.comparingInt(Issue::getIssueId));
+
+		CompactIssueList built = new CompactIssueList();
+		built.ensureCapacity(sorted.size());
+		for (int i = 0; i < sorted.size(); i++) {
+			if (i == 0 || sorted.get(i).getIssueId() != sorted.get(i - 1).getIssueId()) {
+				built.store(built.size++, sorted.get(i));
+			}
+		}
+		lock.writeLock().lock();
+		try {
+			ids = built.ids;
+			flags = built.flags;
+			summaries = built.summaries;
+			owners = built.owners;
+			latestNotes = built.latestNotes;
+			size = built.size;
+			summaryDictionary = built.summaryDictionary;
+			ownerDictionary = built.ownerDictionary;
+			noteArena = built.noteArena;
+			noteAddresses = built.noteAddresses;
+			previousNotes = built.previousNotes;
+			noteCount = built.noteCount;
+			freeNotes = built.freeNotes;
+			if (size > 0) {
+				counter = ids[size - 1];
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes every issue and starts the counter again, as a new IssueList does.
+	 */
+	@Override
+	public void clear() {
+		lock.writeLock().lock();
+		try {
+			reset(INITIAL_CAPACITY);
+			counter = 0;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Gets the number of issues in the list.
+	 *
+	 * @return is the number of issues.
+	 */
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return size;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Creates Issue objects for every issue in the list. Each issue reads its notes
+	 * from the list when they are used.
+	 *
+	 * @return is a new list of all issues in id order.
+	 */
+	@Override
+	public ArrayList<Issue> getIssues() {
+		lock.writeLock().lock();
+		try {
+			ArrayList<Issue> issues = new ArrayList<Issue>(size);
+			for (int row = 0; row < size; row++) {
+				issues.add(materialize(row, readOnlyNotes));
+			}
+			return issues;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Creates Issue objects for every issue in the list that hold their own notes,
+	 * in a note arena, so they no longer depend on the list.
+	 *
+	 * @param arena to keep the notes of the issues in.
+	 * @return is a new list of all issues in id order.
+	 */
+	@Override
+	public ArrayList<Issue> copyIssues(NoteArena arena) {
+		lock.writeLock().lock();
+		try {
+			ArrayList<Issue> issues = new ArrayList<Issue>(size);
+			for (int row = 0; row < size; row++) {
+				Issue issue = materialize(row, readOnlyNotes);
+				issues.add(new Issue(issue.getIssueId(), issue.getState(), issue.getIssueTypeValue(),
+						issue.getSummary(), issue.getOwner(), issue.isConfirmed(), issue.getResolutionValue(),
+						readNotes(latestNotes[row]), arena));
+			}
+			return issues;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Creates Issue objects for every issue of the designated type. Only the
+	 * matching rows are materialized.
+	 *
+	 * @param issueType is a string representation of the issue's type.
+	 *                  (Bug/Enhancement)
+	 * @return is a new list of issues of the parameter type, in id order.
+	 * @throws IllegalArgumentException if issueType parameter is null/empty.
+	 */
+	public ArrayList<Issue> getIssuesByType(String issueType) {
+		if (issueType == null || "".equals(issueType)) {
+			throw new IllegalArgumentException("Inavalid issue type.");
+		}
+		ArrayList<Issue> issuesByType = new ArrayList<Issue>();
+		int typeFlag = typeFlagOf(issueType);
+		if (typeFlag >= 0) {
+			lock.writeLock().lock();
+			try {
+				for (int row = 0; row < size; row++) {
+					if ((flags[row] & BUG_FLAG) == typeFlag) {
+						issuesByType.add(materialize(row, readOnlyNotes));
+					}
+				}
+			} finally {
+				lock.writeLock().unlock();
+			}
+		}
+		return issuesByType;
+	}
+
+	/**
+	 * Creates an Issue object for the issue with the given id. The issue reads its
+	 * notes from the list when they are used.
+	 *
+	 * @param id is the issue id to search for.
+	 * @return is a copy of the issue with matching id, or null if not found.
+	 */
+	@Override
+	public Issue getIssueById(int id) {
+		lock.readLock().lock();
+		ReentrantLock rowLock = rowLocks[IssueList.stripeOf(id)];
+		rowLock.lock();
+		try {
+			int row = rowOf(id);
+			return row < 0 ? null : materialize(row, readOnlyNotes);
+		} finally {
+			rowLock.unlock();
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Updates an issue through an execution of a command and writes the result
+	 * back to the columns. If the issue does not exist in the list, then nothing is
+	 * done.
+	 *
+	 * @param id of issue to execute a command with.
+	 * @param c  is command given to the issue.
+	 * @throws UnsupportedOperationException if the command is invalid for the
+	 *                                       issue's current state.
+	 */
+	public void executeCommand(int id, Command c) {
+		executeCommand(id, c.getCode(), c.getOwnerId(), c.getNote());
+	}
+
+	/**
+	 * Updates an issue through a command given as a code made by
+	 * Command.encode(), an owner, and a note. The new state, owner, confirmed
+	 * status, and resolution are written back to the columns, and the note is
+	 * linked in front of the issue's other notes. If the issue does not exist in
+	 * the list, then nothing is done.
+	 *
+	 * @param id      of issue to execute a command with.
+	 * @param command is the code of the command value and resolution.
+	 * @param ownerId is the owner to assign, which is only used by ASSIGN.
+	 * @param note    is the note to add.
+	 * @throws IllegalArgumentException      if the command is not a valid command.
+	 * @throws UnsupportedOperationException if the command is invalid for the
+	 *                                       issue's current state.
+	 */
+	@Override
+	public void executeCommand(int id, int command, String ownerId, String note) {
+		lock.readLock().lock();
+		ReentrantLock rowLock = rowLocks[IssueList.stripeOf(id)];
+		rowLock.lock();
+		try {
+			int row = rowOf(id);
+			if (row >= 0) {
+				Issue issue = materialize(row, writableNotes);
+				issue.update(command, ownerId, note);
+				writeFields(row, issue);
+			}
+		} finally {
+			rowLock.unlock();
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Executes a batch of commands, one for each item of ids and commands, under
+	 * one hold of the lock. Items are matched to rows in id order, so the commands
+	 * of one issue are applied in the order given, and each changed row is written
+	 * once. Failed items are reported in the result instead of being thrown.
+	 *
+	 * @param ids      are the ids of the issues to execute commands with.
+	 * @param commands are the commands given to the issues, one for each id.
+	 * @return is the outcome of each item, in the given order, with the changed
+	 *         issues read back from their rows.
+	 * @throws IllegalArgumentException if ids or commands is null, or they have
+	 *                                  different lengths.
+	 */
+	@Override
+	public BatchResult executeCommands(int[] ids, Command[] commands) {
+		if (ids == null || commands == null || ids.length != commands.length) {
+			throw new IllegalArgumentException("Invalid batch.");
+		}
+		// Sort by id, then by position, packed into one long per item.
+		long[] order = new long[ids.length];
+		for (int i = 0; i < ids.length; i++) {
+			order[i] = (long) ids[i] << 32 | i;
+		}
+		Arrays.sort(order);
+
+		BatchResult result = new BatchResult(ids.length);
+		lock.writeLock().lock();
+		try {
+			for (int i = 0; i < order.length;) {
+				int id = (int) (order[i] >> 32);
+				int row = rowOf(id);
+				Issue issue = row < 0 ? null : materialize(row, writableNotes);
+				boolean applied = false;
+				for (; i < order.length && (int) (order[i] >> 32) == id; i++) {
+					int index = (int) order[i];
+					if (issue == null) {
+						result.fail(index, BatchResult.INVALID_ID);
+					} else if (commands[index] == null) {
+						result.fail(index, BatchResult.INVALID_COMMAND);
+					} else if (!issue.canUpdate(commands[index])) {
+						result.fail(index, BatchResult.INVALID_TRANSITION);
+					} else {
+						issue.update(commands[index]);
+						applied = true;
+					}
+				}
+				if (applied) {
+					writeFields(row, issue);
+					result.addChangedIssue(materialize(row, readOnlyNotes));
+				}
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+		return result;
+	}
+
+	/**
+	 * Removes the issue with the given id. Its summary, owner, and notes are
+	 * released, and the notes of the list are moved to a new arena once most of
+	 * the arena is released.
+	 *
+	 * @param id of issue to delete from list.
+	 */
+	@Override
+	public void deleteIssueById(int id) {
+		lock.writeLock().lock();
+		try {
+			int row = rowOf(id);
+			if (row >= 0) {
+				summaryDictionary.release(summaries[row]);
+				ownerDictionary.release(owners[row]);
+				for (int note = latestNotes[row]; note != NONE;) {
+					int previous = previousNotes[note];
+					noteArena.release(noteAddresses[note]);
+					previousNotes[note] = freeNotes;
+					freeNotes = note;
+					note = previous;
+				}
+				int moved = size - row - 1;
+				System.arraycopy(ids, row + 1, ids, row, moved);
+				System.arraycopy(flags, row + 1, flags, row, moved);
+				System.arraycopy(summaries, row + 1, summaries, row, moved);
+				System.arraycopy(owners, row + 1, owners, row, moved);
+				System.arraycopy(latestNotes, row + 1, latestNotes, row, moved);
+				size--;
+				// Decrement the counter if the id removed was the largest in the list.
+				if (counter == id) {
+					counter--;
+				}
+				if (noteArena.getReleasedSize() > noteArena.size() / 2) {
+					compactNotes();
+				}
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Gets a 2D array with 1 row for every issue, read directly from the columns.
+	 * Each row contains the issue id, state name, issue type, and summary.
+	 *
+	 * @return is 2D array containing every issue in id order.
+	 */
+	@Override
+	public Object[][] getIssueListAsArray() {
+		lock.writeLock().lock();
+		try {
+			Object[][] issueListArray = new Object[size][];
+			for (int row = 0; row < size; row++) {
+				issueListArray[row] = tableRow(row);
+			}
+			return issueListArray;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Gets a 2D array with 1 row for every issue of the designated type, read
+	 * directly from the columns. Each row contains the issue id, state name, issue
+	 * type, and summary.
+	 *
+	 * @param issueType is Enhancement/Bug.
+	 * @return is 2D array containing the matching issues in id order. Returns an
+	 *         empty array if the issue type is not Enhancement or Bug.
+	 * @throws IllegalArgumentException if parameter is null.
+	 */
+	public Object[][] getIssueListAsArrayByIssueType(String issueType) {
+		if (issueType == null) {
+			throw new IllegalArgumentException("Invalid issue type");
+		}
+		int typeFlag = typeFlagOf(issueType);
+		if (typeFlag < 0) {
+			return new Object[0][0];
+		}
+		lock.writeLock().lock();
+		try {
+			int count = 0;
+			for (int row = 0; row < size; row++) {
+				if ((flags[row] & BUG_FLAG) == typeFlag) {
+					count++;
+				}
+			}
+			Object[][] issueListArray = new Object[count][];
+			int next = 0;
+			for (int row = 0; row < size; row++) {
+				if ((flags[row] & BUG_FLAG) == typeFlag) {
+					issueListArray[next++] = tableRow(row);
+				}
+			}
+			return issueListArray;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Gets the number of distinct summaries and owners the list holds.
+	 *
+	 * @return is the number of strings in the dictionaries.
+	 */
+	int getStringCount() {
+		lock.writeLock().lock();
+		try {
+			return summaryDictionary.size() + ownerDictionary.size();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Gets the arena holding the notes of the issues in the list.
+	 *
+	 * @return is the note arena.
+	 */
+	NoteArena getNoteArena() {
+		lock.writeLock().lock();
+		try {
+			return noteArena;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Builds the table view row of an issue.
+	 *
+	 * @param row of the issue.
+	 * @return is the id, state name, issue type, and summary of the issue.
+	 */
+	private Object[] tableRow(int row) {
+		Object[] tableRow = new Object[4];
+		tableRow[0] = ids[row];
+		tableRow[1] = STATES[flags[row] & STATE_MASK].getStateName();
+		tableRow[2] = (flags[row] & BUG_FLAG) != 0 ? Issue.I_BUG : Issue.I_ENHANCEMENT;
+		tableRow[3] = summaryDictionary.decode(summaries[row]);
+		return tableRow;
+	}
+
+	/**
+	 * Creates an Issue object from a row of the columns. The issue's notes stay in
+	 * the list.
+	 *
+	 * @param row   of the issue.
+	 * @param notes is the loader the issue gets its notes from.
+	 * @return is a new Issue with the row's fields.
+	 */
+	private Issue materialize(int row, ColumnNotes notes) {
+		int packed = flags[row] & 0xFF;
+		int resolution = (packed >>> RESOLUTION_SHIFT) & RESOLUTION_MASK;
+		String summary;
+		String owner;
+		synchronized (columnLock) {
+			summary = summaryDictionary.decode(summaries[row]);
+			owner = ownerDictionary.decode(owners[row]);
+		}
+		return new Issue(ids[row], STATES[packed & STATE_MASK],
+				(packed & BUG_FLAG) != 0 ? IssueType.BUG : IssueType.ENHANCEMENT, summary, owner,
+				(packed & CONFIRMED_FLAG) != 0, resolution == 0 ? null : RESOLUTIONS[resolution - 1], notes,
+				ids[row]);
+	}
+
+	/**
+	 * Writes an issue's fields and notes into a new row of the columns.
+	 *
+	 * @param row   to write.
+	 * @param issue to store.
+	 */
+	private void store(int row, Issue issue) {
+		ids[row] = issue.getIssueId();
+		flags[row] = packFlags(issue);
+		summaries[row] = summaryDictionary.encode(issue.getSummary());
+		owners[row] = ownerDictionary.encode(issue.getOwner());
+		int latest = NONE;
+		ArrayList<String> notes = issue.getNotes();
+		for (int i = 0; i < notes.size(); i++) {
+			latest = linkNote(latest, notes.get(i));
+		}
+		latestNotes[row] = latest;
+	}
+
+	/**
+	 * Writes the fields a command may change from an issue back into its row. The
+	 * notes are already linked in by the issue's NoteLoader. The old owner is
+	 * released after the new one is encoded, so an unchanged owner is kept.
+	 *
+	 * @param row   of the issue.
+	 * @param issue holding the new fields.
+	 */
+	private void writeFields(int row, Issue issue) {
+		flags[row] = packFlags(issue);
+		synchronized (columnLock) {
+			int oldOwner = owners[row];
+			owners[row] = ownerDictionary.encode(issue.getOwner());
+			ownerDictionary.release(oldOwner);
+		}
+	}
+
+	/**
+	 * Packs an issue's state, type, confirmed status, and resolution into one byte.
+	 *
+	 * @param issue to pack.
+	 * @return is the flags byte of the issue.
+	 */
+	private static byte packFlags(Issue issue) {
+		int packed = issue.getState().ordinal();
+		if (issue.getIssueTypeValue() == IssueType.BUG) {
+			packed |= BUG_FLAG;
+		}
+		if (issue.isConfirmed()) {
+			packed |= CONFIRMED_FLAG;
+		}
+		if (issue.getResolutionValue() != null) {
+			packed |= (issue.getResolutionValue().ordinal() + 1) << RESOLUTION_SHIFT;
+		}
+		return (byte) packed;
+	}
+
+	/**
+	 * Appends a note to the note arena and links it in front of other notes. A
+	 * free note index is reused before the note columns grow. Called while holding
+	 * columnLock, or on a list no other thread uses.
+	 *
+	 * @param previous is the index of the note before it, or NONE.
+	 * @param note     to add.
+	 * @return is the index of the new note.
+	 */
+	private int linkNote(int previous, String note) {
+		int index;
+		if (freeNotes != NONE) {
+			index = freeNotes;
+			freeNotes = previousNotes[index];
+		} else {
+			if (noteCount == noteAddresses.length) {
+				noteAddresses = Arrays.copyOf(noteAddresses, 2 * noteCount);
+				previousNotes = Arrays.copyOf(previousNotes, 2 * noteCount);
+			}
+			index = noteCount++;
+		}
+		noteAddresses[index] = noteArena.append(note);
+		previousNotes[index] = previous;
+		return index;
+	}
+
+	/**
+	 * Reads the notes that end with a note, oldest first.
+	 *
+	 * @param latest is the index of the latest note, or NONE.
+	 * @return is a new list of the notes.
+	 */
+	private ArrayList<String> readNotes(int latest) {
+		ArrayList<String> notes = new ArrayList<String>();
+		synchronized (columnLock) {
+			for (int note = latest; note != NONE; note = previousNotes[note]) {
+				notes.add(noteArena.getString(noteAddresses[note]));
+			}
+		}
+		Collections.reverse(notes);
+		return notes;
+	}
+
+	/**
+	 * Copies the notes of every issue to a new arena, so that the released notes
+	 * in the old arena are freed with it. Called while holding the lock for
+	 * writing.
+	 */
+	private void compactNotes() {
+		NoteArena compacted = new NoteArena();
+		for (int row = 0; row < size; row++) {
+			for (int note = latestNotes[row]; note != NONE; note = previousNotes[note]) {
+				noteAddresses[note] = compacted.appendCopy(noteArena, noteAddresses[note]);
+			}
+		}
+		noteArena = compacted;
+	}
+
+	/**
+	 * Finds the row of an issue. Ids are kept in ascending order, so a binary
+	 * search is used.
+	 *
+	 * @param id of issue to find.
+	 * @return is the row of the issue, or a negative number if it is not there.
+	 */
+	private int rowOf(int id) {
+		return Arrays.binarySearch(ids, 0, size, id);
+	}
+
+	/**
+	 * Grows the columns so that they hold at least the given number of rows.
+	 *
+	 * @param capacity is the number of rows needed.
+	 */
+	private void ensureCapacity(int capacity) {
+		if (capacity > ids.length) {
+			int grown = Math.max(capacity, ids.length * 2);
+			ids = Arrays.copyOf(ids, grown);
+			flags = Arrays.copyOf(flags, grown);
+			summaries = Arrays.copyOf(summaries, grown);
+			owners = Arrays.copyOf(owners, grown);
+			latestNotes = Arrays.copyOf(latestNotes, grown);
+		}
+	}
+
+	/**
+	 * Empties the list, its dictionaries, and its notes. The counter is left alone.
+	 *
+	 * @param capacity is the number of rows to allocate.
+	 */
+	private void reset(int capacity) {
+		ids = new int[capacity];
+		flags = new byte[capacity];
+		summaries = new int[capacity];
+		owners = new int[capacity];
+		latestNotes = new int[capacity];
+		size = 0;
+		summaryDictionary = new StringDictionary();
+		ownerDictionary = new StringDictionary();
+		noteArena = new NoteArena();
+		noteAddresses = new long[capacity];
+		previousNotes = new int[capacity];
+		noteCount = 0;
+		freeNotes = NONE;
+	}
+
+	/**
+	 * Gets the value the BUG_FLAG bit has for an issue type name.
+	 *
+	 * @param issueType is Enhancement/Bug.
+	 * @return is BUG_FLAG for Bug, 0 for Enhancement, or -1 for any other name.
+	 */
+	private static int typeFlagOf(String issueType) {
+		if (Issue.I_BUG.equals(issueType)) {
+			return BUG_FLAG;
+		} else if (Issue.I_ENHANCEMENT.equals(issueType)) {
+			return 0;
+		}
+		return -1;
+	}
+}
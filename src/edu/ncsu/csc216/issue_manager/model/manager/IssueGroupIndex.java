@@ -0,0 +1,173 @@
+package edu.ncsu.csc216.issue_manager.model.manager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+
+/**
+ * Secondary index that groups issues by a string key such as issue type, state
+ * name, or owner. Each group is kept sorted by issue id, so a group can be
+ * returned in list order without looking at any issue outside it. Used by
+ * IssueList for its filtered views.
+ *
+ * @author Michael Warstler
+ */
+class IssueGroupIndex {
+
+	/** Issues of each key, sorted by id */
+	private HashMap<String, ArrayList<Issue>> groups = new HashMap<String, ArrayList<Issue>>();
+
+	/**
+	 * Adds an issue to the group of the given key. Issues with a larger id than
+	 * every issue in the group are appended without a search.
+	 *
+	 * @param key   of the group. Nothing is done if the key is null.
+	 * @param issue to add.
+	 */
+	void add(String key, Issue issue) {
+		if (key == null) {
+			return;
+		}
+		ArrayList<Issue> group = groups.get(key);
+		if (group == null) {
+			group = new ArrayList<Issue>();
+			groups.put(key, group);
+		}
+		int id = issue.getIssueId();
+		if (group.isEmpty() || group.get(group.size() - 1).getIssueId() < id) {
+			group.add(issue);
+		} else {
+			int position = search(group, id);
+			if (position < 0) {
+				group.add(-position - 1, issue);
+			}
+		}
+	}
+
+	/**
+	 * Removes an issue from the group of the given key.
+	 *
+	 * @param key   of the group. Nothing is done if the key is null.
+	 * @param issue to remove.
+	 */
+	void remove(String key, Issue issue) {
+		if (key == null) {
+			return;
+		}
+		ArrayList<Issue> group = groups.get(key);
+		if (group != null) {
+			int position = search(group, issue.getIssueId());
+			if (position >= 0) {
+				group.remove(position);
+			}
+			if (group.isEmpty()) {
+				groups.remove(key);
+			}
+		}
+	}
+
+	/**
+	 * Moves many issues between groups at once. Each group that loses or gains an
+	 * issue is rebuilt in a single merge pass, so a batch costs one pass over each
+	 * affected group instead of one shift of the group for every issue.
+	 *
+	 * @param issues  that may have changed group, sorted by id.
+	 * @param oldKeys are the keys the issues were grouped by before. A null key
+	 *                is not grouped.
+	 * @param newKeys are the keys the issues are grouped by now.
+	 * @param from    is the first index of the arrays to use.
+	 * @param to      is the index after the last one to use.
+	 */
+	void regroupAll(Issue[] issues, String[] oldKeys, String[] newKeys, int from, int to) {
+		HashMap<String, ArrayList<Issue>> removals = new HashMap<String, ArrayList<Issue>>();
+		HashMap<String, ArrayList<Issue>> additions = new HashMap<String, ArrayList<Issue>>();
+		for (int i = from; i < to; i++) {
+			if (oldKeys[i] == null ? newKeys[i] == null : oldKeys[i].equals(newKeys[i])) {
+				continue;
+			}
+			if (oldKeys[i] != null) {
+				removals.computeIfAbsent(oldKeys[i], key -> new ArrayList<Issue>()).add(issues[i]);
+				additions.putIfAbsent(oldKeys[i], new ArrayList<Issue>());
+			}
+			if (newKeys[i] != null) {
+				additions.computeIfAbsent(newKeys[i], key -> new ArrayList<Issue>()).add(issues[i]);
+			}
+		}
+
+		for (String key : additions.keySet()) {
+			ArrayList<Issue> group = groups.get(key);
+			if (group == null) {
+				group = new ArrayList<Issue>();
+			}
+			ArrayList<Issue> removed = removals.get(key);
+			if (removed == null) {
+				removed = new ArrayList<Issue>();
+			}
+			ArrayList<Issue> added = additions.get(key);
+			ArrayList<Issue> merged = new ArrayList<Issue>(group.size() - removed.size() + added.size());
+			int r = 0;
+			int a = 0;
+			for (int g = 0; g < group.size(); g++) {
+				Issue issue = group.get(g);
+				int id = issue.getIssueId();
+				while (a < added.size() && added.get(a).getIssueId() < id) {
+					merged.add(added.get(a++));
+				}
+				if (r < removed.size() && removed.get(r).getIssueId() == id) {
+					r++;
+				} else {
+					merged.add(issue);
+				}
+			}
+			while (a < added.size()) {
+				merged.add(added.get(a++));
+			}
+			if (merged.isEmpty()) {
+				groups.remove(key);
+			} else {
+				groups.put(key, merged);
+			}
+		}
+	}
+
+	/**
+	 * Gets the issues of the given key in id order.
+	 *
+	 * @param key of the group.
+	 * @return is a new list of the issues in the group. The list is empty if no
+	 *         issue has the key.
+	 */
+	ArrayList<Issue> get(String key) {
+		ArrayList<Issue> group = groups.get(key);
+		if (group == null) {
+			return new ArrayList<Issue>();
+		}
+		return new ArrayList<Issue>(group);
+	}
+
+	/**
+	 * Binary searches a group for an issue id.
+	 *
+	 * @param group is a list of issues sorted by id.
+	 * @param id    of the issue to find.
+	 * @return is the index of the issue, or (-(insertion point) - 1) if it is not
+	 *         in the group.
+	 */
+	private static int search(ArrayList<Issue> group, int id) {
+		int low = 0;
+		int high = group.size() - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int midId = group.get(mid).getIssueId();
+			if (midId < id) {
+				low = mid + 1;
+			} else if (midId > id) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -(low + 1);
+	}
+}
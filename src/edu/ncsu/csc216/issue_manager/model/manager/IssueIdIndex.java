@@ -0,0 +1,165 @@
+package edu.ncsu.csc216.issue_manager.model.manager;
+
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+
+/**
+ * Primary key index from issue id to Issue. Uses open addressing with linear
+ * probing over a primitive int[] of keys, so ids are never boxed. Issue ids are
+ * always at least 1, which leaves 0 free to mark an empty slot. Used by
+ * IssueList to find issues in constant time.
+ *
+ * @author Michael Warstler
+ */
+class IssueIdIndex {
+
+	/** Number of slots in a newly created index (must be a power of two) */
+	private static final int INITIAL_CAPACITY = 16;
+	/** Key value of a slot that holds no issue */
+	private static final int EMPTY = 0;
+
+	/** Issue ids, or EMPTY for unused slots */
+	private int[] keys;
+	/** Issues stored in the slot of their id */
+	private Issue[] values;
+	/** Number of issues in the index */
+	private int size;
+
+	/**
+	 * Constructs an empty index.
+	 */
+	IssueIdIndex() {
+		this(0);
+	}
+
+	/**
+	 * Constructs an empty index with room for expectedSize issues before it has to
+	 * grow.
+	 *
+	 * @param expectedSize is the number of issues expected to be added.
+	 */
+	IssueIdIndex(int expectedSize) {
+		int capacity = INITIAL_CAPACITY;
+		while (capacity * 2 / 3 < expectedSize) {
+			capacity *= 2;
+		}
+		keys = new int[capacity];
+		values = new Issue[capacity];
+	}
+
+	/**
+	 * Gets the issue with the given id.
+	 *
+	 * @param id of issue to get.
+	 * @return is the issue with the id, or null if there is none.
+	 */
+	Issue get(int id) {
+		int mask = keys.length - 1;
+		for (int slot = slotOf(id, mask); keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+			if (keys[slot] == id) {
+				return values[slot];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Adds an issue under its id, replacing any issue already stored with that id.
+	 *
+	 * @param issue to add.
+	 */
+	void put(Issue issue) {
+		if ((size + 1) * 3 > keys.length * 2) {
+			resize(keys.length * 2);
+		}
+		int id = issue.getIssueId();
+		int mask = keys.length - 1;
+		int slot = slotOf(id, mask);
+		while (keys[slot] != EMPTY && keys[slot] != id) {
+			slot = (slot + 1) & mask;
+		}
+		if (keys[slot] == EMPTY) {
+			keys[slot] = id;
+			size++;
+		}
+		values[slot] = issue;
+	}
+
+	/**
+	 * Removes the issue with the given id. Later entries of the probe sequence are
+	 * shifted back into the freed slot so that no tombstones are needed.
+	 *
+	 * @param id of issue to remove.
+	 * @return is the removed issue, or null if there was none.
+	 */
+	Issue remove(int id) {
+		int mask = keys.length - 1;
+		int slot = slotOf(id, mask);
+		while (keys[slot] != id) {
+			if (keys[slot] == EMPTY) {
+				return null;
+			}
+			slot = (slot + 1) & mask;
+		}
+		Issue removed = values[slot];
+
+		// Shift back any entry whose home slot is not between the gap and itself.
+		int gap = slot;
+		for (int next = (gap + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+			int home = slotOf(keys[next], mask);
+			if (((next - home) & mask) >= ((next - gap) & mask)) {
+				keys[gap] = keys[next];
+				values[gap] = values[next];
+				gap = next;
+			}
+		}
+		keys[gap] = EMPTY;
+		values[gap] = null;
+		size--;
+		return removed;
+	}
+
+	/**
+	 * Gets the number of issues in the index.
+	 *
+	 * @return is the number of issues.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Moves every issue into a new table with the given number of slots.
+	 *
+	 * @param capacity is the new number of slots (a power of two).
+	 */
+	private void resize(int capacity) {
+		int[] oldKeys = keys;
+		Issue[] oldValues = values;
+		keys = new int[capacity];
+		values = new Issue[capacity];
+		int mask = capacity - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != EMPTY) {
+				int slot = slotOf(oldKeys[i], mask);
+				while (keys[slot] != EMPTY) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+
+	/**
+	 * Gets the home slot of an id. Ids are mostly consecutive, so they are spread
+	 * with a multiplicative hash before masking.
+	 *
+	 * @param id   of an issue.
+	 * @param mask is the number of slots minus one.
+	 * @return is the slot where probing for the id starts.
+	 */
+	private static int slotOf(int id, int mask) {
+		int hash = id * 0x9E3779B9;
+		return (hash ^ (hash >>> 16)) & mask;
+	}
+}
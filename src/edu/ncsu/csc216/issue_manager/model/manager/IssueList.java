@@ -1,17 +1,41 @@
 package edu.ncsu.csc216.issue_manager.model.manager;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
 
 import edu.ncsu.csc216.issue_manager.model.command.Command;
 import edu.ncsu.csc216.issue_manager.model.issue.Issue;
 import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueType;
+import edu.ncsu.csc216.issue_manager.model.issue.NoteArena;
 
 /**
  * Maintains a List of Issues and a counter which represents the id of the next
  * Issue to add to the list. Can add newly created issues to the list, sorting
  * issues by id, return all issues in a list, return issues by type, return an
  * issue by id, delete an issue with a given id, and execute a command on a
- * specific issue.
+ * specific issue. Issues are kept in id order in the list and are also indexed
+ * by id, so finding an issue by id does not scan the list. Secondary indexes by
+ * issue type, state name, and owner let filtered views skip non-matching
+ * issues. They are updated whenever a command changes an issue's state or
+ * owner. The ids of issues added, changed or deleted since the list was last
+ * marked clean are tracked so that a save can rewrite only those issues.
+ * 
+ * The notes of the issues in the list are kept in one NoteArena owned by the
+ * list. The notes of a deleted issue are released, and once more than half of
+ * the arena is released the remaining notes are copied to a new arena and the
+ * old one is left to be freed. Replacing the list with addIssues() takes over
+ * the arena of the new issues when they all share one, as issues of one load
+ * do.
+ * 
+ * Commands on different issues may be executed by different threads at the
+ * same time, as long as the caller keeps any one issue to one thread (see
+ * IssueManager). The state, owner, and dirty id indexes they change are split
+ * into STRIPES stripes by issue id, each guarded by its own lock, so commands
+ * on issues in different stripes do not wait for each other. Views by state or
+ * owner merge the groups of every stripe. Adding, deleting, replacing issues,
+ * and executing batches of commands need exclusive access to the list.
  * 
  * @author Michael Warstler
  */
@@ -19,8 +43,41 @@ public class IssueList {
 
 	/** List of issue objects */
 	private ArrayList<Issue> issues;
+	/** Index of the issues in the list by id */
+	private IssueIdIndex issuesById;
+	/** Index of the issues in the list by issue type name */
+	private IssueGroupIndex issuesByType;
+	/** State, owner, and dirty id indexes, by stripeOf() the issue id */
+	private IndexStripe[] stripes;
 	/** Counter to keep track of latest issue id */
 	private int counter;
+	/** True if every id is dirty, because the list is new or was replaced */
+	private volatile boolean allDirty;
+	/** Arena holding the notes of the issues in the list */
+	private NoteArena noteArena;
+
+	/** Number of index stripes (a power of two) */
+	static final int STRIPES = 64;
+	/** log2 of STRIPES */
+	private static final int STRIPE_SHIFT = 6;
+
+	/**
+	 * Indexes of the issues whose ids fall in one stripe. Guarded by itself.
+	 * 
+	 * @author Michael Warstler
+	 */
+	private static final class IndexStripe {
+
+		/** Issues of the stripe by state name */
+		private final IssueGroupIndex issuesByState = new IssueGroupIndex();
+		/** Issues of the stripe by owner */
+		private final IssueGroupIndex issuesByOwner = new IssueGroupIndex();
+		/**
+		 * Ids of the stripe changed since the list was marked clean, each at bit id
+		 * >>> STRIPE_SHIFT
+		 */
+		private final BitSet dirtyIds = new BitSet();
+	}
 
 	/**
 	 * Constructs an issue list by reseting the counter. 
@@ -29,6 +86,11 @@ public class IssueList {
 		// Must be 0 according to Jenkins
 		counter = 0;
 		issues = new ArrayList<Issue>();
+		issuesById = new IssueIdIndex();
+		issuesByType = new IssueGroupIndex();
+		stripes = newStripes();
+		allDirty = true;
+		noteArena = new NoteArena();
 	}
 
 	/**
@@ -43,63 +105,59 @@ public class IssueList {
 	 */
 	public int addIssue(IssueType issueType, String summary, String note) {
 		// Increment counter prior to adding, then add the issue to the list.
-		Issue issueToAdd = new Issue(++counter, issueType, summary, note);
+		Issue issueToAdd = new Issue(++counter, issueType, summary, note, noteArena);
 		issues.add(issueToAdd); // adds to issues list at the last spot.
+		issuesById.put(issueToAdd);
+		addToGroups(issueToAdd);
+		markDirty(stripes[stripeOf(counter)], counter);
 		return counter; // counter should hold the id value of latest issue added.
 	}
 
 	/**
-	 * Adds a provided list of issues. Duplicate issues in a list are ignored.
-	 * Issues are sorted to the main issue list. After adding all Issues, the
-	 * counter is set to the id of the last issue in the list. Utilizes private
-	 * helper method addIssue(Issue) to check for duplicates and adding a single
-	 * issue in sorted order.
+	 * Adds a provided list of issues. Duplicate issues in a list are ignored (the
+	 * first issue with an id is kept). Issues are sorted to the main issue list.
+	 * After adding all Issues, the counter is set to the id of the last issue in
+	 * the list. The incoming issues are sorted once by id and then copied into the
+	 * list and index in a single pass that skips repeated ids. The notes of the
+	 * added issues are moved to the arena of the list, which is the arena the
+	 * issues already share if there is one.
 	 * 
 	 * @param issues is a list of issue objects to try to add to main list.
 	 */
 	public void addIssues(ArrayList<Issue> issues) {
-		// Reset the issues field to a new ArrayList.
-		this.issues = new ArrayList<Issue>();
+		// Sort a copy by id. The sort is stable, so the first issue of any
+		// duplicate id stays ahead of the others.
+		ArrayList<Issue> sorted = new ArrayList<Issue>(issues);
+		sorted.sort(Comparator.comparingInt(Issue::getIssueId));
 
-		// Send each issue to the private addIssue method.
-		for (int i = 0; i < issues.size(); i++) {
-			addIssue(issues.get(i));
-		}
-	}
-
-	/**
-	 * Helper method to the addIssues() method which checks for duplicate Issues and
-	 * adds a single issue in sorted order.
-	 * 
-	 * @param issue is the issue object to attempt to add to issues field.
-	 */
-	private void addIssue(Issue issue) {
-		// Get the issue to add's id.
-		int addingIssueId = issue.getIssueId();
-		boolean isDuplicate = false;
-		boolean added = false;
+		// Reset the issues field to a new ArrayList.
+		this.issues = new ArrayList<Issue>(sorted.size());
+		this.issuesById = new IssueIdIndex(sorted.size());
+		this.issuesByType = new IssueGroupIndex();
+		this.stripes = newStripes();
+		// The notes of the replaced issues go with the old arena.
+		NoteArena shared = sharedNoteArena(sorted);
+		noteArena = shared == null ? new NoteArena() : shared;
 
-		// Check for duplicates in the existing list
-		for (int j = 0; j < issues.size(); j++) {
-			if (addingIssueId == issues.get(j).getIssueId()) {
-				isDuplicate = true;
+		// Add each issue that does not repeat the id before it.
+		for (int i = 0; i < sorted.size(); i++) {
+			Issue issue = sorted.get(i);
+			if (i == 0 || issue.getIssueId() != sorted.get(i - 1).getIssueId()) {
+				issue.moveNotesTo(noteArena);
+				this.issues.add(issue);
+				issuesById.put(issue);
+				addToGroups(issue);
+			} else if (issue.getNoteArena() == noteArena) {
+				issue.releaseNotes();
 			}
 		}
 
-		// If not a duplicate, add the new issue to the correct location (by id)
-		if (!isDuplicate) {
-			for (int k = 0; k < issues.size(); k++) {
-				if (addingIssueId < issues.get(k).getIssueId()) {
-					issues.add(k, issue); // adds new issue to location of k, pushing all other issues to higher index.
-					added = true;
-					break;
-				}
-			}
-			if (!added) { // if the issue has not been added yet and is valid, add it to end of list.
-				issues.add(issue);
-				counter = issues.get(issues.size() - 1).getIssueId(); // The counter is now the last id in the list															
-			}
+		// The counter is now the last id in the list
+		if (!this.issues.isEmpty()) {
+			counter = this.issues.get(this.issues.size() - 1).getIssueId();
 		}
+		// Every issue has been replaced.
+		allDirty = true;
 	}
 
 	/**
@@ -124,15 +182,50 @@ public class IssueList {
 			throw new IllegalArgumentException("Inavalid issue type.");
 		}
 
-		// Create array list to hold specific type issues.
-		ArrayList<Issue> issuesByType = new ArrayList<Issue>();
-		// Add only matching type issues to new list.
-		for (int i = 0; i < issues.size(); i++) {
-			if (issues.get(i).getIssueType().equals(issueType)) {
-				issuesByType.add(issues.get(i));
+		return issuesByType.get(issueType);
+	}
+
+	/**
+	 * Gets a list of issues in the designated state.
+	 * 
+	 * @param stateName is the name of the state (New, Working, Confirmed,
+	 *                  Verifying, Closed).
+	 * @return is a list of issues in the state, in id order.
+	 * @throws IllegalArgumentException if stateName parameter is null/empty.
+	 */
+	public ArrayList<Issue> getIssuesByState(String stateName) {
+		if (stateName == null || "".equals(stateName)) {
+			throw new IllegalArgumentException("Invalid state name.");
+		}
+		ArrayList<Issue> group = new ArrayList<Issue>();
+		for (IndexStripe stripe : stripes) {
+			synchronized (stripe) {
+				group.addAll(stripe.issuesByState.get(stateName));
 			}
 		}
-		return issuesByType;
+		group.sort(Comparator.comparingInt(Issue::getIssueId));
+		return group;
+	}
+
+	/**
+	 * Gets a list of issues owned by the designated owner.
+	 * 
+	 * @param owner is the owner's id.
+	 * @return is a list of issues with the owner, in id order.
+	 * @throws IllegalArgumentException if owner parameter is null/empty.
+	 */
+	public ArrayList<Issue> getIssuesByOwner(String owner) {
+		if (owner == null || "".equals(owner)) {
+			throw new IllegalArgumentException("Invalid owner.");
+		}
+		ArrayList<Issue> group = new ArrayList<Issue>();
+		for (IndexStripe stripe : stripes) {
+			synchronized (stripe) {
+				group.addAll(stripe.issuesByOwner.get(owner));
+			}
+		}
+		group.sort(Comparator.comparingInt(Issue::getIssueId));
+		return group;
 	}
 
 	/**
@@ -143,29 +236,160 @@ public class IssueList {
 	 * @return is Issue object with matching parameter id or null if not found.
 	 */
 	public Issue getIssueById(int id) {
-		for (int i = 0; i < issues.size(); i++) {
-			if (id == issues.get(i).getIssueId()) {
-				return issues.get(i);
-			}
-		}
-		return null;
+		return issuesById.get(id);
 	}
 
 	/**
 	 * Updates an issue in the list through an execution of a command. If issue does
-	 * not exist in the list, then nothing is done.
+	 * not exist in the list, then nothing is done. The state and owner indexes are
+	 * moved along with any change the command makes.
 	 * 
 	 * @param id of issue to execute a command with.
 	 * @param c  is command given to the issue.
+	 * @throws UnsupportedOperationException if the command is invalid for the
+	 *                                       issue's current state.
 	 */
 	public void executeCommand(int id, Command c) {
-		// Attempt to execute the command at the given parameter id.
+		executeCommand(id, c.getCode(), c.getOwnerId(), c.getNote());
+	}
+
+	/**
+	 * Updates an issue in the list through a command given as a code made by
+	 * Command.encode(), an owner, and a note, so that replaying many commands does
+	 * not create a Command for each. If issue does not exist in the list, then
+	 * nothing is done.
+	 * 
+	 * @param id      of issue to execute a command with.
+	 * @param command is the code of the command value and resolution.
+	 * @param ownerId is the owner to assign, which is only used by ASSIGN.
+	 * @param note    is the note to add.
+	 * @throws IllegalArgumentException      if the command is not a valid command.
+	 * @throws UnsupportedOperationException if the command is invalid for the
+	 *                                       issue's current state.
+	 */
+	public void executeCommand(int id, int command, String ownerId, String note) {
+		Issue issue = getIssueById(id);
+		// No need to throw exception if id does not exist in the list according to
+		// instructions.
+		if (issue == null) {
+			return;
+		}
+
+		String oldState = issue.getStateName();
+		String oldOwner = issue.getOwner();
 		try {
-			getIssueById(id).update(c);
-		} catch (NullPointerException e) {
-			// No need to throw exception if id does not exist in the list according to
-			// instructions.
+			issue.update(command, ownerId, note);
+		} finally {
+			IndexStripe stripe = stripes[stripeOf(id)];
+			synchronized (stripe) {
+				regroup(stripe, issue, oldState, oldOwner);
+				markDirty(stripe, id);
+			}
+		}
+	}
+
+	/**
+	 * Executes a batch of commands, one for each item of ids and commands. The
+	 * items are sorted by id, keeping the given order among items with the same
+	 * id, and matched to the issues in one forward pass over the list. The state,
+	 * owner, and dirty id indexes are then updated once for every issue the batch
+	 * changed. An item fails, without stopping the batch, if its id is not in the
+	 * list, its command is null, or its command is invalid for the issue's state
+	 * at that point. Commands are checked against the transition table before they
+	 * run, so an invalid one is never thrown, and a failure is recorded as a code
+	 * without making an exception. An issue whose commands all failed is left out of the changed
+	 * issues and is not marked dirty. Each state and owner group of a stripe that
+	 * changes is rebuilt once. Needs exclusive access to the list.
+	 * 
+	 * @param ids      are the ids of the issues to execute commands with.
+	 * @param commands are the commands given to the issues, one for each id.
+	 * @return is the outcome of each item, in the given order.
+	 * @throws IllegalArgumentException if ids or commands is null, or they have
+	 *                                  different lengths.
+	 */
+	public BatchResult executeCommands(int[] ids, Command[] commands) {
+		if (ids == null || commands == null || ids.length != commands.length) {
+			throw new IllegalArgumentException("Invalid batch.");
+		}
+		// Sort by id, then by position, packed into one long per item.
+		long[] order = new long[ids.length];
+		for (int i = 0; i < ids.length; i++) {
+			order[i] = (long) ids[i] << 32 | i;
+		}
+		Arrays.sort(order);
+
+		BatchResult result = new BatchResult(ids.length);
+		String[] oldStates = new String[ids.length];
+		String[] oldOwners = new String[ids.length];
+		Issue issue = null;
+		boolean applied = false;
+		int position = 0;
+		for (int i = 0; i < order.length; i++) {
+			int index = (int) order[i];
+			int id = (int) (order[i] >> 32);
+			if (i == 0 || id != (int) (order[i - 1] >> 32)) {
+				position = seek(id, position);
+				issue = position < issues.size() && issues.get(position).getIssueId() == id ? issues.get(position)
+						: null;
+				applied = false;
+			}
+			if (issue == null) {
+				result.fail(index, BatchResult.INVALID_ID);
+			} else if (commands[index] == null) {
+				result.fail(index, BatchResult.INVALID_COMMAND);
+			} else if (!issue.canUpdate(commands[index])) {
+				result.fail(index, BatchResult.INVALID_TRANSITION);
+			} else {
+				// Record where the issue was grouped before its first applied command.
+				if (!applied) {
+					oldStates[result.getChangedCount()] = issue.getStateName();
+					oldOwners[result.getChangedCount()] = issue.getOwner();
+					result.addChangedIssue(issue);
+					applied = true;
+				}
+				issue.update(commands[index]);
+			}
+		}
+
+		// Split the changed issues by stripe, keeping them in id order.
+		Issue[] changed = result.getChangedIssues();
+		int changedCount = result.getChangedCount();
+		int[] starts = new int[STRIPES + 1];
+		for (int i = 0; i < changedCount; i++) {
+			starts[stripeOf(changed[i].getIssueId()) + 1]++;
+		}
+		for (int s = 0; s < STRIPES; s++) {
+			starts[s + 1] += starts[s];
 		}
+		int[] next = Arrays.copyOf(starts, STRIPES);
+		Issue[] byStripe = new Issue[changedCount];
+		String[] oldStatesByStripe = new String[changedCount];
+		String[] oldOwnersByStripe = new String[changedCount];
+		String[] newStates = new String[changedCount];
+		String[] newOwners = new String[changedCount];
+		for (int i = 0; i < changedCount; i++) {
+			int at = next[stripeOf(changed[i].getIssueId())]++;
+			byStripe[at] = changed[i];
+			oldStatesByStripe[at] = oldStates[i];
+			oldOwnersByStripe[at] = oldOwners[i];
+			newStates[at] = changed[i].getStateName();
+			newOwners[at] = changed[i].getOwner();
+		}
+
+		for (int s = 0; s < STRIPES; s++) {
+			if (starts[s] == starts[s + 1]) {
+				continue;
+			}
+			IndexStripe stripe = stripes[s];
+			synchronized (stripe) {
+				stripe.issuesByState.regroupAll(byStripe, oldStatesByStripe, newStates, starts[s], starts[s + 1]);
+				stripe.issuesByOwner.regroupAll(byStripe, oldOwnersByStripe, newOwners, starts[s], starts[s + 1]);
+				for (int i = starts[s]; i < starts[s + 1]; i++) {
+					markDirty(stripe, byStripe[i].getIssueId());
+				}
+			}
+		}
+		return result;
 	}
 
 	/**
@@ -174,14 +398,236 @@ public class IssueList {
 	 * @param id of issue to delete from list.
 	 */
 	public void deleteIssueById(int id) {
+		Issue removed = issuesById.remove(id);
+		if (removed != null) {
+			issues.remove(indexOf(id));
+			removeFromGroups(removed);
+			markDirty(stripes[stripeOf(id)], id);
+			if (removed.getNoteArena() == noteArena) {
+				removed.releaseNotes();
+				if (noteArena.getReleasedSize() > noteArena.size() / 2) {
+					compactNotes();
+				}
+			}
+			// Decrement the counter if the id removed was the largest in the list.
+			if (counter == id) {
+				counter--;
+			}
+		}
+	}
+
+	/**
+	 * Copies the notes of the issues in the list to a new arena, leaving the
+	 * released notes behind in the old one. Each note is copied at most once for
+	 * every note released before it, so the copying adds a constant cost to each
+	 * deleted note.
+	 */
+	private void compactNotes() {
+		NoteArena compacted = new NoteArena();
 		for (int i = 0; i < issues.size(); i++) {
-			if (id == issues.get(i).getIssueId()) {
-				issues.remove(i);
-				// Decrement the counter if the id removed was the largest in the list.
-				if (counter == id) {
-					counter--;
+			issues.get(i).moveNotesTo(compacted);
+		}
+		noteArena = compacted;
+	}
+
+	/**
+	 * Finds the arena shared by every issue of a list that has stored notes.
+	 * 
+	 * @param issues to check.
+	 * @return is the shared arena, or null if the issues use more than one arena,
+	 *         none, or the staging arena.
+	 */
+	private static NoteArena sharedNoteArena(ArrayList<Issue> issues) {
+		NoteArena shared = null;
+		for (int i = 0; i < issues.size(); i++) {
+			NoteArena arena = issues.get(i).getNoteArena();
+			if (arena != null) {
+				if (shared != null && arena != shared) {
+					return null;
+				}
+				shared = arena;
+			}
+		}
+		return shared == null || shared.isStaging() ? null : shared;
+	}
+
+	/**
+	 * Gets the arena holding the notes of the issues in the list.
+	 * 
+	 * @return is the note arena.
+	 */
+	NoteArena getNoteArena() {
+		return noteArena;
+	}
+
+	/**
+	 * Gets the ids of the issues added, changed or deleted since the list was last
+	 * marked clean.
+	 * 
+	 * @return is a copy of the dirty ids, or null if every issue is dirty because
+	 *         the list is new or was replaced by addIssues().
+	 */
+	BitSet getDirtyIds() {
+		if (allDirty) {
+			return null;
+		}
+		BitSet dirtyIds = new BitSet();
+		for (int s = 0; s < STRIPES; s++) {
+			synchronized (stripes[s]) {
+				BitSet stripeIds = stripes[s].dirtyIds;
+				for (int bit = stripeIds.nextSetBit(0); bit >= 0; bit = stripeIds.nextSetBit(bit + 1)) {
+					dirtyIds.set(bit << STRIPE_SHIFT | s);
 				}
 			}
 		}
+		return dirtyIds;
+	}
+
+	/**
+	 * Marks every issue as saved, so that no id is dirty.
+	 */
+	void markClean() {
+		for (IndexStripe stripe : stripes) {
+			synchronized (stripe) {
+				stripe.dirtyIds.clear();
+			}
+		}
+		allDirty = false;
+	}
+
+	/**
+	 * Gets the index stripe of an issue id. IssueManager stripes its issue locks
+	 * the same way, so a command holds the only issue lock of its stripe.
+	 * 
+	 * @param id of the issue.
+	 * @return is the stripe, from 0 to STRIPES - 1.
+	 */
+	static int stripeOf(int id) {
+		return id & (STRIPES - 1);
+	}
+
+	/**
+	 * Makes empty index stripes.
+	 * 
+	 * @return is the stripes.
+	 */
+	private static IndexStripe[] newStripes() {
+		IndexStripe[] all = new IndexStripe[STRIPES];
+		for (int s = 0; s < STRIPES; s++) {
+			all[s] = new IndexStripe();
+		}
+		return all;
+	}
+
+	/**
+	 * Records that the issue with an id was added, changed or deleted. Called by
+	 * commands while holding the lock on the stripe.
+	 * 
+	 * @param stripe of the id.
+	 * @param id     of the issue.
+	 */
+	private void markDirty(IndexStripe stripe, int id) {
+		if (!allDirty) {
+			stripe.dirtyIds.set(id >>> STRIPE_SHIFT);
+		}
+	}
+
+	/**
+	 * Adds an issue to the type, state, and owner indexes.
+	 * 
+	 * @param issue to add.
+	 */
+	private void addToGroups(Issue issue) {
+		IndexStripe stripe = stripes[stripeOf(issue.getIssueId())];
+		issuesByType.add(issue.getIssueType(), issue);
+		stripe.issuesByState.add(issue.getStateName(), issue);
+		stripe.issuesByOwner.add(issue.getOwner(), issue);
+	}
+
+	/**
+	 * Removes an issue from the type, state, and owner indexes.
+	 * 
+	 * @param issue to remove.
+	 */
+	private void removeFromGroups(Issue issue) {
+		IndexStripe stripe = stripes[stripeOf(issue.getIssueId())];
+		issuesByType.remove(issue.getIssueType(), issue);
+		stripe.issuesByState.remove(issue.getStateName(), issue);
+		stripe.issuesByOwner.remove(issue.getOwner(), issue);
+	}
+
+	/**
+	 * Moves an issue between state and owner groups of its stripe after it has
+	 * been updated. An issue's type never changes.
+	 * 
+	 * @param stripe   of the issue.
+	 * @param issue    that was updated.
+	 * @param oldState is the issue's state name before the update.
+	 * @param oldOwner is the issue's owner before the update.
+	 */
+	private static void regroup(IndexStripe stripe, Issue issue, String oldState, String oldOwner) {
+		if (!oldState.equals(issue.getStateName())) {
+			stripe.issuesByState.remove(oldState, issue);
+			stripe.issuesByState.add(issue.getStateName(), issue);
+		}
+		if (oldOwner == null ? issue.getOwner() != null : !oldOwner.equals(issue.getOwner())) {
+			stripe.issuesByOwner.remove(oldOwner, issue);
+			stripe.issuesByOwner.add(issue.getOwner(), issue);
+		}
+	}
+
+	/**
+	 * Finds the first position at or after from that holds an id of at least the
+	 * given id. Steps of doubling length are taken from from before a binary
+	 * search, so a run of nearby ids costs little more than a scan and distant
+	 * ids cost a logarithmic search.
+	 * 
+	 * @param id   to find.
+	 * @param from is the position to start from. Every issue before it has a
+	 *             smaller id.
+	 * @return is the position, or the size of the list if every id is smaller.
+	 */
+	private int seek(int id, int from) {
+		int size = issues.size();
+		int low = from;
+		int step = 1;
+		while (low + step - 1 < size && issues.get(low + step - 1).getIssueId() < id) {
+			low += step;
+			step <<= 1;
+		}
+		int high = Math.min(size, low + step - 1);
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (issues.get(mid).getIssueId() < id) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Finds the position of an issue in the issues list. The list is sorted by id,
+	 * so a binary search is used.
+	 * 
+	 * @param id of issue to find.
+	 * @return is the index of the issue in the list, or -1 if it is not there.
+	 */
+	private int indexOf(int id) {
+		int low = 0;
+		int high = issues.size() - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int midId = issues.get(mid).getIssueId();
+			if (midId < id) {
+				low = mid + 1;
+			} else if (midId > id) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -1;
 	}
 }
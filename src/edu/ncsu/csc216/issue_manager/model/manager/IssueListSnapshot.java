@@ -0,0 +1,652 @@
+package edu.ncsu.csc216.issue_manager.model.manager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+
+/**
+ * Immutable point-in-time view of the rows of an issue list, for table models
+ * and exports that must not tear while the list changes. Each row holds the
+ * same four columns as IssueManager.getIssueListAsArray(): index 0 = Issue id
+ * number, index 1 = Issue state name, index 2 = Issue type, index 3 = Issue
+ * summary. Rows are kept in id order.
+ *
+ * Every change to the list publishes a new snapshot with the next version
+ * number. Rows are stored in chunks of CHUNK_SIZE, and a new snapshot shares
+ * every chunk it does not change with the one before it, so changing one issue
+ * copies only its chunk and the array of chunks. Readers can keep using a
+ * snapshot for as long as they like without any locking, and can compare
+ * version numbers to tell whether anything has changed. A snapshot made from
+ * the one before it by a single change also records that change, so views
+ * built from the earlier snapshot can be patched instead of rebuilt.
+ *
+ * Each snapshot also counts the Bug rows of every chunk, so a page of rows of
+ * one type can be found by skipping whole chunks. A page costs time in
+ * proportion to its length plus the number of chunks, not the number of rows.
+ *
+ * @author Michael Warstler
+ */
+public class IssueListSnapshot {
+
+	/** Number of rows in a chunk (a power of two) */
+	static final int CHUNK_SIZE = 1024;
+	/** log2 of CHUNK_SIZE */
+	private static final int CHUNK_SHIFT = 10;
+
+	/** Version of the list this snapshot shows */
+	private final long version;
+	/** Chunks of rows. Only the last chunk may be partly filled. */
+	private final Object[][][] chunks;
+	/** Number of rows */
+	private final int size;
+	/** Number of Bug rows in each chunk */
+	private final int[] bugCounts;
+	/** Number of Bug rows */
+	private final int bugCount;
+	/** Id of the issue changed since the previous version, or 0 if not a single change */
+	private final int changedId;
+	/** New row of the changed issue, or null if it was removed */
+	private final Object[] changedRow;
+
+	/**
+	 * Constructs a snapshot from its chunks.
+	 *
+	 * @param version    of the list.
+	 * @param chunks     of rows, which are not copied.
+	 * @param size       is the number of rows.
+	 * @param bugCounts  is the number of Bug rows in each chunk.
+	 * @param changedId  is the id changed since the previous version, or 0.
+	 * @param changedRow is the new row of the changed issue, or null.
+	 */
+	private IssueListSnapshot(long version, Object[][][] chunks, int size, int[] bugCounts, int changedId,
+			Object[] changedRow) {
+		this.version = version;
+		this.chunks = chunks;
+		this.size = size;
+		this.bugCounts = bugCounts;
+		int bugs = 0;
+		for (int count : bugCounts) {
+			bugs += count;
+		}
+		this.bugCount = bugs;
+		this.changedId = changedId;
+		this.changedRow = changedRow;
+	}
+
+	/**
+	 * Creates a snapshot of a list of issues.
+	 *
+	 * @param version of the list.
+	 * @param issues  to show, in id order.
+	 * @return is the snapshot.
+	 */
+	static IssueListSnapshot of(long version, List<Issue> issues) {
+		Object[][][] chunks = new Object[chunkCount(issues.size())][][];
+		for (int c = 0; c < chunks.length; c++) {
+			chunks[c] = new Object[CHUNK_SIZE][];
+		}
+		for (int i = 0; i < issues.size(); i++) {
+			chunks[i >>> CHUNK_SHIFT][i & (CHUNK_SIZE - 1)] = rowOf(issues.get(i));
+		}
+		return new IssueListSnapshot(version, chunks, issues.size(), countBugs(chunks, issues.size(), new int[0], 0),
+				0, null);
+	}
+
+	/**
+	 * Creates a snapshot of rows already made, such as the rows
+	 * MappedIssueList.getIssueListAsArray() reads from its slots.
+	 *
+	 * @param version of the list.
+	 * @param rows    to show, in id order. The rows are kept, not copied.
+	 * @return is the snapshot.
+	 */
+	static IssueListSnapshot ofRows(long version, Object[][] rows) {
+		Object[][][] chunks = new Object[chunkCount(rows.length)][][];
+		for (int c = 0; c < chunks.length; c++) {
+			chunks[c] = new Object[CHUNK_SIZE][];
+			System.arraycopy(rows, c << CHUNK_SHIFT, chunks[c], 0, rowsIn(c, rows.length));
+		}
+		return new IssueListSnapshot(version, chunks, rows.length, countBugs(chunks, rows.length, new int[0], 0), 0,
+				null);
+	}
+
+	/**
+	 * Makes the row shown for an issue.
+	 *
+	 * @param issue to show.
+	 * @return is the id, state name, issue type and summary of the issue.
+	 */
+	static Object[] rowOf(Issue issue) {
+		return new Object[] { issue.getIssueId(), issue.getStateName(), issue.getIssueType(), issue.getSummary() };
+	}
+
+	/**
+	 * Creates the next snapshot with the row of an issue replaced, or added if the
+	 * snapshot has no row with its id.
+	 *
+	 * @param nextVersion is the version of the new snapshot.
+	 * @param issue       whose row changed.
+	 * @return is the new snapshot.
+	 */
+	IssueListSnapshot withIssue(long nextVersion, Issue issue) {
+		Object[] row = rowOf(issue);
+		int index = indexOf(issue.getIssueId());
+		if (index >= 0) {
+			Object[][][] nextChunks = chunks.clone();
+			int c = index >>> CHUNK_SHIFT;
+			nextChunks[c] = nextChunks[c].clone();
+			nextChunks[c][index & (CHUNK_SIZE - 1)] = row;
+			int[] nextCounts = bugCounts.clone();
+			nextCounts[c] = countBugs(nextChunks[c], rowsIn(c, size));
+			return new IssueListSnapshot(nextVersion, nextChunks, size, nextCounts, issue.getIssueId(), row);
+		}
+
+		// Rows after the insertion point move up by one.
+		int insertAt = -index - 1;
+		Object[][][] nextChunks = copyBefore(insertAt, size + 1);
+		for (int i = size; i > insertAt; i--) {
+			nextChunks[i >>> CHUNK_SHIFT][i & (CHUNK_SIZE - 1)] = getRowUnsafe(i - 1);
+		}
+		nextChunks[insertAt >>> CHUNK_SHIFT][insertAt & (CHUNK_SIZE - 1)] = row;
+		int[] nextCounts = countBugs(nextChunks, size + 1, bugCounts, insertAt >>> CHUNK_SHIFT);
+		return new IssueListSnapshot(nextVersion, nextChunks, size + 1, nextCounts, issue.getIssueId(), row);
+	}
+
+	/**
+	 * Creates the next snapshot with the rows of several issues replaced, copying
+	 * each chunk that changes once. Commands never change an issue's type, so the
+	 * Bug counts are shared with this snapshot. Issues without a row are skipped.
+	 *
+	 * @param nextVersion is the version of the new snapshot.
+	 * @param issues      whose rows changed.
+	 * @param count       is the number of issues to use from the array.
+	 * @return is the new snapshot.
+	 */
+	IssueListSnapshot withIssues(long nextVersion, Issue[] issues, int count) {
+		Object[][][] nextChunks = chunks.clone();
+		boolean[] copied = new boolean[chunks.length];
+		Object[] lastRow = null;
+		for (int i = 0; i < count; i++) {
+			int index = indexOf(issues[i].getIssueId());
+			if (index >= 0) {
+				int c = index >>> CHUNK_SHIFT;
+				if (!copied[c]) {
+					nextChunks[c] = nextChunks[c].clone();
+					copied[c] = true;
+				}
+				lastRow = rowOf(issues[i]);
+				nextChunks[c][index & (CHUNK_SIZE - 1)] = lastRow;
+			}
+		}
+		// A batch of one is still a single change that views can patch.
+		if (count == 1 && lastRow != null) {
+			return new IssueListSnapshot(nextVersion, nextChunks, size, bugCounts, issues[0].getIssueId(), lastRow);
+		}
+		return new IssueListSnapshot(nextVersion, nextChunks, size, bugCounts, 0, null);
+	}
+
+	/**
+	 * Creates the next snapshot with the rows of issues added after the last row.
+	 * Only the last chunk is copied, so adding a batch of issues costs time in
+	 * proportion to the batch. If the issues are not in id order after the last
+	 * row, the snapshot is rebuilt from a sorted copy instead.
+	 *
+	 * @param nextVersion is the version of the new snapshot.
+	 * @param issues      are the issues so far, whose first size() issues are the
+	 *                    rows of this snapshot.
+	 * @return is the new snapshot.
+	 */
+	IssueListSnapshot withAppended(long nextVersion, List<Issue> issues) {
+		int lastId = size == 0 ? Integer.MIN_VALUE : (Integer) getRowUnsafe(size - 1)[0];
+		for (int i = size; i < issues.size(); i++) {
+			int id = issues.get(i).getIssueId();
+			if (id <= lastId) {
+				ArrayList<Issue> sorted = new ArrayList<Issue>(issues);
+				sorted.sort(Comparator.comparingInt(Issue::getIssueId));
+				return of(nextVersion, sorted);
+			}
+			lastId = id;
+		}
+
+		Object[][][] nextChunks = copyBefore(size, issues.size());
+		for (int i = size; i < issues.size(); i++) {
+			nextChunks[i >>> CHUNK_SHIFT][i & (CHUNK_SIZE - 1)] = rowOf(issues.get(i));
+		}
+		int[] nextCounts = countBugs(nextChunks, issues.size(), bugCounts, size >>> CHUNK_SHIFT);
+		return new IssueListSnapshot(nextVersion, nextChunks, issues.size(), nextCounts, 0, null);
+	}
+
+	/**
+	 * Creates the next snapshot without the row of an issue.
+	 *
+	 * @param nextVersion is the version of the new snapshot.
+	 * @param id          of the removed issue.
+	 * @return is the new snapshot.
+	 */
+	IssueListSnapshot withoutIssue(long nextVersion, int id) {
+		int index = indexOf(id);
+		if (index < 0) {
+			return new IssueListSnapshot(nextVersion, chunks, size, bugCounts, id, null);
+		}
+
+		// Rows after the removed one move down by one.
+		Object[][][] nextChunks = copyBefore(index, size - 1);
+		for (int i = index; i < size - 1; i++) {
+			nextChunks[i >>> CHUNK_SHIFT][i & (CHUNK_SIZE - 1)] = getRowUnsafe(i + 1);
+		}
+		int last = size - 1;
+		if ((last >>> CHUNK_SHIFT) < nextChunks.length) {
+			nextChunks[last >>> CHUNK_SHIFT][last & (CHUNK_SIZE - 1)] = null;
+		}
+		int[] nextCounts = countBugs(nextChunks, size - 1, bugCounts, index >>> CHUNK_SHIFT);
+		return new IssueListSnapshot(nextVersion, nextChunks, size - 1, nextCounts, id, null);
+	}
+
+	/**
+	 * Makes the chunks of a snapshot of a new size that shares every chunk
+	 * before the one holding a row index. The chunk holding the index is copied,
+	 * and the chunks after it are new and empty.
+	 *
+	 * @param index   is the first row that will change.
+	 * @param newSize is the number of rows in the new snapshot.
+	 * @return is the new chunks.
+	 */
+	private Object[][][] copyBefore(int index, int newSize) {
+		Object[][][] nextChunks = new Object[chunkCount(newSize)][][];
+		int first = index >>> CHUNK_SHIFT;
+		for (int c = 0; c < nextChunks.length; c++) {
+			if (c < first) {
+				nextChunks[c] = chunks[c];
+			} else if (c == first && c < chunks.length) {
+				nextChunks[c] = chunks[c].clone();
+			} else {
+				nextChunks[c] = new Object[CHUNK_SIZE][];
+			}
+		}
+		return nextChunks;
+	}
+
+	/**
+	 * Counts the Bug rows of every chunk, reusing the counts of the chunks before
+	 * the first one that changed.
+	 *
+	 * @param chunks    of rows.
+	 * @param rows      is the number of rows.
+	 * @param oldCounts is the counts of the previous snapshot.
+	 * @param first     is the first chunk that changed.
+	 * @return is the number of Bug rows in each chunk.
+	 */
+	private static int[] countBugs(Object[][][] chunks, int rows, int[] oldCounts, int first) {
+		int[] counts = Arrays.copyOf(oldCounts, chunks.length);
+		for (int c = first; c < chunks.length; c++) {
+			counts[c] = countBugs(chunks[c], rowsIn(c, rows));
+		}
+		return counts;
+	}
+
+	/**
+	 * Counts the Bug rows of a chunk.
+	 *
+	 * @param chunk of rows.
+	 * @param rows  is the number of rows in the chunk.
+	 * @return is the number of Bug rows.
+	 */
+	private static int countBugs(Object[][] chunk, int rows) {
+		int count = 0;
+		for (int i = 0; i < rows; i++) {
+			if (Issue.I_BUG.equals(chunk[i][2])) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Gets the version of the list this snapshot shows. Each change to the list
+	 * gives it a larger version.
+	 *
+	 * @return is the version.
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Gets the id of the issue whose row changed since the previous version.
+	 *
+	 * Views of the previous version can compare where the issue was and is now to
+	 * update just that row.
+	 *
+	 * @return is the changed id, or 0 if this snapshot was not made by changing a
+	 *         single row of the previous version.
+	 */
+	public int getChangedId() {
+		return changedId;
+	}
+
+	/**
+	 * Gets the new row of the issue changed since the previous version.
+	 *
+	 * @return is the row, which must not be changed, or null if the issue was
+	 *         removed.
+	 */
+	Object[] getChangedRow() {
+		return changedRow;
+	}
+
+	/**
+	 * Gets the number of rows.
+	 *
+	 * @return is the number of issues in the snapshot.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the number of rows of one issue type.
+	 *
+	 * @param issueType is Enhancement/Bug, or null for every row.
+	 * @return is the number of matching rows, or 0 for any other issue type.
+	 */
+	public int size(String issueType) {
+		if (issueType == null) {
+			return size;
+		} else if (Issue.I_BUG.equals(issueType)) {
+			return bugCount;
+		} else if (Issue.I_ENHANCEMENT.equals(issueType)) {
+			return size - bugCount;
+		}
+		return 0;
+	}
+
+	/**
+	 * Gets a page of rows of one issue type, starting from a position among the
+	 * matching rows.
+	 *
+	 * @param issueType is Enhancement/Bug, or null for every row.
+	 * @param offset    is the number of matching rows to skip.
+	 * @param limit     is the largest number of rows to return.
+	 * @return is 2D array containing copies of the rows on the page, which is
+	 *         empty if offset is past the last matching row or the issue type is
+	 *         not Enhancement or Bug.
+	 * @throws IllegalArgumentException if offset or limit is negative.
+	 */
+	public Object[][] getPage(String issueType, int offset, int limit) {
+		checkPage(offset, limit);
+		if (size(issueType) == 0) {
+			return new Object[0][0];
+		}
+		int start = issueType == null ? Math.min(offset, size) : indexOfMatch(issueType, offset);
+		return collect(issueType, start, limit);
+	}
+
+	/**
+	 * Gets a page of rows of one issue type with ids larger than a given id. A
+	 * caller can pass the last id of one page to get the next, and rows added or
+	 * removed before it do not shift the pages after it.
+	 *
+	 * @param issueType is Enhancement/Bug, or null for every row.
+	 * @param afterId   is the id the page starts after.
+	 * @param limit     is the largest number of rows to return.
+	 * @return is 2D array containing copies of the rows on the page, which is
+	 *         empty if the issue type is not Enhancement or Bug.
+	 * @throws IllegalArgumentException if limit is negative.
+	 */
+	public Object[][] getPageAfter(String issueType, int afterId, int limit) {
+		checkPage(0, limit);
+		if (size(issueType) == 0) {
+			return new Object[0][0];
+		}
+		int index = indexOf(afterId);
+		return collect(issueType, index >= 0 ? index + 1 : -index - 1, limit);
+	}
+
+	/**
+	 * Checks the bounds of a page.
+	 *
+	 * @param offset is the number of rows to skip.
+	 * @param limit  is the largest number of rows to return.
+	 * @throws IllegalArgumentException if offset or limit is negative.
+	 */
+	private static void checkPage(int offset, int limit) {
+		if (offset < 0 || limit < 0) {
+			throw new IllegalArgumentException("Invalid page.");
+		}
+	}
+
+	/**
+	 * Finds the row of the matching row at a position, skipping chunks by their
+	 * Bug counts.
+	 *
+	 * @param issueType is Enhancement/Bug.
+	 * @param position  among the matching rows.
+	 * @return is the row index, or size if there are not that many matching rows.
+	 */
+	private int indexOfMatch(String issueType, int position) {
+		int remaining = position;
+		for (int c = 0; c < chunks.length; c++) {
+			int matches = matchesIn(issueType, c);
+			if (remaining >= matches) {
+				remaining -= matches;
+				continue;
+			}
+			for (int i = c << CHUNK_SHIFT;; i++) {
+				if (issueType.equals(getRowUnsafe(i)[2]) && remaining-- == 0) {
+					return i;
+				}
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Copies up to limit rows of one issue type from a row index on, skipping
+	 * chunks with no matching rows.
+	 *
+	 * @param issueType is Enhancement/Bug, or null for every row.
+	 * @param start     is the first row index to look at.
+	 * @param limit     is the largest number of rows to copy.
+	 * @return is 2D array containing the copies.
+	 */
+	private Object[][] collect(String issueType, int start, int limit) {
+		Object[][] page = new Object[Math.min(limit, size - start)][];
+		int count = 0;
+		int i = start;
+		while (i < size && count < page.length) {
+			if ((i & (CHUNK_SIZE - 1)) == 0 && issueType != null && matchesIn(issueType, i >>> CHUNK_SHIFT) == 0) {
+				i += CHUNK_SIZE;
+				continue;
+			}
+			Object[] row = getRowUnsafe(i++);
+			if (issueType == null || issueType.equals(row[2])) {
+				page[count++] = row.clone();
+			}
+		}
+		return count == page.length ? page : Arrays.copyOf(page, count);
+	}
+
+	/**
+	 * Gets the number of rows of one issue type in a chunk.
+	 *
+	 * @param issueType is Enhancement/Bug.
+	 * @param chunk     is the chunk index.
+	 * @return is the number of matching rows.
+	 */
+	private int matchesIn(String issueType, int chunk) {
+		if (Issue.I_BUG.equals(issueType)) {
+			return bugCounts[chunk];
+		}
+		return rowsIn(chunk, size) - bugCounts[chunk];
+	}
+
+	/**
+	 * Gets the number of rows in a chunk.
+	 *
+	 * @param chunk is the chunk index.
+	 * @param rows  is the number of rows in the snapshot.
+	 * @return is the number of rows in the chunk.
+	 */
+	private static int rowsIn(int chunk, int rows) {
+		return Math.min(CHUNK_SIZE, rows - (chunk << CHUNK_SHIFT));
+	}
+
+	/**
+	 * Gets a copy of a row.
+	 *
+	 * @param index of the row, in id order.
+	 * @return is the id, state name, issue type and summary of the issue.
+	 * @throws IndexOutOfBoundsException if index is not a row index.
+	 */
+	public Object[] getRow(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Invalid row " + index);
+		}
+		return getRowUnsafe(index).clone();
+	}
+
+	/**
+	 * Gets the id of the issue in a row.
+	 *
+	 * @param index of the row, in id order.
+	 * @return is the issue id.
+	 * @throws IndexOutOfBoundsException if index is not a row index.
+	 */
+	public int getId(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Invalid row " + index);
+		}
+		return (Integer) getRowUnsafe(index)[0];
+	}
+
+	/**
+	 * Finds the row of an issue by binary search.
+	 *
+	 * @param id of the issue.
+	 * @return is the index of the row, or -(insertion point) - 1 if there is no
+	 *         row with the id.
+	 */
+	public int indexOf(int id) {
+		int low = 0;
+		int high = size - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int middleId = (Integer) getRowUnsafe(middle)[0];
+			if (middleId < id) {
+				low = middle + 1;
+			} else if (middleId > id) {
+				high = middle - 1;
+			} else {
+				return middle;
+			}
+		}
+		return -(low + 1);
+	}
+
+	/**
+	 * Finds the position of an issue among the rows of one issue type, counting
+	 * the matching rows of whole chunks by their Bug counts.
+	 *
+	 * @param issueType is Enhancement/Bug, or null for every row.
+	 * @param id        of the issue.
+	 * @return is the position of the issue among the matching rows, or
+	 *         -(insertion point) - 1 if there is no matching row with the id.
+	 */
+	public int indexOf(String issueType, int id) {
+		int index = indexOf(id);
+		if (issueType == null) {
+			return index;
+		} else if (size(issueType) == 0) {
+			return -1;
+		}
+		int end = index >= 0 ? index : -index - 1;
+		int position = 0;
+		int c = 0;
+		for (; c < end >>> CHUNK_SHIFT; c++) {
+			position += matchesIn(issueType, c);
+		}
+		for (int i = c << CHUNK_SHIFT; i < end; i++) {
+			if (issueType.equals(getRowUnsafe(i)[2])) {
+				position++;
+			}
+		}
+		if (index >= 0 && issueType.equals(getRowUnsafe(index)[2])) {
+			return position;
+		}
+		return -(position + 1);
+	}
+
+	/**
+	 * Gets every row as a 2D array in the format of
+	 * IssueManager.getIssueListAsArray(). The rows are copies, so the caller may
+	 * change them.
+	 *
+	 * @return is 2D array containing the rows.
+	 */
+	public Object[][] toArray() {
+		return select(null, true);
+	}
+
+	/**
+	 * Gets the rows of one issue type as a 2D array in the format of
+	 * IssueManager.getIssueListAsArray().
+	 *
+	 * @param issueType is Enhancement/Bug.
+	 * @return is 2D array containing copies of the matching rows.
+	 */
+	public Object[][] toArray(String issueType) {
+		return select(issueType, true);
+	}
+
+	/**
+	 * Gets the rows of one issue type, or every row, as a 2D array.
+	 *
+	 * @param issueType is Enhancement/Bug, or null for every row.
+	 * @param copy      is true to copy the rows, or false to share them with this
+	 *                  snapshot, in which case they must not be changed.
+	 * @return is 2D array containing the matching rows in id order.
+	 */
+	Object[][] select(String issueType, boolean copy) {
+		int count = size;
+		if (issueType != null) {
+			count = 0;
+			for (int i = 0; i < size; i++) {
+				if (issueType.equals(getRowUnsafe(i)[2])) {
+					count++;
+				}
+			}
+		}
+		Object[][] rows = new Object[count][];
+		int next = 0;
+		for (int i = 0; i < size; i++) {
+			Object[] row = getRowUnsafe(i);
+			if (issueType == null || issueType.equals(row[2])) {
+				rows[next++] = copy ? row.clone() : row;
+			}
+		}
+		return rows;
+	}
+
+	/**
+	 * Gets a row without copying it. The row must not be changed.
+	 *
+	 * @param index of the row.
+	 * @return is the row.
+	 */
+	private Object[] getRowUnsafe(int index) {
+		return chunks[index >>> CHUNK_SHIFT][index & (CHUNK_SIZE - 1)];
+	}
+
+	/**
+	 * Gets the number of chunks needed for a number of rows.
+	 *
+	 * @param rows is the number of rows.
+	 * @return is the number of chunks.
+	 */
+	private static int chunkCount(int rows) {
+		return (rows + CHUNK_SIZE - 1) >>> CHUNK_SHIFT;
+	}
+}
@@ -1,26 +1,118 @@
 package edu.ncsu.csc216.issue_manager.model.manager;
 
+import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import edu.ncsu.csc216.issue_manager.model.command.Command;
+import edu.ncsu.csc216.issue_manager.model.io.IssueCommandLog;
+import edu.ncsu.csc216.issue_manager.model.io.IssueNoteLoader;
 import edu.ncsu.csc216.issue_manager.model.io.IssueReader;
+import edu.ncsu.csc216.issue_manager.model.io.IssueStringPool;
 import edu.ncsu.csc216.issue_manager.model.io.IssueWriter;
+import edu.ncsu.csc216.issue_manager.model.io.ProgressListener;
 import edu.ncsu.csc216.issue_manager.model.issue.Issue;
 import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueType;
+import edu.ncsu.csc216.issue_manager.model.issue.NoteArena;
 
 /**
  * Controls the creation and modification of IssueList (s). Implements Singleton
  * design pattern (only one IssueManager ever created). All parts of
  * IssueManagerGUI interact with IssueManager at all times.
  * 
+ * IssueManager can be shared by many threads. Adding, deleting, loading, and
+ * saving issues hold the structure lock for writing. Commands and readers hold
+ * it for reading, so they only wait for those structural changes. A command
+ * also holds the striped lock of its issue id, so commands on issues in
+ * different stripes run at the same time. The issue locks are striped the same
+ * way as the indexes of IssueList, so commands in different stripes do not
+ * share an index lock either.
+ * 
+ * Every change publishes a new immutable IssueListSnapshot. A command queues
+ * its changed issue and then takes the publish lock. Whichever command holds
+ * the lock publishes every issue queued so far in one new snapshot, so commands
+ * that finish while another is publishing share the next snapshot instead of
+ * each copying the snapshot in turn. The table arrays are built from the
+ * current snapshot without taking any lock, so they show a consistent view of
+ * the list even while commands are running. The arrays are cached for each
+ * snapshot and patched one row at a time as the list changes, so they are
+ * shared between callers and must not be changed.
+ * 
+ * Changes can be made durable in one of two ways. A command log records each
+ * change after a snapshot (see loadIssuesFromFile(String, String)). A mapped
+ * issue file takes the place of the issue list while it is open: issues are
+ * read from its slots when they are used, and each change is made in place in
+ * the file (see openMappedIssueFile()). Either one is stopped when a file is
+ * loaded.
+ * 
+ * To keep very large lists in less memory, the issues can be kept in a
+ * CompactIssueList instead of the issue list (see setCompactIssueList()). The
+ * mapped issue file and the compact list are both IssueStores, which the
+ * manager uses in place of the issue list while one is set.
+ * 
  * @author Michael Warstler
  */
 public class IssueManager {
 
+	/** Size in bytes from which issue files are loaded in parallel */
+	private static final long PARALLEL_LOAD_SIZE = 8L * 1024 * 1024;
+	/** Number of striped issue locks, one for each index stripe of IssueList */
+	private static final int ISSUE_LOCKS = IssueList.STRIPES;
 	/** Issue list containing multiple issues */
 	private IssueList issueList = new IssueList();
-	/** Static instance of this IssueManager */
-	private static IssueManager singleton;
+	/**
+	 * Held for reading by readers and commands, and for writing by anything that
+	 * adds, deletes, replaces, loads, or saves issues
+	 */
+	private final ReentrantReadWriteLock structureLock = new ReentrantReadWriteLock();
+	/** Locks that keep each issue to one command at a time, striped by id */
+	private final ReentrantLock[] issueLocks = new ReentrantLock[ISSUE_LOCKS];
+	/** Estimated heap bytes saved by string sharing during the last load */
+	private long loadBytesSaved;
+	/** Log of changes made since the snapshot was saved, or null if not logging */
+	private IssueCommandLog commandLog;
+	/** Issue file the command log follows */
+	private File snapshotFile;
+	/** Mapped issue file used in place of the issue list, or null if none is open */
+	private MappedIssueList mappedList;
+	/** Store used in place of the issue list (the mapped issue file or a compact list), or null if none */
+	private IssueStore store;
+	/** Whether loaded issues are kept in a CompactIssueList instead of the issue list */
+	private boolean compact;
+	/** Snapshot directory last loaded or saved, whose segments match the list apart from its dirty ids */
+	private File segmentDirectory;
+	/** Rows of the issue list as of the last change */
+	private volatile IssueListSnapshot snapshot = IssueListSnapshot.of(0, new ArrayList<Issue>());
+	/** Keeps snapshots published one at a time, in the order of the changes */
+	private final Object publishLock = new Object();
+	/** Issues changed by commands and not yet in the snapshot */
+	private final ConcurrentLinkedQueue<Issue> unpublished = new ConcurrentLinkedQueue<Issue>();
+	/** Table arrays built from recent snapshots */
+	private final IssueTableCache tableCache = new IssueTableCache();
+
+	/**
+	 * Constructs an IssueManager with an empty issue list.
+	 */
+	IssueManager() {
+		for (int i = 0; i < ISSUE_LOCKS; i++) {
+			issueLocks[i] = new ReentrantLock();
+		}
+	}
+
+	/**
+	 * Holds the single IssueManager. The class is initialized, and the instance
+	 * created, the first time getInstance() is called, and class initialization is
+	 * thread safe.
+	 */
+	private static class InstanceHolder {
+		/** Static instance of this IssueManager */
+		private static final IssueManager SINGLETON = new IssueManager();
+	}
 
 	/**
 	 * Gets the instance of this IssueManager.
@@ -28,58 +120,480 @@ public class IssueManager {
 	 * @return is this IssueManager
 	 */
 	public static IssueManager getInstance() {
-		if (singleton == null) {
-			singleton = new IssueManager();
-		}
-		return singleton;
+		return InstanceHolder.SINGLETON;
 	}
 
 	/**
 	 * Sends contents of issue list to the designated file name. Uses IssueWriter to
-	 * perform action of saving to file.
+	 * perform action of saving to file. If fileName is an existing directory, the
+	 * issues are saved as a segmented snapshot. When the directory is the one last
+	 * loaded or saved, only the segments holding issues changed since then are
+	 * rewritten. If the file is the snapshot followed by the command log, the log
+	 * is emptied once the file has been saved.
 	 * 
 	 * @param fileName is name of file to save to.
 	 */
 	public void saveIssuesToFile(String fileName) {
-		IssueWriter.writeIssuesToFile(fileName, issueList.getIssues());
+		saveIssuesToFile(fileName, null);
+	}
+
+	/**
+	 * Sends contents of issue list to the designated file name as
+	 * saveIssuesToFile(String) does, reporting the number of issues written to a
+	 * listener. Segmented snapshots are reported once, when they are saved. If the
+	 * listener cancels the save, the file is left as it was.
+	 * 
+	 * @param fileName is name of file to save to.
+	 * @param listener receives the issues written and the number of issues, or is
+	 *                 null.
+	 * @throws CancellationException if the listener cancels the save.
+	 */
+	public void saveIssuesToFile(String fileName, ProgressListener listener) {
+		structureLock.writeLock().lock();
+		try {
+			File file = new File(fileName).getAbsoluteFile();
+			boolean logged = commandLog != null && snapshotFile.equals(file);
+			if (logged) {
+				commandLog.beginCheckpoint();
+			}
+			long checksum;
+			ArrayList<Issue> issues = getIssues();
+			if (file.isDirectory()) {
+				// The rows of a store do not record which issues changed.
+				BitSet dirtyIds = store == null && file.equals(segmentDirectory) ? issueList.getDirtyIds()
+						: null;
+				checksum = IssueWriter.writeIssuesToDirectory(fileName, issues, dirtyIds);
+				issueList.markClean();
+				segmentDirectory = store == null ? file : null;
+				if (listener != null) {
+					listener.progress(issues.size(), issues.size());
+				}
+			} else {
+				checksum = IssueWriter.writeIssuesToFile(fileName, issues, listener);
+			}
+			if (logged) {
+				commandLog.checkpoint(fileName, checksum);
+			}
+		} finally {
+			structureLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Sends contents of issue list to the designated file name in the binary
+	 * format, which loadIssuesFromFile() reads back the same as a text file. If the
+	 * file is the snapshot followed by the command log, the log is emptied once
+	 * the file has been saved.
+	 * 
+	 * @param fileName is name of file to save to.
+	 */
+	public void saveIssuesToBinaryFile(String fileName) {
+		structureLock.writeLock().lock();
+		try {
+			boolean logged = commandLog != null && snapshotFile.equals(new File(fileName).getAbsoluteFile());
+			if (logged) {
+				commandLog.beginCheckpoint();
+			}
+			long checksum = IssueWriter.writeIssuesToBinaryFile(fileName, getIssues());
+			if (logged) {
+				commandLog.checkpoint(fileName, checksum);
+			}
+		} finally {
+			structureLock.writeLock().unlock();
+		}
 	}
 
 	/**
 	 * Loads in issues from designated file name. Uses IssueReader to perform action
-	 * of reading the file. Stores the array list into the issueList.
+	 * of reading the file. Files of at least PARALLEL_LOAD_SIZE bytes are parsed in
+	 * parallel chunks. Repeated strings are shared through one IssueStringPool for
+	 * the load. Stores the array list into the issueList. Loading replaces the list,
+	 * so any open command log or mapped issue file is closed. If fileName is a
+	 * directory, it is read as a segmented snapshot. Binary files are detected and
+	 * read by IssueReader.
 	 * 
 	 * @param fileName is name of file to read.
 	 */
 	public void loadIssuesFromFile(String fileName) {
-		issueList.addIssues(IssueReader.readIssuesFromFile(fileName));
+		loadIssues(fileName, false, null);
+	}
+
+	/**
+	 * Loads in issues from designated file name as loadIssuesFromFile() does,
+	 * reporting the number of bytes read to a listener. The file is read in a
+	 * single pass, and each time progress is reported the issues read so far are
+	 * published as the current snapshot, so a table showing the snapshot fills in
+	 * while the file loads. If the listener cancels the load, the issue list is
+	 * left as it was and its snapshot is published again.
+	 * 
+	 * @param fileName is name of file to read.
+	 * @param listener receives the bytes read and the file size.
+	 * @throws IllegalArgumentException if the file cannot be read.
+	 * @throws CancellationException    if the listener cancels the load.
+	 */
+	public void loadIssuesFromFile(String fileName, ProgressListener listener) {
+		loadIssues(fileName, false, listener);
+	}
+
+	/**
+	 * Loads in issues from designated file name as loadIssuesFromFile() does, but
+	 * leaves the notes of a binary file on disk. Each issue reads its notes from
+	 * the memory mapped file when they are used, and the notes of at most
+	 * IssueNoteLoader.DEFAULT_CAPACITY issues are kept decoded at once. An issue
+	 * keeps its own notes once a command changes it.
+	 * 
+	 * @param fileName is name of file to read.
+	 */
+	public void loadIssuesFromFileLazily(String fileName) {
+		loadIssues(fileName, true, null);
+	}
+
+	/**
+	 * Loads in issues from designated file name, replacing the issue list. The
+	 * issues are read into a new list first, so a load that fails leaves the issue
+	 * list and any open command log as they were. The command log is closed only
+	 * once the new list replaces the old one.
+	 * 
+	 * @param fileName  is name of file to read.
+	 * @param lazyNotes is true to leave the notes of a binary file on disk.
+	 * @param listener  receives the progress of the load, or is null.
+	 */
+	private void loadIssues(String fileName, boolean lazyNotes, ProgressListener listener) {
+		structureLock.writeLock().lock();
+		try {
+			IssueStringPool pool = new IssueStringPool();
+			File file = new File(fileName).getAbsoluteFile();
+			IssueList loaded = readIssueList(fileName, pool, lazyNotes, listener);
+			// The load succeeded, so the old list and its log can go.
+			closeCommandLog();
+			dropMappedIssueFile();
+			setIssueList(loaded);
+			segmentDirectory = store == null && file.isDirectory() ? file : null;
+			loadBytesSaved = pool.getBytesSaved();
+		} finally {
+			publishAll();
+			structureLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Reads the issues of a file or snapshot directory into a new issue list,
+	 * leaving the current one as it is. The notes are read into a new note
+	 * arena, which the list takes over. A list read from a directory is marked
+	 * clean, as its segments already hold it.
+	 * 
+	 * @param fileName  is name of file to read.
+	 * @param pool      is the string pool for the load.
+	 * @param lazyNotes is true to leave the notes of a binary file on disk.
+	 * @param listener  receives the progress of the load, or is null.
+	 * @return is the new issue list.
+	 */
+	private IssueList readIssueList(String fileName, IssueStringPool pool, boolean lazyNotes,
+			ProgressListener listener) {
+		File file = new File(fileName).getAbsoluteFile();
+		NoteArena arena = new NoteArena();
+		IssueList loaded = new IssueList();
+		if (file.isDirectory()) {
+			loaded.addIssues(IssueReader.readIssuesFromDirectory(fileName, pool, arena));
+			loaded.markClean();
+		} else if (listener != null) {
+			loaded.addIssues(readIssuesWithPreview(fileName, pool, arena, listener));
+		} else if (lazyNotes) {
+			loaded.addIssues(
+					IssueReader.readIssuesFromFileLazily(fileName, pool, arena, IssueNoteLoader.DEFAULT_CAPACITY));
+		} else if (file.length() >= PARALLEL_LOAD_SIZE) {
+			loaded.addIssues(IssueReader.readIssuesFromFileInParallel(fileName, pool, arena));
+		} else {
+			ArrayList<Issue> issues = new ArrayList<Issue>();
+			IssueReader.readIssuesFromFile(fileName, issues::add, pool, arena);
+			loaded.addIssues(issues);
+		}
+		return loaded;
+	}
+
+	/**
+	 * Reads the issues of a file, publishing the issues read so far as the
+	 * snapshot whenever progress is reported. Called while holding the structure
+	 * lock for writing.
+	 * 
+	 * @param fileName is name of file to read.
+	 * @param pool     is the string pool for the load.
+	 * @param arena    receives the notes of the issues.
+	 * @param listener receives the bytes read and the file size.
+	 * @return is the issues of the file, in file order.
+	 */
+	private ArrayList<Issue> readIssuesWithPreview(String fileName, IssueStringPool pool, NoteArena arena,
+			ProgressListener listener) {
+		ArrayList<Issue> issues = new ArrayList<Issue>();
+		synchronized (publishLock) {
+			snapshot = IssueListSnapshot.of(snapshot.getVersion() + 1, issues);
+		}
+		IssueReader.readIssuesFromFile(fileName, issues::add, pool, arena, (done, total) -> {
+			synchronized (publishLock) {
+				snapshot = snapshot.withAppended(snapshot.getVersion() + 1, issues);
+			}
+			listener.progress(done, total);
+		});
+		return issues;
+	}
+
+	/**
+	 * Recovers issues from a snapshot and its command log, then logs every later
+	 * change. The snapshot is loaded if it exists, and the changes logged since it
+	 * was saved are replayed on top of it. From then on each added issue, deleted
+	 * issue, executed command and new list is appended to the log before the call
+	 * returns, and saving to the snapshot empties the log.
+	 * 
+	 * The snapshot is read and the log replayed into a new list. The new list and
+	 * the log replace the issue list and any open command log or mapped issue
+	 * file only once both have been read, so a failed load leaves everything as
+	 * it was.
+	 * 
+	 * @param fileName    is name of the issue file (snapshot) to read.
+	 * @param logFileName is name of the command log file.
+	 * @throws IllegalArgumentException if the snapshot or the log cannot be read.
+	 */
+	public void loadIssuesFromFile(String fileName, String logFileName) {
+		structureLock.writeLock().lock();
+		try {
+			IssueStringPool pool = new IssueStringPool();
+			File file = new File(fileName).getAbsoluteFile();
+			// Replay may start the list again, so the list being built is held in an array.
+			IssueList[] replayed = { file.exists() ? readIssueList(fileName, pool, false, null) : new IssueList() };
+			IssueCommandLog opened = IssueCommandLog.open(logFileName, fileName, new IssueCommandLog.Replayer() {
+
+				@Override
+				public void add(int id, IssueType issueType, String summary, String note) {
+					if (replayed[0].addIssue(issueType, summary, note) != id) {
+						throw new IllegalArgumentException("Unable to load file.");
+					}
+				}
+
+				@Override
+				public void delete(int id) {
+					replayed[0].deleteIssueById(id);
+				}
+
+				@Override
+				public void execute(int id, int command, String ownerId, String note) {
+					replayed[0].executeCommand(id, command, ownerId, note);
+				}
+
+				@Override
+				public void clear() {
+					replayed[0] = new IssueList();
+				}
+			});
+			try {
+				closeCommandLog();
+				dropMappedIssueFile();
+			} catch (RuntimeException e) {
+				opened.close();
+				throw e;
+			}
+			setIssueList(replayed[0]);
+			commandLog = opened;
+			snapshotFile = file;
+			segmentDirectory = store == null && file.isDirectory() ? file : null;
+			loadBytesSaved = pool.getBytesSaved();
+		} finally {
+			publishAll();
+			structureLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Stops logging changes and closes the command log, if one is open.
+	 */
+	public void closeCommandLog() {
+		structureLock.writeLock().lock();
+		try {
+			if (commandLog != null) {
+				commandLog.close();
+				commandLog = null;
+				snapshotFile = null;
+			}
+		} finally {
+			structureLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Opens a mapped issue file and uses it in place of the issue list, until the
+	 * file is closed or another file is loaded. An empty list is used if the file
+	 * does not exist yet. The issues stay in the file: they are read from its
+	 * slots when they are used, and each added issue, deleted issue, executed
+	 * command and new list is made in place in the file before the call returns.
+	 * Commands on issues in different stripes still run at the same time. Any open
+	 * command log is closed.
+	 * 
+	 * @param fileName is name of the mapped issue file.
+	 * @throws IllegalArgumentException if the file cannot be opened or is not a
+	 *                                  mapped issue file.
+	 */
+	public void openMappedIssueFile(String fileName) {
+		structureLock.writeLock().lock();
+		try {
+			MappedIssueList opened = MappedIssueList.open(fileName);
+			try {
+				closeCommandLog();
+				dropMappedIssueFile();
+			} catch (RuntimeException e) {
+				opened.close();
+				throw e;
+			}
+			issueList = new IssueList();
+			mappedList = opened;
+			store = opened;
+			segmentDirectory = null;
+			publishAll();
+		} finally {
+			structureLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Writes every change to the open mapped issue file to the disk and closes it,
+	 * if one is open. The issues in the file are copied into the issue list first,
+	 * notes included, so the list is kept as it is. They are copied into a compact
+	 * list instead if compact lists are turned on.
+	 * 
+	 * @throws IllegalArgumentException if the file cannot be closed.
+	 */
+	public void closeMappedIssueFile() {
+		structureLock.writeLock().lock();
+		try {
+			if (mappedList != null) {
+				IssueList copied = new IssueList();
+				CompactIssueList compacted = compact ? new CompactIssueList() : null;
+				if (compacted != null) {
+					compacted.addIssues(mappedList.getIssues());
+				} else {
+					copied.addIssues(mappedList.copyIssues(new NoteArena()));
+				}
+				dropMappedIssueFile();
+				issueList = copied;
+				store = compacted;
+			}
+		} finally {
+			structureLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Closes the open mapped issue file, if one is open, without copying its
+	 * issues. Called while holding the structure lock for writing, before the
+	 * issue list is replaced.
+	 * 
+	 * @throws IllegalArgumentException if the file cannot be closed.
+	 */
+	private void dropMappedIssueFile() {
+		if (mappedList != null) {
+			MappedIssueList closing = mappedList;
+			mappedList = null;
+			store = null;
+			closing.close();
+		}
+	}
+
+	/**
+	 * Turns compact issue lists on or off. While they are on, the issues are kept
+	 * in a CompactIssueList, which stores them in primitive columns with shared
+	 * summary and owner strings and keeps their notes in one note arena, instead of
+	 * as Issue objects. The issues in the manager are moved to or from a compact
+	 * list straight away, and loaded issues are moved into one. Notes left on disk
+	 * by loadIssuesFromFileLazily() are read in when the issues are moved. While a
+	 * mapped issue file is open it stays in use, and its issues are moved into a
+	 * compact list when it is closed.
+	 * 
+	 * @param compact is true to keep issues in a CompactIssueList.
+	 */
+	public void setCompactIssueList(boolean compact) {
+		structureLock.writeLock().lock();
+		try {
+			this.compact = compact;
+			if (mappedList == null) {
+				if (compact && store == null) {
+					setIssueList(issueList);
+				} else if (!compact && store != null) {
+					IssueList copied = new IssueList();
+					copied.addIssues(store.copyIssues(new NoteArena()));
+					setIssueList(copied);
+				}
+				segmentDirectory = null;
+				publishAll();
+			}
+		} finally {
+			structureLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Uses a list of issues as the issue list, or moves its issues into a new
+	 * compact list if compact lists are turned on. Called while holding the
+	 * structure lock for writing, once any mapped issue file is closed.
+	 * 
+	 * @param list is the issues to use.
+	 */
+	private void setIssueList(IssueList list) {
+		if (compact) {
+			CompactIssueList compacted = new CompactIssueList();
+			compacted.addIssues(list.getIssues());
+			issueList = new IssueList();
+			store = compacted;
+		} else {
+			issueList = list;
+			store = null;
+		}
+	}
+
+	/**
+	 * Gets the estimated number of heap bytes saved by sharing repeated owners and
+	 * summaries during the last successful load.
+	 * 
+	 * @return is the estimated bytes saved, or 0 if nothing has been loaded.
+	 */
+	public long getLoadBytesSaved() {
+		structureLock.readLock().lock();
+		try {
+			return loadBytesSaved;
+		} finally {
+			structureLock.readLock().unlock();
+		}
 	}
 
 	/**
 	 * Updates the global issueList reference to point to a new IssueList object.
-	 * The old IssueList is deleted.
+	 * The old IssueList is deleted along with the note arena of its issues.
 	 */
 	public void createNewIssueList() {
-		issueList = new IssueList();
+		structureLock.writeLock().lock();
+		try {
+			issueList = new IssueList();
+			if (store != null) {
+				store.clear();
+			}
+			publishAll();
+			if (commandLog != null) {
+				commandLog.logClear();
+			}
+		} finally {
+			structureLock.writeLock().unlock();
+		}
 	}
 
 	/**
 	 * Gets a 2D array that consists of 1 row for every issue. Each row contains 4
 	 * columns, which are designated as the following: index 0 = Issue id number,
 	 * index 1 = Issue state name, index 2 = Issue type, index 3 = Issue summary.
-	 * Uses all issues from the issue list.
+	 * Uses all issues from the issue list. The array is cached until the list
+	 * changes and must not be changed by the caller.
 	 * 
 	 * @return is 2D array containing issues from the issue list in the format
 	 *         above.
 	 */
 	public Object[][] getIssueListAsArray() {
-		Object[][] issueListArray = new Object[issueList.getIssues().size()][4];
-		for (int i = 0; i < issueListArray.length; i++) {
-			issueListArray[i][0] = issueList.getIssues().get(i).getIssueId();
-			issueListArray[i][1] = issueList.getIssues().get(i).getStateName();
-			issueListArray[i][2] = issueList.getIssues().get(i).getIssueType();
-			issueListArray[i][3] = issueList.getIssues().get(i).getSummary();
-		}
-		return issueListArray;
+		return tableCache.get(snapshot, null);
 	}
 
 	/**
@@ -87,6 +601,8 @@ public class IssueManager {
 	 * columns, which are designated as the following: index 0 = Issue id number,
 	 * index 1 = Issue state name, index 2 = Issue type, index 3 = Issue summary.
 	 * Only uses issues with the matching issue type.
+	 * Like getIssueListAsArray(), it reads the current snapshot without locking,
+	 * and the array is cached and must not be changed.
 	 * 
 	 * @param issueType is Enhancement/Bug.
 	 * @return is 2D array containing issues from the issue list (by matching issue
@@ -102,22 +618,100 @@ public class IssueManager {
 
 		// Check to see if parameter is either "Bug" or "Enhancement"
 		if (issueType.equals(Issue.I_BUG) || issueType.equals(Issue.I_ENHANCEMENT)) {
-			ArrayList<Issue> issuesByType = issueList.getIssuesByType(issueType);
-			Object[][] issueListArray = new Object[issuesByType.size()][4];
-			// Add Issue parameters to 2D array.
-			for (int i = 0; i < issueListArray.length; i++) {
-				issueListArray[i][0] = issuesByType.get(i).getIssueId();
-				issueListArray[i][1] = issuesByType.get(i).getStateName();
-				issueListArray[i][2] = issuesByType.get(i).getIssueType();
-				issueListArray[i][3] = issuesByType.get(i).getSummary();
-			}
-			return issueListArray;
+			return tableCache.get(snapshot, issueType);
 		} else {
 			Object[][] emptyArray = new Object[0][0];
 			return emptyArray;
 		}
 	}
 
+	/**
+	 * Gets one page of the rows getIssueListAsArray() returns, without building
+	 * the rest. The page is read from the current snapshot without locking, and
+	 * costs time in proportion to its length.
+	 * 
+	 * @param offset is the number of rows to skip.
+	 * @param limit  is the largest number of rows to return.
+	 * @return is 2D array containing the rows on the page.
+	 * @throws IllegalArgumentException if offset or limit is negative.
+	 */
+	public Object[][] getIssueListPage(int offset, int limit) {
+		return snapshot.getPage(null, offset, limit);
+	}
+
+	/**
+	 * Gets one page of the rows getIssueListAsArrayByIssueType() returns, without
+	 * building the rest.
+	 * 
+	 * @param issueType is Enhancement/Bug.
+	 * @param offset    is the number of matching rows to skip.
+	 * @param limit     is the largest number of rows to return.
+	 * @return is 2D array containing the rows on the page. Returns an empty array
+	 *         if no issue type is found.
+	 * @throws IllegalArgumentException if issueType is null, or offset or limit is
+	 *                                  negative.
+	 */
+	public Object[][] getIssueListPageByIssueType(String issueType, int offset, int limit) {
+		if (issueType == null) {
+			throw new IllegalArgumentException("Invalid issue type");
+		}
+		return snapshot.getPage(issueType, offset, limit);
+	}
+
+	/**
+	 * Gets the page of rows that follows the issue with a given id. Passing the
+	 * last id of one page gets the next page, even if issues before it were added
+	 * or deleted in between.
+	 * 
+	 * @param afterId is the id the page starts after, or 0 for the first page.
+	 * @param limit   is the largest number of rows to return.
+	 * @return is 2D array containing the rows on the page.
+	 * @throws IllegalArgumentException if limit is negative.
+	 */
+	public Object[][] getIssueListPageAfter(int afterId, int limit) {
+		return snapshot.getPageAfter(null, afterId, limit);
+	}
+
+	/**
+	 * Gets the page of rows of an issue type that follows the issue with a given
+	 * id.
+	 * 
+	 * @param issueType is Enhancement/Bug.
+	 * @param afterId   is the id the page starts after, or 0 for the first page.
+	 * @param limit     is the largest number of rows to return.
+	 * @return is 2D array containing the rows on the page. Returns an empty array
+	 *         if no issue type is found.
+	 * @throws IllegalArgumentException if issueType is null or limit is negative.
+	 */
+	public Object[][] getIssueListPageAfterByIssueType(String issueType, int afterId, int limit) {
+		if (issueType == null) {
+			throw new IllegalArgumentException("Invalid issue type");
+		}
+		return snapshot.getPageAfter(issueType, afterId, limit);
+	}
+
+	/**
+	 * Gets the snapshot of the issue list as of the last change. The snapshot
+	 * never changes, so it can be read without locking while other threads change
+	 * the list.
+	 * 
+	 * @return is the current snapshot.
+	 */
+	public IssueListSnapshot getSnapshot() {
+		return snapshot;
+	}
+
+	/**
+	 * Gets the version of the current snapshot. The version grows with every
+	 * change to the list, so a caller that has already built a table for a version
+	 * can skip rebuilding it until the version changes.
+	 * 
+	 * @return is the version of the current snapshot.
+	 */
+	public long getSnapshotVersion() {
+		return snapshot.getVersion();
+	}
+
 	/**
 	 * Gets the issue from the issue list based on the id parameter.
 	 * 
@@ -125,7 +719,34 @@ public class IssueManager {
 	 * @return is issue from list with matching id.
 	 */
 	public Issue getIssueById(int id) {
-		return issueList.getIssueById(id);
+		structureLock.readLock().lock();
+		try {
+			return findIssue(id);
+		} finally {
+			structureLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Finds an issue in the store, or else in the issue list.
+	 * Called while holding the structure lock.
+	 * 
+	 * @param id of issue to get.
+	 * @return is the issue with matching id, or null if there is none.
+	 */
+	private Issue findIssue(int id) {
+		return store != null ? store.getIssueById(id) : issueList.getIssueById(id);
+	}
+
+	/**
+	 * Gets every issue, from the store or else from the issue list. Issues of a
+	 * store read their notes from it. Called while holding the structure lock for
+	 * writing.
+	 * 
+	 * @return is the issues in id order.
+	 */
+	private ArrayList<Issue> getIssues() {
+		return store != null ? store.getIssues() : issueList.getIssues();
 	}
 
 	/**
@@ -135,7 +756,87 @@ public class IssueManager {
 	 * @param c  is command to give to issue.
 	 */
 	public void executeCommand(int id, Command c) {
-		issueList.executeCommand(id, c);
+		executeCommand(id, c.getCode(), c.getOwnerId(), c.getNote());
+	}
+
+	/**
+	 * Executes a command given as a code made by Command.encode(), an owner, and a
+	 * note for an issue with matching id from the issue list, without creating a
+	 * Command.
+	 * 
+	 * @param id      of issue to enact command on.
+	 * @param command is the code of the command value and resolution.
+	 * @param ownerId is the owner to assign, which is only used by ASSIGN.
+	 * @param note    is the note to add.
+	 */
+	public void executeCommand(int id, int command, String ownerId, String note) {
+		structureLock.readLock().lock();
+		ReentrantLock issueLock = issueLocks[IssueList.stripeOf(id)];
+		issueLock.lock();
+		try {
+			if (store != null) {
+				store.executeCommand(id, command, ownerId, note);
+			} else {
+				issueList.executeCommand(id, command, ownerId, note);
+			}
+			if (commandLog != null) {
+				commandLog.logExecute(id, command, ownerId, note);
+			}
+		} finally {
+			// The issue may have changed even if the command failed part way.
+			Issue issue = findIssue(id);
+			if (issue != null) {
+				unpublished.add(issue);
+				synchronized (publishLock) {
+					publishQueued();
+				}
+			}
+			issueLock.unlock();
+			structureLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Executes a batch of commands, one for each item of ids and commands, under
+	 * one hold of the structure lock. The issue list matches the items to issues
+	 * in one sorted pass and updates its indexes once. Failed items are reported
+	 * in the result instead of being thrown. While a store is in use the batch is
+	 * made in the store in the same way. The successful items are
+	 * logged together, and one snapshot is published for the whole batch.
+	 * 
+	 * @param ids      are the ids of the issues to execute commands with.
+	 * @param commands are the commands given to the issues, one for each id.
+	 * @return is the outcome of each item, in the given order.
+	 * @throws IllegalArgumentException if ids or commands is null, or they have
+	 *                                  different lengths.
+	 */
+	public BatchResult executeCommands(int[] ids, Command[] commands) {
+		structureLock.writeLock().lock();
+		try {
+			BatchResult result = store != null ? store.executeCommands(ids, commands)
+					: issueList.executeCommands(ids, commands);
+			if (result.getChangedCount() > 0) {
+				synchronized (publishLock) {
+					snapshot = snapshot.withIssues(snapshot.getVersion() + 1, result.getChangedIssues(),
+							result.getChangedCount());
+				}
+			}
+			if (commandLog != null) {
+				int[] loggedIds = new int[result.getSuccessCount()];
+				Command[] loggedCommands = new Command[loggedIds.length];
+				int count = 0;
+				for (int i = 0; i < ids.length; i++) {
+					if (result.isSuccess(i)) {
+						loggedIds[count] = ids[i];
+						loggedCommands[count++] = commands[i];
+					}
+				}
+				commandLog.logExecute(loggedIds, loggedCommands, count);
+			}
+			return result;
+		} finally {
+			structureLock.writeLock().unlock();
+		}
 	}
 
 	/**
@@ -144,7 +845,22 @@ public class IssueManager {
 	 * @param id of issue to delete.
 	 */
 	public void deleteIssueById(int id) {
-		issueList.deleteIssueById(id);
+		structureLock.writeLock().lock();
+		try {
+			if (store != null) {
+				store.deleteIssueById(id);
+			} else {
+				issueList.deleteIssueById(id);
+			}
+			synchronized (publishLock) {
+				snapshot = snapshot.withoutIssue(snapshot.getVersion() + 1, id);
+			}
+			if (commandLog != null) {
+				commandLog.logDelete(id);
+			}
+		} finally {
+			structureLock.writeLock().unlock();
+		}
 	}
 
 	/**
@@ -156,6 +872,54 @@ public class IssueManager {
 	 * @param note      is a note for the new issue.
 	 */
 	public void addIssueToList(IssueType issueType, String summary, String note) {
-		issueList.addIssue(issueType, summary, note);
+		structureLock.writeLock().lock();
+		try {
+			int id = store != null ? store.addIssue(issueType, summary, note)
+					: issueList.addIssue(issueType, summary, note);
+			synchronized (publishLock) {
+				snapshot = snapshot.withIssue(snapshot.getVersion() + 1, findIssue(id));
+			}
+			if (commandLog != null) {
+				commandLog.logAdd(id, issueType, summary, note);
+			}
+		} finally {
+			structureLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Publishes one snapshot with the rows of every queued issue. Called while
+	 * holding the publish lock. The commands that queued the issues still hold
+	 * their issue locks, so the issues do not change while their rows are made.
+	 * Commands never change an issue's type, so the Bug counts are reused.
+	 */
+	private void publishQueued() {
+		Issue first = unpublished.poll();
+		if (first == null) {
+			// An earlier holder of the lock already published the issue.
+			return;
+		}
+		Issue[] queued = { first };
+		int count = 1;
+		for (Issue next = unpublished.poll(); next != null; next = unpublished.poll()) {
+			if (count == queued.length) {
+				queued = Arrays.copyOf(queued, 2 * count);
+			}
+			queued[count++] = next;
+		}
+		snapshot = snapshot.withIssues(snapshot.getVersion() + 1, queued, count);
+	}
+
+	/**
+	 * Publishes a snapshot of the whole issue list. The rows of a store are read
+	 * from its slots or columns without making Issue objects. Called while holding
+	 * the structure lock for writing.
+	 */
+	private void publishAll() {
+		synchronized (publishLock) {
+			snapshot = store != null
+					? IssueListSnapshot.ofRows(snapshot.getVersion() + 1, store.getIssueListAsArray())
+					: IssueListSnapshot.of(snapshot.getVersion() + 1, issueList.getIssues());
+		}
 	}
 }
@@ -0,0 +1,102 @@
+package edu.ncsu.csc216.issue_manager.model.manager;
+
+import java.util.ArrayList;
+
+import edu.ncsu.csc216.issue_manager.model.command.Command;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueType;
+import edu.ncsu.csc216.issue_manager.model.issue.NoteArena;
+
+/**
+ * Store that keeps issues in some form other than Issue objects, such as
+ * columns or a mapped file, and that IssueManager uses in place of its issue
+ * list. Issues read from a store are copies, so changes are made through the
+ * store's executeCommand() methods.
+ *
+ * @author Michael Warstler
+ */
+interface IssueStore {
+
+	/**
+	 * Creates a NEW Issue based on the given parameters and the counter, then
+	 * stores it.
+	 *
+	 * @param issueType is the type of issue object (bug/enhancement)
+	 * @param summary   is the summary of the issue object
+	 * @param note      is the note for the issue
+	 * @return is the ID of the issue added.
+	 */
+	int addIssue(IssueType issueType, String summary, String note);
+
+	/**
+	 * Replaces the contents of the store with the provided issues, which may have
+	 * been read from this store.
+	 *
+	 * @param issues is a list of issue objects to add.
+	 */
+	void addIssues(ArrayList<Issue> issues);
+
+	/**
+	 * Removes every issue and starts the counter again.
+	 */
+	void clear();
+
+	/**
+	 * Gets a copy of the issue with the given id.
+	 *
+	 * @param id is the issue id to search for.
+	 * @return is the issue with matching id, or null if not found.
+	 */
+	Issue getIssueById(int id);
+
+	/**
+	 * Gets copies of every issue, which may read their notes from the store.
+	 *
+	 * @return is a new list of all issues in id order.
+	 */
+	ArrayList<Issue> getIssues();
+
+	/**
+	 * Gets copies of every issue that hold their own notes in a note arena.
+	 *
+	 * @param arena to keep the notes of the issues in.
+	 * @return is a new list of all issues in id order.
+	 */
+	ArrayList<Issue> copyIssues(NoteArena arena);
+
+	/**
+	 * Updates an issue through a command given as a code made by
+	 * Command.encode(), an owner, and a note. If the issue does not exist, then
+	 * nothing is done.
+	 *
+	 * @param id      of issue to execute a command with.
+	 * @param command is the code of the command value and resolution.
+	 * @param ownerId is the owner to assign, which is only used by ASSIGN.
+	 * @param note    is the note to add.
+	 */
+	void executeCommand(int id, int command, String ownerId, String note);
+
+	/**
+	 * Executes a batch of commands, one for each item of ids and commands.
+	 *
+	 * @param ids      are the ids of the issues to execute commands with.
+	 * @param commands are the commands given to the issues, one for each id.
+	 * @return is the outcome of each item, in the given order.
+	 */
+	BatchResult executeCommands(int[] ids, Command[] commands);
+
+	/**
+	 * Removes the issue with the given id.
+	 *
+	 * @param id of issue to delete.
+	 */
+	void deleteIssueById(int id);
+
+	/**
+	 * Gets a 2D array with 1 row for every issue. Each row contains the issue id,
+	 * state name, issue type, and summary.
+	 *
+	 * @return is 2D array containing every issue in id order.
+	 */
+	Object[][] getIssueListAsArray();
+}
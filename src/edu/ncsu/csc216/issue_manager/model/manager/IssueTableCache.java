@@ -0,0 +1,157 @@
+package edu.ncsu.csc216.issue_manager.model.manager;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+
+/**
+ * Caches the table arrays IssueManager hands out, one for every issue and one
+ * for each issue type. A cached array is returned as long as the snapshot it
+ * was built from is current. When the snapshot has moved on by a single change,
+ * the cached array is patched at the changed row instead of being rebuilt, and
+ * arrays the change does not touch are kept as they are.
+ *
+ * Cached arrays and their rows are shared by every caller and must not be
+ * changed. The cache can be used by many threads without locking.
+ *
+ * @author Michael Warstler
+ */
+class IssueTableCache {
+
+	/** Filter index of every issue */
+	private static final int ALL = 0;
+	/** Filter index of Bug issues */
+	private static final int BUG = 1;
+	/** Filter index of Enhancement issues */
+	private static final int ENHANCEMENT = 2;
+
+	/**
+	 * Table array built from one snapshot version.
+	 */
+	private static class Entry {
+		/** Snapshot version the rows were built from */
+		private final long version;
+		/** Rows of the table */
+		private final Object[][] rows;
+
+		/**
+		 * Constructs an entry.
+		 *
+		 * @param version of the snapshot.
+		 * @param rows    of the table.
+		 */
+		Entry(long version, Object[][] rows) {
+			this.version = version;
+			this.rows = rows;
+		}
+	}
+
+	/** Cached entries by filter index */
+	private final AtomicReferenceArray<Entry> entries = new AtomicReferenceArray<Entry>(3);
+
+	/**
+	 * Gets the table array of a snapshot, from the cache if it is there.
+	 *
+	 * @param snapshot  is the current snapshot.
+	 * @param issueType is Enhancement/Bug, or null for every issue.
+	 * @return is the shared table array, which must not be changed.
+	 */
+	Object[][] get(IssueListSnapshot snapshot, String issueType) {
+		int filter = filterOf(issueType);
+		Entry cached = entries.get(filter);
+		if (cached != null && cached.version == snapshot.getVersion()) {
+			return cached.rows;
+		}
+
+		Object[][] rows;
+		if (cached != null && cached.version == snapshot.getVersion() - 1 && snapshot.getChangedId() != 0) {
+			rows = patch(cached.rows, snapshot.getChangedId(), snapshot.getChangedRow(), issueType);
+		} else {
+			rows = snapshot.select(issueType, false);
+		}
+
+		// Keep whichever entry is newer if another thread stored one meanwhile.
+		Entry built = new Entry(snapshot.getVersion(), rows);
+		while (!entries.compareAndSet(filter, cached, built)) {
+			cached = entries.get(filter);
+			if (cached != null && cached.version >= built.version) {
+				break;
+			}
+		}
+		return rows;
+	}
+
+	/**
+	 * Applies a single row change to a table array.
+	 *
+	 * @param rows      of the table, in id order. They are not changed.
+	 * @param id        of the changed issue.
+	 * @param row       is the new row of the issue, or null if it was removed.
+	 * @param issueType is Enhancement/Bug, or null for every issue.
+	 * @return is the patched array, or rows itself if the change does not affect
+	 *         it.
+	 */
+	static Object[][] patch(Object[][] rows, int id, Object[] row, String issueType) {
+		if (row != null && issueType != null && !issueType.equals(row[2])) {
+			return rows;
+		}
+		int index = indexOf(rows, id);
+		Object[][] patched;
+		if (row == null) {
+			if (index < 0) {
+				return rows;
+			}
+			patched = new Object[rows.length - 1][];
+			System.arraycopy(rows, 0, patched, 0, index);
+			System.arraycopy(rows, index + 1, patched, index, rows.length - index - 1);
+		} else if (index >= 0) {
+			patched = rows.clone();
+			patched[index] = row;
+		} else {
+			int insertAt = -index - 1;
+			patched = new Object[rows.length + 1][];
+			System.arraycopy(rows, 0, patched, 0, insertAt);
+			patched[insertAt] = row;
+			System.arraycopy(rows, insertAt, patched, insertAt + 1, rows.length - insertAt);
+		}
+		return patched;
+	}
+
+	/**
+	 * Finds the row of an issue by binary search.
+	 *
+	 * @param rows of a table, in id order.
+	 * @param id   of the issue.
+	 * @return is the index of the row, or -(insertion point) - 1 if there is no
+	 *         row with the id.
+	 */
+	private static int indexOf(Object[][] rows, int id) {
+		int low = 0;
+		int high = rows.length - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int middleId = (Integer) rows[middle][0];
+			if (middleId < id) {
+				low = middle + 1;
+			} else if (middleId > id) {
+				high = middle - 1;
+			} else {
+				return middle;
+			}
+		}
+		return -(low + 1);
+	}
+
+	/**
+	 * Gets the filter index of an issue type.
+	 *
+	 * @param issueType is Enhancement/Bug, or null for every issue.
+	 * @return is the filter index.
+	 */
+	private static int filterOf(String issueType) {
+		if (issueType == null) {
+			return ALL;
+		}
+		return Issue.I_BUG.equals(issueType) ? BUG : ENHANCEMENT;
+	}
+}
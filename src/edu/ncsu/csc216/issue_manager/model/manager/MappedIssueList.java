@@ -0,0 +1,1356 @@
+package edu.ncsu.csc216.issue_manager.model.manager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import edu.ncsu.csc216.issue_manager.model.command.Command;
+import edu.ncsu.csc216.issue_manager.model.command.Command.Resolution;
+import edu.ncsu.csc216.issue_manager.model.io.IssueWriter;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueState;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueType;
+import edu.ncsu.csc216.issue_manager.model.issue.NoteArena;
+
+/**
+ * Alternative to IssueList whose issues live in a memory mapped file instead of
+ * on the Java heap. The file is both the working set and the saved state:
+ * opening the list maps the file, and every change is made in place in the
+ * mapping. force() makes the changes durable.
+ *
+ * The file starts with a header, followed by one fixed-width slot per issue in
+ * id order and then a heap of variable-length records. A slot holds the id, the
+ * state, type, confirmed status, and resolution packed into one byte, and heap
+ * references to the summary, the owner, and the latest note. Each note record
+ * links to the note before it, so a command adds its note without copying the
+ * others. Owners are written once and shared by every slot that names them. The
+ * heap is append-only. The bytes held by deleted issues are counted, and once
+ * they are more than half of the heap close() compacts the file, writing only
+ * the live records to a new one.
+ *
+ * The header is written only by force(), after the slots and heap have been
+ * forced, and the first change after force() marks the header as dirty before
+ * it is made. A file opened after a crash holds every change made before the
+ * last force(). Changes made after it may be kept, lost, or kept in part for the
+ * issues they touched, and opening a dirty file finds the heap in use again
+ * from the slots. Growing the slots, replacing the list, and compacting it write
+ * a new file next to the old one and rename it over the old one, so each of them
+ * happens completely or not at all.
+ *
+ * Issues returned by this list are copies that read their notes from the file.
+ * Changes must be made through executeCommand() so that they are written back
+ * to the file. IssueManager uses a mapped file as its issue list while the file
+ * is open (see IssueManager.openMappedIssueFile()).
+ *
+ * The list may be used by several threads. A command holds the list's lock for
+ * reading and the lock of its issue's stripe (see IssueList.stripeOf()), so
+ * commands on issues in different stripes run at the same time and only share
+ * the allocation of heap space. Adding, deleting, replacing, and forcing hold
+ * the lock for writing, as do reads of the whole list, so they never see a
+ * command half done. Issues returned by the list may read their notes while
+ * other threads change it.
+ *
+ * @author Michael Warstler
+ */
+public class MappedIssueList implements IssueStore {
+
+	/** Marks the start of a mapped issue file ("ISMP") */
+	private static final int MAGIC = 0x49534D50;
+	/** Version of the file format */
+	private static final int VERSION = 1;
+	/** Size of the header */
+	private static final int HEADER_SIZE = 64;
+	/** Header position of the number of issues */
+	private static final int SIZE_OFFSET = 8;
+	/** Header position of the counter */
+	private static final int COUNTER_OFFSET = 12;
+	/** Header position of the number of slots */
+	private static final int CAPACITY_OFFSET = 16;
+	/** Header position of the dirty marker */
+	private static final int DIRTY_OFFSET = 20;
+	/** Header position of the number of heap bytes in use */
+	private static final int HEAP_SIZE_OFFSET = 24;
+	/** Header position of the number of heap bytes held by deleted issues */
+	private static final int DEAD_SIZE_OFFSET = 32;
+	/** Dirty marker of a file changed since the last force() */
+	private static final int DIRTY = 1;
+	/** Suffix of the file a new copy of the list is written to */
+	private static final String TEMP_SUFFIX = ".tmp";
+	/** Size of the slot of one issue */
+	private static final int SLOT_SIZE = 32;
+	/** Slot position of the packed state, type, confirmed status, and resolution */
+	private static final int FLAGS_OFFSET = 4;
+	/** Slot position of the summary reference */
+	private static final int SUMMARY_OFFSET = 8;
+	/** Slot position of the owner reference */
+	private static final int OWNER_OFFSET = 16;
+	/** Slot position of the reference of the latest note */
+	private static final int NOTES_OFFSET = 24;
+	/** Number of slots in a new file */
+	private static final int INITIAL_CAPACITY = 16;
+	/** Number of heap bytes in a new file */
+	private static final long INITIAL_HEAP_SIZE = 64 * 1024;
+	/** Number of bits of the position of a heap record within its window */
+	private static final int WINDOW_SHIFT = 30;
+	/** Size of a heap window. Records never cross from one window to the next. */
+	private static final long WINDOW_SIZE = 1L << WINDOW_SHIFT;
+	/** Size of the buffer used to move slots within the file */
+	private static final int COPY_SIZE = 64 * 1024;
+	/** Reference of a missing owner, or of the note before the first note */
+	private static final long NONE = -1;
+	/** Bits of the flags byte holding the state ordinal */
+	private static final int STATE_MASK = 0x07;
+	/** Bit of the flags byte set for BUG issues */
+	private static final int BUG_FLAG = 0x08;
+	/** Bit of the flags byte set for confirmed issues */
+	private static final int CONFIRMED_FLAG = 0x10;
+	/** Shift of the resolution (ordinal + 1, or 0 for none) in the flags byte */
+	private static final int RESOLUTION_SHIFT = 5;
+	/** Bits of the resolution once shifted down */
+	private static final int RESOLUTION_MASK = 0x07;
+	/** States by ordinal */
+	private static final IssueState[] STATES = IssueState.values();
+	/** Resolutions by ordinal */
+	private static final Resolution[] RESOLUTIONS = Resolution.values();
+
+	/** Path of the file */
+	private final Path path;
+	/** Channel of the file, replaced when a new copy of the file replaces it */
+	private FileChannel channel;
+	/** Mapping of the header and slots */
+	private MappedByteBuffer slots;
+	/** Mappings of the heap, one for each window, replaced when the heap grows */
+	private volatile MappedByteBuffer[] heap;
+	/** Number of issues in the list */
+	private int size;
+	/** Counter to keep track of latest issue id */
+	private int counter;
+	/** Number of slots in the file */
+	private int capacity;
+	/** Number of heap bytes in use (guarded by heapLock while commands run) */
+	private long heapSize;
+	/** Number of heap bytes in the file (guarded by heapLock while commands run) */
+	private long heapCapacity;
+	/** Number of heap bytes held by deleted issues */
+	private long deadSize;
+	/** Whether the file has changed since the last force() */
+	private volatile boolean dirty;
+	/**
+	 * Reference of each owner in the heap, or null until the first owner is written
+	 * (guarded by heapLock)
+	 */
+	private HashMap<String, Long> ownerRefs;
+	/** Held for reading by commands and single-issue reads, and for writing by everything else */
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	/** Locks that keep each slot to one command at a time, striped by id */
+	private final ReentrantLock[] rowLocks = new ReentrantLock[IssueList.STRIPES];
+	/** Guards the heap size, the growth of the heap, the owners, and the dirty marker */
+	private final Object heapLock = new Object();
+	/** Notes of issues returned to callers, which only read from the file */
+	private final HeapNotes readOnlyNotes = new HeapNotes(false);
+	/** Notes of issues being updated by executeCommand(), which add to the file */
+	private final HeapNotes writableNotes = new HeapNotes(true);
+
+	/**
+	 * Notes of the issues in the list, read from and added to the heap. The handle
+	 * of an issue's notes is its id, so it stays valid as other issues are added
+	 * and deleted.
+	 *
+	 * @author Michael Warstler
+	 */
+	private class HeapNotes implements Issue.NoteLoader {
+
+		/** Whether new notes are added to the file */
+		private final boolean writable;
+
+		/**
+		 * Creates notes that may or may not take new notes.
+		 *
+		 * @param writable is true to add new notes to the file.
+		 */
+		HeapNotes(boolean writable) {
+			this.writable = writable;
+		}
+
+		@Override
+		public ArrayList<String> loadNotes(long handle) {
+			lock.readLock().lock();
+			ReentrantLock rowLock = rowLocks[IssueList.stripeOf((int) handle)];
+			rowLock.lock();
+			try {
+				int row = rowOf((int) handle);
+				return row < 0 ? new ArrayList<String>() : readNotes(slots.getLong(slotOffset(row) + NOTES_OFFSET));
+			} finally {
+				rowLock.unlock();
+				lock.readLock().unlock();
+			}
+		}
+
+		@Override
+		public boolean appendNote(long handle, String stateName, String note) {
+			lock.readLock().lock();
+			ReentrantLock rowLock = rowLocks[IssueList.stripeOf((int) handle)];
+			rowLock.lock();
+			try {
+				int row = writable ? rowOf((int) handle) : -1;
+				if (row < 0) {
+					return false;
+				}
+				int offset = slotOffset(row) + NOTES_OFFSET;
+				slots.putLong(offset, writeNote(slots.getLong(offset), "[" + stateName + "] " + note));
+				return true;
+			} finally {
+				rowLock.unlock();
+				lock.readLock().unlock();
+			}
+		}
+	}
+
+	/**
+	 * Maps an open file, creating the header of an empty list if the file is new.
+	 * A file that was changed after its last force() is recovered.
+	 *
+	 * @param path        of the file.
+	 * @param channel     of the file.
+	 * @param minCapacity is the number of slots a new file starts with, if more
+	 *                    than INITIAL_CAPACITY.
+	 * @throws IOException if the file is not a mapped issue file or cannot be
+	 *                     mapped.
+	 */
+	private MappedIssueList(Path path, FileChannel channel, int minCapacity) throws IOException {
+		this.path = path;
+		this.channel = channel;
+		for (int i = 0; i < rowLocks.length; i++) {
+			rowLocks[i] = new ReentrantLock();
+		}
+		if (channel.size() == 0) {
+			capacity = Math.max(INITIAL_CAPACITY, minCapacity);
+			heapCapacity = INITIAL_HEAP_SIZE;
+			ownerRefs = new HashMap<String, Long>();
+			mapSlots();
+			mapHeap();
+			slots.putInt(0, MAGIC);
+			slots.putInt(4, VERSION);
+			writeHeader();
+			slots.force();
+			return;
+		}
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		while (header.hasRemaining()) {
+			if (channel.read(header, header.position()) < 0) {
+				throw new IOException("Incomplete header");
+			}
+		}
+		header.flip();
+		if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+			throw new IOException("Not a mapped issue file");
+		}
+		size = header.getInt(SIZE_OFFSET);
+		counter = header.getInt(COUNTER_OFFSET);
+		capacity = header.getInt(CAPACITY_OFFSET);
+		heapSize = header.getLong(HEAP_SIZE_OFFSET);
+		deadSize = header.getLong(DEAD_SIZE_OFFSET);
+		heapCapacity = channel.size() - heapStart();
+		if (capacity < 1 || size < 0 || size > capacity || heapSize < 0 || heapSize > heapCapacity || deadSize < 0
+				|| deadSize > heapSize) {
+			throw new IOException("Invalid header");
+		}
+		mapSlots();
+		mapHeap();
+		if (header.getInt(DIRTY_OFFSET) == DIRTY) {
+			recover();
+		}
+	}
+
+	/**
+	 * Opens the list stored in a file, creating an empty list if the file does not
+	 * exist. Only the header is read; the issues are read from the mapping when
+	 * they are used.
+	 *
+	 * @param fileName is the name of the file.
+	 * @return is the list, mapped from the file.
+	 * @throws IllegalArgumentException if the file cannot be opened or is not a
+	 *                                  mapped issue file.
+	 */
+	public static MappedIssueList open(String fileName) {
+		FileChannel channel = null;
+		try {
+			Path path = Paths.get(fileName);
+			channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+					StandardOpenOption.WRITE);
+			return new MappedIssueList(path, channel, 0);
+		} catch (IOException | RuntimeException e) {
+			if (channel != null) {
+				try {
+					channel.close();
+				} catch (IOException closeFailed) {
+					// The file was not opened.
+				}
+			}
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+
+	/**
+	 * Creates a NEW Issue based on the given parameters and the counter, then
+	 * stores it in the slot after the last issue.
+	 *
+	 * @param issueType is the type of issue object (bug/enhancement)
+	 * @param summary   is the summary of the issue object
+	 * @param note      is the note for the issue
+	 * @return is the ID of the issue added.
+	 * @throws IllegalArgumentException if the issue cannot be created or the file
+	 *                                  cannot grow.
+	 */
+	@Override
+	public int addIssue(IssueType issueType, String summary, String note) {
+		lock.writeLock().lock();
+		try {
+			Issue issueToAdd = new Issue(counter + 1, issueType, summary, note);
+			ensureCapacity(size + 1);
+			markDirty();
+			store(size, issueToAdd);
+			size++;
+			counter++;
+			return counter;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Replaces the contents of the list with the provided issues. Duplicate ids are
+	 * ignored (the first issue with an id is kept) and the issues are stored in id
+	 * order. The issues are written to a new file that then replaces the file, so
+	 * the file is only as large as the new issues need, and issues read from this
+	 * list may be passed back in. After adding all Issues, the counter is set to
+	 * the id of the last issue in the list.
+	 *
+	 * @param issues is a list of issue objects to add.
+	 * @throws IllegalArgumentException if the new file cannot be written.
+	 */
+	@Override
+	public void addIssues(ArrayList<Issue> issues) {
+		ArrayList<Issue> sorted = new ArrayList<Issue>(issues);
+		sorted.sort(Comparator.comparingInt(Issue::getIssueId));
+
+		ArrayList<Issue> unique = new ArrayList<Issue>(sorted.size());
+		for (int i = 0; i < sorted.size(); i++) {
+			if (i == 0 || sorted.get(i).getIssueId() != sorted.get(i - 1).getIssueId()) {
+				unique.add(sorted.get(i));
+			}
+		}
+		lock.writeLock().lock();
+		try {
+			rewrite(unique, unique.isEmpty() ? counter : unique.get(unique.size() - 1).getIssueId());
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes every issue and starts the counter again, as a new IssueList does.
+	 * The empty list is written to a new file that then replaces the file.
+	 *
+	 * @throws IllegalArgumentException if the new file cannot be written.
+	 */
+	@Override
+	public void clear() {
+		lock.writeLock().lock();
+		try {
+			rewrite(new ArrayList<Issue>(), 0);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Writes the issues to a new file that holds only their live heap records, and
+	 * replaces the file with it.
+	 *
+	 * @throws IllegalArgumentException if the new file cannot be written.
+	 */
+	public void compact() {
+		lock.writeLock().lock();
+		try {
+			rewrite(getIssues(), counter);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Gets the number of issues in the list.
+	 *
+	 * @return is the number of issues.
+	 */
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return size;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Creates Issue objects for every issue in the list. Each issue reads its notes
+	 * from the file when they are used.
+	 *
+	 * @return is a new list of all issues in id order.
+	 */
+	@Override
+	public ArrayList<Issue> getIssues() {
+		lock.writeLock().lock();
+		try {
+			ArrayList<Issue> issues = new ArrayList<Issue>(size);
+			for (int row = 0; row < size; row++) {
+				issues.add(materialize(row, readOnlyNotes));
+			}
+			return issues;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Creates Issue objects for every issue in the list that hold their own notes,
+	 * in a note arena, so they can be used once the file is closed.
+	 *
+	 * @param arena to keep the notes of the issues in.
+	 * @return is a new list of all issues in id order.
+	 */
+	@Override
+	public ArrayList<Issue> copyIssues(NoteArena arena) {
+		lock.writeLock().lock();
+		try {
+			ArrayList<Issue> issues = new ArrayList<Issue>(size);
+			for (int row = 0; row < size; row++) {
+				Issue issue = materialize(row, readOnlyNotes);
+				issues.add(new Issue(issue.getIssueId(), issue.getState(), issue.getIssueTypeValue(),
+						issue.getSummary(), issue.getOwner(), issue.isConfirmed(), issue.getResolutionValue(),
+						issue.getNotes(), arena));
+			}
+			return issues;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Creates Issue objects for every issue of the designated type. Only the
+	 * matching slots are materialized.
+	 *
+	 * @param issueType is a string representation of the issue's type.
+	 *                  (Bug/Enhancement)
+	 * @return is a new list of issues of the parameter type, in id order.
+	 * @throws IllegalArgumentException if issueType parameter is null/empty.
+	 */
+	public ArrayList<Issue> getIssuesByType(String issueType) {
+		if (issueType == null || "".equals(issueType)) {
+			throw new IllegalArgumentException("Inavalid issue type.");
+		}
+		ArrayList<Issue> issuesByType = new ArrayList<Issue>();
+		int typeFlag = typeFlagOf(issueType);
+		if (typeFlag >= 0) {
+			lock.writeLock().lock();
+			try {
+				for (int row = 0; row < size; row++) {
+					if ((flagsAt(row) & BUG_FLAG) == typeFlag) {
+						issuesByType.add(materialize(row, readOnlyNotes));
+					}
+				}
+			} finally {
+				lock.writeLock().unlock();
+			}
+		}
+		return issuesByType;
+	}
+
+	/**
+	 * Creates an Issue object for the issue with the given id. The issue reads its
+	 * notes from the file when they are used.
+	 *
+	 * @param id is the issue id to search for.
+	 * @return is a copy of the issue with matching id, or null if not found.
+	 */
+	@Override
+	public Issue getIssueById(int id) {
+		lock.readLock().lock();
+		ReentrantLock rowLock = rowLocks[IssueList.stripeOf(id)];
+		rowLock.lock();
+		try {
+			int row = rowOf(id);
+			return row < 0 ? null : materialize(row, readOnlyNotes);
+		} finally {
+			rowLock.unlock();
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Updates an issue through an execution of a command, in place in the file. If
+	 * the issue does not exist in the list, then nothing is done.
+	 *
+	 * @param id of issue to execute a command with.
+	 * @param c  is command given to the issue.
+	 * @throws UnsupportedOperationException if the command is invalid for the
+	 *                                       issue's current state.
+	 */
+	public void executeCommand(int id, Command c) {
+		executeCommand(id, c.getCode(), c.getOwnerId(), c.getNote());
+	}
+
+	/**
+	 * Updates an issue in place through a command given as a code made by
+	 * Command.encode(), an owner, and a note. The new state, owner, confirmed
+	 * status, and resolution are written to the issue's slot, and the note is
+	 * linked in front of the issue's other notes. If the issue does not exist in
+	 * the list, then nothing is done.
+	 *
+	 * @param id      of issue to execute a command with.
+	 * @param command is the code of the command value and resolution.
+	 * @param ownerId is the owner to assign, which is only used by ASSIGN.
+	 * @param note    is the note to add.
+	 * @throws IllegalArgumentException      if the command is not a valid command.
+	 * @throws UnsupportedOperationException if the command is invalid for the
+	 *                                       issue's current state.
+	 */
+	@Override
+	public void executeCommand(int id, int command, String ownerId, String note) {
+		lock.readLock().lock();
+		ReentrantLock rowLock = rowLocks[IssueList.stripeOf(id)];
+		rowLock.lock();
+		try {
+			int row = rowOf(id);
+			if (row >= 0) {
+				markDirty();
+				Issue issue = materialize(row, writableNotes);
+				issue.update(command, ownerId, note);
+				writeFields(row, issue);
+			}
+		} finally {
+			rowLock.unlock();
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Executes a batch of commands, one for each item of ids and commands, under
+	 * one hold of the lock. Items are matched to slots in id order, so the
+	 * commands of one issue are applied in the order given, and each changed slot
+	 * is written once. Failed items are reported in the result instead of being
+	 * thrown.
+	 *
+	 * @param ids      are the ids of the issues to execute commands with.
+	 * @param commands are the commands given to the issues, one for each id.
+	 * @return is the outcome of each item, in the given order, with the changed
+	 *         issues read back from their slots.
+	 * @throws IllegalArgumentException if ids or commands is null, or they have
+	 *                                  different lengths.
+	 */
+	@Override
+	public BatchResult executeCommands(int[] ids, Command[] commands) {
+		if (ids == null || commands == null || ids.length != commands.length) {
+			throw new IllegalArgumentException("Invalid batch.");
+		}
+		// Sort by id, then by position, packed into one long per item.
+		long[] order = new long[ids.length];
+		for (int i = 0; i < ids.length; i++) {
+			order[i] = (long) ids[i] << 32 | i;
+		}
+		Arrays.sort(order);
+
+		BatchResult result = new BatchResult(ids.length);
+		lock.writeLock().lock();
+		try {
+			for (int i = 0; i < order.length;) {
+				int id = (int) (order[i] >> 32);
+				int row = rowOf(id);
+				Issue issue = row < 0 ? null : materialize(row, writableNotes);
+				boolean applied = false;
+				for (; i < order.length && (int) (order[i] >> 32) == id; i++) {
+					int index = (int) order[i];
+					if (issue == null) {
+						result.fail(index, BatchResult.INVALID_ID);
+					} else if (commands[index] == null) {
+						result.fail(index, BatchResult.INVALID_COMMAND);
+					} else if (!issue.canUpdate(commands[index])) {
+						result.fail(index, BatchResult.INVALID_TRANSITION);
+					} else {
+						markDirty();
+						issue.update(commands[index]);
+						applied = true;
+					}
+				}
+				if (applied) {
+					writeFields(row, issue);
+					result.addChangedIssue(materialize(row, readOnlyNotes));
+				}
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+		return result;
+	}
+
+	/**
+	 * Removes the issue with the given id. The slots after it are moved down, and
+	 * its heap records are left in place and counted as dead.
+	 *
+	 * @param id of issue to delete from list.
+	 */
+	@Override
+	public void deleteIssueById(int id) {
+		lock.writeLock().lock();
+		try {
+			deleteRow(rowOf(id), id);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes the issue in a slot, if there is one.
+	 *
+	 * @param row of the issue, or a negative number for none.
+	 * @param id  of the issue.
+	 */
+	private void deleteRow(int row, int id) {
+		if (row >= 0) {
+			markDirty();
+			deadSize += heldBytes(row);
+			byte[] buffer = new byte[COPY_SIZE];
+			int end = slotOffset(size);
+			for (int from = slotOffset(row + 1); from < end; from += buffer.length) {
+				int length = Math.min(buffer.length, end - from);
+				slots.get(from, buffer, 0, length);
+				slots.put(from - SLOT_SIZE, buffer, 0, length);
+			}
+			size--;
+			// Decrement the counter if the id removed was the largest in the list.
+			if (counter == id) {
+				counter--;
+			}
+		}
+	}
+
+	/**
+	 * Gets a 2D array with 1 row for every issue, read directly from the slots.
+	 * Each row contains the issue id, state name, issue type, and summary.
+	 *
+	 * @return is 2D array containing every issue in id order.
+	 */
+	@Override
+	public Object[][] getIssueListAsArray() {
+		lock.writeLock().lock();
+		try {
+			Object[][] issueListArray = new Object[size][];
+			for (int row = 0; row < size; row++) {
+				issueListArray[row] = tableRow(row);
+			}
+			return issueListArray;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Gets a 2D array with 1 row for every issue of the designated type, read
+	 * directly from the slots. Each row contains the issue id, state name, issue
+	 * type, and summary.
+	 *
+	 * @param issueType is Enhancement/Bug.
+	 * @return is 2D array containing the matching issues in id order. Returns an
+	 *         empty array if the issue type is not Enhancement or Bug.
+	 * @throws IllegalArgumentException if parameter is null.
+	 */
+	public Object[][] getIssueListAsArrayByIssueType(String issueType) {
+		if (issueType == null) {
+			throw new IllegalArgumentException("Invalid issue type");
+		}
+		int typeFlag = typeFlagOf(issueType);
+		if (typeFlag < 0) {
+			return new Object[0][0];
+		}
+		ArrayList<Object[]> rows = new ArrayList<Object[]>();
+		lock.writeLock().lock();
+		try {
+			for (int row = 0; row < size; row++) {
+				if ((flagsAt(row) & BUG_FLAG) == typeFlag) {
+					rows.add(tableRow(row));
+				}
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+		return rows.toArray(new Object[rows.size()][]);
+	}
+
+	/**
+	 * Writes every change made through the mappings to the disk. The slots and heap
+	 * are forced before the header that describes them is written and forced.
+	 */
+	public void force() {
+		lock.writeLock().lock();
+		try {
+			forceFile();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Forces the slots and heap, then writes and forces the header. Called while
+	 * holding the lock for writing, or on a copy no other thread uses.
+	 */
+	private void forceFile() {
+		if (!dirty) {
+			return;
+		}
+		for (MappedByteBuffer window : heap) {
+			window.force();
+		}
+		slots.force();
+		dirty = false;
+		writeHeader();
+		slots.force(0, HEADER_SIZE);
+	}
+
+	/**
+	 * Writes every change to the disk and closes the file, compacting it first if
+	 * deleted issues hold more than half of the heap. The list must not be used
+	 * once it is closed.
+	 *
+	 * @throws IllegalArgumentException if the file cannot be compacted or closed.
+	 */
+	public void close() {
+		lock.writeLock().lock();
+		try {
+			if (deadSize > heapSize / 2) {
+				rewrite(getIssues(), counter);
+			}
+			forceFile();
+			channel.close();
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to save file.");
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Builds the table view row of an issue.
+	 *
+	 * @param row of the issue.
+	 * @return is the id, state name, issue type, and summary of the issue.
+	 */
+	private Object[] tableRow(int row) {
+		int flags = flagsAt(row);
+		Object[] tableRow = new Object[4];
+		tableRow[0] = idAt(row);
+		tableRow[1] = STATES[flags & STATE_MASK].getStateName();
+		tableRow[2] = (flags & BUG_FLAG) != 0 ? Issue.I_BUG : Issue.I_ENHANCEMENT;
+		tableRow[3] = readString(slots.getLong(slotOffset(row) + SUMMARY_OFFSET));
+		return tableRow;
+	}
+
+	/**
+	 * Creates an Issue object from a slot. The issue's notes stay in the file.
+	 *
+	 * @param row   of the issue.
+	 * @param notes is the loader the issue gets its notes from.
+	 * @return is a new Issue with the slot's fields.
+	 */
+	private Issue materialize(int row, HeapNotes notes) {
+		int offset = slotOffset(row);
+		int flags = flagsAt(row);
+		int resolution = (flags >>> RESOLUTION_SHIFT) & RESOLUTION_MASK;
+		long owner = slots.getLong(offset + OWNER_OFFSET);
+		int id = idAt(row);
+		return new Issue(id, STATES[flags & STATE_MASK], (flags & BUG_FLAG) != 0 ? IssueType.BUG : IssueType.ENHANCEMENT,
+				readString(slots.getLong(offset + SUMMARY_OFFSET)), owner == NONE ? null : readString(owner),
+				(flags & CONFIRMED_FLAG) != 0, resolution == 0 ? null : RESOLUTIONS[resolution - 1], notes, id);
+	}
+
+	/**
+	 * Writes an issue into a slot, with its summary, owner, and notes in the heap.
+	 *
+	 * @param row   to write.
+	 * @param issue to store.
+	 */
+	private void store(int row, Issue issue) {
+		int offset = slotOffset(row);
+		slots.putInt(offset, issue.getIssueId());
+		slots.put(offset + FLAGS_OFFSET, packFlags(issue));
+		slots.putLong(offset + SUMMARY_OFFSET, writeString(issue.getSummary()));
+		slots.putLong(offset + OWNER_OFFSET, ownerRefOf(issue.getOwner()));
+		long latest = NONE;
+		ArrayList<String> notes = issue.getNotes();
+		for (int i = 0; i < notes.size(); i++) {
+			latest = writeNote(latest, notes.get(i));
+		}
+		slots.putLong(offset + NOTES_OFFSET, latest);
+	}
+
+	/**
+	 * Writes the fields a command may change from an issue back into its slot. The
+	 * notes are already linked in by the issue's NoteLoader.
+	 *
+	 * @param row   of the issue.
+	 * @param issue holding the new fields.
+	 */
+	private void writeFields(int row, Issue issue) {
+		int offset = slotOffset(row);
+		slots.put(offset + FLAGS_OFFSET, packFlags(issue));
+		slots.putLong(offset + OWNER_OFFSET, ownerRefOf(issue.getOwner()));
+	}
+
+	/**
+	 * Packs an issue's state, type, confirmed status, and resolution into one byte.
+	 *
+	 * @param issue to pack.
+	 * @return is the flags byte of the issue.
+	 */
+	private static byte packFlags(Issue issue) {
+		int packed = issue.getState().ordinal();
+		if (issue.getIssueTypeValue() == IssueType.BUG) {
+			packed |= BUG_FLAG;
+		}
+		if (issue.isConfirmed()) {
+			packed |= CONFIRMED_FLAG;
+		}
+		if (issue.getResolutionValue() != null) {
+			packed |= (issue.getResolutionValue().ordinal() + 1) << RESOLUTION_SHIFT;
+		}
+		return (byte) packed;
+	}
+
+	/**
+	 * Gets the heap reference of an owner, writing the owner to the heap the first
+	 * time it is used. The owners already in the file are found on the first call.
+	 *
+	 * @param owner to look up, or null.
+	 * @return is the reference of the owner, or NONE for null.
+	 */
+	private long ownerRefOf(String owner) {
+		if (owner == null) {
+			return NONE;
+		}
+		synchronized (heapLock) {
+			return sharedOwnerRef(owner);
+		}
+	}
+
+	/**
+	 * Gets the heap reference of an owner as ownerRefOf() does. Called while
+	 * holding heapLock.
+	 *
+	 * @param owner to look up.
+	 * @return is the reference of the owner.
+	 */
+	private long sharedOwnerRef(String owner) {
+		if (ownerRefs == null) {
+			ownerRefs = new HashMap<String, Long>();
+			HashSet<Long> seen = new HashSet<Long>();
+			for (int row = 0; row < size; row++) {
+				long ref = slots.getLong(slotOffset(row) + OWNER_OFFSET);
+				if (ref != NONE && seen.add(ref)) {
+					ownerRefs.putIfAbsent(readString(ref), ref);
+				}
+			}
+		}
+		Long ref = ownerRefs.get(owner);
+		if (ref == null) {
+			ref = writeString(owner);
+			ownerRefs.put(owner, ref);
+		}
+		return ref;
+	}
+
+	/**
+	 * Gets the number of heap bytes held only by an issue: its summary and notes.
+	 *
+	 * @param row of the issue.
+	 * @return is the size of the issue's records.
+	 */
+	private long heldBytes(int row) {
+		int offset = slotOffset(row);
+		long summary = slots.getLong(offset + SUMMARY_OFFSET);
+		long held = 4 + heap[windowOf(summary)].getInt(positionOf(summary));
+		for (long ref = slots.getLong(offset + NOTES_OFFSET); ref != NONE; ref = previousNote(ref)) {
+			held += 12 + heap[windowOf(ref)].getInt(positionOf(ref) + 8);
+		}
+		return held;
+	}
+
+	/**
+	 * Reads a string record from the heap.
+	 *
+	 * @param ref of the record.
+	 * @return is the string.
+	 */
+	private String readString(long ref) {
+		MappedByteBuffer window = heap[windowOf(ref)];
+		int position = positionOf(ref);
+		byte[] bytes = new byte[window.getInt(position)];
+		window.get(position + 4, bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Appends a string record (its UTF-8 length and bytes) to the heap.
+	 *
+	 * @param string to write.
+	 * @return is the reference of the record.
+	 */
+	private long writeString(String string) {
+		byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		long ref = allocate(4 + bytes.length);
+		MappedByteBuffer window = heap[windowOf(ref)];
+		int position = positionOf(ref);
+		window.putInt(position, bytes.length);
+		window.put(position + 4, bytes);
+		return ref;
+	}
+
+	/**
+	 * Reads the notes that end with a note record, oldest first.
+	 *
+	 * @param latest is the reference of the latest note, or NONE.
+	 * @return is a new list of the notes.
+	 */
+	private ArrayList<String> readNotes(long latest) {
+		ArrayList<String> notes = new ArrayList<String>();
+		for (long ref = latest; ref != NONE; ref = previousNote(ref)) {
+			notes.add(readString(ref + 8));
+		}
+		Collections.reverse(notes);
+		return notes;
+	}
+
+	/**
+	 * Gets the note before a note record. Notes only link back to older records,
+	 * so a link that does not point lower in the heap, which a crash can leave
+	 * behind, ends the notes.
+	 *
+	 * @param ref of the note record.
+	 * @return is the reference of the note before it, or NONE.
+	 */
+	private long previousNote(long ref) {
+		long previous = heap[windowOf(ref)].getLong(positionOf(ref));
+		return previous >= 0 && previous < ref ? previous : NONE;
+	}
+
+	/**
+	 * Appends a note record: the reference of the note before it, then the note
+	 * as a string record.
+	 *
+	 * @param previous is the reference of the note before it, or NONE.
+	 * @param note     to write.
+	 * @return is the reference of the record.
+	 */
+	private long writeNote(long previous, String note) {
+		byte[] bytes = note.getBytes(StandardCharsets.UTF_8);
+		long ref = allocate(8 + 4 + bytes.length);
+		MappedByteBuffer window = heap[windowOf(ref)];
+		int position = positionOf(ref);
+		window.putLong(position, previous);
+		window.putInt(position + 8, bytes.length);
+		window.put(position + 12, bytes);
+		return ref;
+	}
+
+	/**
+	 * Reserves space for a record at the end of the heap, moving on to the next
+	 * window if the record would cross into it and growing the heap if needed.
+	 *
+	 * @param length of the record.
+	 * @return is the reference of the space.
+	 * @throws IllegalArgumentException if the record is larger than a window or
+	 *                                  the file cannot grow.
+	 */
+	private long allocate(int length) {
+		if (length > WINDOW_SIZE) {
+			throw new IllegalArgumentException("Unable to save file.");
+		}
+		synchronized (heapLock) {
+			long ref = heapSize;
+			long windowEnd = (ref | (WINDOW_SIZE - 1)) + 1;
+			if (ref + length > windowEnd) {
+				ref = windowEnd;
+			}
+			if (ref + length > heapCapacity) {
+				// Windows already handed out stay mapped, so commands writing to them
+				// are not affected.
+				heapCapacity = Math.max(ref + length, 2 * heapCapacity);
+				mapHeap();
+			}
+			heapSize = ref + length;
+			return ref;
+		}
+	}
+
+	/**
+	 * Grows the slots so that they hold at least the given number of issues. The
+	 * header, slots, and heap are copied to a new file with the heap past the new
+	 * slots, which then replaces the file. References into the heap are relative
+	 * to its start, so they stay valid.
+	 *
+	 * @param needed is the number of slots needed.
+	 * @throws IllegalArgumentException if the slots cannot grow.
+	 */
+	private void ensureCapacity(int needed) {
+		if (needed <= capacity) {
+			return;
+		}
+		long grown = Math.max(needed, 2L * capacity);
+		if (HEADER_SIZE + grown * SLOT_SIZE > Integer.MAX_VALUE) {
+			grown = (Integer.MAX_VALUE - HEADER_SIZE) / SLOT_SIZE;
+			if (grown < needed) {
+				throw new IllegalArgumentException("Unable to save file.");
+			}
+		}
+		MappedIssueList copy = createCopy((int) grown);
+		try {
+			copy.slots.put(HEADER_SIZE, slots, HEADER_SIZE, slotOffset(size) - HEADER_SIZE);
+			copy.heapCapacity = heapCapacity;
+			copy.mapHeap();
+			for (int i = 0; i < heap.length && i * WINDOW_SIZE < heapSize; i++) {
+				copy.heap[i].put(0, heap[i], 0, (int) Math.min(WINDOW_SIZE, heapSize - i * WINDOW_SIZE));
+			}
+			copy.size = size;
+			copy.counter = counter;
+			copy.heapSize = heapSize;
+			copy.deadSize = deadSize;
+			copy.ownerRefs = ownerRefs;
+		} catch (RuntimeException e) {
+			copy.discard();
+			throw new IllegalArgumentException("Unable to save file.");
+		}
+		replaceWith(copy);
+	}
+
+	/**
+	 * Writes issues to a new file, in the order given, and replaces the file with
+	 * it. The issues may read their notes from this list while they are written.
+	 *
+	 * @param issues     to write, in id order with no repeated ids.
+	 * @param newCounter is the counter of the new file.
+	 * @throws IllegalArgumentException if the new file cannot be written.
+	 */
+	private void rewrite(ArrayList<Issue> issues, int newCounter) {
+		MappedIssueList copy = createCopy(issues.size());
+		try {
+			for (int i = 0; i < issues.size(); i++) {
+				copy.store(copy.size++, issues.get(i));
+			}
+			copy.counter = newCounter;
+		} catch (RuntimeException e) {
+			copy.discard();
+			throw new IllegalArgumentException("Unable to save file.");
+		}
+		replaceWith(copy);
+	}
+
+	/**
+	 * Creates an empty list in a new file next to the file of this list.
+	 *
+	 * @param minCapacity is the number of slots the new file starts with.
+	 * @return is the empty list.
+	 * @throws IllegalArgumentException if the new file cannot be created.
+	 */
+	private MappedIssueList createCopy(int minCapacity) {
+		Path temp = Paths.get(path + TEMP_SUFFIX);
+		FileChannel tempChannel = null;
+		try {
+			tempChannel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+					StandardOpenOption.READ, StandardOpenOption.WRITE);
+			return new MappedIssueList(temp, tempChannel, minCapacity);
+		} catch (IOException | RuntimeException e) {
+			if (tempChannel != null) {
+				try {
+					tempChannel.close();
+				} catch (IOException closeFailed) {
+					// The new file is deleted anyway.
+				}
+			}
+			try {
+				Files.deleteIfExists(temp);
+			} catch (IOException deleteFailed) {
+				// The new file is truncated when it is next created.
+			}
+			throw new IllegalArgumentException("Unable to save file.");
+		}
+	}
+
+	/**
+	 * Closes and deletes the new file of a copy that will not replace the file.
+	 */
+	private void discard() {
+		try {
+			channel.close();
+			Files.deleteIfExists(path);
+		} catch (IOException e) {
+			// The new file is truncated when it is next created.
+		}
+	}
+
+	/**
+	 * Forces a fully written copy to the disk, renames its file over the file of
+	 * this list, and takes over its mappings. The old file is closed.
+	 *
+	 * @param copy is the copy to take over.
+	 * @throws IllegalArgumentException if the copy cannot replace the file, in
+	 *                                  which case the list is unchanged.
+	 */
+	private void replaceWith(MappedIssueList copy) {
+		try {
+			copy.dirty = true;
+			copy.forceFile();
+			IssueWriter.replace(copy.path, path);
+		} catch (IOException | RuntimeException e) {
+			copy.discard();
+			throw new IllegalArgumentException("Unable to save file.");
+		}
+		try {
+			channel.close();
+		} catch (IOException e) {
+			// The old file has already been replaced.
+		}
+		channel = copy.channel;
+		slots = copy.slots;
+		heap = copy.heap;
+		size = copy.size;
+		counter = copy.counter;
+		capacity = copy.capacity;
+		heapSize = copy.heapSize;
+		heapCapacity = copy.heapCapacity;
+		deadSize = copy.deadSize;
+		ownerRefs = copy.ownerRefs;
+		dirty = false;
+	}
+
+	/**
+	 * Marks the header as dirty and forces it to the disk before the first change
+	 * after force(), so a crash before the next force() is noticed when the file is
+	 * opened.
+	 */
+	private void markDirty() {
+		if (!dirty) {
+			synchronized (heapLock) {
+				if (!dirty) {
+					slots.putInt(DIRTY_OFFSET, DIRTY);
+					slots.force(0, HEADER_SIZE);
+					dirty = true;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Recovers a file that was changed after its last force(). A delete that moved
+	 * the slots down leaves a repeated slot after the last one, which is dropped,
+	 * and the heap in use is raised past every record the slots refer to, so no
+	 * record written after the last force() is written over.
+	 *
+	 * @throws IOException if a slot refers to a record outside the heap.
+	 */
+	private void recover() throws IOException {
+		while (size > 1 && idAt(size - 1) <= idAt(size - 2)) {
+			size--;
+		}
+		for (int row = 0; row < size; row++) {
+			int offset = slotOffset(row);
+			heapSize = Math.max(heapSize, recordEnd(slots.getLong(offset + SUMMARY_OFFSET), 0));
+			heapSize = Math.max(heapSize, recordEnd(slots.getLong(offset + OWNER_OFFSET), 0));
+			heapSize = Math.max(heapSize, recordEnd(slots.getLong(offset + NOTES_OFFSET), 8));
+		}
+		if (size > 0) {
+			counter = Math.max(counter, idAt(size - 1));
+		}
+		dirty = true;
+	}
+
+	/**
+	 * Gets the end of a heap record.
+	 *
+	 * @param ref          of the record, or NONE.
+	 * @param lengthOffset is the position of the record's string length in it.
+	 * @return is the heap position after the record, or 0 for NONE.
+	 * @throws IOException if the record is outside the heap.
+	 */
+	private long recordEnd(long ref, int lengthOffset) throws IOException {
+		if (ref == NONE) {
+			return 0;
+		}
+		if (ref < 0 || ref + lengthOffset + 4 > heapCapacity) {
+			throw new IOException("Invalid reference");
+		}
+		long end = ref + lengthOffset + 4 + heap[windowOf(ref)].getInt(positionOf(ref) + lengthOffset);
+		if (end < ref || end > heapCapacity) {
+			throw new IOException("Invalid record");
+		}
+		return end;
+	}
+
+	/**
+	 * Maps the header and slots.
+	 *
+	 * @throws IllegalArgumentException if the file cannot be mapped.
+	 */
+	private void mapSlots() {
+		try {
+			slots = channel.map(FileChannel.MapMode.READ_WRITE, 0, heapStart());
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to save file.");
+		}
+	}
+
+	/**
+	 * Maps the heap, one window at a time. Mapping past the end of the file makes
+	 * the file longer.
+	 *
+	 * @throws IllegalArgumentException if the file cannot be mapped.
+	 */
+	private void mapHeap() {
+		int windows = (int) Math.max(1, (heapCapacity + WINDOW_SIZE - 1) / WINDOW_SIZE);
+		MappedByteBuffer[] mapped = new MappedByteBuffer[windows];
+		try {
+			for (int i = 0; i < windows; i++) {
+				long start = i * WINDOW_SIZE;
+				mapped[i] = channel.map(FileChannel.MapMode.READ_WRITE, heapStart() + start,
+						Math.min(WINDOW_SIZE, heapCapacity - start));
+			}
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to save file.");
+		}
+		heap = mapped;
+	}
+
+	/**
+	 * Writes the size, counter, number of slots, dirty marker, heap size, and dead
+	 * heap size to the header.
+	 */
+	private void writeHeader() {
+		slots.putInt(SIZE_OFFSET, size);
+		slots.putInt(COUNTER_OFFSET, counter);
+		slots.putInt(CAPACITY_OFFSET, capacity);
+		slots.putInt(DIRTY_OFFSET, dirty ? DIRTY : 0);
+		slots.putLong(HEAP_SIZE_OFFSET, heapSize);
+		slots.putLong(DEAD_SIZE_OFFSET, deadSize);
+	}
+
+	/**
+	 * Gets the file position where the heap starts.
+	 *
+	 * @return is the size of the header and slots.
+	 */
+	private long heapStart() {
+		return HEADER_SIZE + (long) capacity * SLOT_SIZE;
+	}
+
+	/**
+	 * Gets the heap window of a record.
+	 *
+	 * @param ref of the record.
+	 * @return is the index of the window in heap.
+	 */
+	private static int windowOf(long ref) {
+		return (int) (ref >>> WINDOW_SHIFT);
+	}
+
+	/**
+	 * Gets the position of a record within its heap window.
+	 *
+	 * @param ref of the record.
+	 * @return is the position in the window.
+	 */
+	private static int positionOf(long ref) {
+		return (int) (ref & (WINDOW_SIZE - 1));
+	}
+
+	/**
+	 * Gets the position of a slot in the slot mapping.
+	 *
+	 * @param row of the slot.
+	 * @return is the position of the slot.
+	 */
+	private static int slotOffset(int row) {
+		return HEADER_SIZE + row * SLOT_SIZE;
+	}
+
+	/**
+	 * Gets the id in a slot.
+	 *
+	 * @param row of the slot.
+	 * @return is the issue id.
+	 */
+	private int idAt(int row) {
+		return slots.getInt(slotOffset(row));
+	}
+
+	/**
+	 * Gets the flags byte in a slot.
+	 *
+	 * @param row of the slot.
+	 * @return is the packed state, type, confirmed status, and resolution.
+	 */
+	private int flagsAt(int row) {
+		return slots.get(slotOffset(row) + FLAGS_OFFSET) & 0xFF;
+	}
+
+	/**
+	 * Finds the slot of an issue. Ids are kept in ascending order, so a binary
+	 * search is used.
+	 *
+	 * @param id of issue to find.
+	 * @return is the row of the issue, or a negative number if it is not there.
+	 */
+	private int rowOf(int id) {
+		int low = 0;
+		int high = size - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int middleId = idAt(middle);
+			if (middleId < id) {
+				low = middle + 1;
+			} else if (middleId > id) {
+				high = middle - 1;
+			} else {
+				return middle;
+			}
+		}
+		return -(low + 1);
+	}
+
+	/**
+	 * Gets the value the BUG_FLAG bit has for an issue type name.
+	 *
+	 * @param issueType is Enhancement/Bug.
+	 * @return is BUG_FLAG for Bug, 0 for Enhancement, or -1 for any other name.
+	 */
+	private static int typeFlagOf(String issueType) {
+		if (Issue.I_BUG.equals(issueType)) {
+			return BUG_FLAG;
+		} else if (Issue.I_ENHANCEMENT.equals(issueType)) {
+			return 0;
+		}
+		return -1;
+	}
+}
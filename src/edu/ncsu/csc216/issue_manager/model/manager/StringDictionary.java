@@ -0,0 +1,170 @@
+package edu.ncsu.csc216.issue_manager.model.manager;
+
+/**
+ * Dictionary that encodes strings as small int references. Each distinct string
+ * is stored once and given a reference number, so columns of repeated values
+ * (such as owners) can be kept as an int[]. References are found with an
+ * open-addressing table of ints so that no Integer objects are created.
+ *
+ * Every reference handed out by encode() is counted, and release() gives it
+ * back. Once a string has no references left it is removed, and its reference
+ * number is reused by the next new string, so a dictionary only holds the
+ * strings still in use.
+ *
+ * @author Michael Warstler
+ */
+class StringDictionary {
+
+	/** Reference returned for a null string */
+	static final int NONE = -1;
+	/** Number of slots in a newly created table (must be a power of two) */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/** Strings by reference number, or null for a free reference */
+	private String[] strings = new String[INITIAL_CAPACITY];
+	/**
+	 * Number of uses of each reference, or for a free reference the next free
+	 * reference (or NONE)
+	 */
+	private int[] counts = new int[INITIAL_CAPACITY];
+	/** Number of reference numbers handed out so far, in use or free */
+	private int used;
+	/** Number of strings in the dictionary */
+	private int size;
+	/** First free reference, or NONE */
+	private int free = NONE;
+	/** Hash table of reference number + 1, or 0 for an empty slot */
+	private int[] table = new int[INITIAL_CAPACITY * 2];
+
+	/**
+	 * Gets the reference for a string and counts one more use of it, adding the
+	 * string if it is not already in the dictionary.
+	 *
+	 * @param string to encode.
+	 * @return is the reference for the string, or NONE if string is null.
+	 */
+	int encode(String string) {
+		if (string == null) {
+			return NONE;
+		}
+		int mask = table.length - 1;
+		int slot = slotOf(string, mask);
+		while (table[slot] != 0) {
+			int reference = table[slot] - 1;
+			if (strings[reference].equals(string)) {
+				counts[reference]++;
+				return reference;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		int reference;
+		if (free != NONE) {
+			reference = free;
+			free = counts[reference];
+		} else {
+			if (used == strings.length) {
+				String[] grownStrings = new String[used * 2];
+				System.arraycopy(strings, 0, grownStrings, 0, used);
+				strings = grownStrings;
+				int[] grownCounts = new int[used * 2];
+				System.arraycopy(counts, 0, grownCounts, 0, used);
+				counts = grownCounts;
+			}
+			reference = used++;
+		}
+		strings[reference] = string;
+		counts[reference] = 1;
+		table[slot] = reference + 1;
+		size++;
+		if (size * 2 > table.length) {
+			rehash(table.length * 2);
+		}
+		return reference;
+	}
+
+	/**
+	 * Gives back one use of a reference. The string is removed once it has no
+	 * uses left.
+	 *
+	 * @param reference returned by encode(String), or NONE.
+	 */
+	void release(int reference) {
+		if (reference == NONE || --counts[reference] > 0) {
+			return;
+		}
+		// Find the slot of the reference and close the gap it leaves, moving up any
+		// later entry of the same run whose home slot is not after the gap.
+		int mask = table.length - 1;
+		int slot = slotOf(strings[reference], mask);
+		while (table[slot] != reference + 1) {
+			slot = (slot + 1) & mask;
+		}
+		table[slot] = 0;
+		for (int next = (slot + 1) & mask; table[next] != 0; next = (next + 1) & mask) {
+			int home = slotOf(strings[table[next] - 1], mask);
+			if (((next - home) & mask) >= ((next - slot) & mask)) {
+				table[slot] = table[next];
+				table[next] = 0;
+				slot = next;
+			}
+		}
+		strings[reference] = null;
+		counts[reference] = free;
+		free = reference;
+		size--;
+	}
+
+	/**
+	 * Gets the string of a reference.
+	 *
+	 * @param reference returned by encode(String).
+	 * @return is the string, or null if reference is NONE.
+	 */
+	String decode(int reference) {
+		if (reference == NONE) {
+			return null;
+		}
+		return strings[reference];
+	}
+
+	/**
+	 * Gets the number of distinct strings in the dictionary.
+	 *
+	 * @return is the number of strings.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Rebuilds the hash table with the given number of slots.
+	 *
+	 * @param capacity is the new number of slots (a power of two).
+	 */
+	private void rehash(int capacity) {
+		table = new int[capacity];
+		int mask = capacity - 1;
+		for (int reference = 0; reference < used; reference++) {
+			if (strings[reference] != null) {
+				int slot = slotOf(strings[reference], mask);
+				while (table[slot] != 0) {
+					slot = (slot + 1) & mask;
+				}
+				table[slot] = reference + 1;
+			}
+		}
+	}
+
+	/**
+	 * Gets the home slot of a string in the hash table.
+	 *
+	 * @param string to place.
+	 * @param mask   is the number of slots minus one.
+	 * @return is the slot where probing for the string starts.
+	 */
+	private static int slotOf(String string, int mask) {
+		int hash = string.hashCode();
+		return (hash ^ (hash >>> 16)) & mask;
+	}
+}
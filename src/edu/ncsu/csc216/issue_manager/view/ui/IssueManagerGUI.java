@@ -10,6 +10,9 @@ import java.awt.GridLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.File;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
@@ -22,11 +25,13 @@ import javax.swing.JMenuBar;
 import javax.swing.JMenuItem;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JProgressBar;
 import javax.swing.JScrollPane;
 import javax.swing.JTable;
 import javax.swing.JTextArea;
 import javax.swing.JTextField;
 import javax.swing.ListSelectionModel;
+import javax.swing.SwingWorker;
 import javax.swing.border.Border;
 import javax.swing.border.EtchedBorder;
 import javax.swing.border.TitledBorder;
@@ -34,8 +39,10 @@ import javax.swing.table.AbstractTableModel;
 
 import edu.ncsu.csc216.issue_manager.model.command.Command;
 import edu.ncsu.csc216.issue_manager.model.command.Command.Resolution;
+import edu.ncsu.csc216.issue_manager.model.io.ProgressListener;
 import edu.ncsu.csc216.issue_manager.model.issue.Issue;
 import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueType;
+import edu.ncsu.csc216.issue_manager.model.manager.IssueListSnapshot;
 import edu.ncsu.csc216.issue_manager.model.manager.IssueManager;
 
 /**
@@ -76,6 +83,14 @@ public class IssueManagerGUI extends JFrame implements ActionListener {
 	private JMenuItem itemQuit;
 	/** Panel that will contain different views for the application. */
 	private JPanel panel;
+	/** Panel shown while a file is loaded or saved in the background. */
+	private JPanel pnlProgress;
+	/** Progress of the file being loaded or saved. */
+	private JProgressBar progressBar;
+	/** Button for cancelling the file being loaded or saved. */
+	private JButton btnCancel;
+	/** Worker loading or saving a file, or null if none is running. */
+	private IssueFileWorker worker;
 	/** Constant to identify IssueListPanel for CardLayout. */
 	private static final String ISSUE_LIST_PANEL = "IssueListPanel";
 	/** Constant to identify NewPanel for CardLayout. */
@@ -138,9 +153,20 @@ public class IssueManagerGUI extends JFrame implements ActionListener {
 		panel.add(pnlAddIssue, CREATE_ISSUE_PANEL);
 		cardLayout.show(panel, ISSUE_LIST_PANEL);
 		
+		//Set up the progress bar shown while a file loads or saves
+		progressBar = new JProgressBar(0, 100);
+		progressBar.setStringPainted(true);
+		btnCancel = new JButton("Cancel");
+		btnCancel.addActionListener(this);
+		pnlProgress = new JPanel(new BorderLayout());
+		pnlProgress.add(progressBar, BorderLayout.CENTER);
+		pnlProgress.add(btnCancel, BorderLayout.EAST);
+		pnlProgress.setVisible(false);
+		
 		//Add panel to the container
 		Container c = getContentPane();
 		c.add(panel, BorderLayout.CENTER);
+		c.add(pnlProgress, BorderLayout.SOUTH);
 		
 		//Set the GUI visible
 		setVisible(true);
@@ -191,41 +217,63 @@ public class IssueManagerGUI extends JFrame implements ActionListener {
 			validate();
 			repaint();			
 		} else if (e.getSource() == itemLoadIssueList) {
-			//Load an existing issue list
+			//Load an existing issue list in the background
 			try {
-				model.loadIssuesFromFile(getFileName(true));
-				itemSaveIssueList.setEnabled(true);
-				pnlIssueList.updateTable(null);
+				String fileName = getFileName(true);
 				cardLayout.show(panel, ISSUE_LIST_PANEL);
-				validate();
-				repaint();
-			} catch (IllegalArgumentException exp) {
-				JOptionPane.showMessageDialog(this, exp.getMessage());
+				startWorker(new IssueFileWorker(fileName, true, false));
 			} catch (IllegalStateException exp) {
 				//Don't do anything - user canceled (or error)
 			}
 		} else if (e.getSource() == itemSaveIssueList) {
-			//Save current issue list
+			//Save current issue list in the background
 			try {
-				model.saveIssuesToFile(getFileName(false));
-			} catch (IllegalArgumentException exp) {
-				JOptionPane.showMessageDialog(this, exp.getMessage());
+				startWorker(new IssueFileWorker(getFileName(false), false, false));
 			} catch (IllegalStateException exp) {
 				//Don't do anything - user canceled (or error)
 			}
 		} else if (e.getSource() == itemQuit) {
-			//Quit the program
+			//Quit the program once the issue list is saved
 			try {
-				model.saveIssuesToFile(getFileName(false));
-				System.exit(0);  //Ignore SpotBugs warning here - this is the only place to quit the program!
-			} catch (IllegalArgumentException exp) {
-				JOptionPane.showMessageDialog(this, exp.getMessage());
+				startWorker(new IssueFileWorker(getFileName(false), false, true));
 			} catch (IllegalStateException exp) {
 				//Don't do anything - user canceled (or error)
 			}
+		} else if (e.getSource() == btnCancel) {
+			//Cancel the load or save in progress
+			if (worker != null) {
+				worker.requestCancel();
+				btnCancel.setEnabled(false);
+			}
 		}
 	}
 	
+	/**
+	 * Starts a worker loading or saving a file, disabling the menu and issue
+	 * list actions until it is done.
+	 * @param fileWorker worker to start
+	 */
+	private void startWorker(IssueFileWorker fileWorker) {
+		worker = fileWorker;
+		setBusy(true);
+		worker.execute();
+	}
+	
+	/**
+	 * Shows or hides the progress bar, and disables or enables the actions that
+	 * change the issue list, while a file is loaded or saved.
+	 * @param busy true if a file is being loaded or saved
+	 */
+	private void setBusy(boolean busy) {
+		menu.setEnabled(!busy);
+		pnlIssueList.setActionsEnabled(!busy);
+		progressBar.setValue(0);
+		btnCancel.setEnabled(busy);
+		pnlProgress.setVisible(busy);
+		validate();
+		repaint();
+	}
+	
 	/**
 	 * Returns a file name generated through interactions with a JFileChooser
 	 * object.
@@ -249,6 +297,110 @@ public class IssueManagerGUI extends JFrame implements ActionListener {
 		return gameFile.getAbsolutePath();
 	}
 
+	/**
+	 * Loads or saves an issue file off the event dispatch thread. Progress from
+	 * the IssueManager is published to the progress bar, and while a file loads
+	 * the issue table is refreshed from the issues read so far. The worker can
+	 * be cancelled with the Cancel button, which leaves the issue list, or the
+	 * saved file, as it was.
+	 * 
+	 * @author Michael Warstler
+	 */
+	private class IssueFileWorker extends SwingWorker<Void, Integer> {
+		/** Name of the file to load or save */
+		private final String fileName;
+		/** True to load the file, false to save it */
+		private final boolean load;
+		/** True to quit the program once the file is saved */
+		private final boolean exitWhenDone;
+		/** Set when the user asks to cancel */
+		private volatile boolean cancelRequested;
+		
+		/**
+		 * Constructs a worker for a file.
+		 * @param fileName name of the file to load or save
+		 * @param load true to load the file, false to save it
+		 * @param exitWhenDone true to quit the program once the file is saved
+		 */
+		IssueFileWorker(String fileName, boolean load, boolean exitWhenDone) {
+			this.fileName = fileName;
+			this.load = load;
+			this.exitWhenDone = exitWhenDone;
+		}
+		
+		/**
+		 * Asks the worker to stop at its next progress report. The worker keeps
+		 * running until the IssueManager has stopped, so done() only runs once 
+		 * the issue list can be used again.
+		 */
+		void requestCancel() {
+			cancelRequested = true;
+		}
+		
+		/**
+		 * Loads or saves the file, reporting the percentage done.
+		 * @return nothing
+		 */
+		@Override
+		protected Void doInBackground() {
+			ProgressListener listener = (done, total) -> {
+				if (cancelRequested && done < total) {
+					throw new CancellationException();
+				}
+				publish(total == 0 ? 100 : (int) (done * 100 / total));
+			};
+			if (load) {
+				IssueManager.getInstance().loadIssuesFromFile(fileName, listener);
+			} else {
+				IssueManager.getInstance().saveIssuesToFile(fileName, listener);
+			}
+			return null;
+		}
+		
+		/**
+		 * Shows the latest progress and, while loading, the issues read so far.
+		 * @param percentages percentages done since the last call
+		 */
+		@Override
+		protected void process(List<Integer> percentages) {
+			progressBar.setValue(percentages.get(percentages.size() - 1));
+			if (load) {
+				pnlIssueList.updateTable(null);
+			}
+		}
+		
+		/**
+		 * Restores the GUI once the file is loaded or saved, and reports any
+		 * error other than a cancel.
+		 */
+		@Override
+		protected void done() {
+			worker = null;
+			setBusy(false);
+			boolean succeeded = false;
+			try {
+				get();
+				succeeded = true;
+			} catch (ExecutionException exp) {
+				if (!(exp.getCause() instanceof CancellationException)) {
+					JOptionPane.showMessageDialog(IssueManagerGUI.this, exp.getCause().getMessage());
+				}
+			} catch (InterruptedException exp) {
+				//Don't do anything - the worker is already done
+			}
+			if (load) {
+				if (succeeded) {
+					itemSaveIssueList.setEnabled(true);
+				}
+				pnlIssueList.updateTable(null);
+				validate();
+				repaint();
+			} else if (succeeded && exitWhenDone) {
+				System.exit(0);  //Ignore SpotBugs warning here - this is the only place to quit the program!
+			}
+		}
+	}
+
 	/**
 	 * Starts the GUI for the IssueManager application.
 	 * @param args command line arguments
@@ -396,34 +548,60 @@ public class IssueManagerGUI extends JFrame implements ActionListener {
 			IssueManagerGUI.this.validate();
 		}
 		
+		/**
+		 * Enables or disables the buttons of the issue list.
+		 * @param enabled true to enable the buttons
+		 */
+		public void setActionsEnabled(boolean enabled) {
+			btnAddNewIssue.setEnabled(enabled);
+			btnDeleteIssue.setEnabled(enabled);
+			btnEditIssue.setEnabled(enabled);
+			btnFilterByBug.setEnabled(enabled);
+			btnFilterByEnhancement.setEnabled(enabled);
+			btnShowAllIssues.setEnabled(enabled);
+		}
+		
+		/**
+		 * Updates the table to show the issues of the given type, or all issues
+		 * if the type is null.
+		 * @param issueType issue type to show, or null for all issues.
+		 */
 		public void updateTable(IssueType issueType) {
-			if (issueType == null) {
-				issueTableModel.updateIssueData();
-			} else {
-				issueTableModel.updateIssueDataByType(issueType);
-			}
+			issueTableModel.updateIssueData(issueType);
 		}
 		
 		/**
 		 * IssueTableModel is the object underlying the JTable object that displays
-		 * the list of Issues to the user.
+		 * the list of Issues to the user. The model keeps no copy of the rows. It 
+		 * holds an immutable snapshot from the IssueManager and reads the window
+		 * of rows the table is painting from it, one page at a time. When the 
+		 * list has changed by a single issue since the last update, only that
+		 * row is inserted, updated, or deleted in the table.
 		 * @author Dr. Sarah Heckman (sarah_heckman@ncsu.edu)
 		 */
 		private class IssueTableModel extends AbstractTableModel {
 			
 			/** ID number used for object serialization. */
 			private static final long serialVersionUID = 1L;
+			/** Number of rows fetched at a time */
+			private static final int WINDOW_SIZE = 128;
 			/** Column names for the table */
 			private String [] columnNames = {"Issue ID", "Issue State", "Issue Type", "Issue Summary"};
-			/** Data stored in the table */
-			private Object [][] data;
+			/** Snapshot of the issue list shown in the table */
+			private IssueListSnapshot snapshot;
+			/** Issue type shown in the table, or null for all issues */
+			private String issueType;
+			/** Rows fetched for the window of the table last painted */
+			private Object [][] window = new Object[0][0];
+			/** Row index of the first row in the window */
+			private int windowStart;
 			
 			/**
 			 * Constructs the IssueTableModel by requesting the latest information
 			 * from the IssueTableModel.
 			 */
 			public IssueTableModel() {
-				updateIssueData();
+				updateIssueData(null);
 			}
 
 			/**
@@ -439,9 +617,9 @@ public class IssueManagerGUI extends JFrame implements ActionListener {
 			 * @return the number of rows in the table.
 			 */
 			public int getRowCount() {
-				if (data == null) 
+				if (snapshot == null) 
 					return 0;
-				return data.length;
+				return snapshot.size(issueType);
 			}
 			
 			/**
@@ -454,51 +632,61 @@ public class IssueManagerGUI extends JFrame implements ActionListener {
 			}
 
 			/**
-			 * Returns the data at the given {row, col} index.
+			 * Returns the data at the given {row, col} index. Fetches the window
+			 * of rows around the row if it has not been fetched already.
 			 * @param row index of row
 			 * @param col index of column
 			 * @return the data at the given location.
 			 */
 			public Object getValueAt(int row, int col) {
-				if (data == null)
+				if (snapshot == null)
 					return null;
-				return data[row][col];
-			}
-			
-			/**
-			 * Sets the given value to the given {row, col} location.
-			 * @param value Object to modify in the data.
-			 * @param row location to modify the data.
-			 * @param col location to modify the data.
-			 */
-			public void setValueAt(Object value, int row, int col) {
-				data[row][col] = value;
-				fireTableCellUpdated(row, col);
-			}
-			
-			/**
-			 * Updates the given model with Issue information from the IssueManager.
-			 */
-			private void updateIssueData() {
-				IssueManager m = IssueManager.getInstance();
-				data = m.getIssueListAsArray();
+				if (row < windowStart || row >= windowStart + window.length) {
+					windowStart = Math.max(0, row - WINDOW_SIZE / 4);
+					window = snapshot.getPage(issueType, windowStart, WINDOW_SIZE);
+					if (row >= windowStart + window.length) {
+						return null;
+					}
+				}
+				return window[row - windowStart][col];
 			}
 			
 			/**
-			 * Updates the given model with Issue information for the 
-			 * given issue type from the IssueManager.
-			 * @param issueType issue type to search for.
+			 * Updates the given model with Issue information for the given issue
+			 * type from the IssueManager. If the type is the same and the list has
+			 * changed by one issue, only that row is changed in the table.
+			 * @param type issue type to show, or null for all issues.
 			 */
-			private void updateIssueDataByType(IssueType issueType) {
-				try {
-					IssueManager m = IssueManager.getInstance();
-					if (issueType == IssueType.ENHANCEMENT) {
-						data = m.getIssueListAsArrayByIssueType("Enhancement");
-					} else if(issueType == IssueType.BUG) {
-						data = m.getIssueListAsArrayByIssueType("Bug");
+			private void updateIssueData(IssueType type) {
+				IssueListSnapshot latest = IssueManager.getInstance().getSnapshot();
+				String latestType = null;
+				if (type == IssueType.ENHANCEMENT) {
+					latestType = Issue.I_ENHANCEMENT;
+				} else if (type == IssueType.BUG) {
+					latestType = Issue.I_BUG;
+				}
+				IssueListSnapshot previous = snapshot;
+				boolean sameType = latestType == null ? issueType == null : latestType.equals(issueType);
+				snapshot = latest;
+				issueType = latestType;
+				window = new Object[0][0];
+				windowStart = 0;
+				
+				if (previous == null || !sameType) {
+					fireTableDataChanged();
+				} else if (latest.getVersion() == previous.getVersion() + 1 && latest.getChangedId() != 0) {
+					int id = latest.getChangedId();
+					int oldRow = previous.indexOf(issueType, id);
+					int newRow = latest.indexOf(issueType, id);
+					if (oldRow >= 0 && newRow >= 0) {
+						fireTableRowsUpdated(newRow, newRow);
+					} else if (newRow >= 0) {
+						fireTableRowsInserted(newRow, newRow);
+					} else if (oldRow >= 0) {
+						fireTableRowsDeleted(oldRow, oldRow);
 					}
-				} catch (IllegalArgumentException e) {
-					JOptionPane.showMessageDialog(IssueManagerGUI.this, e.getMessage());
+				} else if (latest.getVersion() != previous.getVersion()) {
+					fireTableDataChanged();
 				}
 			}
 		}
@@ -59,4 +59,34 @@ public class CommandTest {
 				() -> new Command(CommandValue.ASSIGN, "ownerId", Resolution.DUPLICATE, ""));
 		assertEquals("Invalid information.", e6.getMessage());
 	}
+
+	/**
+	 * Tests that encode() packs every command value and resolution into a distinct
+	 * code that unpacks to the same values.
+	 */
+	@Test
+	public void testEncode() {
+		boolean[] used = new boolean[Command.CODE_COUNT];
+		for (CommandValue value : CommandValue.values()) {
+			for (int r = -1; r < Resolution.values().length; r++) {
+				Resolution resolution = r < 0 ? null : Resolution.values()[r];
+				if (value == CommandValue.RESOLVE && resolution == null) {
+					continue;
+				}
+				int code = Command.encode(value, resolution);
+				assertFalse(used[code]);
+				used[code] = true;
+				assertEquals(value, Command.commandValueOf(code));
+				assertEquals(resolution, Command.resolutionOf(code));
+			}
+		}
+
+		Command issueCommand = new Command(CommandValue.RESOLVE, "ownerId", Resolution.DUPLICATE, "Notes");
+		assertEquals(Command.encode(CommandValue.RESOLVE, Resolution.DUPLICATE), issueCommand.getCode());
+
+		assertThrows(IllegalArgumentException.class, () -> Command.encode(null, null));
+		assertThrows(IllegalArgumentException.class, () -> Command.encode(CommandValue.RESOLVE, null));
+		assertThrows(IllegalArgumentException.class, () -> Command.commandValueOf(-1));
+		assertThrows(IllegalArgumentException.class, () -> Command.resolutionOf(Command.CODE_COUNT));
+	}
 }
@@ -0,0 +1,320 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.issue_manager.model.command.Command;
+import edu.ncsu.csc216.issue_manager.model.command.Command.CommandValue;
+import edu.ncsu.csc216.issue_manager.model.command.Command.Resolution;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueType;
+
+/**
+ * Tests the IssueCommandLog class.
+ *
+ * @author Michael Warstler
+ */
+public class IssueCommandLogTest {
+
+	/** Log file used by the tests */
+	private static final String LOG_FILE = "test-files/command_log_test.log";
+	/** Snapshot file that does not exist */
+	private static final String NO_SNAPSHOT = "test-files/no_such_snapshot.txt";
+	/** Issue Owner */
+	private static final String OWNER = "Issue owner";
+	/** Size of the header of a log */
+	private static final long HEADER_SIZE = 32;
+
+	/**
+	 * Replayer that records each record it receives as a string.
+	 */
+	private static class RecordingReplayer implements IssueCommandLog.Replayer {
+
+		/** Records received so far */
+		private ArrayList<String> records = new ArrayList<String>();
+
+		@Override
+		public void add(int id, IssueType issueType, String summary, String note) {
+			records.add("add " + id + " " + issueType + " " + summary + " " + note);
+		}
+
+		@Override
+		public void delete(int id) {
+			records.add("delete " + id);
+		}
+
+		/** Owner of each executed command */
+		private ArrayList<String> owners = new ArrayList<String>();
+
+		@Override
+		public void execute(int id, int command, String ownerId, String note) {
+			records.add("execute " + id + " " + Command.commandValueOf(command) + " " + ownerId + " "
+					+ Command.resolutionOf(command) + " " + note);
+			owners.add(ownerId);
+		}
+
+		@Override
+		public void clear() {
+			records.add("clear");
+		}
+	}
+
+	/**
+	 * Test that logged records are replayed in order when the log is reopened.
+	 */
+	@Test
+	public void testReplay() {
+		new File(LOG_FILE).delete();
+		try {
+			RecordingReplayer replayer = new RecordingReplayer();
+			IssueCommandLog log = IssueCommandLog.open(LOG_FILE, NO_SNAPSHOT, replayer);
+			assertEquals(0, replayer.records.size());
+			log.logAdd(1, IssueType.BUG, "summary", "note");
+			log.logExecute(1, new Command(CommandValue.ASSIGN, OWNER, null, "Assigning."));
+			log.logExecute(1, new Command(CommandValue.RESOLVE, null, Resolution.WONTFIX, "Resolving."));
+			log.logDelete(1);
+			log.logClear();
+			log.close();
+
+			RecordingReplayer reopened = new RecordingReplayer();
+			IssueCommandLog.open(LOG_FILE, NO_SNAPSHOT, reopened).close();
+			assertEquals(5, reopened.records.size());
+			assertEquals("add 1 BUG summary note", reopened.records.get(0));
+			assertEquals("execute 1 ASSIGN Issue owner null Assigning.", reopened.records.get(1));
+			assertEquals("execute 1 RESOLVE null WONTFIX Resolving.", reopened.records.get(2));
+			assertEquals("delete 1", reopened.records.get(3));
+			assertEquals("clear", reopened.records.get(4));
+		} finally {
+			new File(LOG_FILE).delete();
+		}
+	}
+
+	/**
+	 * Test that an incomplete last record is dropped and cut from the log.
+	 */
+	@Test
+	public void testTornRecord() throws IOException {
+		new File(LOG_FILE).delete();
+		try {
+			IssueCommandLog log = IssueCommandLog.open(LOG_FILE, NO_SNAPSHOT, new RecordingReplayer());
+			log.logAdd(1, IssueType.ENHANCEMENT, "summary", "note");
+			long size = log.size();
+			log.logDelete(1);
+			log.close();
+
+			// Cut the last record short, as a crash during an append would.
+			try (RandomAccessFile file = new RandomAccessFile(LOG_FILE, "rw")) {
+				file.setLength(file.length() - 2);
+			}
+
+			RecordingReplayer replayer = new RecordingReplayer();
+			log = IssueCommandLog.open(LOG_FILE, NO_SNAPSHOT, replayer);
+			assertEquals(1, replayer.records.size());
+			assertEquals(size, log.size());
+			log.close();
+		} finally {
+			new File(LOG_FILE).delete();
+		}
+	}
+
+	/**
+	 * Test that a log is emptied by a checkpoint and fails to open against a
+	 * different snapshot.
+	 */
+	@Test
+	public void testCheckpoint() throws IOException {
+		new File(LOG_FILE).delete();
+		try {
+			IssueCommandLog log = IssueCommandLog.open(LOG_FILE, NO_SNAPSHOT, new RecordingReplayer());
+			long emptySize = log.size();
+			log.logAdd(1, IssueType.BUG, "summary", "note");
+			String snapshot = "test-files/valid_issue_records.txt";
+			log.checkpoint(snapshot, IssueWriter.checksum(Paths.get(snapshot)));
+			assertEquals(emptySize, log.size());
+			log.logDelete(1);
+			log.close();
+
+			// The log follows valid_issue_records.txt, so its record cannot be applied
+			// here and is not dropped either.
+			RecordingReplayer replayer = new RecordingReplayer();
+			Exception e = assertThrows(IllegalArgumentException.class,
+					() -> IssueCommandLog.open(LOG_FILE, NO_SNAPSHOT, replayer));
+			assertEquals("Unable to load file.", e.getMessage());
+			assertEquals(0, replayer.records.size());
+			assertTrue(new File(LOG_FILE).length() > emptySize);
+		} finally {
+			new File(LOG_FILE).delete();
+		}
+	}
+
+	/**
+	 * Test that the log follows the contents of the snapshot: touching it keeps
+	 * the log, changing it makes the log fail to open, and a change saved after
+	 * beginCheckpoint() starts the log again.
+	 */
+	@Test
+	public void testSnapshotChecksum() throws IOException {
+		String snapshot = "test-files/command_log_checksum.txt";
+		new File(LOG_FILE).delete();
+		try {
+			Files.write(Paths.get(snapshot), "first".getBytes(StandardCharsets.UTF_8));
+			IssueCommandLog log = IssueCommandLog.open(LOG_FILE, snapshot, new RecordingReplayer());
+			log.logDelete(1);
+			log.close();
+
+			// A new modification time alone keeps the records.
+			assertTrue(new File(snapshot).setLastModified(new File(snapshot).lastModified() + 60000));
+			RecordingReplayer touched = new RecordingReplayer();
+			IssueCommandLog.open(LOG_FILE, snapshot, touched).close();
+			assertEquals(1, touched.records.size());
+
+			// Contents of the same size that differ fail loudly. The edit is given a
+			// time of its own, as it would have if it came later than the test does.
+			Files.write(Paths.get(snapshot), "other".getBytes(StandardCharsets.UTF_8));
+			assertTrue(new File(snapshot).setLastModified(new File(snapshot).lastModified() + 60000));
+			assertThrows(IllegalArgumentException.class,
+					() -> IssueCommandLog.open(LOG_FILE, snapshot, new RecordingReplayer()));
+
+			// A snapshot saved after beginCheckpoint() already holds the records.
+			Files.write(Paths.get(snapshot), "first".getBytes(StandardCharsets.UTF_8));
+			log = IssueCommandLog.open(LOG_FILE, snapshot, new RecordingReplayer());
+			log.logDelete(2);
+			log.beginCheckpoint();
+			log.close();
+			Files.write(Paths.get(snapshot), "saved".getBytes(StandardCharsets.UTF_8));
+			RecordingReplayer saved = new RecordingReplayer();
+			log = IssueCommandLog.open(LOG_FILE, snapshot, saved);
+			assertEquals(0, saved.records.size());
+			assertEquals(HEADER_SIZE, log.size());
+			log.close();
+		} finally {
+			new File(LOG_FILE).delete();
+			new File(snapshot).delete();
+		}
+	}
+
+	/**
+	 * Test that a checkpoint takes the checksum the snapshot was saved with rather
+	 * than reading it, and that the checksum is only compared once the snapshot's
+	 * modification time changes.
+	 */
+	@Test
+	public void testRecordedChecksum() throws IOException {
+		String snapshot = "test-files/command_log_recorded.txt";
+		new File(LOG_FILE).delete();
+		try {
+			ArrayList<Issue> issues = new ArrayList<Issue>();
+			issues.add(new Issue(1, IssueType.BUG, "summary", "note"));
+			long checksum = IssueWriter.writeIssuesToFile(snapshot, issues);
+			assertEquals(IssueWriter.checksum(Paths.get(snapshot)), checksum);
+
+			// The header holds whatever checksum it is given, so a wrong one shows the
+			// snapshot is not read while its size and modification time match.
+			IssueCommandLog log = IssueCommandLog.open(LOG_FILE, snapshot, new RecordingReplayer());
+			log.checkpoint(snapshot, checksum + 1);
+			log.logDelete(1);
+			log.close();
+			RecordingReplayer replayer = new RecordingReplayer();
+			IssueCommandLog.open(LOG_FILE, snapshot, replayer).close();
+			assertEquals(1, replayer.records.size());
+
+			// Once touched, the snapshot is read and no longer matches that checksum.
+			assertTrue(new File(snapshot).setLastModified(new File(snapshot).lastModified() + 60000));
+			assertThrows(IllegalArgumentException.class,
+					() -> IssueCommandLog.open(LOG_FILE, snapshot, new RecordingReplayer()));
+		} finally {
+			new File(LOG_FILE).delete();
+			new File(snapshot).delete();
+		}
+	}
+
+	/**
+	 * Test that a log follows a snapshot directory through its manifest, and fails
+	 * to open once a segment changes behind its back.
+	 */
+	@Test
+	public void testDirectorySnapshot() throws IOException {
+		File directory = new File("test-files/command_log_segments");
+		new File(LOG_FILE).delete();
+		try {
+			ArrayList<Issue> issues = new ArrayList<Issue>();
+			issues.add(new Issue(1, IssueType.BUG, "summary", "note"));
+			issues.add(new Issue(IssueWriter.SEGMENT_SIZE + 1, IssueType.BUG, "summary", "note"));
+			IssueWriter.writeIssuesToDirectory(directory.getPath(), issues, null);
+			IssueCommandLog log = IssueCommandLog.open(LOG_FILE, directory.getPath(), new RecordingReplayer());
+			log.logDelete(1);
+			log.close();
+
+			// Touching a segment reads only that segment, which still matches.
+			File segment = new File(directory, "segment-1.txt");
+			assertTrue(segment.setLastModified(segment.lastModified() + 60000));
+			RecordingReplayer replayer = new RecordingReplayer();
+			IssueCommandLog.open(LOG_FILE, directory.getPath(), replayer).close();
+			assertEquals(1, replayer.records.size());
+
+			// A segment rewritten to the same size without the manifest does not match.
+			byte[] contents = Files.readAllBytes(segment.toPath());
+			contents[contents.length - 2] ^= 1;
+			Files.write(segment.toPath(), contents);
+			assertThrows(IllegalArgumentException.class,
+					() -> IssueCommandLog.open(LOG_FILE, directory.getPath(), new RecordingReplayer()));
+		} finally {
+			new File(LOG_FILE).delete();
+			for (File file : directory.listFiles()) {
+				file.delete();
+			}
+			directory.delete();
+		}
+	}
+
+	/**
+	 * Test that each owner is written once per log and replayed as one shared
+	 * string, across a reopen and after a checkpoint starts the dictionary again.
+	 */
+	@Test
+	public void testOwnerDictionary() {
+		new File(LOG_FILE).delete();
+		try {
+			IssueCommandLog log = IssueCommandLog.open(LOG_FILE, NO_SNAPSHOT, new RecordingReplayer());
+			log.logExecute(1, new Command(CommandValue.ASSIGN, OWNER, null, "Assigning."));
+			long afterFirst = log.size();
+			log.logExecute(2, new Command(CommandValue.ASSIGN, OWNER, null, "Assigning."));
+			// The second record refers to the owner by number only.
+			assertTrue(log.size() - afterFirst < afterFirst - HEADER_SIZE);
+			log.close();
+
+			RecordingReplayer replayer = new RecordingReplayer();
+			log = IssueCommandLog.open(LOG_FILE, NO_SNAPSHOT, replayer);
+			assertEquals(2, replayer.records.size());
+			assertEquals(OWNER, replayer.owners.get(0));
+			assertSame(replayer.owners.get(0), replayer.owners.get(1));
+			log.logExecute(3, Command.encode(CommandValue.ASSIGN, null), OWNER, "Assigning.");
+			log.close();
+
+			RecordingReplayer reopened = new RecordingReplayer();
+			log = IssueCommandLog.open(LOG_FILE, NO_SNAPSHOT, reopened);
+			assertEquals(3, reopened.records.size());
+			assertEquals("execute 3 ASSIGN Issue owner null Assigning.", reopened.records.get(2));
+
+			// A checkpoint empties the dictionary along with the records.
+			log.checkpoint(NO_SNAPSHOT, 0);
+			log.logExecute(4, Command.encode(CommandValue.ASSIGN, null), OWNER, "Assigning.");
+			log.close();
+			RecordingReplayer afterCheckpoint = new RecordingReplayer();
+			IssueCommandLog.open(LOG_FILE, NO_SNAPSHOT, afterCheckpoint).close();
+			assertEquals(1, afterCheckpoint.records.size());
+			assertEquals("execute 4 ASSIGN Issue owner null Assigning.", afterCheckpoint.records.get(0));
+		} finally {
+			new File(LOG_FILE).delete();
+		}
+	}
+}
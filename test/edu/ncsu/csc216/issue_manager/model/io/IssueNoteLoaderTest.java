@@ -0,0 +1,106 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.issue_manager.model.command.Command;
+import edu.ncsu.csc216.issue_manager.model.command.Command.CommandValue;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueType;
+import edu.ncsu.csc216.issue_manager.model.issue.NoteArena;
+
+/**
+ * Tests the IssueNoteLoader class.
+ *
+ * @author Michael Warstler
+ */
+public class IssueNoteLoaderTest {
+
+	/** Binary file used by the tests */
+	private static final String BINARY_FILE = "test-files/lazy_issue_records.bin";
+
+	/**
+	 * Test that issues read lazily have the same notes as issues read eagerly, and
+	 * that no more than the capacity of note lists stay decoded.
+	 */
+	@Test
+	public void testLoadNotes() throws IOException {
+		try {
+			ArrayList<Issue> issues = IssueReader.readIssuesFromFile("test-files/valid_issue_records.txt");
+			IssueWriter.writeIssuesToBinaryFile(BINARY_FILE, issues);
+
+			ArrayList<Issue> lazy = IssueReader.readIssuesFromFileLazily(BINARY_FILE, new IssueStringPool(),
+					new NoteArena(), 2);
+			assertEquals(issues.size(), lazy.size());
+			for (int i = 0; i < issues.size(); i++) {
+				assertEquals(issues.get(i).toString(), lazy.get(i).toString());
+			}
+
+			// Every issue shares one loader, which keeps the last two note lists.
+			IssueNoteLoader loader;
+			lazy = new ArrayList<Issue>();
+			try (FileChannel channel = FileChannel.open(Paths.get(BINARY_FILE), StandardOpenOption.READ)) {
+				loader = new IssueNoteLoader(channel, 2);
+				IssueBinaryFormat.readLazily(channel, lazy::add, new IssueStringPool(), loader);
+			}
+			assertEquals(0, loader.getResidentCount());
+			assertEquals(issues.get(0).getNotes(), lazy.get(0).getNotes());
+			assertEquals(1, loader.getResidentCount());
+			for (Issue issue : lazy) {
+				issue.getNotesString();
+			}
+			assertEquals(2, loader.getResidentCount());
+
+			// A change gives the issue its own notes.
+			lazy.get(0).update(new Command(CommandValue.ASSIGN, "owner", null, "Assigning."));
+			assertEquals(issues.get(0).getNotes().size() + 1, lazy.get(0).getNotes().size());
+
+			// Text files have no note offsets and are read with their notes.
+			ArrayList<Issue> text = IssueReader.readIssuesFromFileLazily("test-files/valid_issue_records.txt",
+					new IssueStringPool(), new NoteArena(), 2);
+			assertEquals(issues.get(4).toString(), text.get(4).toString());
+			assertThrows(IllegalArgumentException.class,
+					() -> IssueReader.readIssuesFromFileLazily(BINARY_FILE, new IssueStringPool(), new NoteArena(), 0));
+		} finally {
+			new File(BINARY_FILE).delete();
+		}
+	}
+
+	/**
+	 * Test that a corrupt negative string length in a mapped record is reported as
+	 * a file that cannot be loaded.
+	 */
+	@Test
+	public void testNegativeStringLength() throws IOException {
+		try {
+			ArrayList<Issue> issues = new ArrayList<Issue>();
+			issues.add(new Issue(1, IssueType.BUG, "abcd", "note"));
+			IssueWriter.writeIssuesToBinaryFile(BINARY_FILE, issues);
+
+			// Replace the summary length and its four bytes with the varint of -1, so
+			// the record keeps its length.
+			byte[] bytes = Files.readAllBytes(Paths.get(BINARY_FILE));
+			int at = new String(bytes, "ISO-8859-1").indexOf("\u0004abcd");
+			byte[] negative = { (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F };
+			System.arraycopy(negative, 0, bytes, at, negative.length);
+			Files.write(Paths.get(BINARY_FILE), bytes);
+
+			Exception e = assertThrows(IllegalArgumentException.class,
+					() -> IssueReader.readIssuesFromFileLazily(BINARY_FILE, new IssueStringPool(), new NoteArena(), 2));
+			assertEquals("Unable to load file.", e.getMessage());
+			e = assertThrows(IllegalArgumentException.class, () -> IssueReader.readIssuesFromFile(BINARY_FILE));
+			assertEquals("Unable to load file.", e.getMessage());
+		} finally {
+			new File(BINARY_FILE).delete();
+		}
+	}
+}
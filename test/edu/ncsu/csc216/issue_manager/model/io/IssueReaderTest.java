@@ -2,11 +2,18 @@ package edu.ncsu.csc216.issue_manager.model.io;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
 import java.util.ArrayList;
+import java.util.concurrent.CancellationException;
 
 import org.junit.jupiter.api.Test;
 
 import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueType;
+import edu.ncsu.csc216.issue_manager.model.issue.NoteArena;
 
 /**
  * Tests the IssueReader class.
@@ -88,7 +95,88 @@ public class IssueReaderTest {
 		}
 	}
 
+	/**
+	 * Test readIssuesFromFile() method that streams each issue to a handler.
+	 */
+	@Test
+	public void testReadIssuesFromFileStreaming() {
+		ArrayList<Issue> streamed = new ArrayList<Issue>();
+		IssueReader.readIssuesFromFile("test-files/valid_issue_records.txt", streamed::add);
+		assertEquals(5, streamed.size());
+		assertEquals(1, streamed.get(0).getIssueId());
+		assertEquals(3, streamed.get(1).getIssueId());
+		assertEquals("-[New] Note 1\n-[Confirmed] Note 2\nthat goes on a new line\n", streamed.get(1).getNotesString());
+		assertEquals(15, streamed.get(4).getIssueId());
+
+		// Issues before an invalid record have already been handed off.
+		ArrayList<Issue> issues = new ArrayList<Issue>();
+		Exception e1 = assertThrows(IllegalArgumentException.class,
+				() -> IssueReader.readIssuesFromFile("test-files/invalid_issue_list.txt", issues::add));
+		assertEquals("Unable to load file.", e1.getMessage());
+		assertEquals(1, issues.size());
+
+		Exception e2 = assertThrows(IllegalArgumentException.class,
+				() -> IssueReader.readIssuesFromFile("test-files/no_such_file.txt", issues::add));
+		assertEquals("Unable to load file.", e2.getMessage());
+	}
+
+	/**
+	 * Test readIssuesFromFileInParallel() method on files small enough for one
+	 * chunk and large enough to be split into several.
+	 */
+	@Test
+	public void testReadIssuesFromFileInParallel() throws IOException {
+		ArrayList<Issue> issues = IssueReader.readIssuesFromFileInParallel("test-files/valid_issue_records.txt");
+		ArrayList<Issue> expected = IssueReader.readIssuesFromFile("test-files/valid_issue_records.txt");
+		assertEquals(expected.size(), issues.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).toString(), issues.get(i).toString());
+		}
+
+		// Write out enough issues to be split into several chunks.
+		File largeFile = new File("test-files/large_issue_records.txt");
+		try {
+			try (PrintStream fileWriter = new PrintStream(largeFile)) {
+				for (int i = 1; i <= 40000; i++) {
+					fileWriter.print("*" + i + ",Working,Bug,Issue description " + i + ",owner,true,\n-[New] Note 1\n"
+							+ "that goes on a new line\n-[Working] Note 2\n");
+				}
+			}
+			assertTrue(largeFile.length() > 3 * 1024 * 1024);
+			ArrayList<Issue> largeIssues = IssueReader.readIssuesFromFileInParallel(largeFile.getPath());
+			assertEquals(40000, largeIssues.size());
+			for (int i = 0; i < largeIssues.size(); i++) {
+				assertEquals(i + 1, largeIssues.get(i).getIssueId());
+				assertEquals(2, largeIssues.get(i).getNotes().size());
+			}
+		} finally {
+			largeFile.delete();
+		}
+
+		Exception e1 = assertThrows(IllegalArgumentException.class,
+				() -> IssueReader.readIssuesFromFileInParallel("test-files/invalid_issue_list.txt"));
+		assertEquals("Unable to load file.", e1.getMessage());
+		Exception e2 = assertThrows(IllegalArgumentException.class,
+				() -> IssueReader.readIssuesFromFileInParallel("test-files/no_such_file.txt"));
+		assertEquals("Unable to load file.", e2.getMessage());
+	}
+
 	
+	/**
+	 * Test that a file written by IssueWriter, which writes a missing owner as
+	 * "null", reads back with the same issues.
+	 */
+	@Test
+	public void testReadIssuesFromWrittenFile() {
+		ArrayList<Issue> issues = IssueReader.readIssuesFromFile("test-files/expected_issue_output.txt");
+		ArrayList<Issue> expected = IssueReader.readIssuesFromFile("test-files/valid_issue_records.txt");
+		assertEquals(expected.size(), issues.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).toString(), issues.get(i).toString());
+		}
+		assertNull(issues.get(0).getOwner());
+	}
+
 	/**
 	 * Test readIssuesFromFile() method with an invalid issue file.
 	 */
@@ -101,5 +189,77 @@ public class IssueReaderTest {
 			assertEquals("Unable to load file.", e2.getMessage());		
 	}
 
+	/**
+	 * Test readIssueFromBinaryFile() finds single issues through the id index and
+	 * rejects files that are not complete binary issue files.
+	 */
+	@Test
+	public void testReadIssueFromBinaryFile() throws IOException {
+		String binaryFile = "test-files/binary_issue_records.bin";
+		try {
+			ArrayList<Issue> issues = IssueReader.readIssuesFromFile("test-files/valid_issue_records.txt");
+			IssueWriter.writeIssuesToBinaryFile(binaryFile, issues);
+			for (Issue issue : issues) {
+				assertEquals(issue.toString(),
+						IssueReader.readIssueFromBinaryFile(binaryFile, issue.getIssueId()).toString());
+			}
+			assertNull(IssueReader.readIssueFromBinaryFile(binaryFile, 2));
+			assertNull(IssueReader.readIssueFromBinaryFile(binaryFile, 16));
+
+			// A text file has no id index.
+			assertThrows(IllegalArgumentException.class,
+					() -> IssueReader.readIssueFromBinaryFile("test-files/valid_issue_records.txt", 1));
+
+			// A binary file cut short has lost its footer.
+			try (RandomAccessFile file = new RandomAccessFile(binaryFile, "rw")) {
+				file.setLength(file.length() - 1);
+			}
+			Exception e = assertThrows(IllegalArgumentException.class,
+					() -> IssueReader.readIssuesFromFile(binaryFile));
+			assertEquals("Unable to load file.", e.getMessage());
+		} finally {
+			new File(binaryFile).delete();
+		}
+	}
+
+	/**
+	 * Test that readIssuesFromFile() reports the bytes read and can be cancelled
+	 * by its listener.
+	 */
+	@Test
+	public void testReadIssuesFromFileWithProgress() {
+		String fileName = "test-files/progress_issue_list.txt";
+		ArrayList<Issue> issues = new ArrayList<Issue>();
+		for (int i = 1; i <= 10000; i++) {
+			issues.add(new Issue(i, IssueType.ENHANCEMENT, "summary " + i, "note"));
+		}
+		try {
+			IssueWriter.writeIssuesToFile(fileName, issues);
+			long size = new File(fileName).length();
+
+			ArrayList<Issue> read = new ArrayList<Issue>();
+			ArrayList<Long> reports = new ArrayList<Long>();
+			IssueReader.readIssuesFromFile(fileName, read::add, new IssueStringPool(), new NoteArena(),
+					(done, total) -> {
+						assertEquals(size, total);
+						reports.add(done);
+					});
+			assertEquals(10000, read.size());
+			assertEquals(3, reports.size());
+			assertTrue(reports.get(0) > 0 && reports.get(0) <= reports.get(1));
+			assertEquals(size, (long) reports.get(2));
+
+			ArrayList<Issue> cancelled = new ArrayList<Issue>();
+			assertThrows(CancellationException.class,
+					() -> IssueReader.readIssuesFromFile(fileName, cancelled::add, new IssueStringPool(),
+							new NoteArena(), (done, total) -> {
+								throw new CancellationException();
+							}));
+			assertEquals(4096, cancelled.size());
+		} finally {
+			new File(fileName).delete();
+		}
+	}
+
 
 }
@@ -0,0 +1,48 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+import edu.ncsu.csc216.issue_manager.model.issue.NoteArena;
+
+/**
+ * Tests the IssueStringPool class.
+ *
+ * @author Michael Warstler
+ */
+public class IssueStringPoolTest {
+
+	/**
+	 * Test intern() method returns the first instance of each value.
+	 */
+	@Test
+	public void testIntern() {
+		IssueStringPool pool = new IssueStringPool();
+		String first = new String("owner");
+		String second = new String("owner");
+		assertSame(first, pool.intern(first));
+		assertEquals(0, pool.getBytesSaved());
+		assertSame(first, pool.intern(second));
+		assertTrue(pool.getBytesSaved() > 0);
+		assertEquals(1, pool.size());
+		assertNull(pool.intern(null));
+	}
+
+	/**
+	 * Test that issues read with a pool share their repeated owners and summaries.
+	 */
+	@Test
+	public void testReadIssuesWithPool() {
+		IssueStringPool pool = new IssueStringPool();
+		ArrayList<Issue> issues = new ArrayList<Issue>();
+		IssueReader.readIssuesFromFile("test-files/valid_issue_records.txt", issues::add, pool, new NoteArena());
+		assertEquals(5, issues.size());
+		assertSame(issues.get(2).getOwner(), issues.get(4).getOwner());
+		assertSame(issues.get(0).getSummary(), issues.get(4).getSummary());
+		assertTrue(pool.getBytesSaved() > 0);
+	}
+}
@@ -5,12 +5,20 @@ import static org.junit.jupiter.api.Assertions.*;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Scanner;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
 
 import org.junit.jupiter.api.Test;
 
 import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueType;
+import edu.ncsu.csc216.issue_manager.model.issue.NoteArena;
 
 /**
  * Tests the IssueWriter class.
@@ -47,6 +55,31 @@ public class IssueWriterTest {
 		checkFiles("test-files/expected_issue_output.txt", "test-files/actual_issue_output.txt");
 	}
 
+	/**
+	 * Test that writeIssuesToFile() replaces an existing file in one step and
+	 * leaves no temporary files behind, and that a failed save leaves nothing.
+	 */
+	@Test
+	public void testWriteIssuesToFileReplacesFile() throws IOException {
+		ArrayList<Issue> issues = IssueReader.readIssuesFromFile("test-files/valid_issue_records.txt");
+		File target = new File("test-files/replaced_issue_output.txt");
+		try {
+			Files.write(target.toPath(), "old contents".getBytes(StandardCharsets.UTF_8));
+			IssueWriter.writeIssuesToFile(target.getPath(), issues);
+			checkFiles("test-files/expected_issue_output.txt", target.getPath());
+
+			String[] leftovers = new File("test-files").list((dir, name) -> name.endsWith(".tmp"));
+			assertEquals(0, leftovers.length);
+		} finally {
+			target.delete();
+		}
+
+		Exception e = assertThrows(IllegalArgumentException.class,
+				() -> IssueWriter.writeIssuesToFile("test-files/no_such_directory/output.txt", issues));
+		assertEquals("Unable to save file.", e.getMessage());
+		assertFalse(new File("test-files/no_such_directory").exists());
+	}
+
 	/**
 	 * Citing method created from ActivityRecordIO in the WolfScheduler project.
 	 * 
@@ -70,4 +103,115 @@ public class IssueWriterTest {
 			fail("Error reading files.");
 		}
 	}
+
+	/**
+	 * Test writeIssuesToDirectory() writes one file per segment and rewrites only
+	 * the segments of dirty ids.
+	 */
+	@Test
+	public void testWriteIssuesToDirectory() throws IOException {
+		String directoryName = "test-files/segment_output";
+		File segment0 = new File(directoryName, "segment-0.txt");
+		File segment1 = new File(directoryName, "segment-1.txt");
+		File segment2 = new File(directoryName, "segment-2.txt");
+		try {
+			ArrayList<Issue> issues = new ArrayList<Issue>();
+			issues.add(new Issue(1, IssueType.BUG, "first", "note"));
+			issues.add(new Issue(IssueWriter.SEGMENT_SIZE + 1, IssueType.ENHANCEMENT, "second", "note"));
+			issues.add(new Issue(2 * IssueWriter.SEGMENT_SIZE + 1, IssueType.BUG, "third", "note"));
+			IssueWriter.writeIssuesToDirectory(directoryName, issues, null);
+			assertTrue(segment0.exists());
+			assertTrue(segment1.exists());
+			assertTrue(segment2.exists());
+
+			// Only segment 1 is dirty, so the missing segment 0 is not written again.
+			segment0.delete();
+			issues.remove(1);
+			BitSet dirtyIds = new BitSet();
+			dirtyIds.set(IssueWriter.SEGMENT_SIZE + 1);
+			IssueWriter.writeIssuesToDirectory(directoryName, issues, dirtyIds);
+			assertFalse(segment0.exists());
+			assertFalse(segment1.exists());
+			assertTrue(segment2.exists());
+			// The manifest lists only the segment files that are left.
+			TreeMap<Integer, long[]> manifest = IssueWriter.readManifest(Paths.get(directoryName), null);
+			assertEquals(1, manifest.size());
+			assertEquals(segment2.length(), manifest.get(2)[0]);
+			assertEquals(IssueWriter.checksum(segment2.toPath()), manifest.get(2)[2]);
+
+			// A full write brings back every segment with issues.
+			IssueWriter.writeIssuesToDirectory(directoryName, issues, null);
+			ArrayList<Issue> read = IssueReader.readIssuesFromDirectory(directoryName, new IssueStringPool(),
+					new NoteArena());
+			assertEquals(2, read.size());
+			assertEquals(issues.get(0).toString(), read.get(0).toString());
+			assertEquals(issues.get(1).toString(), read.get(1).toString());
+		} finally {
+			segment0.delete();
+			segment1.delete();
+			segment2.delete();
+			new File(directoryName, IssueWriter.MANIFEST_NAME).delete();
+			new File(directoryName).delete();
+		}
+	}
+
+	/**
+	 * Test writeIssuesToBinaryFile() writes a file that reads back to the same
+	 * issues and converts back to the same text file.
+	 */
+	@Test
+	public void testWriteIssuesToBinaryFile() {
+		String binaryFile = "test-files/binary_issue_output.bin";
+		String textFile = "test-files/binary_issue_output.txt";
+		try {
+			ArrayList<Issue> issues = IssueReader.readIssuesFromFile("test-files/valid_issue_records.txt");
+			IssueWriter.writeIssuesToBinaryFile(binaryFile, issues);
+
+			ArrayList<Issue> read = IssueReader.readIssuesFromFile(binaryFile);
+			ArrayList<Issue> readInParallel = IssueReader.readIssuesFromFileInParallel(binaryFile);
+			assertEquals(issues.size(), read.size());
+			assertEquals(issues.size(), readInParallel.size());
+			for (int i = 0; i < issues.size(); i++) {
+				assertEquals(issues.get(i).toString(), read.get(i).toString());
+				assertEquals(issues.get(i).toString(), readInParallel.get(i).toString());
+			}
+
+			IssueWriter.writeIssuesToFile(textFile, read);
+			checkFiles("test-files/expected_issue_output.txt", textFile);
+		} finally {
+			new File(binaryFile).delete();
+			new File(textFile).delete();
+		}
+	}
+
+	/**
+	 * Test that writeIssuesToFile() reports its progress and that a cancelled
+	 * save leaves the target as it was.
+	 */
+	@Test
+	public void testWriteIssuesToFileWithProgress() throws IOException {
+		ArrayList<Issue> issues = new ArrayList<Issue>();
+		for (int i = 1; i <= 5000; i++) {
+			issues.add(new Issue(i, IssueType.BUG, "summary", "note"));
+		}
+		File target = new File("test-files/progress_issue_output.txt");
+		try {
+			ArrayList<String> reports = new ArrayList<String>();
+			IssueWriter.writeIssuesToFile(target.getPath(), issues, (done, total) -> reports.add(done + "/" + total));
+			assertEquals(2, reports.size());
+			assertEquals("4096/5000", reports.get(0));
+			assertEquals("5000/5000", reports.get(1));
+
+			Files.write(target.toPath(), "old contents".getBytes(StandardCharsets.UTF_8));
+			assertThrows(CancellationException.class, () -> IssueWriter.writeIssuesToFile(target.getPath(), issues,
+					(done, total) -> {
+						throw new CancellationException();
+					}));
+			assertEquals("old contents", new String(Files.readAllBytes(target.toPath()), StandardCharsets.UTF_8));
+			String[] leftovers = new File("test-files").list((dir, name) -> name.endsWith(".tmp"));
+			assertEquals(0, leftovers.length);
+		} finally {
+			target.delete();
+		}
+	}
 }
@@ -7,6 +7,7 @@ import java.util.ArrayList;
 
 import org.junit.jupiter.api.Test;
 
+import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueState;
 import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueType;
 import edu.ncsu.csc216.issue_manager.model.command.Command;
 import edu.ncsu.csc216.issue_manager.model.command.Command.CommandValue;
@@ -143,6 +144,68 @@ public class IssueTest {
 				() -> new Issue(1, VERIFYING_NAME, I_BUG, "summary", "owner", false, "", notesList));
 	}
 
+	/**
+	 * Test Issue constructor that takes IssueState, IssueType, and Resolution
+	 * values.
+	 */
+	@Test
+	public void testEnumConstructor() {
+		ArrayList<String> notes = new ArrayList<String>();
+		notes.add("[New] Note 1");
+		notes.add("[Verifying] Note 2");
+
+		Issue myIssue = new Issue(ID, IssueState.VERIFYING, IssueType.BUG, SUMMARY, OWNER, true, Resolution.FIXED,
+				notes);
+		assertEquals(VERIFYING_NAME, myIssue.getStateName());
+		assertEquals(IssueState.VERIFYING, myIssue.getState());
+		assertEquals(I_BUG, myIssue.getIssueType());
+		assertEquals(IssueType.BUG, myIssue.getIssueTypeValue());
+		assertEquals(R_FIXED, myIssue.getResolution());
+		assertEquals(Resolution.FIXED, myIssue.getResolutionValue());
+		assertEquals(OWNER, myIssue.getOwner());
+
+		// The same checks as the string constructor apply.
+		assertThrows(IllegalArgumentException.class, () -> new Issue(ID, IssueState.VERIFYING, IssueType.BUG, SUMMARY,
+				OWNER, true, Resolution.WONTFIX, notes));
+		assertThrows(IllegalArgumentException.class, () -> new Issue(ID, IssueState.CLOSED, IssueType.ENHANCEMENT,
+				SUMMARY, OWNER, false, Resolution.WORKSFORME, notes));
+		assertThrows(IllegalArgumentException.class,
+				() -> new Issue(ID, null, IssueType.BUG, SUMMARY, null, false, null, notes));
+		assertThrows(IllegalArgumentException.class,
+				() -> new Issue(ID, IssueState.NEW, null, SUMMARY, null, false, null, notes));
+	}
+
+	/**
+	 * Test Issue constructor that leaves the notes in a NoteLoader, and that the
+	 * issue takes its own notes when a command adds one.
+	 */
+	@Test
+	public void testNoteLoaderConstructor() {
+		int[] loads = new int[1];
+		Issue.NoteLoader noteLoader = handle -> {
+			loads[0]++;
+			ArrayList<String> notes = new ArrayList<String>();
+			notes.add("[New] Note " + handle);
+			return notes;
+		};
+
+		Issue myIssue = new Issue(ID, IssueState.NEW, IssueType.BUG, SUMMARY, null, false, null, noteLoader, 7);
+		assertEquals(0, loads[0]);
+		assertEquals("-[New] Note 7\n", myIssue.getNotesString());
+		assertEquals(1, myIssue.getNotes().size());
+		assertEquals(2, loads[0]);
+
+		myIssue.update(new Command(CommandValue.CONFIRM, null, null, "Confirming."));
+		assertEquals(3, loads[0]);
+		assertEquals("-[New] Note 7\n-[Confirmed] Confirming.\n", myIssue.getNotesString());
+		assertEquals(3, loads[0]);
+
+		assertThrows(IllegalArgumentException.class,
+				() -> new Issue(ID, IssueState.NEW, IssueType.BUG, SUMMARY, null, false, null, null, 7));
+		assertThrows(IllegalArgumentException.class,
+				() -> new Issue(ID, IssueState.WORKING, IssueType.BUG, SUMMARY, null, true, null, noteLoader, 7));
+	}
+
 	/**
 	 * Tests the private setState() method through attempting to create Issues with
 	 * various State parameters.
@@ -405,4 +468,143 @@ public class IssueTest {
 						"-[New] Issue note\n-[Confirmed] Sent to confirmed.\n-[Closed] Resolving issue.\n-[Confirmed] Reopen issue\n",
 						bugIssue.getNotesString()));
 	}
+
+	/**
+	 * Test canUpdate() and getTargetState() agree with update() for every command
+	 * from each state.
+	 */
+	@Test
+	public void testCanUpdate() {
+		Command[] commands = { new Command(CommandValue.ASSIGN, OWNER, null, NOTE),
+				new Command(CommandValue.CONFIRM, null, null, NOTE),
+				new Command(CommandValue.RESOLVE, null, Resolution.FIXED, NOTE),
+				new Command(CommandValue.RESOLVE, null, Resolution.DUPLICATE, NOTE),
+				new Command(CommandValue.RESOLVE, null, Resolution.WONTFIX, NOTE),
+				new Command(CommandValue.RESOLVE, null, Resolution.WORKSFORME, NOTE),
+				new Command(CommandValue.VERIFY, null, null, NOTE), new Command(CommandValue.REOPEN, null, null, NOTE) };
+		ArrayList<String> notes = new ArrayList<String>();
+		notes.add(NOTE);
+		Issue[] issues = { new Issue(ID, IssueType.BUG, SUMMARY, NOTE),
+				new Issue(ID, IssueType.ENHANCEMENT, SUMMARY, NOTE),
+				new Issue(ID, CONFIRMED_NAME, I_BUG, SUMMARY, null, true, null, notes),
+				new Issue(ID, WORKING_NAME, I_BUG, SUMMARY, OWNER, true, null, notes),
+				new Issue(ID, WORKING_NAME, I_ENHANCEMENT, SUMMARY, OWNER, false, null, notes),
+				new Issue(ID, VERIFYING_NAME, I_BUG, SUMMARY, OWNER, true, R_FIXED, notes),
+				new Issue(ID, CLOSED_NAME, I_BUG, SUMMARY, null, true, R_DUPLICATE, notes),
+				new Issue(ID, CLOSED_NAME, I_BUG, SUMMARY, OWNER, true, R_WONTFIX, notes),
+				new Issue(ID, CLOSED_NAME, I_ENHANCEMENT, SUMMARY, OWNER, false, R_WONTFIX, notes),
+				new Issue(ID, CLOSED_NAME, I_ENHANCEMENT, SUMMARY, null, false, R_WONTFIX, notes) };
+		int valid = 0;
+		for (Issue issue : issues) {
+			for (Command command : commands) {
+				Issue copy = new Issue(ID, issue.getStateName(), issue.getIssueType(), SUMMARY, issue.getOwner(),
+						issue.isConfirmed(), issue.getResolution(), notes);
+				IssueState target = copy.getTargetState(command);
+				assertEquals(target != null, copy.canUpdate(command));
+				if (target == null) {
+					assertThrows(UnsupportedOperationException.class, () -> copy.update(command));
+				} else {
+					copy.update(command);
+					assertEquals(target, copy.getState());
+					valid++;
+				}
+			}
+		}
+		assertEquals(22, valid);
+		assertFalse(issues[0].canUpdate(null));
+
+		// A closed bug that was confirmed reopens to Confirmed without an owner and to
+		// Working with one. An enhancement without an owner goes back to New.
+		assertEquals(IssueState.CONFIRMED, issues[6].getTargetState(commands[7]));
+		assertEquals(IssueState.WORKING, issues[7].getTargetState(commands[7]));
+		assertEquals(IssueState.WORKING, issues[8].getTargetState(commands[7]));
+		assertEquals(IssueState.NEW, issues[9].getTargetState(commands[7]));
+	}
+
+	/**
+	 * Test update() with a command code, owner, and note, which must behave like
+	 * update() with the same Command.
+	 */
+	@Test
+	public void testUpdateWithCode() {
+		int assign = Command.encode(CommandValue.ASSIGN, null);
+		int resolveFixed = Command.encode(CommandValue.RESOLVE, Resolution.FIXED);
+
+		Issue issue = new Issue(ID, IssueType.ENHANCEMENT, SUMMARY, NOTE);
+		assertFalse(issue.canUpdate(resolveFixed));
+		assertFalse(issue.canUpdate(-1));
+		assertFalse(issue.canUpdate(Command.CODE_COUNT));
+		Exception e1 = assertThrows(UnsupportedOperationException.class, () -> issue.update(resolveFixed, null, NOTE));
+		assertEquals("Invalid information.", e1.getMessage());
+
+		// Missing owner or note is rejected before the issue changes.
+		assertThrows(IllegalArgumentException.class, () -> issue.update(assign, null, NOTE));
+		assertThrows(IllegalArgumentException.class, () -> issue.update(assign, OWNER, ""));
+		assertThrows(IllegalArgumentException.class, () -> issue.update(Command.CODE_COUNT, OWNER, NOTE));
+		assertEquals(NEW_NAME, issue.getStateName());
+
+		assertTrue(issue.canUpdate(assign));
+		issue.update(assign, OWNER, "Assigning user to issue.");
+		issue.update(resolveFixed, null, "Sent to verifying.");
+		assertAll("Issue transitions from New to Working to Verifying",
+				() -> assertEquals(OWNER, issue.getOwner(), "incorrect owner"),
+				() -> assertEquals(VERIFYING_NAME, issue.getStateName(), "incorrect state name"),
+				() -> assertEquals(R_FIXED, issue.getResolution(), "incorrect resolution"),
+				() -> assertEquals(
+						"-[New] Issue note\n-[Working] Assigning user to issue.\n-[Verifying] Sent to verifying.\n",
+						issue.getNotesString()));
+	}
+
+	/**
+	 * Test that notes kept in the note arena read back exactly as they were given,
+	 * with or without a state prefix, and keep the state they were added in.
+	 */
+	@Test
+	public void testNotesInArena() {
+		ArrayList<String> notes = new ArrayList<String>();
+		notes.add("[New] Note 1\nthat goes on a new line");
+		notes.add("Note without a state");
+		notes.add("[Unknown] Note with an unknown state");
+		notes.add("[Confirmed] Caf\u00e9 \u2713");
+		Issue issue = new Issue(ID, CONFIRMED_NAME, I_BUG, SUMMARY, null, true, null, notes);
+		assertEquals(notes, issue.getNotes());
+		assertEquals(4, issue.getNoteCount());
+
+		issue.update(new Command(CommandValue.ASSIGN, OWNER, null, "Assigning."));
+		assertEquals(5, issue.getNoteCount());
+		assertEquals("[Working] Assigning.", issue.getNotes().get(4));
+		assertEquals("-[New] Note 1\nthat goes on a new line\n-Note without a state\n"
+				+ "-[Unknown] Note with an unknown state\n-[Confirmed] Caf\u00e9 \u2713\n-[Working] Assigning.\n",
+				issue.getNotesString());
+
+		// Changing the returned list does not change the issue.
+		issue.getNotes().clear();
+		assertEquals(5, issue.getNoteCount());
+	}
+
+	/**
+	 * Test that issues made outside a list share the staging arena, and that
+	 * moving their notes to another arena keeps them readable and moves later
+	 * notes too.
+	 */
+	@Test
+	public void testStagingAndMoveNotes() {
+		Issue first = new Issue(ID, IssueType.ENHANCEMENT, SUMMARY, NOTE);
+		Issue second = new Issue(ID + 1, IssueType.BUG, SUMMARY, NOTE);
+		assertTrue(first.getNoteArena().isStaging());
+		assertSame(first.getNoteArena(), second.getNoteArena());
+
+		NoteArena arena = new NoteArena();
+		assertFalse(arena.isStaging());
+		first.moveNotesTo(arena);
+		assertSame(arena, first.getNoteArena());
+		assertEquals("-[New] " + NOTE + "\n", first.getNotesString());
+		first.update(new Command(CommandValue.ASSIGN, OWNER, null, "Assigning."));
+		assertEquals(2, first.getNoteCount());
+		assertEquals("[Working] Assigning.", first.getNotes().get(1));
+		assertSame(arena, first.getNoteArena());
+
+		// The other issue keeps its notes in the staging arena.
+		assertEquals("-[New] " + NOTE + "\n", second.getNotesString());
+	}
 }
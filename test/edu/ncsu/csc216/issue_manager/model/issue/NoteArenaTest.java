@@ -0,0 +1,106 @@
+package edu.ncsu.csc216.issue_manager.model.issue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the NoteArena class.
+ * 
+ * @author Michael Warstler
+ */
+public class NoteArenaTest {
+
+	/**
+	 * Test that appended notes read back the same, across chunk boundaries and for
+	 * notes larger than a chunk.
+	 */
+	@Test
+	public void testAppend() {
+		NoteArena arena = new NoteArena();
+		assertEquals(0, arena.size());
+		long first = arena.append("Note 1");
+		long unicode = arena.append("Caf\u00e9 \u2713");
+		assertEquals("Note 1", arena.getString(first));
+		assertEquals("Caf\u00e9 \u2713", arena.getString(unicode));
+		assertEquals(4 + 6 + 4 + 9, arena.size());
+		assertEquals("Note 1", arena.getString(arena.append("[New] Note 1", 6)));
+
+		StringBuilder builder = new StringBuilder("-");
+		arena.appendTo(builder, first);
+		arena.appendTo(builder, unicode);
+		assertEquals("-Note 1Caf\u00e9 \u2713", builder.toString());
+
+		// Fill past the first chunk so notes start in later chunks.
+		long[] addresses = new long[3000];
+		for (int i = 0; i < addresses.length; i++) {
+			addresses[i] = arena.append("Note number " + i + " with some padding to fill the chunk" + "x".repeat(300));
+		}
+		assertTrue(arena.size() > NoteArena.CHUNK_SIZE);
+		for (int i = 0; i < addresses.length; i++) {
+			assertEquals("Note number " + i + " with some padding to fill the chunk" + "x".repeat(300),
+					arena.getString(addresses[i]));
+		}
+
+		// A note larger than a chunk gets a chunk of its own.
+		String large = "y".repeat(NoteArena.CHUNK_SIZE + 10);
+		long largeAddress = arena.append(large);
+		long after = arena.append("after");
+		assertEquals(large, arena.getString(largeAddress));
+		assertEquals("after", arena.getString(after));
+		assertEquals("Note 1", arena.getString(first));
+
+		assertThrows(IllegalArgumentException.class, () -> new NoteArena().getString(0));
+	}
+
+	/**
+	 * Test that notes copied from another arena read back the same, and that
+	 * released notes are counted but stay readable.
+	 */
+	@Test
+	public void testCopyAndRelease() {
+		NoteArena source = new NoteArena();
+		long ascii = source.append("Note 1");
+		long unicode = source.append("Caf\u00e9 \u2713");
+
+		NoteArena target = new NoteArena();
+		long copied = target.appendCopy(source, unicode);
+		assertEquals("Caf\u00e9 \u2713", target.getString(copied));
+		assertEquals(4 + 9, target.size());
+		assertThrows(IllegalArgumentException.class, () -> target.appendCopy(new NoteArena(), ascii));
+
+		assertEquals(0, source.getReleasedSize());
+		source.release(ascii);
+		assertEquals(4 + 6, source.getReleasedSize());
+		assertEquals("Note 1", source.getString(ascii));
+	}
+
+	/**
+	 * Test that threads appending at the same time each get their notes back.
+	 */
+	@Test
+	public void testConcurrentAppend() throws InterruptedException {
+		NoteArena arena = new NoteArena();
+		int threadCount = 4;
+		int perThread = 5000;
+		long[][] addresses = new long[threadCount][perThread];
+		Thread[] threads = new Thread[threadCount];
+		for (int t = 0; t < threadCount; t++) {
+			int thread = t;
+			threads[t] = new Thread(() -> {
+				for (int i = 0; i < perThread; i++) {
+					addresses[thread][i] = arena.append("Thread " + thread + " note " + i);
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		for (int t = 0; t < threadCount; t++) {
+			for (int i = 0; i < perThread; i++) {
+				assertEquals("Thread " + t + " note " + i, arena.getString(addresses[t][i]));
+			}
+		}
+	}
+}
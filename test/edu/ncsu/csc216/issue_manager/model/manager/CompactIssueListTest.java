@@ -0,0 +1,211 @@
+package edu.ncsu.csc216.issue_manager.model.manager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.issue_manager.model.command.Command;
+import edu.ncsu.csc216.issue_manager.model.command.Command.CommandValue;
+import edu.ncsu.csc216.issue_manager.model.command.Command.Resolution;
+import edu.ncsu.csc216.issue_manager.model.io.IssueReader;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueType;
+import edu.ncsu.csc216.issue_manager.model.issue.NoteArena;
+
+/**
+ * Tests the CompactIssueList class.
+ *
+ * @author Michael Warstler
+ */
+public class CompactIssueListTest {
+
+	/** Constant string for "Enhancement" issue type */
+	private static final String I_ENHANCEMENT = "Enhancement";
+	/** Constant string for "Bug" issue type */
+	private static final String I_BUG = "Bug";
+	/** Constant string for the working state's name */
+	private static final String WORKING_NAME = "Working";
+	/** Constant string for the closed state's name */
+	private static final String CLOSED_NAME = "Closed";
+	/** Issue Owner */
+	private static final String OWNER = "Issue owner";
+
+	/**
+	 * Test that issues read from a file come back out of the columns unchanged.
+	 */
+	@Test
+	public void testAddIssues() {
+		ArrayList<Issue> issues = IssueReader.readIssuesFromFile("test-files/valid_issue_records.txt");
+		CompactIssueList compactList = new CompactIssueList();
+		compactList.addIssues(issues);
+		assertEquals(5, compactList.size());
+
+		ArrayList<Issue> stored = compactList.getIssues();
+		for (int i = 0; i < issues.size(); i++) {
+			assertEquals(issues.get(i).toString(), stored.get(i).toString());
+		}
+		assertEquals(issues.get(4).toString(), compactList.getIssueById(15).toString());
+		assertNull(compactList.getIssueById(2));
+
+		// Counter continues from the largest id.
+		assertEquals(16, compactList.addIssue(IssueType.BUG, "summary", "note"));
+	}
+
+	/**
+	 * Test getIssueListAsArray() and getIssueListAsArrayByIssueType() methods.
+	 */
+	@Test
+	public void testGetIssueListAsArray() {
+		CompactIssueList compactList = new CompactIssueList();
+		compactList.addIssue(IssueType.BUG, "bug summary", "note"); // id 1
+		compactList.addIssue(IssueType.ENHANCEMENT, "enhancement summary", "note"); // id 2
+		compactList.addIssue(IssueType.BUG, "bug summary", "note"); // id 3
+
+		Object[][] all = compactList.getIssueListAsArray();
+		assertEquals(3, all.length);
+		assertEquals(2, all[1][0]);
+		assertEquals("New", all[1][1]);
+		assertEquals(I_ENHANCEMENT, all[1][2]);
+		assertEquals("enhancement summary", all[1][3]);
+
+		Object[][] bugs = compactList.getIssueListAsArrayByIssueType(I_BUG);
+		assertEquals(2, bugs.length);
+		assertEquals(1, bugs[0][0]);
+		assertEquals(3, bugs[1][0]);
+		assertEquals(1, compactList.getIssuesByType(I_ENHANCEMENT).size());
+		assertEquals(0, compactList.getIssueListAsArrayByIssueType("Task").length);
+		assertThrows(IllegalArgumentException.class, () -> compactList.getIssueListAsArrayByIssueType(null));
+	}
+
+	/**
+	 * Test executeCommand() and deleteIssueById() methods write back to the
+	 * columns.
+	 */
+	@Test
+	public void testExecuteCommandAndDelete() {
+		CompactIssueList compactList = new CompactIssueList();
+		compactList.addIssue(IssueType.ENHANCEMENT, "summary", "note"); // id 1
+		compactList.addIssue(IssueType.BUG, "summary", "note"); // id 2
+
+		compactList.executeCommand(1, new Command(CommandValue.ASSIGN, OWNER, null, "Assigning."));
+		Issue assigned = compactList.getIssueById(1);
+		assertEquals(WORKING_NAME, assigned.getStateName());
+		assertEquals(OWNER, assigned.getOwner());
+		assertEquals("-[New] note\n-[Working] Assigning.\n", assigned.getNotesString());
+
+		compactList.executeCommand(1, new Command(CommandValue.RESOLVE, null, Resolution.WONTFIX, "Resolving."));
+		assertEquals(CLOSED_NAME, compactList.getIssueById(1).getStateName());
+		assertEquals(Command.R_WONTFIX, compactList.getIssueById(1).getResolution());
+
+		// Invalid commands leave the row unchanged.
+		assertThrows(UnsupportedOperationException.class,
+				() -> compactList.executeCommand(2, new Command(CommandValue.VERIFY, null, null, "Verifying.")));
+		assertEquals("New", compactList.getIssueById(2).getStateName());
+
+		compactList.deleteIssueById(2);
+		assertEquals(1, compactList.size());
+		assertNull(compactList.getIssueById(2));
+		assertEquals(2, compactList.addIssue(IssueType.BUG, "summary", "note"));
+	}
+
+	/**
+	 * Test that summaries and owners are released once no issue uses them.
+	 */
+	@Test
+	public void testReleaseStrings() {
+		CompactIssueList compactList = new CompactIssueList();
+		compactList.addIssue(IssueType.ENHANCEMENT, "shared summary", "note"); // id 1
+		compactList.addIssue(IssueType.ENHANCEMENT, "shared summary", "note"); // id 2
+		compactList.addIssue(IssueType.ENHANCEMENT, "other summary", "note"); // id 3
+		assertEquals(2, compactList.getStringCount());
+
+		compactList.executeCommand(1, new Command(CommandValue.ASSIGN, OWNER, null, "Assigning."));
+		compactList.executeCommand(2, new Command(CommandValue.ASSIGN, OWNER, null, "Assigning."));
+		assertEquals(3, compactList.getStringCount());
+
+		// Commands that keep the owner do not count it again.
+		compactList.executeCommand(1, new Command(CommandValue.RESOLVE, null, Resolution.WONTFIX, "Resolving."));
+		compactList.executeCommand(1, new Command(CommandValue.REOPEN, null, null, "Reopening."));
+		assertEquals(OWNER, compactList.getIssueById(1).getOwner());
+
+		// Shared strings stay until the last issue using them is deleted.
+		compactList.deleteIssueById(2);
+		assertEquals(3, compactList.getStringCount());
+		assertEquals(OWNER, compactList.getIssueById(1).getOwner());
+		assertEquals("shared summary", compactList.getIssueById(1).getSummary());
+		compactList.deleteIssueById(1);
+		assertEquals(1, compactList.getStringCount());
+
+		// A released reference is reused by the next new string.
+		assertEquals(4, compactList.addIssue(IssueType.BUG, "new summary", "note"));
+		assertEquals(2, compactList.getStringCount());
+		assertEquals("new summary", compactList.getIssueById(4).getSummary());
+		assertEquals("other summary", compactList.getIssueListAsArray()[0][3]);
+	}
+
+	/**
+	 * Test that notes are kept in the list's arena and read through the issues'
+	 * loaders, and that the arena is compacted as issues are deleted.
+	 */
+	@Test
+	public void testNotes() {
+		CompactIssueList compactList = new CompactIssueList();
+		for (int i = 0; i < 10; i++) {
+			compactList.addIssue(IssueType.ENHANCEMENT, "summary", "note " + i);
+		}
+		compactList.executeCommand(4, new Command(CommandValue.ASSIGN, OWNER, null, "Assigning."));
+		assertEquals("-[New] note 3\n-[Working] Assigning.\n", compactList.getIssueById(4).getNotesString());
+
+		// An issue read from the list does not add notes to it.
+		Issue copy = compactList.getIssueById(5);
+		copy.update(new Command(CommandValue.ASSIGN, OWNER, null, "Not stored."));
+		assertEquals("-[New] note 4\n", compactList.getIssueById(5).getNotesString());
+
+		long arenaSize = compactList.getNoteArena().size();
+		for (int id = 1; id <= 8; id++) {
+			compactList.deleteIssueById(id);
+		}
+		assertTrue(compactList.getNoteArena().size() < arenaSize);
+		assertTrue(compactList.getNoteArena().getReleasedSize() <= compactList.getNoteArena().size() / 2);
+		assertEquals("-[New] note 8\n", compactList.getIssueById(9).getNotesString());
+		assertEquals("-[New] note 9\n", compactList.getIssueById(10).getNotesString());
+
+		// Freed note indexes are reused.
+		compactList.executeCommand(9, new Command(CommandValue.ASSIGN, OWNER, null, "Assigning."));
+		assertEquals("-[New] note 8\n-[Working] Assigning.\n", compactList.getIssueById(9).getNotesString());
+
+		ArrayList<Issue> copies = compactList.copyIssues(new NoteArena());
+		compactList.clear();
+		assertEquals(0, compactList.size());
+		assertEquals("-[New] note 8\n-[Working] Assigning.\n", copies.get(0).getNotesString());
+		assertEquals(1, compactList.addIssue(IssueType.BUG, "summary", "note"));
+	}
+
+	/**
+	 * Test that issues read from the list can be added back to it.
+	 */
+	@Test
+	public void testAddIssuesFromSameList() {
+		CompactIssueList compactList = new CompactIssueList();
+		compactList.addIssue(IssueType.ENHANCEMENT, "summary", "note"); // id 1
+		compactList.addIssue(IssueType.BUG, "summary", "note"); // id 2
+		compactList.executeCommand(1, new Command(CommandValue.ASSIGN, OWNER, null, "Assigning."));
+
+		compactList.addIssues(compactList.getIssues());
+		assertEquals(2, compactList.size());
+		assertEquals(OWNER, compactList.getIssueById(1).getOwner());
+		assertEquals("-[New] note\n-[Working] Assigning.\n", compactList.getIssueById(1).getNotesString());
+		assertEquals(2, compactList.getStringCount());
+
+		BatchResult result = compactList.executeCommands(new int[] { 2, 1, 3 },
+				new Command[] { new Command(CommandValue.CONFIRM, null, null, "Confirming."),
+						new Command(CommandValue.ASSIGN, OWNER, null, "Again."),
+						new Command(CommandValue.CONFIRM, null, null, "Missing.") });
+		assertTrue(result.isSuccess(0));
+		assertFalse(result.isSuccess(1));
+		assertFalse(result.isSuccess(2));
+		assertTrue(compactList.getIssueById(2).isConfirmed());
+	}
+}
@@ -0,0 +1,67 @@
+package edu.ncsu.csc216.issue_manager.model.manager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueType;
+
+/**
+ * Tests the IssueIdIndex class.
+ *
+ * @author Michael Warstler
+ */
+public class IssueIdIndexTest {
+
+	/**
+	 * Test put() and get() methods, including growing past the initial capacity.
+	 */
+	@Test
+	public void testPutAndGet() {
+		IssueIdIndex index = new IssueIdIndex();
+		assertNull(index.get(1));
+
+		for (int i = 1; i <= 1000; i++) {
+			index.put(new Issue(i, IssueType.BUG, "summary", "note"));
+		}
+		assertEquals(1000, index.size());
+		for (int i = 1; i <= 1000; i++) {
+			assertEquals(i, index.get(i).getIssueId());
+		}
+		assertNull(index.get(1001));
+
+		// Putting an issue with an existing id replaces it.
+		Issue replacement = new Issue(500, IssueType.ENHANCEMENT, "replacement", "note");
+		index.put(replacement);
+		assertEquals(1000, index.size());
+		assertSame(replacement, index.get(500));
+	}
+
+	/**
+	 * Test remove() method keeps every other issue reachable.
+	 */
+	@Test
+	public void testRemove() {
+		IssueIdIndex index = new IssueIdIndex(100);
+		for (int i = 1; i <= 100; i++) {
+			index.put(new Issue(i, IssueType.BUG, "summary", "note"));
+		}
+
+		// Remove every third issue.
+		for (int i = 3; i <= 100; i += 3) {
+			assertEquals(i, index.remove(i).getIssueId());
+		}
+		assertNull(index.remove(3));
+		assertNull(index.remove(200));
+		assertEquals(67, index.size());
+
+		for (int i = 1; i <= 100; i++) {
+			if (i % 3 == 0) {
+				assertNull(index.get(i));
+			} else {
+				assertEquals(i, index.get(i).getIssueId());
+			}
+		}
+	}
+}
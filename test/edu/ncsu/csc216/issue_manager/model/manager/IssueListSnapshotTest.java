@@ -0,0 +1,170 @@
+package edu.ncsu.csc216.issue_manager.model.manager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.issue_manager.model.command.Command;
+import edu.ncsu.csc216.issue_manager.model.command.Command.CommandValue;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueType;
+
+/**
+ * Tests the IssueListSnapshot class.
+ *
+ * @author Michael Warstler
+ */
+public class IssueListSnapshotTest {
+
+	/** Constant string for "Enhancement" issue type */
+	private static final String I_ENHANCEMENT = "Enhancement";
+	/** Constant string for "Bug" issue type */
+	private static final String I_BUG = "Bug";
+	/** Constant string for new state's name */
+	private static final String NEW_NAME = "New";
+	/** Constant string for the confirmed state's name */
+	private static final String CONFIRMED_NAME = "Confirmed";
+
+	/**
+	 * Test that a snapshot holds one row per issue in id order.
+	 */
+	@Test
+	public void testOf() {
+		IssueList issueList = new IssueList();
+		issueList.addIssue(IssueType.BUG, "summary 1", "note");
+		issueList.addIssue(IssueType.ENHANCEMENT, "summary 2", "note");
+		IssueListSnapshot snapshot = IssueListSnapshot.of(3, issueList.getIssues());
+
+		assertEquals(3L, snapshot.getVersion());
+		assertEquals(2, snapshot.size());
+		Object[][] rows = snapshot.toArray();
+		assertEquals(2, rows.length);
+		assertEquals(1, rows[0][0]);
+		assertEquals(NEW_NAME, rows[0][1]);
+		assertEquals(I_BUG, rows[0][2]);
+		assertEquals("summary 1", rows[0][3]);
+		assertEquals(I_ENHANCEMENT, rows[1][2]);
+		assertEquals(2, snapshot.getId(1));
+		assertEquals(1, snapshot.toArray(I_BUG).length);
+		assertThrows(IndexOutOfBoundsException.class, () -> snapshot.getRow(2));
+
+		// Rows handed out are copies.
+		rows[0][3] = "changed";
+		assertEquals("summary 1", snapshot.getRow(0)[3]);
+	}
+
+	/**
+	 * Test that changes make new snapshots and leave the old ones as they were,
+	 * across chunk boundaries.
+	 */
+	@Test
+	public void testWithIssue() {
+		IssueList issueList = new IssueList();
+		int count = IssueListSnapshot.CHUNK_SIZE * 2 + 5;
+		for (int i = 0; i < count; i++) {
+			issueList.addIssue(IssueType.BUG, "summary " + (i + 1), "note");
+		}
+		IssueListSnapshot first = IssueListSnapshot.of(1, issueList.getIssues());
+
+		int id = IssueListSnapshot.CHUNK_SIZE + 3;
+		issueList.executeCommand(id, new Command(CommandValue.CONFIRM, null, null, "Confirming a bug."));
+		IssueListSnapshot second = first.withIssue(2, issueList.getIssueById(id));
+		assertEquals(NEW_NAME, first.getRow(first.indexOf(id))[1]);
+		assertEquals(CONFIRMED_NAME, second.getRow(second.indexOf(id))[1]);
+		assertEquals(count, second.size());
+
+		// Added issues go after the last row.
+		int addedId = issueList.addIssue(IssueType.ENHANCEMENT, "added", "note");
+		IssueListSnapshot third = second.withIssue(3, issueList.getIssueById(addedId));
+		assertEquals(count + 1, third.size());
+		assertEquals(addedId, third.getId(count));
+		assertEquals(count, second.size());
+
+		// Removing a row moves the later rows down.
+		IssueListSnapshot fourth = third.withoutIssue(4, 2);
+		assertEquals(count, fourth.size());
+		assertEquals(3, fourth.getId(1));
+		assertEquals(addedId, fourth.getId(count - 1));
+		assertEquals(-2, fourth.indexOf(2));
+		assertEquals(2, third.getId(1));
+	}
+
+	/**
+	 * Test that pages by offset and by id match the same rows of the full arrays,
+	 * for every row and for each issue type, after rows are added and removed.
+	 */
+	@Test
+	public void testGetPage() {
+		IssueList issueList = new IssueList();
+		int count = IssueListSnapshot.CHUNK_SIZE * 3;
+		for (int i = 0; i < count; i++) {
+			// Bugs are rare in the second chunk and missing from the third.
+			boolean bug = i < IssueListSnapshot.CHUNK_SIZE ? i % 2 == 0
+					: i < IssueListSnapshot.CHUNK_SIZE * 2 && i % 100 == 0;
+			issueList.addIssue(bug ? IssueType.BUG : IssueType.ENHANCEMENT, "summary", "note");
+		}
+		IssueListSnapshot snapshot = IssueListSnapshot.of(1, issueList.getIssues());
+		snapshot = snapshot.withoutIssue(2, 5);
+		int id = issueList.addIssue(IssueType.BUG, "added", "note");
+		snapshot = snapshot.withIssue(3, issueList.getIssueById(id));
+
+		for (String issueType : new String[] { null, I_BUG, I_ENHANCEMENT }) {
+			Object[][] all = issueType == null ? snapshot.toArray() : snapshot.toArray(issueType);
+			assertEquals(all.length, snapshot.size(issueType));
+			for (int offset : new int[] { 0, 1, 500, 600, all.length - 3, all.length }) {
+				Object[][] page = snapshot.getPage(issueType, offset, 40);
+				assertEquals(Math.max(0, Math.min(40, all.length - offset)), page.length);
+				for (int i = 0; i < page.length; i++) {
+					assertArrayEquals(all[offset + i], page[i]);
+				}
+				if (offset > 0 && offset <= all.length) {
+					int afterId = (Integer) all[offset - 1][0];
+					assertArrayEquals(page, snapshot.getPageAfter(issueType, afterId, 40));
+				}
+			}
+		}
+		// Positions among the rows of each type.
+		Object[][] bugs = snapshot.toArray(I_BUG);
+		for (int i : new int[] { 0, 511, 512, bugs.length - 1 }) {
+			assertEquals(i, snapshot.indexOf(I_BUG, (Integer) bugs[i][0]));
+		}
+		assertEquals(-2, snapshot.indexOf(I_BUG, 2));
+		assertEquals(-(bugs.length + 1), snapshot.indexOf(I_BUG, id + 1));
+		assertEquals(0, snapshot.indexOf(I_ENHANCEMENT, 2));
+
+		assertEquals(0, snapshot.getPage("Task", 0, 40).length);
+		assertEquals(0, snapshot.size("Task"));
+		IssueListSnapshot last = snapshot;
+		assertThrows(IllegalArgumentException.class, () -> last.getPage(null, -1, 40));
+	}
+
+	/**
+	 * Test that issues appended during a load are added after the last row, and
+	 * that issues out of id order are sorted.
+	 */
+	@Test
+	public void testWithAppended() {
+		ArrayList<Issue> issues = new ArrayList<Issue>();
+		IssueListSnapshot snapshot = IssueListSnapshot.of(1, issues);
+		for (int i = 1; i <= IssueListSnapshot.CHUNK_SIZE + 10; i++) {
+			issues.add(new Issue(i * 2, i % 3 == 0 ? IssueType.BUG : IssueType.ENHANCEMENT, "summary", "note"));
+			if (i % 100 == 0) {
+				snapshot = snapshot.withAppended(snapshot.getVersion() + 1, issues);
+			}
+		}
+		snapshot = snapshot.withAppended(snapshot.getVersion() + 1, issues);
+		assertEquals(issues.size(), snapshot.size());
+		assertEquals(issues.size() * 2, snapshot.getId(issues.size() - 1));
+		assertEquals(issues.size() / 3, snapshot.size(I_BUG));
+		assertEquals(0, snapshot.getChangedId());
+
+		issues.add(new Issue(501, IssueType.BUG, "summary", "note"));
+		IssueListSnapshot sorted = snapshot.withAppended(snapshot.getVersion() + 1, issues);
+		assertEquals(issues.size(), sorted.size());
+		assertEquals(500, sorted.getId(249));
+		assertEquals(501, sorted.getId(250));
+		assertEquals(502, sorted.getId(251));
+	}
+}
@@ -3,6 +3,7 @@ package edu.ncsu.csc216.issue_manager.model.manager;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 
 import org.junit.jupiter.api.Test;
 
@@ -11,6 +12,7 @@ import edu.ncsu.csc216.issue_manager.model.command.Command.CommandValue;
 import edu.ncsu.csc216.issue_manager.model.command.Command.Resolution;
 import edu.ncsu.csc216.issue_manager.model.issue.Issue;
 import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueType;
+import edu.ncsu.csc216.issue_manager.model.issue.NoteArena;
 
 /**
  * Tests the IssueList class.
@@ -25,6 +27,8 @@ public class IssueListTest {
 	private static final String I_BUG = "Bug";
 	/** Constant string for new state's name */
 	private static final String NEW_NAME = "New";
+	/** Constant string for the working state's name */
+	private static final String WORKING_NAME = "Working";
 	/** Constant string for the confirmed state's name */
 	private static final String CONFIRMED_NAME = "Confirmed";
 	/** Constant string for the closed state's name */
@@ -91,6 +95,11 @@ public class IssueListTest {
 		issueList2.addIssues(issues);
 		// Check that only original 3 issues have been added
 		assertEquals(3, issueList2.getIssues().size());
+		// The first issue with a duplicate id is the one kept.
+		assertSame(issue2, issueList2.getIssueById(2));
+		assertSame(issue2, issueList2.getIssues().get(1));
+		// The counter continues from the largest id.
+		assertEquals(4, issueList2.addIssue(IssueType.BUG, "summary", "note"));
 	}
 
 	/**
@@ -122,6 +131,45 @@ public class IssueListTest {
 		assertEquals(3, bugIssues.size());
 	}
 
+	/**
+	 * Test getIssuesByState() and getIssuesByOwner() methods as commands move
+	 * issues between states and owners.
+	 */
+	@Test
+	public void testGetIssuesByStateAndOwner() {
+		IssueList issueList = new IssueList();
+		issueList.addIssue(IssueType.BUG, "summary", "note"); // id 1
+		issueList.addIssue(IssueType.ENHANCEMENT, "summary", "note"); // id 2
+		issueList.addIssue(IssueType.ENHANCEMENT, "summary", "note"); // id 3
+		assertEquals(3, issueList.getIssuesByState(NEW_NAME).size());
+		assertEquals(0, issueList.getIssuesByState(WORKING_NAME).size());
+		assertEquals(0, issueList.getIssuesByOwner(OWNER).size());
+
+		// Assign issue 3, then issue 2, to an owner.
+		issueList.executeCommand(3, new Command(CommandValue.ASSIGN, OWNER, null, "Assigning."));
+		issueList.executeCommand(2, new Command(CommandValue.ASSIGN, OWNER, null, "Assigning."));
+		ArrayList<Issue> working = issueList.getIssuesByState(WORKING_NAME);
+		assertEquals(2, working.size());
+		assertEquals(2, working.get(0).getIssueId());
+		assertEquals(3, working.get(1).getIssueId());
+		assertEquals(1, issueList.getIssuesByState(NEW_NAME).size());
+		assertEquals(2, issueList.getIssuesByOwner(OWNER).size());
+
+		// An invalid command leaves the indexes alone.
+		assertThrows(UnsupportedOperationException.class,
+				() -> issueList.executeCommand(1, new Command(CommandValue.VERIFY, null, null, "Verifying.")));
+		assertEquals(1, issueList.getIssuesByState(NEW_NAME).size());
+
+		// Deleted issues leave every index.
+		issueList.deleteIssueById(2);
+		assertEquals(1, issueList.getIssuesByState(WORKING_NAME).size());
+		assertEquals(1, issueList.getIssuesByOwner(OWNER).size());
+		assertEquals(1, issueList.getIssuesByType(I_ENHANCEMENT).size());
+
+		assertThrows(IllegalArgumentException.class, () -> issueList.getIssuesByState(""));
+		assertThrows(IllegalArgumentException.class, () -> issueList.getIssuesByOwner(null));
+	}
+
 	/**
 	 * Test getIssueById() method.
 	 */
@@ -257,5 +305,217 @@ public class IssueListTest {
 		issueList.deleteIssueById(5);
 		assertNull(issueList.getIssueById(5));
 		assertEquals(2, issueList.getIssues().size());
+
+		// Removing an id that is not in the list does nothing.
+		issueList.deleteIssueById(3);
+		assertEquals(2, issueList.getIssues().size());
+
+		// The next issue added reuses the largest id and can be found.
+		assertEquals(5, issueList.addIssue(IssueType.BUG, "summary", "note"));
+		assertEquals(5, issueList.getIssueById(5).getIssueId());
+		assertEquals(5, issueList.getIssues().get(2).getIssueId());
+	}
+
+	/**
+	 * Test that the list keeps the notes of its issues in its own arena, takes over
+	 * the arena shared by added issues, and moves the remaining notes to a new
+	 * arena once most notes are deleted.
+	 */
+	@Test
+	public void testNoteArena() {
+		NoteArena loaded = new NoteArena();
+		ArrayList<Issue> issues = new ArrayList<Issue>();
+		for (int i = 1; i <= 4; i++) {
+			ArrayList<String> notes = new ArrayList<String>();
+			notes.add("[New] note " + i);
+			issues.add(new Issue(i, Issue.IssueState.NEW, IssueType.ENHANCEMENT, "summary", null, false, null, notes, loaded));
+		}
+		IssueList issueList = new IssueList();
+		issueList.addIssues(issues);
+		assertSame(loaded, issueList.getNoteArena());
+
+		// Issues in the staging arena are moved into a new arena of the list.
+		IssueList mixed = new IssueList();
+		Issue own = new Issue(1, IssueType.BUG, "summary", "own note");
+		ArrayList<Issue> mixedIssues = new ArrayList<Issue>();
+		mixedIssues.add(own);
+		mixedIssues.add(new Issue(2, IssueType.BUG, "summary", "other note"));
+		mixed.addIssues(mixedIssues);
+		assertSame(mixed.getNoteArena(), own.getNoteArena());
+		assertFalse(mixed.getNoteArena().isStaging());
+		assertEquals("-[New] own note\n", own.getNotesString());
+
+		// Added issues use the arena of the list.
+		assertEquals(5, issueList.addIssue(IssueType.ENHANCEMENT, "summary", "note 5"));
+		assertSame(loaded, issueList.getIssueById(5).getNoteArena());
+
+		// Deleting less than half of the notes keeps the arena.
+		issueList.deleteIssueById(2);
+		assertSame(loaded, issueList.getNoteArena());
+		assertTrue(loaded.getReleasedSize() > 0);
+
+		// Deleting more moves the remaining notes to a new arena.
+		issueList.deleteIssueById(3);
+		issueList.deleteIssueById(4);
+		NoteArena compacted = issueList.getNoteArena();
+		assertNotSame(loaded, compacted);
+		assertEquals(0, compacted.getReleasedSize());
+		assertSame(compacted, issueList.getIssueById(1).getNoteArena());
+		assertSame(compacted, issueList.getIssueById(5).getNoteArena());
+		issueList.executeCommand(1, new Command(CommandValue.ASSIGN, OWNER, null, "Assigning."));
+		assertEquals("-[New] note 1\n-[Working] Assigning.\n", issueList.getIssueById(1).getNotesString());
+		assertEquals("-[New] note 5\n", issueList.getIssueById(5).getNotesString());
+		issueList.executeCommand(5, new Command(CommandValue.ASSIGN, OWNER, null, "Later note."));
+		assertEquals("-[New] note 5\n-[Working] Later note.\n", issueList.getIssueById(5).getNotesString());
+	}
+
+	/**
+	 * Test that adding, changing and deleting issues marks their ids dirty.
+	 */
+	@Test
+	public void testDirtyIds() {
+		IssueList issueList = new IssueList();
+		assertNull(issueList.getDirtyIds());
+		issueList.addIssue(IssueType.BUG, "summary", "note"); // id 1
+		issueList.addIssue(IssueType.ENHANCEMENT, "summary", "note"); // id 2
+		issueList.addIssue(IssueType.ENHANCEMENT, "summary", "note"); // id 3
+		issueList.markClean();
+		assertTrue(issueList.getDirtyIds().isEmpty());
+
+		issueList.executeCommand(2, new Command(CommandValue.ASSIGN, OWNER, null, "Assigning."));
+		issueList.deleteIssueById(3);
+		issueList.addIssue(IssueType.BUG, "summary", "note"); // id 3
+		issueList.addIssue(IssueType.BUG, "summary", "note"); // id 4
+		BitSet dirtyIds = issueList.getDirtyIds();
+		assertEquals(3, dirtyIds.cardinality());
+		assertFalse(dirtyIds.get(1));
+		assertTrue(dirtyIds.get(2));
+		assertTrue(dirtyIds.get(3));
+		assertTrue(dirtyIds.get(4));
+
+		// Ids past the first stripe of each index come back as they were marked.
+		for (int id = 5; id <= 200; id++) {
+			issueList.addIssue(IssueType.ENHANCEMENT, "summary", "note");
+		}
+		issueList.markClean();
+		issueList.executeCommand(130, new Command(CommandValue.ASSIGN, OWNER, null, "Assigning."));
+		issueList.executeCommand(66, new Command(CommandValue.ASSIGN, OWNER, null, "Assigning."));
+		dirtyIds = issueList.getDirtyIds();
+		assertEquals(2, dirtyIds.cardinality());
+		assertTrue(dirtyIds.get(66));
+		assertTrue(dirtyIds.get(130));
+		assertEquals(3, issueList.getIssuesByOwner(OWNER).size());
+		assertEquals(66, issueList.getIssuesByOwner(OWNER).get(1).getIssueId());
+
+		// Replacing the list makes every issue dirty.
+		issueList.addIssues(new ArrayList<Issue>());
+		assertNull(issueList.getDirtyIds());
+	}
+
+	/**
+	 * Test that commands run by several threads on different issues keep the state
+	 * and owner indexes consistent.
+	 */
+	@Test
+	public void testConcurrentExecuteCommand() throws InterruptedException {
+		IssueList issueList = new IssueList();
+		int threads = 8;
+		int issuesPerThread = 250;
+		for (int i = 0; i < threads * issuesPerThread; i++) {
+			issueList.addIssue(IssueType.ENHANCEMENT, "summary", "note");
+		}
+		issueList.markClean();
+
+		Thread[] workers = new Thread[threads];
+		for (int t = 0; t < threads; t++) {
+			int first = t * issuesPerThread + 1;
+			workers[t] = new Thread(() -> {
+				for (int id = first; id < first + issuesPerThread; id++) {
+					issueList.executeCommand(id, new Command(CommandValue.ASSIGN, OWNER, null, "Assigning."));
+					issueList.getIssuesByState(WORKING_NAME);
+				}
+			});
+			workers[t].start();
+		}
+		for (Thread worker : workers) {
+			worker.join();
+		}
+
+		assertEquals(threads * issuesPerThread, issueList.getIssuesByState(WORKING_NAME).size());
+		assertEquals(threads * issuesPerThread, issueList.getIssuesByOwner(OWNER).size());
+		assertEquals(0, issueList.getIssuesByState(NEW_NAME).size());
+		assertEquals(threads * issuesPerThread, issueList.getDirtyIds().cardinality());
+	}
+
+	/**
+	 * Test executeCommands() applies a batch in order for each issue, collects the
+	 * failed items, and updates the indexes.
+	 */
+	@Test
+	public void testExecuteCommands() {
+		IssueList issueList = new IssueList();
+		for (int i = 0; i < 100; i++) {
+			issueList.addIssue(i % 2 == 0 ? IssueType.BUG : IssueType.ENHANCEMENT, "summary", "note");
+		}
+		issueList.markClean();
+
+		Command confirm = new Command(CommandValue.CONFIRM, null, null, "Confirming.");
+		Command assign = new Command(CommandValue.ASSIGN, OWNER, null, "Assigning.");
+		Command resolve = new Command(CommandValue.RESOLVE, null, Resolution.WONTFIX, "Resolving.");
+		Command verify = new Command(CommandValue.VERIFY, null, null, "Verifying.");
+		int[] ids = { 99, 1, 3, 200, 1, 2, 50 };
+		Command[] commands = { resolve, confirm, verify, resolve, assign, assign, null };
+		BatchResult result = issueList.executeCommands(ids, commands);
+
+		assertEquals(7, result.size());
+		assertEquals(4, result.getSuccessCount());
+		assertEquals(3, result.getFailureCount());
+		assertTrue(result.isSuccess(0));
+		assertTrue(result.isSuccess(1));
+		assertTrue(result.getFailure(2) instanceof UnsupportedOperationException);
+		assertTrue(result.getFailure(3) instanceof IllegalArgumentException);
+		assertTrue(result.isSuccess(4));
+		assertTrue(result.isSuccess(5));
+		assertTrue(result.getFailure(6) instanceof IllegalArgumentException);
+
+		// Issue 1 was confirmed and then assigned, in the order given.
+		assertEquals(WORKING_NAME, issueList.getIssueById(1).getStateName());
+		assertEquals(WORKING_NAME, issueList.getIssueById(2).getStateName());
+		assertEquals(CLOSED_NAME, issueList.getIssueById(99).getStateName());
+		assertEquals(NEW_NAME, issueList.getIssueById(3).getStateName());
+		assertEquals(2, issueList.getIssuesByState(WORKING_NAME).size());
+		assertEquals(1, issueList.getIssuesByState(CLOSED_NAME).size());
+		assertEquals(2, issueList.getIssuesByOwner(OWNER).size());
+
+		// Only issues with an applied command are dirty.
+		BitSet dirtyIds = issueList.getDirtyIds();
+		assertEquals(3, dirtyIds.cardinality());
+		assertTrue(dirtyIds.get(1));
+		assertTrue(dirtyIds.get(2));
+		assertTrue(dirtyIds.get(99));
+		assertFalse(dirtyIds.get(3));
+		assertFalse(dirtyIds.get(50));
+
+		// Groups rebuilt by the batch stay in id order.
+		ArrayList<Issue> stillNew = issueList.getIssuesByState(NEW_NAME);
+		assertEquals(97, stillNew.size());
+		for (int i = 1; i < stillNew.size(); i++) {
+			assertTrue(stillNew.get(i - 1).getIssueId() < stillNew.get(i).getIssueId());
+		}
+
+		assertThrows(IllegalArgumentException.class, () -> issueList.executeCommands(new int[1], new Command[2]));
+
+		// Failures are codes until their exceptions are asked for, and every failed
+		// item gets its own exception.
+		BatchResult failed = issueList.executeCommands(new int[] { 3, 5 }, new Command[] { verify, verify });
+		assertEquals(2, failed.getFailureCount());
+		assertEquals(BatchResult.INVALID_TRANSITION, failed.getFailureCode(0));
+		assertEquals(BatchResult.SUCCESS, result.getFailureCode(0));
+		assertEquals(BatchResult.INVALID_ID, result.getFailureCode(3));
+		assertEquals(BatchResult.INVALID_COMMAND, result.getFailureCode(6));
+		assertNotSame(failed.getFailure(0), failed.getFailure(1));
+		assertSame(failed.getFailure(0), failed.getFailure(0));
+		assertNull(result.getFailure(0));
+		assertFalse(issueList.getDirtyIds().get(5));
 	}
 }
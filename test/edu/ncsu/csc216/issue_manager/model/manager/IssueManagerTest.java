@@ -6,13 +6,16 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Scanner;
+import java.util.concurrent.CancellationException;
 
 import org.junit.jupiter.api.Test;
 
 import edu.ncsu.csc216.issue_manager.model.command.Command;
 import edu.ncsu.csc216.issue_manager.model.command.Command.CommandValue;
 import edu.ncsu.csc216.issue_manager.model.command.Command.Resolution;
+import edu.ncsu.csc216.issue_manager.model.io.IssueCommandLog;
 import edu.ncsu.csc216.issue_manager.model.io.IssueReader;
+import edu.ncsu.csc216.issue_manager.model.io.IssueWriter;
 import edu.ncsu.csc216.issue_manager.model.issue.Issue;
 import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueType;
 
@@ -31,6 +34,8 @@ public class IssueManagerTest {
 	private static final String NEW_NAME = "New";
 	/** Constant string for the confirmed state's name */
 	private static final String CONFIRMED_NAME = "Confirmed";
+	/** Constant string for the working state's name */
+	private static final String WORKING_NAME = "Working";
 	/** Constant string for the closed state's name */
 	private static final String CLOSED_NAME = "Closed";
 	/** Issue Owner */
@@ -256,4 +261,487 @@ public class IssueManagerTest {
 				() -> assertEquals(R_WONTFIX, issue3.getResolution(), "incorrect resolution"),
 				() -> assertEquals("-[New] note\n-[Closed] Resolving issue.\n", issue3.getNotesString()));
 	}
+
+	/**
+	 * Test the paged views of the issue list.
+	 */
+	@Test
+	public void testGetIssueListPage() {
+		IssueManager issueManager = new IssueManager();
+		issueManager.createNewIssueList();
+		for (int i = 0; i < 10; i++) {
+			issueManager.addIssueToList(i % 2 == 0 ? IssueType.BUG : IssueType.ENHANCEMENT, "summary " + (i + 1), "note");
+		}
+
+		Object[][] page = issueManager.getIssueListPage(2, 3);
+		assertEquals(3, page.length);
+		assertEquals(3, page[0][0]);
+		assertEquals(5, page[2][0]);
+		assertEquals(0, issueManager.getIssueListPage(10, 3).length);
+
+		page = issueManager.getIssueListPageByIssueType(I_BUG, 1, 2);
+		assertEquals(2, page.length);
+		assertEquals(3, page[0][0]);
+		assertEquals(5, page[1][0]);
+
+		page = issueManager.getIssueListPageAfter(8, 5);
+		assertEquals(2, page.length);
+		assertEquals(9, page[0][0]);
+		page = issueManager.getIssueListPageAfterByIssueType(I_ENHANCEMENT, 4, 2);
+		assertEquals(6, page[0][0]);
+		assertEquals(8, page[1][0]);
+
+		assertThrows(IllegalArgumentException.class, () -> issueManager.getIssueListPageByIssueType(null, 0, 1));
+		assertThrows(IllegalArgumentException.class, () -> issueManager.getIssueListPage(0, -1));
+	}
+
+	/**
+	 * Test that a load with a progress listener publishes the issues read so far.
+	 */
+	@Test
+	public void testLoadIssuesFromFileWithProgress() {
+		String fileName = "test-files/manager_progress_issue_list.txt";
+		ArrayList<Issue> issues = new ArrayList<Issue>();
+		for (int i = 1; i <= 10000; i++) {
+			issues.add(new Issue(i, IssueType.BUG, "summary", "note"));
+		}
+		try {
+			IssueWriter.writeIssuesToFile(fileName, issues);
+			IssueManager issueManager = new IssueManager();
+			issueManager.createNewIssueList();
+			issueManager.addIssueToList(IssueType.ENHANCEMENT, "summary", "note");
+
+			ArrayList<Integer> shown = new ArrayList<Integer>();
+			issueManager.loadIssuesFromFile(fileName, (done, total) -> shown.add(issueManager.getSnapshot().size()));
+			assertEquals(3, shown.size());
+			assertEquals(4096, (int) shown.get(0));
+			assertEquals(8192, (int) shown.get(1));
+			assertEquals(10000, issueManager.getIssueListAsArray().length);
+		} finally {
+			new File(fileName).delete();
+		}
+	}
+
+	/**
+	 * Test that a cancelled load leaves the issue list as it was.
+	 */
+	@Test
+	public void testLoadIssuesFromFileCancelled() {
+		String fileName = "test-files/manager_cancelled_issue_list.txt";
+		ArrayList<Issue> issues = new ArrayList<Issue>();
+		for (int i = 1; i <= 5000; i++) {
+			issues.add(new Issue(i, IssueType.BUG, "summary", "note"));
+		}
+		try {
+			IssueWriter.writeIssuesToFile(fileName, issues);
+			IssueManager issueManager = new IssueManager();
+			issueManager.createNewIssueList();
+			issueManager.addIssueToList(IssueType.ENHANCEMENT, "summary", "note");
+
+			assertThrows(CancellationException.class, () -> issueManager.loadIssuesFromFile(fileName, (done, total) -> {
+				throw new CancellationException();
+			}));
+			assertEquals(1, issueManager.getIssueListAsArray().length);
+			assertEquals(I_ENHANCEMENT, issueManager.getIssueById(1).getIssueType());
+		} finally {
+			new File(fileName).delete();
+		}
+	}
+
+	/**
+	 * Test that every change publishes a new snapshot version and that a snapshot
+	 * already read does not change.
+	 */
+	@Test
+	public void testSnapshotVersion() {
+		IssueManager issueManager = new IssueManager();
+		issueManager.createNewIssueList();
+		long emptyVersion = issueManager.getSnapshotVersion();
+		IssueListSnapshot empty = issueManager.getSnapshot();
+
+		issueManager.addIssueToList(IssueType.BUG, "summary", "note");
+		long addedVersion = issueManager.getSnapshotVersion();
+		assertTrue(addedVersion > emptyVersion);
+		assertEquals(0, empty.size());
+		assertEquals(addedVersion, issueManager.getSnapshotVersion());
+
+		IssueListSnapshot added = issueManager.getSnapshot();
+		issueManager.executeCommand(1, new Command(CommandValue.CONFIRM, OWNER, null, "Confirming a bug."));
+		assertTrue(issueManager.getSnapshotVersion() > addedVersion);
+		assertEquals(NEW_NAME, added.getRow(0)[1]);
+		assertEquals(CONFIRMED_NAME, issueManager.getIssueListAsArray()[0][1]);
+
+		// The array is reused until the list changes again.
+		Object[][] rows = issueManager.getIssueListAsArray();
+		assertSame(rows, issueManager.getIssueListAsArray());
+
+		issueManager.deleteIssueById(1);
+		assertEquals(0, issueManager.getIssueListAsArray().length);
+		assertEquals(1, added.size());
+		assertEquals(1, rows.length);
+	}
+
+	/**
+	 * Test that changes logged after loading with a command log are recovered
+	 * without a save, and that saving the snapshot empties the log.
+	 */
+	@Test
+	public void testCommandLogRecovery() {
+		String snapshot = "test-files/command_log_snapshot.txt";
+		String log = "test-files/command_log_snapshot.log";
+		new File(snapshot).delete();
+		new File(log).delete();
+		try {
+			IssueManager issueManager = new IssueManager();
+			issueManager.loadIssuesFromFile(snapshot, log);
+			issueManager.addIssueToList(IssueType.BUG, "summary", "note"); // id 1
+			issueManager.addIssueToList(IssueType.ENHANCEMENT, "summary", "note"); // id 2
+			issueManager.addIssueToList(IssueType.ENHANCEMENT, "summary", "note"); // id 3
+			issueManager.saveIssuesToFile(snapshot);
+			assertEquals(32, new File(log).length());
+
+			// Changes after the save are only in the log.
+			issueManager.executeCommand(1, new Command(CommandValue.CONFIRM, null, null, "Confirming a bug."));
+			issueManager.deleteIssueById(2);
+			issueManager.executeCommand(3,
+					new Command(CommandValue.RESOLVE, null, Resolution.WONTFIX, "Resolving issue."));
+			issueManager.addIssueToList(IssueType.BUG, "new summary", "new note"); // id 4
+			issueManager.closeCommandLog();
+
+			IssueManager recovered = new IssueManager();
+			recovered.loadIssuesFromFile(snapshot, log);
+			Object[][] issueListArray = recovered.getIssueListAsArray();
+			assertEquals(3, issueListArray.length);
+			assertEquals(CONFIRMED_NAME, recovered.getIssueById(1).getStateName());
+			assertNull(recovered.getIssueById(2));
+			assertEquals(CLOSED_NAME, recovered.getIssueById(3).getStateName());
+			assertEquals(R_WONTFIX, recovered.getIssueById(3).getResolution());
+			assertEquals("new summary", recovered.getIssueById(4).getSummary());
+			assertEquals(issueManager.getIssueById(3).toString(), recovered.getIssueById(3).toString());
+			recovered.closeCommandLog();
+		} finally {
+			new File(snapshot).delete();
+			new File(log).delete();
+		}
+	}
+
+	/**
+	 * Test that a load that fails or is cancelled, or a log that fails part way
+	 * through replay, keeps the command log open, so later changes are still
+	 * recovered.
+	 */
+	@Test
+	public void testFailedLoadKeepsCommandLog() {
+		String snapshot = "test-files/failed_load_snapshot.txt";
+		String log = "test-files/failed_load_snapshot.log";
+		String badLog = "test-files/failed_replay.log";
+		String badSnapshot = "test-files/failed_replay.txt";
+		new File(snapshot).delete();
+		new File(log).delete();
+		new File(badLog).delete();
+		try {
+			// The second record cannot be replayed, as id 1 is already taken.
+			IssueCommandLog bad = IssueCommandLog.open(badLog, badSnapshot, null);
+			bad.logAdd(1, IssueType.BUG, "replayed", "note");
+			bad.logAdd(1, IssueType.BUG, "replayed", "note");
+			bad.close();
+
+			IssueManager issueManager = new IssueManager();
+			issueManager.loadIssuesFromFile(snapshot, log);
+			issueManager.addIssueToList(IssueType.BUG, "summary", "note"); // id 1
+
+			assertThrows(IllegalArgumentException.class,
+					() -> issueManager.loadIssuesFromFile("test-files/invalid_issue_list.txt"));
+			assertThrows(CancellationException.class,
+					() -> issueManager.loadIssuesFromFile("test-files/valid_issue_records.txt", (done, total) -> {
+						throw new CancellationException();
+					}));
+			assertThrows(IllegalArgumentException.class, () -> issueManager.loadIssuesFromFile(badSnapshot, badLog));
+			assertEquals(1, issueManager.getIssueListAsArray().length);
+			assertEquals("summary", issueManager.getIssueById(1).getSummary());
+			issueManager.addIssueToList(IssueType.ENHANCEMENT, "summary", "note"); // id 2
+			issueManager.closeCommandLog();
+
+			IssueManager recovered = new IssueManager();
+			recovered.loadIssuesFromFile(snapshot, log);
+			assertEquals(2, recovered.getIssueListAsArray().length);
+			assertEquals(I_ENHANCEMENT, recovered.getIssueById(2).getIssueType());
+			recovered.closeCommandLog();
+		} finally {
+			new File(snapshot).delete();
+			new File(log).delete();
+			new File(badLog).delete();
+		}
+	}
+
+	/**
+	 * Test that a batch of commands updates the table in one snapshot and is
+	 * recovered from the command log.
+	 */
+	@Test
+	public void testExecuteCommands() {
+		String snapshot = "test-files/batch_snapshot.txt";
+		String log = "test-files/batch_snapshot.log";
+		new File(snapshot).delete();
+		new File(log).delete();
+		try {
+			IssueManager issueManager = new IssueManager();
+			issueManager.loadIssuesFromFile(snapshot, log);
+			issueManager.addIssueToList(IssueType.BUG, "summary", "note"); // id 1
+			issueManager.addIssueToList(IssueType.ENHANCEMENT, "summary", "note"); // id 2
+			issueManager.addIssueToList(IssueType.BUG, "summary", "note"); // id 3
+			long version = issueManager.getSnapshotVersion();
+
+			Command confirm = new Command(CommandValue.CONFIRM, null, null, "Confirming a bug.");
+			Command resolve = new Command(CommandValue.RESOLVE, null, Resolution.WONTFIX, "Resolving issue.");
+			BatchResult result = issueManager.executeCommands(new int[] { 3, 2, 1 },
+					new Command[] { confirm, confirm, resolve });
+			assertEquals(1, result.getFailureCount());
+			assertTrue(result.getFailure(1) instanceof UnsupportedOperationException);
+			assertEquals(version + 1, issueManager.getSnapshotVersion());
+			Object[][] issueListArray = issueManager.getIssueListAsArray();
+			assertEquals(CLOSED_NAME, issueListArray[0][1]);
+			assertEquals(NEW_NAME, issueListArray[1][1]);
+			assertEquals(CONFIRMED_NAME, issueListArray[2][1]);
+			issueManager.closeCommandLog();
+
+			IssueManager recovered = new IssueManager();
+			recovered.loadIssuesFromFile(snapshot, log);
+			assertEquals(CLOSED_NAME, recovered.getIssueById(1).getStateName());
+			assertEquals(NEW_NAME, recovered.getIssueById(2).getStateName());
+			assertEquals(CONFIRMED_NAME, recovered.getIssueById(3).getStateName());
+			recovered.closeCommandLog();
+		} finally {
+			new File(snapshot).delete();
+			new File(log).delete();
+		}
+	}
+
+	/**
+	 * Test that an open mapped issue file follows every change made through the
+	 * manager, and that loading a file stops the file from changing.
+	 */
+	@Test
+	public void testMappedIssueFile() {
+		String mapped = "test-files/manager_mapped_issue_list.bin";
+		new File(mapped).delete();
+		try {
+			IssueManager issueManager = new IssueManager();
+			issueManager.loadIssuesFromFile("test-files/valid_issue_records.txt");
+			issueManager.openMappedIssueFile(mapped);
+			assertEquals(0, issueManager.getIssueListAsArray().length);
+
+			issueManager.addIssueToList(IssueType.BUG, "summary", "note"); // id 1
+			issueManager.addIssueToList(IssueType.ENHANCEMENT, "summary", "note"); // id 2
+			issueManager.addIssueToList(IssueType.BUG, "summary", "note"); // id 3
+			issueManager.executeCommand(2, new Command(CommandValue.ASSIGN, OWNER, null, "Assigning."));
+			issueManager.deleteIssueById(1);
+			Command confirm = new Command(CommandValue.CONFIRM, null, null, "Confirming a bug.");
+			BatchResult result = issueManager.executeCommands(new int[] { 3, 2 }, new Command[] { confirm, confirm });
+			assertEquals(1, result.getFailureCount());
+			assertEquals(CONFIRMED_NAME, issueManager.getIssueListAsArray()[1][1]);
+			issueManager.closeMappedIssueFile();
+
+			// Closing the file copies its issues, notes included, into the issue list.
+			assertEquals("-[New] note\n-[Working] Assigning.\n", issueManager.getIssueById(2).getNotesString());
+			assertEquals(CONFIRMED_NAME, issueManager.getIssueById(3).getStateName());
+
+			// Changes after the file is closed stay in memory only.
+			issueManager.addIssueToList(IssueType.BUG, "summary", "note"); // id 4
+			assertEquals(3, issueManager.getIssueListAsArray().length);
+
+			IssueManager reopened = new IssueManager();
+			reopened.openMappedIssueFile(mapped);
+			Object[][] issueListArray = reopened.getIssueListAsArray();
+			assertEquals(2, issueListArray.length);
+			assertEquals(2, issueListArray[0][0]);
+			assertEquals(OWNER, reopened.getIssueById(2).getOwner());
+			assertEquals("-[New] note\n-[Working] Assigning.\n", reopened.getIssueById(2).getNotesString());
+			assertEquals(CONFIRMED_NAME, reopened.getIssueById(3).getStateName());
+			assertNull(reopened.getIssueById(1));
+
+			// Loading a file ends mapped mode, so its issues never reach the file.
+			reopened.loadIssuesFromFile("test-files/valid_issue_records.txt");
+			reopened.deleteIssueById(3);
+			reopened.addIssueToList(IssueType.BUG, "summary", "note");
+
+			// An invalid file leaves the manager as it was.
+			File invalid = new File("test-files/manager_mapped_invalid.bin");
+			try {
+				IssueWriter.writeIssuesToFile(invalid.getPath(),
+						IssueReader.readIssuesFromFile("test-files/valid_issue_records.txt"));
+				Exception e = assertThrows(IllegalArgumentException.class,
+						() -> reopened.openMappedIssueFile(invalid.getPath()));
+				assertEquals("Unable to load file.", e.getMessage());
+				assertEquals(5, reopened.getIssueListAsArray().length);
+			} finally {
+				invalid.delete();
+			}
+
+			IssueManager later = new IssueManager();
+			later.openMappedIssueFile(mapped);
+			assertEquals(2, later.getIssueListAsArray().length);
+			assertEquals(CONFIRMED_NAME, later.getIssueById(3).getStateName());
+			later.createNewIssueList();
+			later.closeMappedIssueFile();
+
+			IssueManager cleared = new IssueManager();
+			cleared.openMappedIssueFile(mapped);
+			assertEquals(0, cleared.getIssueListAsArray().length);
+			cleared.closeMappedIssueFile();
+		} finally {
+			new File(mapped).delete();
+		}
+	}
+
+	/**
+	 * Test that a segmented snapshot saves and loads the same issues as a file.
+	 */
+	@Test
+	public void testSaveIssuesToDirectory() {
+		File directory = new File("test-files/manager_segments");
+		File segment = new File(directory, "segment-0.txt");
+		directory.mkdir();
+		try {
+			IssueManager issueManager = new IssueManager();
+			issueManager.loadIssuesFromFile("test-files/valid_issue_records.txt");
+			issueManager.saveIssuesToFile(directory.getPath());
+			assertTrue(segment.exists());
+
+			issueManager.deleteIssueById(1);
+			issueManager.executeCommand(3, new Command(CommandValue.ASSIGN, OWNER, null, "Assigning."));
+			issueManager.saveIssuesToFile(directory.getPath());
+
+			IssueManager loaded = new IssueManager();
+			loaded.loadIssuesFromFile(directory.getPath());
+			assertEquals(4, loaded.getIssueListAsArray().length);
+			assertNull(loaded.getIssueById(1));
+			assertEquals(issueManager.getIssueById(3).toString(), loaded.getIssueById(3).toString());
+		} finally {
+			segment.delete();
+			new File(directory, "manifest.txt").delete();
+			directory.delete();
+		}
+	}
+
+	/**
+	 * Test that commands from many threads on different issues, alongside readers
+	 * and additions, leave every issue and index consistent.
+	 */
+	@Test
+	public void testConcurrentCommands() throws InterruptedException {
+		IssueManager issueManager = new IssueManager();
+		int threads = 8;
+		int issuesPerThread = 250;
+		for (int i = 0; i < threads * issuesPerThread; i++) {
+			issueManager.addIssueToList(IssueType.ENHANCEMENT, "summary", "note");
+		}
+
+		Thread[] workers = new Thread[threads];
+		for (int t = 0; t < threads; t++) {
+			int first = t * issuesPerThread + 1;
+			workers[t] = new Thread(() -> {
+				for (int id = first; id < first + issuesPerThread; id++) {
+					issueManager.executeCommand(id, new Command(CommandValue.ASSIGN, OWNER, null, "Assigning."));
+					issueManager.executeCommand(id,
+							new Command(CommandValue.RESOLVE, null, Resolution.WONTFIX, "Resolving."));
+					issueManager.getIssueListAsArray();
+				}
+				issueManager.addIssueToList(IssueType.BUG, "summary", "note");
+			});
+			workers[t].start();
+		}
+		for (Thread worker : workers) {
+			worker.join();
+		}
+
+		assertEquals(threads * issuesPerThread + threads, issueManager.getIssueListAsArray().length);
+		for (int id = 1; id <= threads * issuesPerThread; id++) {
+			assertEquals(CLOSED_NAME, issueManager.getIssueById(id).getStateName());
+		}
+		assertSame(IssueManager.getInstance(), IssueManager.getInstance());
+	}
+
+	/**
+	 * Test that commands from many threads on the issues of an open mapped issue
+	 * file are all made in the file.
+	 */
+	@Test
+	public void testConcurrentMappedCommands() throws InterruptedException {
+		String mapped = "test-files/manager_mapped_concurrent.bin";
+		new File(mapped).delete();
+		try {
+			IssueManager issueManager = new IssueManager();
+			issueManager.openMappedIssueFile(mapped);
+			int threads = 8;
+			int issuesPerThread = 100;
+			for (int i = 0; i < threads * issuesPerThread; i++) {
+				issueManager.addIssueToList(IssueType.ENHANCEMENT, "summary", "note");
+			}
+
+			Thread[] workers = new Thread[threads];
+			for (int t = 0; t < threads; t++) {
+				int first = t * issuesPerThread + 1;
+				workers[t] = new Thread(() -> {
+					for (int id = first; id < first + issuesPerThread; id++) {
+						issueManager.executeCommand(id, new Command(CommandValue.ASSIGN, OWNER + id, null, "Assigning."));
+						issueManager.getIssueById(id).getNotes();
+					}
+				});
+				workers[t].start();
+			}
+			for (Thread worker : workers) {
+				worker.join();
+			}
+			issueManager.closeMappedIssueFile();
+
+			IssueManager reopened = new IssueManager();
+			reopened.openMappedIssueFile(mapped);
+			for (int id = 1; id <= threads * issuesPerThread; id++) {
+				Issue issue = reopened.getIssueById(id);
+				assertEquals(WORKING_NAME, issue.getStateName());
+				assertEquals(OWNER + id, issue.getOwner());
+				assertEquals("-[New] note\n-[Working] Assigning.\n", issue.getNotesString());
+			}
+			assertEquals(WORKING_NAME, reopened.getIssueListAsArray()[0][1]);
+			reopened.closeMappedIssueFile();
+		} finally {
+			new File(mapped).delete();
+		}
+	}
+
+	/**
+	 * Test that issues are kept in a compact list when asked, and moved back to
+	 * the issue list unchanged.
+	 */
+	@Test
+	public void testCompactIssueList() {
+		IssueManager issueManager = new IssueManager();
+		issueManager.addIssueToList(IssueType.ENHANCEMENT, "summary", "note"); // id 1
+		issueManager.setCompactIssueList(true);
+		issueManager.addIssueToList(IssueType.BUG, "bug summary", "note"); // id 2
+		issueManager.executeCommand(1, new Command(CommandValue.ASSIGN, OWNER, null, "Assigning."));
+		assertEquals(WORKING_NAME, issueManager.getIssueListAsArray()[0][1]);
+		assertEquals("-[New] note\n-[Working] Assigning.\n", issueManager.getIssueById(1).getNotesString());
+
+		BatchResult result = issueManager.executeCommands(new int[] { 2 },
+				new Command[] { new Command(CommandValue.CONFIRM, null, null, "Confirming.") });
+		assertTrue(result.isSuccess(0));
+		assertTrue(issueManager.getIssueById(2).isConfirmed());
+
+		// Loaded issues go into a compact list too.
+		issueManager.loadIssuesFromFile("test-files/valid_issue_records.txt");
+		assertEquals(5, issueManager.getIssueListAsArray().length);
+		issueManager.deleteIssueById(1);
+		assertEquals(4, issueManager.getIssueListAsArray().length);
+		String notes = issueManager.getIssueById(15).getNotesString();
+
+		issueManager.setCompactIssueList(false);
+		assertEquals(4, issueManager.getIssueListAsArray().length);
+		assertEquals(notes, issueManager.getIssueById(15).getNotesString());
+		issueManager.createNewIssueList();
+		issueManager.setCompactIssueList(true);
+		issueManager.addIssueToList(IssueType.BUG, "summary", "note");
+		assertEquals(1, issueManager.getIssueListAsArray()[0][0]);
+	}
 }
@@ -0,0 +1,83 @@
+package edu.ncsu.csc216.issue_manager.model.manager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.issue_manager.model.command.Command;
+import edu.ncsu.csc216.issue_manager.model.command.Command.CommandValue;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueType;
+
+/**
+ * Tests the IssueTableCache class.
+ *
+ * @author Michael Warstler
+ */
+public class IssueTableCacheTest {
+
+	/** Constant string for "Enhancement" issue type */
+	private static final String I_ENHANCEMENT = "Enhancement";
+	/** Constant string for "Bug" issue type */
+	private static final String I_BUG = "Bug";
+	/** Constant string for the confirmed state's name */
+	private static final String CONFIRMED_NAME = "Confirmed";
+
+	/**
+	 * Test that arrays are reused while the snapshot is current and patched when
+	 * it changes by one row.
+	 */
+	@Test
+	public void testGet() {
+		IssueList issueList = new IssueList();
+		issueList.addIssue(IssueType.BUG, "summary", "note"); // id 1
+		issueList.addIssue(IssueType.ENHANCEMENT, "summary", "note"); // id 2
+		issueList.addIssue(IssueType.BUG, "summary", "note"); // id 3
+		IssueListSnapshot snapshot = IssueListSnapshot.of(1, issueList.getIssues());
+		IssueTableCache cache = new IssueTableCache();
+
+		Object[][] all = cache.get(snapshot, null);
+		Object[][] bugs = cache.get(snapshot, I_BUG);
+		Object[][] enhancements = cache.get(snapshot, I_ENHANCEMENT);
+		assertEquals(3, all.length);
+		assertEquals(2, bugs.length);
+		assertEquals(1, enhancements.length);
+		assertSame(all, cache.get(snapshot, null));
+
+		// Changing a Bug leaves the Enhancement array as it was.
+		issueList.executeCommand(3, new Command(CommandValue.CONFIRM, null, null, "Confirming a bug."));
+		snapshot = snapshot.withIssue(2, issueList.getIssueById(3));
+		Object[][] patchedBugs = cache.get(snapshot, I_BUG);
+		assertNotSame(bugs, patchedBugs);
+		assertEquals(CONFIRMED_NAME, patchedBugs[1][1]);
+		assertSame(enhancements, cache.get(snapshot, I_ENHANCEMENT));
+		assertEquals(CONFIRMED_NAME, cache.get(snapshot, null)[2][1]);
+
+		// Adding and removing rows.
+		int id = issueList.addIssue(IssueType.ENHANCEMENT, "added", "note");
+		snapshot = snapshot.withIssue(3, issueList.getIssueById(id));
+		assertEquals(4, cache.get(snapshot, null).length);
+		assertEquals(2, cache.get(snapshot, I_ENHANCEMENT).length);
+		snapshot = snapshot.withoutIssue(4, 1);
+		assertEquals(3, cache.get(snapshot, null).length);
+		assertEquals(2, (int) (Integer) cache.get(snapshot, null)[0][0]);
+		assertEquals(1, cache.get(snapshot, I_BUG).length);
+	}
+
+	/**
+	 * Test patch() directly for the positions of inserted and removed rows.
+	 */
+	@Test
+	public void testPatch() {
+		Object[][] rows = { { 1, "New", I_BUG, "a" }, { 3, "New", I_BUG, "c" } };
+		Object[][] inserted = IssueTableCache.patch(rows, 2, new Object[] { 2, "New", I_BUG, "b" }, null);
+		assertEquals(3, inserted.length);
+		assertEquals("b", inserted[1][3]);
+		assertEquals(2, rows.length);
+
+		assertSame(rows, IssueTableCache.patch(rows, 2, new Object[] { 2, "New", I_ENHANCEMENT, "b" }, I_BUG));
+		assertSame(rows, IssueTableCache.patch(rows, 2, null, I_BUG));
+		Object[][] removed = IssueTableCache.patch(rows, 1, null, I_BUG);
+		assertEquals(1, removed.length);
+		assertEquals("c", removed[0][3]);
+	}
+}
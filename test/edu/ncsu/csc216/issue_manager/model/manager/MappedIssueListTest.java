@@ -0,0 +1,305 @@
+package edu.ncsu.csc216.issue_manager.model.manager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.issue_manager.model.command.Command;
+import edu.ncsu.csc216.issue_manager.model.command.Command.CommandValue;
+import edu.ncsu.csc216.issue_manager.model.command.Command.Resolution;
+import edu.ncsu.csc216.issue_manager.model.io.IssueReader;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueType;
+
+/**
+ * Tests the MappedIssueList class.
+ *
+ * @author Michael Warstler
+ */
+public class MappedIssueListTest {
+
+	/** Constant string for "Enhancement" issue type */
+	private static final String I_ENHANCEMENT = "Enhancement";
+	/** Constant string for "Bug" issue type */
+	private static final String I_BUG = "Bug";
+	/** Constant string for the working state's name */
+	private static final String WORKING_NAME = "Working";
+	/** Constant string for the closed state's name */
+	private static final String CLOSED_NAME = "Closed";
+	/** Issue Owner */
+	private static final String OWNER = "Issue owner";
+	/** File the mapped lists are stored in */
+	private static final String FILE_NAME = "test-files/mapped_issue_list.bin";
+
+	/**
+	 * Test that issues read from a file come back out of the mapping unchanged,
+	 * both before and after the file is opened again.
+	 */
+	@Test
+	public void testAddIssues() {
+		try {
+			ArrayList<Issue> issues = IssueReader.readIssuesFromFile("test-files/valid_issue_records.txt");
+			MappedIssueList mappedList = MappedIssueList.open(FILE_NAME);
+			mappedList.addIssues(issues);
+			assertEquals(5, mappedList.size());
+			ArrayList<Issue> stored = mappedList.getIssues();
+			for (int i = 0; i < issues.size(); i++) {
+				assertEquals(issues.get(i).toString(), stored.get(i).toString());
+			}
+			mappedList.close();
+
+			MappedIssueList reopened = MappedIssueList.open(FILE_NAME);
+			assertEquals(5, reopened.size());
+			stored = reopened.getIssues();
+			for (int i = 0; i < issues.size(); i++) {
+				assertEquals(issues.get(i).toString(), stored.get(i).toString());
+			}
+			assertEquals(issues.get(4).toString(), reopened.getIssueById(15).toString());
+			assertNull(reopened.getIssueById(2));
+
+			// Counter continues from the largest id.
+			assertEquals(16, reopened.addIssue(IssueType.BUG, "summary", "note"));
+			reopened.close();
+		} finally {
+			new File(FILE_NAME).delete();
+		}
+	}
+
+	/**
+	 * Test getIssueListAsArray() and getIssueListAsArrayByIssueType() methods.
+	 */
+	@Test
+	public void testGetIssueListAsArray() {
+		try {
+			MappedIssueList mappedList = MappedIssueList.open(FILE_NAME);
+			mappedList.addIssue(IssueType.BUG, "bug summary", "note"); // id 1
+			mappedList.addIssue(IssueType.ENHANCEMENT, "enhancement summary", "note"); // id 2
+			mappedList.addIssue(IssueType.BUG, "bug summary", "note"); // id 3
+
+			Object[][] all = mappedList.getIssueListAsArray();
+			assertEquals(3, all.length);
+			assertEquals(2, all[1][0]);
+			assertEquals("New", all[1][1]);
+			assertEquals(I_ENHANCEMENT, all[1][2]);
+			assertEquals("enhancement summary", all[1][3]);
+
+			Object[][] bugs = mappedList.getIssueListAsArrayByIssueType(I_BUG);
+			assertEquals(2, bugs.length);
+			assertEquals(1, bugs[0][0]);
+			assertEquals(3, bugs[1][0]);
+			assertEquals(1, mappedList.getIssuesByType(I_ENHANCEMENT).size());
+			assertEquals(0, mappedList.getIssueListAsArrayByIssueType("Task").length);
+			assertThrows(IllegalArgumentException.class, () -> mappedList.getIssueListAsArrayByIssueType(null));
+			mappedList.close();
+		} finally {
+			new File(FILE_NAME).delete();
+		}
+	}
+
+	/**
+	 * Test executeCommand() and deleteIssueById() methods change the file in
+	 * place, and that the changes are there when the file is opened again.
+	 */
+	@Test
+	public void testExecuteCommandAndDelete() {
+		try {
+			MappedIssueList mappedList = MappedIssueList.open(FILE_NAME);
+			mappedList.addIssue(IssueType.ENHANCEMENT, "summary", "note"); // id 1
+			mappedList.addIssue(IssueType.BUG, "summary", "note"); // id 2
+
+			mappedList.executeCommand(1, new Command(CommandValue.ASSIGN, OWNER, null, "Assigning."));
+			Issue assigned = mappedList.getIssueById(1);
+			assertEquals(WORKING_NAME, assigned.getStateName());
+			assertEquals(OWNER, assigned.getOwner());
+			assertEquals("-[New] note\n-[Working] Assigning.\n", assigned.getNotesString());
+
+			mappedList.executeCommand(1, new Command(CommandValue.RESOLVE, null, Resolution.WONTFIX, "Resolving."));
+
+			// Invalid commands leave the slot unchanged.
+			assertThrows(UnsupportedOperationException.class,
+					() -> mappedList.executeCommand(2, new Command(CommandValue.VERIFY, null, null, "Verifying.")));
+			assertEquals("New", mappedList.getIssueById(2).getStateName());
+			assertEquals(1, mappedList.getIssueById(2).getNotes().size());
+			mappedList.close();
+
+			MappedIssueList reopened = MappedIssueList.open(FILE_NAME);
+			Issue resolved = reopened.getIssueById(1);
+			assertEquals(CLOSED_NAME, resolved.getStateName());
+			assertEquals(OWNER, resolved.getOwner());
+			assertEquals(Command.R_WONTFIX, resolved.getResolution());
+			assertEquals("-[New] note\n-[Working] Assigning.\n-[Closed] Resolving.\n", resolved.getNotesString());
+
+			reopened.deleteIssueById(2);
+			assertEquals(1, reopened.size());
+			assertNull(reopened.getIssueById(2));
+			assertEquals(2, reopened.addIssue(IssueType.BUG, "summary", "note"));
+			reopened.close();
+		} finally {
+			new File(FILE_NAME).delete();
+		}
+	}
+
+	/**
+	 * Test that the slots and heap grow past their first sizes without losing the
+	 * issues already in the file.
+	 */
+	@Test
+	public void testGrowth() {
+		try {
+			MappedIssueList mappedList = MappedIssueList.open(FILE_NAME);
+			StringBuilder longNote = new StringBuilder();
+			for (int i = 0; i < 1000; i++) {
+				longNote.append("note ");
+			}
+			for (int i = 1; i <= 200; i++) {
+				assertEquals(i, mappedList.addIssue(IssueType.BUG, "summary " + i, longNote.toString()));
+			}
+			for (int i = 1; i <= 200; i += 2) {
+				mappedList.executeCommand(i, new Command(CommandValue.CONFIRM, null, null, "Confirming " + i));
+			}
+			mappedList.close();
+
+			MappedIssueList reopened = MappedIssueList.open(FILE_NAME);
+			assertEquals(200, reopened.size());
+			for (int i = 1; i <= 200; i++) {
+				Issue issue = reopened.getIssueById(i);
+				assertEquals("summary " + i, issue.getSummary());
+				assertEquals(longNote.toString(), issue.getNotes().get(0).substring("[New] ".length()));
+				assertEquals(i % 2 == 1 ? 2 : 1, issue.getNotes().size());
+				assertEquals(i % 2 == 1, issue.isConfirmed());
+			}
+			reopened.close();
+			assertFalse(new File(FILE_NAME + ".tmp").exists());
+		} finally {
+			new File(FILE_NAME).delete();
+		}
+	}
+
+	/**
+	 * Test that the issues of a list can replace the list they were read from,
+	 * including notes the issues still read from the file.
+	 */
+	@Test
+	public void testAddIssuesFromSameList() {
+		try {
+			MappedIssueList mappedList = MappedIssueList.open(FILE_NAME);
+			mappedList.addIssues(IssueReader.readIssuesFromFile("test-files/valid_issue_records.txt"));
+			ArrayList<String> expected = new ArrayList<String>();
+			for (Issue issue : mappedList.getIssues()) {
+				expected.add(issue.toString());
+			}
+
+			ArrayList<Issue> stored = mappedList.getIssues();
+			Collections.reverse(stored);
+			mappedList.addIssues(stored);
+			assertEquals(5, mappedList.size());
+			ArrayList<Issue> replaced = mappedList.getIssues();
+			for (int i = 0; i < expected.size(); i++) {
+				assertEquals(expected.get(i), replaced.get(i).toString());
+			}
+			mappedList.close();
+
+			MappedIssueList reopened = MappedIssueList.open(FILE_NAME);
+			assertEquals(expected.get(4), reopened.getIssueById(15).toString());
+			reopened.close();
+		} finally {
+			new File(FILE_NAME).delete();
+		}
+	}
+
+	/**
+	 * Test that closing a list whose heap is mostly held by deleted issues writes
+	 * a smaller file that keeps the other issues.
+	 */
+	@Test
+	public void testCompact() {
+		try {
+			MappedIssueList mappedList = MappedIssueList.open(FILE_NAME);
+			StringBuilder longNote = new StringBuilder();
+			for (int i = 0; i < 2000; i++) {
+				longNote.append("note ");
+			}
+			for (int i = 1; i <= 40; i++) {
+				mappedList.addIssue(IssueType.ENHANCEMENT, "summary " + i, longNote.toString());
+			}
+			mappedList.executeCommand(40, new Command(CommandValue.ASSIGN, OWNER, null, "Assigning."));
+			mappedList.close();
+			long fullSize = new File(FILE_NAME).length();
+
+			MappedIssueList reopened = MappedIssueList.open(FILE_NAME);
+			for (int i = 1; i <= 30; i++) {
+				reopened.deleteIssueById(i);
+			}
+			reopened.close();
+			assertTrue(new File(FILE_NAME).length() < fullSize);
+
+			MappedIssueList compacted = MappedIssueList.open(FILE_NAME);
+			assertEquals(10, compacted.size());
+			assertEquals("summary 31", compacted.getIssueById(31).getSummary());
+			Issue assigned = compacted.getIssueById(40);
+			assertEquals(OWNER, assigned.getOwner());
+			assertEquals("[Working] Assigning.", assigned.getNotes().get(1));
+			assertEquals(41, compacted.addIssue(IssueType.BUG, "summary", "note"));
+			compacted.close();
+		} finally {
+			new File(FILE_NAME).delete();
+		}
+	}
+
+	/**
+	 * Test that a file copied while changes since the last force() were still
+	 * being made opens as a consistent list that does not write over the records
+	 * of those changes.
+	 */
+	@Test
+	public void testRecoverDirtyFile() throws IOException {
+		File crashed = new File("test-files/mapped_issue_crashed.bin");
+		try {
+			MappedIssueList mappedList = MappedIssueList.open(FILE_NAME);
+			for (int i = 1; i <= 4; i++) {
+				mappedList.addIssue(IssueType.ENHANCEMENT, "summary " + i, "note " + i);
+			}
+			mappedList.force();
+			mappedList.executeCommand(4, new Command(CommandValue.ASSIGN, OWNER, null, "Assigning."));
+			mappedList.deleteIssueById(2);
+			Files.copy(new File(FILE_NAME).toPath(), crashed.toPath());
+			mappedList.close();
+
+			MappedIssueList recovered = MappedIssueList.open(crashed.getPath());
+			assertEquals(3, recovered.size());
+			assertNull(recovered.getIssueById(2));
+			assertEquals("-[New] note 4\n-[Working] Assigning.\n", recovered.getIssueById(4).getNotesString());
+			assertEquals(5, recovered.addIssue(IssueType.BUG, "summary 5", "note 5"));
+			assertEquals("-[New] note 4\n-[Working] Assigning.\n", recovered.getIssueById(4).getNotesString());
+			assertEquals("summary 5", recovered.getIssueById(5).getSummary());
+			recovered.close();
+		} finally {
+			new File(FILE_NAME).delete();
+			crashed.delete();
+		}
+	}
+
+	/**
+	 * Test that open() rejects a file that is not a mapped issue file.
+	 */
+	@Test
+	public void testOpenInvalidFile() throws IOException {
+		File invalid = new File("test-files/mapped_issue_invalid.bin");
+		try {
+			Files.write(invalid.toPath(), "not a mapped issue file".getBytes(StandardCharsets.UTF_8));
+			Exception e = assertThrows(IllegalArgumentException.class, () -> MappedIssueList.open(invalid.getPath()));
+			assertEquals("Unable to load file.", e.getMessage());
+		} finally {
+			invalid.delete();
+		}
+		assertThrows(IllegalArgumentException.class,
+				() -> MappedIssueList.open("test-files/no_such_directory/mapped_issue_list.bin"));
+	}
+}
@@ -0,0 +1,79 @@
+package edu.ncsu.csc216.issue_manager.model.manager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the StringDictionary class.
+ *
+ * @author Michael Warstler
+ */
+public class StringDictionaryTest {
+
+	/**
+	 * Test that equal strings share a reference and null is NONE.
+	 */
+	@Test
+	public void testEncodeDecode() {
+		StringDictionary dictionary = new StringDictionary();
+		int first = dictionary.encode("owner");
+		assertEquals(first, dictionary.encode(new String("owner")));
+		int second = dictionary.encode("other");
+		assertTrue(first != second);
+		assertEquals("owner", dictionary.decode(first));
+		assertEquals("other", dictionary.decode(second));
+		assertEquals(2, dictionary.size());
+
+		assertEquals(StringDictionary.NONE, dictionary.encode(null));
+		assertNull(dictionary.decode(StringDictionary.NONE));
+		dictionary.release(StringDictionary.NONE);
+		assertEquals(2, dictionary.size());
+	}
+
+	/**
+	 * Test that a string is removed once every use is released, and that its
+	 * reference is reused.
+	 */
+	@Test
+	public void testRelease() {
+		StringDictionary dictionary = new StringDictionary();
+		int owner = dictionary.encode("owner");
+		dictionary.encode("owner");
+		dictionary.release(owner);
+		assertEquals(1, dictionary.size());
+		assertEquals("owner", dictionary.decode(owner));
+
+		dictionary.release(owner);
+		assertEquals(0, dictionary.size());
+		assertEquals(owner, dictionary.encode("new owner"));
+		assertEquals("new owner", dictionary.decode(owner));
+	}
+
+	/**
+	 * Test that strings stay findable as the table grows and entries are removed
+	 * from the middle of probe runs.
+	 */
+	@Test
+	public void testManyStrings() {
+		StringDictionary dictionary = new StringDictionary();
+		int count = 1000;
+		int[] references = new int[count];
+		for (int i = 0; i < count; i++) {
+			references[i] = dictionary.encode("string " + i);
+		}
+		assertEquals(count, dictionary.size());
+		for (int i = 0; i < count; i += 2) {
+			dictionary.release(references[i]);
+		}
+		assertEquals(count / 2, dictionary.size());
+		for (int i = 1; i < count; i += 2) {
+			assertEquals(references[i], dictionary.encode("string " + i));
+			assertEquals("string " + i, dictionary.decode(references[i]));
+		}
+		for (int i = 0; i < count; i += 2) {
+			dictionary.encode("string " + i);
+		}
+		assertEquals(count, dictionary.size());
+	}
+}